@@ -0,0 +1,28 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.core.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 公开接口，无需登录即可访问。
+ * <p>
+ * 标注在资源类（或其实现的接口）上时，该路径下的全部接口公开；标注在方法上时，仅该方法对应的路径公开。
+ * 启动时汇总为路由表，见 TokenFilters。
+ */
+@Documented
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OkPublic {
+}
@@ -13,16 +13,20 @@
 
 package org.okstar.platform.common.core.annotation;
 
+import jakarta.enterprise.util.Nonbinding;
+import jakarta.interceptor.InterceptorBinding;
+
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
- * 权限注解
- * 
- * 
+ * 权限注解，由 common-security 的 PreAuthorizeInterceptor 校验，不满足时抛出
+ * {@link org.okstar.platform.common.core.exception.NotPermissionException}。
+ * 多个属性同时设置时需全部满足；方法上的注解优先于类上的注解。
  */
+@InterceptorBinding
 @Target({ ElementType.TYPE, ElementType.METHOD })
 @Retention(RetentionPolicy.RUNTIME)
 public @interface PreAuthorize
@@ -30,30 +34,36 @@ public @interface PreAuthorize
     /**
      * 验证用户是否具备某权限
      */
+    @Nonbinding
     String hasPermi() default "";
 
     /**
      * 验证用户是否不具备某权限，与 hasPermi逻辑相反
      */
+    @Nonbinding
     String lacksPermi() default "";
 
     /**
      * 验证用户是否具有以下任意一个权限
      */
+    @Nonbinding
     String[] hasAnyPermi() default {};
 
     /**
      * 判断用户是否拥有某个角色
      */
+    @Nonbinding
     String hasRole() default "";
 
     /**
      * 验证用户是否不具备某角色，与 isRole逻辑相反
      */
+    @Nonbinding
     String lacksRole() default "";
 
     /**
      * 验证用户是否具有以下任意一个角色
      */
+    @Nonbinding
     String[] hasAnyRoles() default {};
 }
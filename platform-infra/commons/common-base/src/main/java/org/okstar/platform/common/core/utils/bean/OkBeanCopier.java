@@ -0,0 +1,133 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.core.utils.bean;
+
+import org.apache.commons.beanutils.ConvertUtils;
+import org.apache.commons.lang3.ClassUtils;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按 (源类型, 目标类型) 生成的属性复制器，首次使用时解析同名可读/可写属性并缓存 MethodHandle。
+ * <p>
+ * 类型兼容（含装箱）的属性直接赋值，其余沿用 commons-beanutils 的 {@link ConvertUtils} 转换；
+ * 源值为空而目标为基本类型时跳过。原生镜像下与 BeanUtils 一样，需要 Bean 已注册反射。
+ */
+final class OkBeanCopier {
+
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final ClassValue<ClassValue<OkBeanCopier>> COPIERS = new ClassValue<>() {
+        @Override
+        protected ClassValue<OkBeanCopier> computeValue(Class<?> source) {
+            return new ClassValue<>() {
+                @Override
+                protected OkBeanCopier computeValue(Class<?> target) {
+                    return new OkBeanCopier(source, target);
+                }
+            };
+        }
+    };
+
+    private record Property(String name,
+                            MethodHandle getter,
+                            MethodHandle setter,
+                            Class<?> type,
+                            boolean convert) {
+    }
+
+    private final Property[] properties;
+
+    private OkBeanCopier(Class<?> source, Class<?> target) {
+        Map<String, PropertyDescriptor> writable = new HashMap<>();
+        for (PropertyDescriptor pd : descriptors(target)) {
+            if (pd.getWriteMethod() != null) {
+                writable.put(pd.getName(), pd);
+            }
+        }
+
+        List<Property> list = new ArrayList<>();
+        for (PropertyDescriptor pd : descriptors(source)) {
+            PropertyDescriptor to = writable.get(pd.getName());
+            if (pd.getReadMethod() == null || to == null || "class".equals(pd.getName())) {
+                continue;
+            }
+            Class<?> type = to.getPropertyType();
+            boolean convert = !ClassUtils.primitiveToWrapper(type)
+                    .isAssignableFrom(ClassUtils.primitiveToWrapper(pd.getPropertyType()));
+            list.add(new Property(pd.getName(),
+                    handle(pd.getReadMethod()).asType(GETTER),
+                    handle(to.getWriteMethod()).asType(SETTER),
+                    type, convert));
+        }
+        this.properties = list.toArray(new Property[0]);
+    }
+
+    static OkBeanCopier of(Class<?> source, Class<?> target) {
+        return COPIERS.get(source).get(target);
+    }
+
+    void copy(Object src, Object to) {
+        for (Property p : properties) {
+            try {
+                Object value = p.getter().invokeExact(src);
+                if (value == null) {
+                    if (p.type().isPrimitive()) {
+                        continue;
+                    }
+                } else if (p.convert()) {
+                    value = ConvertUtils.convert(value, p.type());
+                }
+                p.setter().invokeExact(to, value);
+            } catch (ClassCastException e) {
+                throw new IllegalArgumentException("属性类型不匹配：" + p.name(), e);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private static PropertyDescriptor[] descriptors(Class<?> type) {
+        try {
+            BeanInfo info = Introspector.getBeanInfo(type);
+            return info.getPropertyDescriptors();
+        } catch (IntrospectionException e) {
+            throw new IllegalStateException("无法解析 Bean：" + type.getName(), e);
+        }
+    }
+
+    private static MethodHandle handle(Method method) {
+        try {
+            method.trySetAccessible();
+            return MethodHandles.lookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("无法访问：" + method, e);
+        }
+    }
+}
@@ -16,6 +16,7 @@ package org.okstar.platform.common.core.utils.bean;
 
 import lombok.SneakyThrows;
 import org.apache.commons.beanutils.BeanUtils;
+import org.apache.commons.beanutils.DynaBean;
 import org.apache.commons.lang3.reflect.FieldUtils;
 
 import java.lang.reflect.Field;
@@ -30,14 +31,21 @@ import java.util.Map;
 public class OkBeanUtils extends BeanUtils {
 
 
+    /**
+     * 复制同名属性，复制器按 (源类型, 目标类型) 缓存，Map 与 DynaBean 仍走 BeanUtils
+     */
     public static void copyPropertiesTo(Object src, Object to) {
         if (src == null)
             return;
-        try {
-            copyProperties(to, src);
-        } catch (IllegalAccessException | InvocationTargetException e) {
-            throw new RuntimeException(e);
+        if (src instanceof Map || src instanceof DynaBean) {
+            try {
+                copyProperties(to, src);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new RuntimeException(e);
+            }
+            return;
         }
+        OkBeanCopier.of(src.getClass(), to.getClass()).copy(src, to);
     }
 
     @SneakyThrows
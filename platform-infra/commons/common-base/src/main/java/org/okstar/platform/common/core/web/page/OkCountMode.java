@@ -0,0 +1,34 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.core.web.page;
+
+/**
+ * 分页总数的统计方式
+ */
+public enum OkCountMode {
+    /**
+     * 每次执行 COUNT 查询
+     */
+    exact,
+
+    /**
+     * 按实体与条件缓存 COUNT 结果，实体写入时失效
+     */
+    cached,
+
+    /**
+     * 不统计总数，多取一行判断是否有下一页
+     */
+    none
+}
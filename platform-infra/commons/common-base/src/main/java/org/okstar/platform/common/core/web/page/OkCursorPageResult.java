@@ -0,0 +1,56 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.core.web.page;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 游标分页（Keyset）结果，不包含总数
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OkCursorPageResult<T> implements Serializable {
+
+    /**
+     * 下一页游标，为空表示没有下一页
+     */
+    String next;
+
+    /**
+     * 上一页游标，为空表示没有上一页
+     */
+    String prev;
+
+    /**
+     * 列表数据
+     */
+    List<T> list;
+
+    public static <T> OkCursorPageResult<T> build(List<T> list,
+                                                  String next,
+                                                  String prev) {
+        OkCursorPageResult<T> t = new OkCursorPageResult<>();
+        t.setNext(next);
+        t.setPrev(prev);
+        t.setList(list);
+        return t;
+    }
+}
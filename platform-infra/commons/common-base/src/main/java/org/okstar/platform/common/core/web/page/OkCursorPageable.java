@@ -0,0 +1,48 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.core.web.page;
+
+import jakarta.ws.rs.FormParam;
+import lombok.*;
+import org.okstar.platform.common.core.web.bean.VO;
+
+/**
+ * 游标分页（Keyset）请求
+ * <p>
+ * 首页不传 cursor，后续页传上一次结果中的 next 或 prev。
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class OkCursorPageable extends VO {
+
+    /**
+     * 游标（不透明字符串）
+     */
+    @FormParam("cursor")
+    String cursor;
+
+    @FormParam("pageSize")
+    int pageSize;
+
+    public static OkCursorPageable of(String cursor, int size) {
+        return new OkCursorPageable(cursor, size);
+    }
+
+    public int getPageSize() {
+        return pageSize <= 0 || pageSize > 1024 ? 10 : pageSize;
+    }
+}
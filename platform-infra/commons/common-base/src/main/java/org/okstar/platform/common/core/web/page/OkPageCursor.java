@@ -0,0 +1,116 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.core.web.page;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.okstar.platform.common.core.utils.OkStringUtil;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * 游标：记录 (sortKey, id) 位置与翻页方向，编码为 URL 安全的 Base64 字符串。
+ * <p>
+ * 格式：方向|id|类型:值，类型为 L(Long)、I(Integer)、S(String)、D(Date)、B(BigDecimal)，
+ * 值为空时类型为 N。
+ */
+@Getter
+@AllArgsConstructor
+public class OkPageCursor {
+
+    public enum Direction {
+        next, prev
+    }
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * 翻页方向
+     */
+    private final Direction direction;
+
+    /**
+     * 边界行的 id
+     */
+    private final Long id;
+
+    /**
+     * 边界行的排序键值，按 id 排序时为空
+     */
+    private final Object key;
+
+    public String encode() {
+        String raw = (direction == Direction.next ? "N" : "P")
+                + SEPARATOR + id
+                + SEPARATOR + encodeKey(key);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OkPageCursor decode(String cursor) {
+        if (OkStringUtil.isBlank(cursor)) {
+            return null;
+        }
+
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("游标格式非法！", e);
+        }
+
+        String[] parts = raw.split("\\|", 3);
+        if (parts.length != 3 || parts[2].length() < 2 || parts[2].charAt(1) != ':') {
+            throw new IllegalArgumentException("游标格式非法！");
+        }
+
+        Direction direction = switch (parts[0]) {
+            case "N" -> Direction.next;
+            case "P" -> Direction.prev;
+            default -> throw new IllegalArgumentException("游标格式非法！");
+        };
+
+        try {
+            return new OkPageCursor(direction, Long.parseLong(parts[1]), decodeKey(parts[2]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("游标格式非法！", e);
+        }
+    }
+
+    private static String encodeKey(Object key) {
+        if (key == null) return "N:";
+        if (key instanceof Long l) return "L:" + l;
+        if (key instanceof Integer i) return "I:" + i;
+        if (key instanceof Date d) return "D:" + d.getTime();
+        if (key instanceof BigDecimal b) return "B:" + b.toPlainString();
+        if (key instanceof String s) return "S:" + s;
+        throw new IllegalArgumentException("不支持的排序键类型：" + key.getClass().getName());
+    }
+
+    private static Object decodeKey(String value) {
+        String v = value.substring(2);
+        return switch (value.charAt(0)) {
+            case 'N' -> null;
+            case 'L' -> Long.parseLong(v);
+            case 'I' -> Integer.parseInt(v);
+            case 'D' -> new Date(Long.parseLong(v));
+            case 'B' -> new BigDecimal(v);
+            case 'S' -> v;
+            default -> throw new IllegalArgumentException("游标格式非法！");
+        };
+    }
+}
@@ -28,12 +28,12 @@ public class OkPageResult<T> implements Serializable {
 
 
     /**
-     * 总记录数
+     * 总记录数，不统计时为 -1
      */
     long totalCount;
 
     /**
-     * 总页数
+     * 总页数，不统计时为 -1
      */
     long pageCount;
 
@@ -42,6 +42,11 @@ public class OkPageResult<T> implements Serializable {
      */
     List<T> list;
 
+    /**
+     * 是否有下一页
+     */
+    boolean hasNext;
+
     public static <T> OkPageResult<T> build(List<T> list,
                                             long totalCount,
                                             long pageCount) {
@@ -51,4 +56,20 @@ public class OkPageResult<T> implements Serializable {
         t.setList(list);
         return t;
     }
+
+    public static <T> OkPageResult<T> build(List<T> list,
+                                            long totalCount,
+                                            long pageCount,
+                                            boolean hasNext) {
+        OkPageResult<T> t = build(list, totalCount, pageCount);
+        t.setHasNext(hasNext);
+        return t;
+    }
+
+    /**
+     * 不统计总数的分页结果
+     */
+    public static <T> OkPageResult<T> build(List<T> list, boolean hasNext) {
+        return build(list, -1, -1, hasNext);
+    }
 }
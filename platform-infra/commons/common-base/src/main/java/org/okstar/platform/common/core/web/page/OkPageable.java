@@ -30,8 +30,18 @@ public class OkPageable extends VO {
     @FormParam("pageSize")
     int pageSize;
 
+    /**
+     * 总数统计方式，默认 exact
+     */
+    @FormParam("countMode")
+    OkCountMode countMode;
+
     public static OkPageable of(int index, int size) {
-        return new OkPageable(index, size);
+        return new OkPageable(index, size, OkCountMode.exact);
+    }
+
+    public static OkPageable of(int index, int size, OkCountMode countMode) {
+        return new OkPageable(index, size, countMode);
     }
 
     public int getPageIndex() {
@@ -41,4 +51,8 @@ public class OkPageable extends VO {
     public int getPageSize() {
         return pageSize <= 0 || pageSize > 1024 ? 10 : pageSize;
     }
+
+    public OkCountMode getCountMode() {
+        return countMode == null ? OkCountMode.exact : countMode;
+    }
 }
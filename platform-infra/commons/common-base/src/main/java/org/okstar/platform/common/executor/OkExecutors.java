@@ -0,0 +1,174 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.executor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.quarkus.logging.Log;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.eclipse.microprofile.context.ThreadContext;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 线程池注册表：按名称创建有界线程池，各模块的异步任务统一从这里提交。
+ * <p>
+ * 配置（name 为线程池名称，未配置时使用默认值）：
+ * <ul>
+ *     <li>okstar.executor.name.core-size：核心线程数，默认 2</li>
+ *     <li>okstar.executor.name.max-size：最大线程数，默认 8</li>
+ *     <li>okstar.executor.name.queue-size：队列长度，默认 256</li>
+ *     <li>okstar.executor.name.rejection：队列满时的策略，abort（默认，抛出 RejectedExecutionException）、
+ *     caller-runs（由提交线程执行）、discard（丢弃并记录日志）</li>
+ * </ul>
+ * 任务携带提交线程的上下文（CDI 请求作用域、安全身份等，不含事务）。
+ * 指标带 name 标签：okstar.executor.active、okstar.executor.queued、okstar.executor（执行耗时）、
+ * okstar.executor.wait（排队耗时）、okstar.executor.rejected。
+ * <p>
+ * 定时任务（如锁的看门狗）使用 {@link #scheduler(String)}，线程数取 core-size（默认 1），不携带上下文。
+ * 所有线程池随应用关闭，等待时间 okstar.executor.shutdown-timeout，默认 10s。
+ */
+@ApplicationScoped
+public class OkExecutors {
+
+    public static final String DEFAULT = "default";
+
+    private static final String PREFIX = "okstar.executor.";
+
+    @Inject
+    MeterRegistry registry;
+
+    private final Map<String, ExecutorService> pools = new ConcurrentHashMap<>();
+
+    private final Map<String, ScheduledExecutorService> schedulers = new ConcurrentHashMap<>();
+
+    private final ThreadContext context = ThreadContext.builder()
+            .propagated(ThreadContext.ALL_REMAINING)
+            .cleared(ThreadContext.TRANSACTION)
+            .unchanged()
+            .build();
+
+    /**
+     * 以 Executor 形式使用指定线程池，如传给 CompletableFuture
+     */
+    public Executor get(String name) {
+        return task -> execute(name, task);
+    }
+
+    public void execute(String name, Runnable task) {
+        ExecutorService pool = pools.computeIfAbsent(name, this::create);
+        Timer wait = registry.timer(PREFIX + "wait", "name", name);
+        Runnable contextual = context.contextualRunnable(task);
+        long queuedAt = System.nanoTime();
+        pool.execute(() -> {
+            wait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+            contextual.run();
+        });
+    }
+
+    public <T> CompletableFuture<T> supply(String name, Supplier<T> supplier) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        execute(name, () -> {
+            try {
+                future.complete(supplier.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 指定名称的定时线程池，取消的任务立即移出队列
+     */
+    public ScheduledExecutorService scheduler(String name) {
+        return schedulers.computeIfAbsent(name, this::createScheduler);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        Duration timeout = ConfigProvider.getConfig()
+                .getOptionalValue(PREFIX + "shutdown-timeout", Duration.class)
+                .orElse(Duration.ofSeconds(10));
+        pools.values().forEach(ExecutorService::shutdown);
+        schedulers.values().forEach(ExecutorService::shutdown);
+        long deadline = System.nanoTime() + timeout.toNanos();
+        pools.forEach((name, pool) -> await(name, pool, deadline));
+        schedulers.forEach((name, pool) -> await(name, pool, deadline));
+    }
+
+    private void await(String name, ExecutorService pool, long deadline) {
+        try {
+            if (!pool.awaitTermination(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS)) {
+                Log.warnf("Executor %s did not terminate, %d tasks dropped", name, pool.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ExecutorService create(String name) {
+        Config config = ConfigProvider.getConfig();
+        int core = config.getOptionalValue(PREFIX + name + ".core-size", Integer.class).orElse(2);
+        int max = Math.max(core, config.getOptionalValue(PREFIX + name + ".max-size", Integer.class).orElse(8));
+        int queue = config.getOptionalValue(PREFIX + name + ".queue-size", Integer.class).orElse(256);
+        String rejection = config.getOptionalValue(PREFIX + name + ".rejection", String.class).orElse("abort");
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(core, max, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queue), threadFactory(name), rejection(name, rejection));
+        Log.infof("Executor %s created: core=%d max=%d queue=%d rejection=%s", name, core, max, queue, rejection);
+        return ExecutorServiceMetrics.monitor(registry, executor, name, "okstar", Tags.empty());
+    }
+
+    private ScheduledExecutorService createScheduler(String name) {
+        int core = ConfigProvider.getConfig().getOptionalValue(PREFIX + name + ".core-size", Integer.class).orElse(1);
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(core, threadFactory(name));
+        executor.setRemoveOnCancelPolicy(true);
+        Log.infof("Scheduler %s created: core=%d", name, core);
+        return ExecutorServiceMetrics.monitor(registry, executor, name, "okstar", Tags.empty());
+    }
+
+    private ThreadFactory threadFactory(String name) {
+        AtomicInteger index = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, "okstar-" + name + "-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private RejectedExecutionHandler rejection(String name, String policy) {
+        RejectedExecutionHandler handler = switch (policy) {
+            case "caller-runs" -> new ThreadPoolExecutor.CallerRunsPolicy();
+            case "discard" -> (r, e) -> Log.warnf("Executor %s is full, task discarded", name);
+            case "abort" -> new ThreadPoolExecutor.AbortPolicy();
+            default -> throw new IllegalArgumentException("未知的拒绝策略：" + policy);
+        };
+        return (r, e) -> {
+            registry.counter(PREFIX + "rejected", "name", name, "policy", policy).increment();
+            handler.rejectedExecution(r, e);
+        };
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.handler;
+
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+import org.okstar.platform.common.core.exception.NotPermissionException;
+import org.okstar.platform.common.core.web.bean.Req;
+import org.okstar.platform.common.core.web.bean.Res;
+
+/**
+ * 异常处理器:NotPermissionException
+ */
+@Provider
+public class OkNotPermissionExceptionHandler implements ExceptionMapper<NotPermissionException> {
+
+    @Override
+    public Response toResponse(NotPermissionException exception) {
+        Res<Object> error = Res.error(Req.empty(), "没有访问权限:" + exception.getMessage());
+        return Response.status(Response.Status.FORBIDDEN).entity(error).build();
+    }
+}
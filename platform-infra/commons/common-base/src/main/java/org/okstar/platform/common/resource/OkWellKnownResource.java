@@ -14,10 +14,14 @@
 package org.okstar.platform.common.resource;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
+import org.okstar.platform.common.core.annotation.OkPublic;
 
+@OkPublic
 @Path(".well-known")
+@RunOnVirtualThread
 public class OkWellKnownResource extends OkCommonResource {
 
     @GET
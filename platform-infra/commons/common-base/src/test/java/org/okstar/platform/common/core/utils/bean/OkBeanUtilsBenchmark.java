@@ -0,0 +1,64 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.core.utils.bean;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OkBeanUtils.copyPropertiesTo 与 commons-beanutils 的对比，运行 main 方法即可：
+ * <pre>
+ * mvn -pl platform-infra/commons/common-base test-compile exec:java \
+ *   -Dexec.classpathScope=test -Dexec.mainClass=org.okstar.platform.common.core.utils.bean.OkBeanUtilsBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OkBeanUtilsBenchmark {
+
+    private OkBeans.Account src;
+
+    @Setup
+    public void setup() {
+        src = OkBeans.sample();
+    }
+
+    @Benchmark
+    public Object beanUtils() throws Exception {
+        OkBeans.Account0 to = new OkBeans.Account0();
+        OkBeanUtils.copyProperties(to, src);
+        return to;
+    }
+
+    @Benchmark
+    public Object copier() {
+        OkBeans.Account0 to = new OkBeans.Account0();
+        OkBeanUtils.copyPropertiesTo(src, to);
+        return to;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OkBeanUtilsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
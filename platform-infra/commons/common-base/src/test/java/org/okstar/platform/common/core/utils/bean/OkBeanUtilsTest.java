@@ -0,0 +1,51 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.core.utils.bean;
+
+import io.smallrye.common.constraint.Assert;
+import org.junit.jupiter.api.Test;
+
+class OkBeanUtilsTest {
+
+    @Test
+    void copyMatchesBeanUtils() throws Exception {
+        OkBeans.Account src = OkBeans.sample();
+
+        OkBeans.Account0 expected = new OkBeans.Account0();
+        OkBeanUtils.copyProperties(expected, src);
+
+        OkBeans.Account0 actual = new OkBeans.Account0();
+        actual.setExtra("keep");
+        OkBeanUtils.copyPropertiesTo(src, actual);
+
+        expected.setExtra("keep");
+        Assert.assertTrue(expected.equals(actual));
+        Assert.assertTrue(actual.getIso() == 86);
+    }
+
+    @Test
+    void nullIntoPrimitiveIsSkipped() {
+        OkBeans.Account src = OkBeans.sample();
+        src.setLevel(null);
+        src.setName(null);
+
+        OkBeans.Account0 to = new OkBeans.Account0();
+        to.setLevel(7);
+        to.setName("old");
+        OkBeanUtils.copyPropertiesTo(src, to);
+
+        Assert.assertTrue(to.getLevel() == 7);
+        Assert.assertTrue(to.getName() == null);
+    }
+}
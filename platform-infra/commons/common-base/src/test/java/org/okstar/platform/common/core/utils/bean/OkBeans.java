@@ -0,0 +1,59 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.core.utils.bean;
+
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 测试与基准共用的 Bean
+ */
+class OkBeans {
+
+    @Data
+    public static class Account {
+        private Long id;
+        private String username;
+        private String name;
+        private boolean disabled;
+        private Integer level;
+        private Date createAt;
+        private String iso;
+    }
+
+    @Data
+    public static class Account0 {
+        private Long id;
+        private String username;
+        private String name;
+        private Boolean disabled;
+        private long level;
+        private Date createAt;
+        private Integer iso;
+        private String extra;
+    }
+
+    static Account sample() {
+        Account a = new Account();
+        a.setId(1L);
+        a.setUsername("okstar");
+        a.setName("OkStar");
+        a.setDisabled(true);
+        a.setLevel(3);
+        a.setCreateAt(new Date());
+        a.setIso("86");
+        return a;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.core.web.page;
+
+import io.smallrye.common.constraint.Assert;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+class OkPageCursorTest {
+
+    @Test
+    void roundTrip() {
+        Date now = new Date();
+        Object[] keys = {null, 42L, 7, now, new BigDecimal("12.50"), "a|b:c"};
+        for (Object key : keys) {
+            String encoded = new OkPageCursor(OkPageCursor.Direction.prev, 99L, key).encode();
+            OkPageCursor decoded = OkPageCursor.decode(encoded);
+            Assert.assertTrue(decoded.getDirection() == OkPageCursor.Direction.prev);
+            Assert.assertTrue(decoded.getId() == 99L);
+            Assert.assertTrue(key == null ? decoded.getKey() == null : key.equals(decoded.getKey()));
+        }
+    }
+
+    @Test
+    void blankAndInvalid() {
+        Assert.assertTrue(OkPageCursor.decode(null) == null);
+        Assert.assertTrue(OkPageCursor.decode("") == null);
+
+        boolean failed = false;
+        try {
+            OkPageCursor.decode("not-a-cursor");
+        } catch (IllegalArgumentException e) {
+            failed = true;
+        }
+        Assert.assertTrue(failed);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.executor;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.common.constraint.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单线程、队列长度 1 的线程池：一个任务占住线程，一个排队，第三个被拒绝
+ */
+class OkExecutorsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private OkExecutors executors;
+
+    @BeforeEach
+    void setUp() {
+        for (String name : new String[]{"test-abort", "test-discard", "test-wait"}) {
+            System.setProperty("okstar.executor." + name + ".core-size", "1");
+            System.setProperty("okstar.executor." + name + ".max-size", "1");
+            System.setProperty("okstar.executor." + name + ".queue-size", "1");
+        }
+        System.setProperty("okstar.executor.test-discard.rejection", "discard");
+        executors = new OkExecutors();
+        executors.registry = registry;
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executors.shutdown();
+    }
+
+    @Test
+    void abortWhenFull() {
+        fill("test-abort", () -> {
+        });
+        boolean rejected = false;
+        try {
+            executors.execute("test-abort", () -> {
+            });
+        } catch (RejectedExecutionException e) {
+            rejected = true;
+        }
+        Assert.assertTrue(rejected);
+        Assert.assertTrue(rejected("test-abort", "abort") == 1);
+    }
+
+    @Test
+    void discardWhenFull() {
+        fill("test-discard", () -> {
+        });
+        executors.execute("test-discard", () -> {
+        });
+        executors.execute("test-discard", () -> {
+        });
+        Assert.assertTrue(rejected("test-discard", "discard") == 2);
+    }
+
+    @Test
+    void waitTime() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        fill("test-wait", done::countDown);
+
+        Thread.sleep(100);
+        release.countDown();
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        Timer wait = registry.find("okstar.executor.wait").tag("name", "test-wait").timer();
+        Assert.assertTrue(wait != null && wait.count() >= 2);
+        //排队的任务至少等待了占住线程的任务
+        Assert.assertTrue(wait.max(TimeUnit.MILLISECONDS) >= 90);
+    }
+
+    @Test
+    void scheduler() throws InterruptedException {
+        CountDownLatch ticks = new CountDownLatch(3);
+        ScheduledFuture<?> future = executors.scheduler("test-scheduler")
+                .scheduleAtFixedRate(ticks::countDown, 0, 10, TimeUnit.MILLISECONDS);
+        Assert.assertTrue(ticks.await(5, TimeUnit.SECONDS));
+        future.cancel(false);
+        Assert.assertTrue(executors.scheduler("test-scheduler") == executors.scheduler("test-scheduler"));
+    }
+
+    /**
+     * 占住唯一的线程（等待 release），再排队一个任务
+     */
+    private void fill(String name, Runnable queued) {
+        CountDownLatch started = new CountDownLatch(1);
+        executors.execute(name, () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try {
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        executors.execute(name, queued);
+    }
+
+    private double rejected(String name, String policy) {
+        return registry.counter("okstar.executor.rejected", "name", name, "policy", policy).count();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.redis.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.Getter;
+import org.okstar.platform.common.redis.service.RedisService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 两级缓存：进程内缓存（Caffeine，按容量与时间淘汰）在前，Redis 在后。
+ * <p>
+ * 读取先查本地，未命中时从 Redis 加载并放入本地；写入与删除同时更新 Redis，
+ * 并通过 Redis 发布订阅通知其他节点清除本地副本。
+ * 通知丢失（如断线重连期间）时，本地副本最多保留到本地过期时间，因此本地过期时间应远小于 Redis 中的有效期。
+ * <p>
+ * 由 {@link OkNearCaches#get(String, Class)} 创建，键为完整的 Redis 键。
+ */
+public class OkNearCache<T> {
+
+    @Getter
+    private final String name;
+
+    private final Class<T> type;
+
+    private final Cache<String, T> local;
+
+    private final RedisService redisService;
+
+    private final OkNearCaches caches;
+
+    OkNearCache(String name, Class<T> type, Cache<String, T> local, RedisService redisService, OkNearCaches caches) {
+        this.name = name;
+        this.type = type;
+        this.local = local;
+        this.redisService = redisService;
+        this.caches = caches;
+    }
+
+    /**
+     * 读取，不存在时为空（空值不进入本地缓存）
+     */
+    public T get(String key) {
+        return local.get(key, k -> redisService.getCacheObject(k, type));
+    }
+
+    /**
+     * 批量读取，本地未命中的键一次从 Redis 取回
+     *
+     * @return 存在的键与对应的数据
+     */
+    public Map<String, T> getAll(Collection<String> keys) {
+        return local.getAll(keys, missing -> redisService.multiGet(type, new ArrayList<>(missing)));
+    }
+
+    /**
+     * 写入 Redis 与本地，并通知其他节点
+     */
+    public void put(String key, T value, long timeout, TimeUnit unit) {
+        redisService.setCacheObject(key, value, timeout, unit);
+        local.put(key, value);
+        caches.publish(name, key);
+    }
+
+    /**
+     * 从 Redis 与本地删除，并通知其他节点
+     */
+    public void evict(String key) {
+        redisService.deleteObject(key);
+        local.invalidate(key);
+        caches.publish(name, key);
+    }
+
+    /**
+     * 只清除本地副本，用于收到其他节点的通知
+     */
+    void invalidateLocal(String key) {
+        local.invalidate(key);
+    }
+
+    /**
+     * 本地命中统计
+     */
+    public CacheStats stats() {
+        return local.stats();
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.redis.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.quarkus.logging.Log;
+import io.quarkus.redis.datasource.RedisDataSource;
+import io.quarkus.redis.datasource.pubsub.PubSubCommands;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.okstar.platform.common.redis.service.MemoryRedisServiceImpl;
+import org.okstar.platform.common.redis.service.RedisService;
+import org.okstar.platform.common.redis.service.RedisServiceImpl;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 两级缓存注册表，按名称创建 {@link OkNearCache}，并负责节点间的失效通知。
+ * <p>
+ * 配置（name 为缓存名称）：
+ * <ul>
+ *     <li>okstar.cache.name.maximum-size：本地最大条目数，默认 10000</li>
+ *     <li>okstar.cache.name.expire-after-write：本地过期时间，默认 30s</li>
+ * </ul>
+ * 命中率等指标为 cache.gets、cache.evictions 等，带 cache 标签。
+ */
+@ApplicationScoped
+public class OkNearCaches {
+
+    /**
+     * 失效通知频道，消息格式：节点|缓存名称|键
+     */
+    public static final String CHANNEL = "okstar:cache:invalidate";
+
+    private static final String SEPARATOR = "|";
+
+    @Inject
+    RedisService redisService;
+
+    @Inject
+    Instance<RedisDataSource> redisDS;
+
+    /**
+     * 进程内实现时只有一个节点，不需要失效通知
+     */
+    @ConfigProperty(name = RedisServiceImpl.BACKEND, defaultValue = "redis")
+    String backend;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final String node = UUID.randomUUID().toString();
+
+    private final Map<String, OkNearCache<?>> caches = new ConcurrentHashMap<>();
+
+    private PubSubCommands.RedisSubscriber subscriber;
+
+    /**
+     * 保护 subscriber 的创建与关闭
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public <T> OkNearCache<T> get(String name, Class<T> type) {
+        return (OkNearCache<T>) caches.computeIfAbsent(name, n -> create(n, type));
+    }
+
+    void publish(String name, String key) {
+        if (local()) {
+            return;
+        }
+        try {
+            redisDS.get().pubsub(String.class).publish(CHANNEL, node + SEPARATOR + name + SEPARATOR + key);
+        } catch (RuntimeException e) {
+            //通知失败时，其他节点的副本在本地过期后失效
+            Log.warnf(e, "Publish invalidation of %s %s failed", name, key);
+        }
+    }
+
+    void onMessage(String message) {
+        String[] parts = message.split("\\|", 3);
+        if (parts.length != 3 || node.equals(parts[0])) {
+            return;
+        }
+        OkNearCache<?> cache = caches.get(parts[1]);
+        if (cache != null) {
+            cache.invalidateLocal(parts[2]);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        lock.lock();
+        try {
+            if (subscriber != null) {
+                subscriber.unsubscribe();
+                subscriber = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean local() {
+        return MemoryRedisServiceImpl.MEMORY.equals(backend);
+    }
+
+    private <T> OkNearCache<T> create(String name, Class<T> type) {
+        subscribe();
+
+        Config config = ConfigProvider.getConfig();
+        long maximumSize = config.getOptionalValue("okstar.cache." + name + ".maximum-size", Long.class)
+                .orElse(10_000L);
+        Duration expire = config.getOptionalValue("okstar.cache." + name + ".expire-after-write", Duration.class)
+                .orElse(Duration.ofSeconds(30));
+
+        Cache<String, T> local = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expire)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, local, name);
+        Log.infof("Near cache %s created: maximum-size=%d expire-after-write=%s", name, maximumSize, expire);
+        return new OkNearCache<>(name, type, local, redisService, this);
+    }
+
+    /**
+     * 首次创建缓存时订阅，未使用两级缓存的模块不建立订阅连接
+     */
+    private void subscribe() {
+        lock.lock();
+        try {
+            if (subscriber == null && !local()) {
+                subscriber = redisDS.get().pubsub(String.class).subscribe(CHANNEL, this::onMessage);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
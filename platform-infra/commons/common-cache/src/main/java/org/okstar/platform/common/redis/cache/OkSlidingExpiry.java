@@ -0,0 +1,129 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.redis.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.okstar.platform.common.redis.service.RedisService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 滑动过期：访问时只在内存中记录，定时把待延期的键合并为一个管道批量 PEXPIRE。
+ * <p>
+ * 同一个键在 okstar.sliding.touch-interval 内最多延期一次，
+ * 因此实际过期时间最多比精确滑动早 touch-interval 加 okstar.sliding.flush-interval。
+ * <p>
+ * 指标：okstar.sliding.flushed（已延期的键数）、okstar.sliding.skipped（间隔内跳过的访问数）。
+ */
+@ApplicationScoped
+public class OkSlidingExpiry {
+
+    @ConfigProperty(name = "okstar.sliding.touch-interval", defaultValue = "60s")
+    Duration touchInterval;
+
+    @Inject
+    RedisService redisService;
+
+    @Inject
+    MeterRegistry registry;
+
+    /**
+     * 键与最近一次计划延期的时间
+     */
+    private final Map<String, Long> touched = new ConcurrentHashMap<>();
+
+    /**
+     * 待延期的键与有效期（毫秒）
+     */
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次访问，距上次延期超过间隔时计划延期
+     *
+     * @return 是否计划了延期
+     */
+    public boolean touch(String key, long timeout, TimeUnit unit) {
+        long now = System.currentTimeMillis();
+        long interval = touchInterval.toMillis();
+        boolean[] due = {false};
+        touched.compute(key, (k, last) -> {
+            if (last != null && now - last < interval) {
+                return last;
+            }
+            due[0] = true;
+            return now;
+        });
+
+        if (due[0]) {
+            pending.put(key, unit.toMillis(timeout));
+        } else {
+            registry.counter("okstar.sliding.skipped").increment();
+        }
+        return due[0];
+    }
+
+    /**
+     * 键被重新写入或删除后调用，下次访问重新计算间隔
+     */
+    public void forget(String key) {
+        touched.remove(key);
+        pending.remove(key);
+    }
+
+    @Scheduled(every = "${okstar.sliding.flush-interval:5s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    @RunOnVirtualThread
+    void flush() {
+        List<Map.Entry<String, Long>> batch = new ArrayList<>();
+        for (String key : pending.keySet()) {
+            Long ttl = pending.remove(key);
+            if (ttl != null) {
+                batch.add(Map.entry(key, ttl));
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            try {
+                redisService.pipelined(pipeline ->
+                        batch.forEach(e -> pipeline.expire(e.getKey(), e.getValue(), TimeUnit.MILLISECONDS)));
+                registry.counter("okstar.sliding.flushed").increment(batch.size());
+            } catch (RuntimeException e) {
+                //失败的键放回，下次重试；期间有新的访问时以新的为准
+                batch.forEach(b -> pending.putIfAbsent(b.getKey(), b.getValue()));
+                Log.warnf(e, "Flush %d sliding expirations failed", batch.size());
+            }
+        }
+
+        //超过间隔的记录已无用，下次访问会重新计划
+        long expired = System.currentTimeMillis() - touchInterval.toMillis();
+        touched.values().removeIf(last -> last < expired);
+    }
+
+    @PreDestroy
+    void close() {
+        flush();
+    }
+}
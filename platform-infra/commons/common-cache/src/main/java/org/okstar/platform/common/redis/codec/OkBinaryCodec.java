@@ -0,0 +1,103 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.redis.codec;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.redis.datasource.codecs.Codec;
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 二进制缓存编码，替代 RedisDataSource 默认的 JSON 编码。
+ * <p>
+ * 按类型启用：为类型声明一个子类并标注为 CDI Bean，结构不兼容地变更时递增结构版本，
+ * 旧版本的缓存值读取时按未命中处理。
+ * <pre>
+ * &#64;ApplicationScoped
+ * public class LoginUserCodec extends OkBinaryCodec&lt;LoginUser&gt; {
+ *     public LoginUserCodec() {
+ *         super(LoginUser.class, 1);
+ *     }
+ * }
+ * </pre>
+ * 配置：okstar.cache.codec.compress-threshold，压缩阈值（字节），默认 512，0 表示不压缩。
+ * <p>
+ * 指标带 type 标签：okstar.cache.codec.size（编码后大小）、okstar.cache.codec（编解码耗时，带 op 标签）。
+ */
+public abstract class OkBinaryCodec<T> implements Codec {
+
+    private final Class<T> type;
+
+    private final int schema;
+
+    @Inject
+    MeterRegistry registry;
+
+    private OkCacheFormat format;
+
+    private DistributionSummary size;
+
+    private Timer encodeTimer;
+
+    private Timer decodeTimer;
+
+    protected OkBinaryCodec(Class<T> type, int schema) {
+        this.type = type;
+        this.schema = schema;
+    }
+
+    @PostConstruct
+    void init() {
+        int threshold = ConfigProvider.getConfig()
+                .getOptionalValue("okstar.cache.codec.compress-threshold", Integer.class)
+                .orElse(512);
+        format = new OkCacheFormat(threshold);
+
+        String name = type.getSimpleName();
+        size = DistributionSummary.builder("okstar.cache.codec.size")
+                .baseUnit("bytes")
+                .tag("type", name)
+                .register(registry);
+        encodeTimer = Timer.builder("okstar.cache.codec").tags("type", name, "op", "encode").register(registry);
+        decodeTimer = Timer.builder("okstar.cache.codec").tags("type", name, "op", "decode").register(registry);
+    }
+
+    @Override
+    public boolean canHandle(Type clazz) {
+        return type.equals(clazz);
+    }
+
+    @Override
+    public byte[] encode(Object item) {
+        long start = System.nanoTime();
+        byte[] bytes = format.encode(item, schema);
+        encodeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        size.record(bytes.length);
+        return bytes;
+    }
+
+    @Override
+    public Object decode(byte[] item) {
+        long start = System.nanoTime();
+        T value = format.decode(item, type, schema);
+        decodeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return value;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.redis.codec;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 缓存值的二进制格式：
+ * <pre>
+ * 魔数(1) | 格式版本与标志(1) | 类型的结构版本(2) | [原始长度(4)] | 内容
+ * </pre>
+ * 内容为 Smile（二进制 JSON，重复的属性名只写一次），超过压缩阈值且压缩后更小时使用 LZ4 压缩。
+ * <p>
+ * 解码时魔数、格式版本或结构版本不一致（如旧版本写入的 JSON、类型结构已变更）返回空，
+ * 由调用方按缓存未命中处理，重新加载后以新格式写入。
+ */
+public final class OkCacheFormat {
+
+    static final byte MAGIC = (byte) 0xB7;
+
+    static final int FORMAT = 1;
+
+    static final int COMPRESSED = 0x80;
+
+    private static final int HEADER = 4;
+
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+
+    private final ObjectMapper mapper = SmileMapper.builder()
+            .findAndAddModules()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private final LZ4Compressor compressor = LZ4.fastCompressor();
+
+    private final LZ4FastDecompressor decompressor = LZ4.fastDecompressor();
+
+    /**
+     * 压缩阈值（字节），内容不小于该值时尝试压缩，0 表示不压缩
+     */
+    private final int compressThreshold;
+
+    public OkCacheFormat(int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+    }
+
+    public byte[] encode(Object value, int schema) {
+        byte[] raw;
+        try {
+            raw = mapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (compressThreshold > 0 && raw.length >= compressThreshold) {
+            byte[] packed = new byte[HEADER + 4 + compressor.maxCompressedLength(raw.length)];
+            int length = compressor.compress(raw, 0, raw.length, packed, HEADER + 4);
+            if (length < raw.length) {
+                ByteBuffer buffer = ByteBuffer.wrap(packed, 0, HEADER + 4 + length);
+                header(buffer, FORMAT | COMPRESSED, schema);
+                buffer.putInt(raw.length);
+                return Arrays.copyOf(packed, HEADER + 4 + length);
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + raw.length);
+        header(buffer, FORMAT, schema);
+        buffer.put(raw);
+        return buffer.array();
+    }
+
+    /**
+     * @return 格式或结构版本不一致时为空
+     */
+    public <T> T decode(byte[] bytes, Class<T> type, int schema) {
+        if (bytes == null || bytes.length < HEADER || bytes[0] != MAGIC) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.get();
+        int flags = buffer.get() & 0xFF;
+        if ((flags & ~COMPRESSED) != FORMAT || (buffer.getShort() & 0xFFFF) != schema) {
+            return null;
+        }
+
+        try {
+            if ((flags & COMPRESSED) == 0) {
+                return mapper.readValue(bytes, HEADER, bytes.length - HEADER, type);
+            }
+            byte[] raw = new byte[buffer.getInt()];
+            decompressor.decompress(bytes, HEADER + 4, raw, 0, raw.length);
+            return mapper.readValue(raw, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 是否为压缩格式
+     */
+    public static boolean isCompressed(byte[] bytes) {
+        return bytes.length >= HEADER && bytes[0] == MAGIC && (bytes[1] & COMPRESSED) != 0;
+    }
+
+    private static void header(ByteBuffer buffer, int flags, int schema) {
+        if (schema < 0 || schema > 0xFFFF) {
+            throw new IllegalArgumentException("结构版本超出范围：" + schema);
+        }
+        buffer.put(MAGIC);
+        buffer.put((byte) flags);
+        buffer.putShort((short) schema);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.redis.lock;
+
+import lombok.Getter;
+
+/**
+ * 锁的租约，持有期间由看门狗续期，关闭时释放。
+ * <p>
+ * fence 为单调递增的防护令牌：同一把锁后获得者的 fence 更大，
+ * 下游写入时可拒绝比已见过的 fence 更小的请求，避免租约过期后旧持有者的迟到写入。
+ */
+@Getter
+public class OkLease implements AutoCloseable {
+
+    /**
+     * 锁名称
+     */
+    private final String name;
+
+    /**
+     * 持有者标识，释放与续期时校验
+     */
+    private final String owner;
+
+    /**
+     * 防护令牌
+     */
+    private final long fence;
+
+    private final OkLocks locks;
+
+    private volatile boolean held = true;
+
+    OkLease(String name, String owner, long fence, OkLocks locks) {
+        this.name = name;
+        this.owner = owner;
+        this.fence = fence;
+        this.locks = locks;
+    }
+
+    /**
+     * 是否仍持有（续期失败或已释放时为 false）
+     */
+    public boolean isHeld() {
+        return held;
+    }
+
+    void lost() {
+        held = false;
+    }
+
+    @Override
+    public void close() {
+        if (held) {
+            held = false;
+            locks.release(this);
+        }
+    }
+}
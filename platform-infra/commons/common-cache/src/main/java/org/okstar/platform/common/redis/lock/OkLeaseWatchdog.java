@@ -0,0 +1,61 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.redis.lock;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 租约看门狗：每隔租约的 1/3 续期一次，续期返回 false 时停止并将租约标记为丢失。
+ * 线程来自 OkExecutors 的 {@value #NAME} 定时线程池，由 {@link RedisLocks} 与 {@link OkLocalLocks} 共用。
+ */
+class OkLeaseWatchdog {
+
+    static final String NAME = "lock-watchdog";
+
+    private final Map<OkLease, ScheduledFuture<?>> renewals = new ConcurrentHashMap<>();
+
+    void watch(ScheduledExecutorService scheduler, OkLease lease, Duration duration, BooleanSupplier renew) {
+        long period = Math.max(duration.toMillis() / 3, 1);
+        renewals.put(lease, scheduler.scheduleAtFixedRate(() -> {
+            if (!renew.getAsBoolean()) {
+                cancel(lease);
+                lease.lost();
+            }
+        }, period, period, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * 停止续期
+     */
+    void cancel(OkLease lease) {
+        ScheduledFuture<?> renewal = renewals.remove(lease);
+        if (renewal != null) {
+            renewal.cancel(false);
+        }
+    }
+
+    /**
+     * 正在续期的租约
+     */
+    Set<OkLease> leases() {
+        return Set.copyOf(renewals.keySet());
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.redis.lock;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.okstar.platform.common.executor.OkExecutors;
+import org.okstar.platform.common.redis.service.MemoryRedisServiceImpl;
+import org.okstar.platform.common.redis.service.RedisServiceImpl;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 进程内的租约锁，语义与 {@link RedisLocks} 一致：防护令牌、租约过期，持有期间由 {@link OkLeaseWatchdog} 续期。
+ * 构建时设置 okstar.redis.backend=memory 时作为 {@link OkLocks} 的实现，测试中可传入续期线程池直接创建。
+ */
+@ApplicationScoped
+@IfBuildProperty(name = RedisServiceImpl.BACKEND, stringValue = MemoryRedisServiceImpl.MEMORY)
+public class OkLocalLocks implements OkLocks {
+
+    private record Holder(String owner, long expireAt) {
+    }
+
+    private final Map<String, Holder> holders = new HashMap<>();
+
+    private final Map<String, Long> fences = new HashMap<>();
+
+    /**
+     * 不用 synchronized，避免在虚拟线程上钉住载体线程
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final OkLeaseWatchdog watchdog = new OkLeaseWatchdog();
+
+    @Inject
+    OkExecutors executors;
+
+    private ScheduledExecutorService scheduler;
+
+    public OkLocalLocks() {
+    }
+
+    /**
+     * 不经 CDI 创建时指定续期线程池
+     */
+    public OkLocalLocks(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Optional<OkLease> tryLock(String name, Duration lease) {
+        OkLease held;
+        lock.lock();
+        try {
+            Holder holder = holders.get(name);
+            long now = System.nanoTime();
+            if (holder != null && holder.expireAt() - now > 0) {
+                return Optional.empty();
+            }
+
+            String owner = UUID.randomUUID().toString();
+            holders.put(name, new Holder(owner, now + lease.toNanos()));
+            long fence = fences.merge(name, 1L, Long::sum);
+            held = new OkLease(name, owner, fence, this);
+        } finally {
+            lock.unlock();
+        }
+
+        watchdog.watch(scheduler(), held, lease, () -> renew(held, lease));
+        return Optional.of(held);
+    }
+
+    @Override
+    public boolean release(OkLease lease) {
+        watchdog.cancel(lease);
+        lease.lost();
+        lock.lock();
+        try {
+            Holder holder = holders.get(lease.getName());
+            if (holder == null || !holder.owner().equals(lease.getOwner())) {
+                return false;
+            }
+            holders.remove(lease.getName());
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void keep(OkLease lease) {
+        watchdog.cancel(lease);
+        lease.lost();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        watchdog.leases().forEach(this::release);
+    }
+
+    /**
+     * 仍为持有者且未过期时延长租约；过期后即使无人获取也按丢失处理，与 Redis 键过期一致
+     */
+    private boolean renew(OkLease lease, Duration duration) {
+        lock.lock();
+        try {
+            Holder holder = holders.get(lease.getName());
+            long now = System.nanoTime();
+            if (holder == null || !holder.owner().equals(lease.getOwner()) || holder.expireAt() - now <= 0) {
+                return false;
+            }
+            holders.put(lease.getName(), new Holder(lease.getOwner(), now + duration.toNanos()));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ScheduledExecutorService scheduler() {
+        return scheduler != null ? scheduler : executors.scheduler(OkLeaseWatchdog.NAME);
+    }
+}
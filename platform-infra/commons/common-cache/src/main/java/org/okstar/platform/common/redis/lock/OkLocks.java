@@ -0,0 +1,111 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.redis.lock;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 分布式锁（租约锁）
+ */
+public interface OkLocks {
+
+    /**
+     * 立即尝试获取锁
+     *
+     * @param name  锁名称
+     * @param lease 租约时长，持有者失联后锁最多保留这么久
+     * @return 获取成功时返回租约
+     */
+    Optional<OkLease> tryLock(String name, Duration lease);
+
+    /**
+     * 释放锁，只有仍为持有者时才删除
+     *
+     * @return 是否由本次调用释放
+     */
+    boolean release(OkLease lease);
+
+    /**
+     * 停止续期但不释放，锁在租约到期后自动失效
+     */
+    void keep(OkLease lease);
+
+    /**
+     * 在等待时间内重试获取锁
+     */
+    default Optional<OkLease> tryLock(String name, Duration lease, Duration wait) {
+        long deadline = System.nanoTime() + wait.toNanos();
+        long backoff = TimeUnit.MILLISECONDS.toNanos(10);
+        while (true) {
+            Optional<OkLease> acquired = tryLock(name, lease);
+            long remaining = deadline - System.nanoTime();
+            if (acquired.isPresent() || remaining <= 0) {
+                return acquired;
+            }
+            LockSupport.parkNanos(Math.min(backoff, remaining));
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                return Optional.empty();
+            }
+            backoff = Math.min(backoff * 2, TimeUnit.MILLISECONDS.toNanos(200));
+        }
+    }
+
+    /**
+     * 获取到锁时执行任务，未获取到时直接返回
+     *
+     * @return 是否执行
+     */
+    default boolean runExclusive(String name, Duration lease, Consumer<OkLease> task) {
+        Optional<OkLease> acquired = tryLock(name, lease);
+        if (acquired.isEmpty()) {
+            return false;
+        }
+        try (OkLease held = acquired.get()) {
+            task.accept(held);
+        }
+        return true;
+    }
+
+    /**
+     * 多实例的定时任务：同一周期内只有一个实例执行。
+     * <p>
+     * 任务结束后锁至少保留到 hold，使其他实例稍晚触发的同一次调度获取不到锁；
+     * hold 应小于调度周期，并大于各实例触发时间的偏差。
+     *
+     * @return 是否执行
+     */
+    default boolean runScheduled(String name, Duration hold, Consumer<OkLease> task) {
+        long start = System.nanoTime();
+        Optional<OkLease> acquired = tryLock(name, hold);
+        if (acquired.isEmpty()) {
+            return false;
+        }
+        OkLease held = acquired.get();
+        try {
+            task.accept(held);
+        } finally {
+            if (System.nanoTime() - start < hold.toNanos()) {
+                keep(held);
+            } else {
+                held.close();
+            }
+        }
+        return true;
+    }
+}
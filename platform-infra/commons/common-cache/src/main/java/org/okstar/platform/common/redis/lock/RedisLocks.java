@@ -0,0 +1,157 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.redis.lock;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.arc.properties.UnlessBuildProperty;
+import io.quarkus.logging.Log;
+import io.quarkus.redis.datasource.RedisDataSource;
+import io.vertx.mutiny.redis.client.Response;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.okstar.platform.common.executor.OkExecutors;
+import org.okstar.platform.common.redis.service.MemoryRedisServiceImpl;
+import org.okstar.platform.common.redis.service.RedisServiceImpl;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 Redis 的租约锁。
+ * <ul>
+ *     <li>获取：SET NX PX 写入持有者标识，成功时 INCR 防护计数器，两步在同一脚本内完成</li>
+ *     <li>续期：{@link OkLeaseWatchdog} 每隔租约的 1/3 校验持有者后 PEXPIRE，校验失败时租约标记为丢失</li>
+ *     <li>释放：脚本校验持有者后 DEL，不会删除他人持有的锁</li>
+ * </ul>
+ * 锁键与防护计数器共用 {name} 哈希标签，集群模式下落在同一槽位。
+ * 指标：okstar.lock.wait（获取耗时，带 name、result 标签）、okstar.lock.lost（续期失败次数）。
+ */
+@ApplicationScoped
+@UnlessBuildProperty(name = RedisServiceImpl.BACKEND, stringValue = MemoryRedisServiceImpl.MEMORY, enableIfMissing = true)
+public class RedisLocks implements OkLocks {
+
+    private static final String PREFIX = "okstar:lock:";
+
+    private static final String ACQUIRE = """
+            if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then
+                return redis.call('INCR', KEYS[2])
+            end
+            return 0""";
+
+    private static final String RENEW = """
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            return 0""";
+
+    private static final String RELEASE = """
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0""";
+
+    @Inject
+    RedisDataSource redisDS;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    OkExecutors executors;
+
+    private final OkLeaseWatchdog watchdog = new OkLeaseWatchdog();
+
+    @Override
+    public Optional<OkLease> tryLock(String name, Duration lease) {
+        String owner = UUID.randomUUID().toString();
+        long fence = eval(ACQUIRE, 2, key(name), key(name) + ":fence", owner, String.valueOf(lease.toMillis()));
+        if (fence <= 0) {
+            return Optional.empty();
+        }
+
+        OkLease held = new OkLease(name, owner, fence, this);
+        watchdog.watch(executors.scheduler(OkLeaseWatchdog.NAME), held, lease, () -> renew(held, lease));
+        return Optional.of(held);
+    }
+
+    @Override
+    public Optional<OkLease> tryLock(String name, Duration lease, Duration wait) {
+        long start = System.nanoTime();
+        Optional<OkLease> acquired = OkLocks.super.tryLock(name, lease, wait);
+        Timer.builder("okstar.lock.wait")
+                .tag("name", name)
+                .tag("result", acquired.isPresent() ? "acquired" : "timeout")
+                .register(registry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return acquired;
+    }
+
+    @Override
+    public boolean release(OkLease lease) {
+        watchdog.cancel(lease);
+        lease.lost();
+        return eval(RELEASE, 1, key(lease.getName()), lease.getOwner()) > 0;
+    }
+
+    @Override
+    public void keep(OkLease lease) {
+        watchdog.cancel(lease);
+        lease.lost();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        watchdog.leases().forEach(this::release);
+    }
+
+    private boolean renew(OkLease lease, Duration duration) {
+        try {
+            if (eval(RENEW, 1, key(lease.getName()), lease.getOwner(), String.valueOf(duration.toMillis())) > 0) {
+                return true;
+            }
+            Log.warnf("Lock %s lost by %s (fence %d)", lease.getName(), lease.getOwner(), lease.getFence());
+        } catch (RuntimeException e) {
+            //Redis 不可用时无法确认仍持有，按丢失处理
+            Log.warnf(e, "Lock %s renewal failed", lease.getName());
+        }
+        registry.counter("okstar.lock.lost", "name", lease.getName()).increment();
+        return false;
+    }
+
+    /**
+     * 锁键，名称作为哈希标签
+     */
+    private static String key(String name) {
+        return PREFIX + "{" + name + "}";
+    }
+
+    /**
+     * 执行脚本
+     *
+     * @param keys        键的数量
+     * @param keysAndArgs 依次为键与参数
+     */
+    private long eval(String script, int keys, String... keysAndArgs) {
+        String[] command = new String[2 + keysAndArgs.length];
+        command[0] = script;
+        command[1] = String.valueOf(keys);
+        System.arraycopy(keysAndArgs, 0, command, 2, keysAndArgs.length);
+        Response response = redisDS.execute("EVAL", command);
+        return response == null ? 0 : response.toLong();
+    }
+}
@@ -0,0 +1,625 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.redis.service;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.quarkus.redis.datasource.codecs.Codec;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.okstar.platform.common.redis.lock.OkLease;
+import org.okstar.platform.common.redis.lock.OkLocks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * 进程内实现，用于单机部署与测试，构建时设置 okstar.redis.backend=memory 启用。
+ * <p>
+ * 值按与 Redis 相同的规则编码后保存，读取得到的是副本；过期由时间轮回收，读取时另做惰性检查。
+ * 锁由 {@link org.okstar.platform.common.redis.lock.OkLocalLocks} 提供。
+ * 数据不持久化，也不在节点间共享。
+ **/
+@ApplicationScoped
+@IfBuildProperty(name = RedisServiceImpl.BACKEND, stringValue = MemoryRedisServiceImpl.MEMORY)
+public class MemoryRedisServiceImpl implements RedisService
+{
+    public static final String MEMORY = "memory";
+
+    private static final long TICK_MILLIS = 1000;
+
+    private static final int WHEEL_SIZE = 512;
+
+    /**
+     * 集合成员，按内容比较
+     */
+    private record Member(byte[] bytes)
+    {
+        @Override
+        public boolean equals(Object o)
+        {
+            return o instanceof Member m && Arrays.equals(bytes, m.bytes);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Arrays.hashCode(bytes);
+        }
+    }
+
+    /**
+     * 值为 byte[]（字符串）、Map（Hash）、List、Set 之一
+     */
+    private static final class Entry
+    {
+        final Object value;
+
+        /**
+         * 过期时间（毫秒），0 表示不过期
+         */
+        volatile long expireAt;
+
+        Entry(Object value, long expireAt)
+        {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+
+    @Inject
+    Instance<Codec> codecInstances;
+
+    @Inject
+    OkLocks locks;
+
+    private final Map<String, Entry> data = new ConcurrentHashMap<>();
+
+    private final Map<String, OkLease> leases = new ConcurrentHashMap<>();
+
+    private final LongSupplier clock;
+
+    private final TimerWheel wheel;
+
+    private List<Codec> codecs;
+
+    public MemoryRedisServiceImpl()
+    {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * 测试使用，可传入固定的时钟
+     */
+    MemoryRedisServiceImpl(LongSupplier clock, OkLocks locks, List<Codec> codecs)
+    {
+        this(clock);
+        this.locks = locks;
+        this.codecs = codecs;
+    }
+
+    private MemoryRedisServiceImpl(LongSupplier clock)
+    {
+        this.clock = clock;
+        this.wheel = new TimerWheel(TICK_MILLIS, WHEEL_SIZE, clock.getAsLong());
+    }
+
+    @PostConstruct
+    void init()
+    {
+        codecs = codecInstances.stream().toList();
+    }
+
+    /**
+     * 当前条目数，含已过期但尚未回收的条目
+     */
+    int size()
+    {
+        return data.size();
+    }
+
+    /**
+     * 回收过期的键
+     */
+    @Scheduled(every = "1s")
+    void tick()
+    {
+        wheel.advance(clock.getAsLong(), this::expireIfDue);
+    }
+
+    @Override
+    public <T> void setCacheObject(String key, T value)
+    {
+        data.put(key, new Entry(encode(value), 0));
+    }
+
+    @Override
+    public <T> void setCacheObject(String key, T value, Long timeout, TimeUnit timeUnit)
+    {
+        put(key, encode(value), timeUnit.toMillis(timeout));
+    }
+
+    @Override
+    public <T> void multiSet(Map<String, T> values)
+    {
+        values.forEach(this::setCacheObject);
+    }
+
+    @Override
+    public <T> void multiSet(Map<String, T> values, long timeout, TimeUnit timeUnit)
+    {
+        values.forEach((k, v) -> setCacheObject(k, v, timeout, timeUnit));
+    }
+
+    @Override
+    public boolean expire(String key, long timeout, TimeUnit unit)
+    {
+        long expireAt = clock.getAsLong() + unit.toMillis(timeout);
+        boolean[] updated = {false};
+        data.computeIfPresent(key, (k, e) -> {
+            if (!live(e))
+            {
+                return null;
+            }
+            e.expireAt = expireAt;
+            updated[0] = true;
+            return e;
+        });
+        if (updated[0])
+        {
+            wheel.schedule(key, expireAt);
+        }
+        return updated[0];
+    }
+
+    @Override
+    public Boolean hasKey(String key)
+    {
+        return entry(key) != null;
+    }
+
+    @Override
+    public <T> T getCacheObject(String key, Class<T> type)
+    {
+        return decode(bytes(entry(key)), type);
+    }
+
+    @Override
+    public <T> Map<String, T> multiGet(Class<T> type, Collection<String> keys)
+    {
+        Map<String, T> values = new LinkedHashMap<>();
+        for (String key : keys)
+        {
+            T value = getCacheObject(key, type);
+            if (value != null)
+            {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public boolean deleteObject(String key)
+    {
+        return live(data.remove(key));
+    }
+
+    @Override
+    public long deleteObject(Collection<String> collection)
+    {
+        return collection.stream().filter(this::deleteObject).count();
+    }
+
+    @Override
+    public <T> long setCacheList(String key, List<T> dataList)
+    {
+        List<byte[]> encoded = dataList.stream().map(this::encode).toList();
+        Entry entry = data.compute(key, (k, e) -> {
+            Entry current = live(e) ? e : new Entry(new CopyOnWriteArrayList<byte[]>(), 0);
+            list(current).addAll(encoded);
+            return current;
+        });
+        return list(entry).size();
+    }
+
+    @Override
+    public <T> List<T> getCacheList(String key, Class<T> type)
+    {
+        Entry entry = entry(key);
+        if (entry == null)
+        {
+            return Collections.emptyList();
+        }
+        List<T> values = new ArrayList<>();
+        list(entry).forEach(b -> values.add(decode(b, type)));
+        return values;
+    }
+
+    @Override
+    public <T> long setCacheSet(String key, Set<T> dataSet)
+    {
+        long[] added = {0};
+        data.compute(key, (k, e) -> {
+            Entry current = live(e) ? e : new Entry(ConcurrentHashMap.<Member>newKeySet(), 0);
+            for (T value : dataSet)
+            {
+                if (set(current).add(new Member(encode(value))))
+                {
+                    added[0]++;
+                }
+            }
+            return current;
+        });
+        return added[0];
+    }
+
+    @Override
+    public <T> Set<T> getCacheSet(String key, Class<T> type)
+    {
+        Entry entry = entry(key);
+        if (entry == null)
+        {
+            return Collections.emptySet();
+        }
+        Set<T> values = new LinkedHashSet<>();
+        set(entry).forEach(m -> values.add(decode(m.bytes(), type)));
+        return values;
+    }
+
+    @Override
+    public <T> void setCacheMap(String key, Map<String, T> dataMap)
+    {
+        if (dataMap != null && !dataMap.isEmpty())
+        {
+            dataMap.forEach((hKey, value) -> hset(key, hKey, encode(value)));
+        }
+    }
+
+    @Override
+    public <T> Map<String, T> getCacheMap(String key, Class<T> type)
+    {
+        Entry entry = entry(key);
+        if (entry == null)
+        {
+            return Collections.emptyMap();
+        }
+        Map<String, T> values = new LinkedHashMap<>();
+        hash(entry).forEach((hKey, b) -> values.put(hKey, decode(b, type)));
+        return values;
+    }
+
+    @Override
+    public <T> void setCacheMapValue(String key, String hKey, T value)
+    {
+        hset(key, hKey, encode(value));
+    }
+
+    @Override
+    public <T> T getCacheMapValue(String key, String hKey, Class<T> type)
+    {
+        Entry entry = entry(key);
+        return entry == null ? null : decode(hash(entry).get(hKey), type);
+    }
+
+    @Override
+    public <T> List<T> getMultiCacheMapValue(String key, Collection<Object> hKeys)
+    {
+        List<T> values = new ArrayList<>(hKeys.size());
+        for (Object hKey : hKeys)
+        {
+            values.add(getCacheMapValue(key, String.valueOf(hKey)));
+        }
+        return values;
+    }
+
+    @Override
+    public Collection<String> keys(String pattern)
+    {
+        Pattern regex = glob(pattern);
+        Set<String> keys = new LinkedHashSet<>();
+        data.forEach((key, e) -> {
+            if (live(e) && regex.matcher(key).matches())
+            {
+                keys.add(key);
+            }
+        });
+        return keys;
+    }
+
+    @Override
+    public List<Object> pipelined(Consumer<RedisPipeline> commands)
+    {
+        RedisPipeline pipeline = new RedisPipeline();
+        commands.accept(pipeline);
+        List<Object> replies = new ArrayList<>(pipeline.size());
+        for (RedisPipeline.Op op : pipeline.ops())
+        {
+            replies.add(execute(op));
+        }
+        return replies;
+    }
+
+    @Override
+    public boolean tryLock(String key)
+    {
+        Optional<OkLease> lease = locks.tryLock(key, Duration.ofMillis(LOCK_EXPIRE));
+        lease.ifPresent(l -> leases.put(key, l));
+        return lease.isPresent();
+    }
+
+    @Override
+    public boolean releaseLock(String key)
+    {
+        OkLease lease = leases.remove(key);
+        return lease != null && locks.release(lease);
+    }
+
+    @Override
+    public Long getExpire(String key)
+    {
+        Entry entry = entry(key);
+        if (entry == null)
+        {
+            return -2L;
+        }
+        long expireAt = entry.expireAt;
+        return expireAt == 0 ? -1L : (expireAt - clock.getAsLong() + 999) / 1000;
+    }
+
+    @Override
+    public Long increment(String key, int num) throws Exception
+    {
+        Long result = incrby(key, num, false);
+        if (result == null)
+        {
+            throw new Exception("缓存数据不存在");
+        }
+        return result;
+    }
+
+    @Override
+    public Boolean setnx(String key, String value, int expire)
+    {
+        long expireAt = clock.getAsLong() + TimeUnit.SECONDS.toMillis(expire);
+        boolean[] created = {false};
+        data.compute(key, (k, e) -> {
+            if (live(e))
+            {
+                return e;
+            }
+            created[0] = true;
+            return new Entry(encode(value), expireAt);
+        });
+        if (created[0])
+        {
+            wheel.schedule(key, expireAt);
+        }
+        return created[0];
+    }
+
+    private Object execute(RedisPipeline.Op op)
+    {
+        if (op instanceof RedisPipeline.Get get)
+        {
+            return decode(bytes(entry(get.key())), get.type());
+        }
+        if (op instanceof RedisPipeline.Put put)
+        {
+            put(put.key(), encode(put.value()), put.millis());
+            return "OK";
+        }
+        if (op instanceof RedisPipeline.MultiPut multiPut)
+        {
+            multiPut.values().forEach(this::setCacheObject);
+            return "OK";
+        }
+        if (op instanceof RedisPipeline.Expire expire)
+        {
+            return expire(expire.key(), expire.millis(), TimeUnit.MILLISECONDS) ? 1L : 0L;
+        }
+        if (op instanceof RedisPipeline.Delete delete)
+        {
+            return deleteObject(delete.key()) ? 1L : 0L;
+        }
+        if (op instanceof RedisPipeline.HashPut hashPut)
+        {
+            return hset(hashPut.key(), hashPut.field(), encode(hashPut.value())) ? 1L : 0L;
+        }
+        RedisPipeline.Increment increment = (RedisPipeline.Increment) op;
+        return incrby(increment.key(), increment.num(), true);
+    }
+
+    /**
+     * 写入字符串值
+     *
+     * @param millis 有效期，0 表示不过期
+     */
+    private void put(String key, byte[] bytes, long millis)
+    {
+        long expireAt = millis > 0 ? clock.getAsLong() + millis : 0;
+        data.put(key, new Entry(bytes, expireAt));
+        if (expireAt > 0)
+        {
+            wheel.schedule(key, expireAt);
+        }
+    }
+
+    /**
+     * @return 是否为新字段
+     */
+    private boolean hset(String key, String hKey, byte[] bytes)
+    {
+        boolean[] created = {false};
+        data.compute(key, (k, e) -> {
+            Entry current = live(e) ? e : new Entry(new ConcurrentHashMap<String, byte[]>(), 0);
+            created[0] = hash(current).put(hKey, bytes) == null;
+            return current;
+        });
+        return created[0];
+    }
+
+    /**
+     * @param create 不存在时是否从 0 开始，为 false 时不写入并返回空
+     */
+    private Long incrby(String key, long num, boolean create)
+    {
+        Long[] result = {null};
+        data.compute(key, (k, e) -> {
+            long current = 0;
+            long expireAt = 0;
+            if (live(e))
+            {
+                current = Long.parseLong(new String(bytes(e), StandardCharsets.UTF_8));
+                expireAt = e.expireAt;
+            }
+            else if (!create)
+            {
+                return e;
+            }
+            result[0] = Math.addExact(current, num);
+            return new Entry(String.valueOf(result[0]).getBytes(StandardCharsets.UTF_8), expireAt);
+        });
+        return result[0];
+    }
+
+    /**
+     * 未过期的条目，已过期时顺便删除
+     */
+    private Entry entry(String key)
+    {
+        Entry entry = data.get(key);
+        if (entry != null && !live(entry))
+        {
+            data.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    private void expireIfDue(String key)
+    {
+        Entry entry = data.get(key);
+        if (entry == null || entry.expireAt == 0)
+        {
+            return;
+        }
+        if (!live(entry))
+        {
+            data.remove(key, entry);
+        }
+        else
+        {
+            //超过一圈或已延期
+            wheel.schedule(key, entry.expireAt);
+        }
+    }
+
+    private boolean live(Entry entry)
+    {
+        return entry != null && (entry.expireAt == 0 || entry.expireAt > clock.getAsLong());
+    }
+
+    private byte[] encode(Object value)
+    {
+        return RedisValues.encode(value, codecs);
+    }
+
+    private <T> T decode(byte[] bytes, Class<T> type)
+    {
+        return RedisValues.decode(bytes, type, codecs);
+    }
+
+    private static byte[] bytes(Entry entry)
+    {
+        return entry == null ? null : typed(entry, byte[].class);
+    }
+
+    private static List<byte[]> list(Entry entry)
+    {
+        return typed(entry, List.class);
+    }
+
+    private static Set<Member> set(Entry entry)
+    {
+        return typed(entry, Set.class);
+    }
+
+    private static Map<String, byte[]> hash(Entry entry)
+    {
+        return typed(entry, Map.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V typed(Entry entry, Class<?> type)
+    {
+        if (!type.isInstance(entry.value))
+        {
+            throw new IllegalStateException("WRONGTYPE Operation against a key holding the wrong kind of value");
+        }
+        return (V) entry.value;
+    }
+
+    /**
+     * Redis 的通配模式（*、?、[...]）转为正则
+     */
+    static Pattern glob(String pattern)
+    {
+        StringBuilder regex = new StringBuilder();
+        boolean inClass = false;
+        for (int i = 0; i < pattern.length(); i++)
+        {
+            char c = pattern.charAt(i);
+            if (c == '\\' && i + 1 < pattern.length())
+            {
+                regex.append(Pattern.quote(String.valueOf(pattern.charAt(++i))));
+            }
+            else if (inClass)
+            {
+                if (c == ']')
+                {
+                    inClass = false;
+                }
+                regex.append(c);
+            }
+            else if (c == '*')
+            {
+                regex.append(".*");
+            }
+            else if (c == '?')
+            {
+                regex.append('.');
+            }
+            else if (c == '[')
+            {
+                inClass = true;
+                regex.append(c);
+            }
+            else
+            {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.redis.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 管道：收集多条命令，由 {@link RedisService#pipelined} 一次发送、一次读取全部回复。
+ * <p>
+ * 只记录命令，由 RedisService 的实现执行：{@link RedisServiceImpl} 转为 Redis 请求批量发送，
+ * {@link MemoryRedisServiceImpl} 在进程内依次执行。
+ */
+public class RedisPipeline
+{
+    /**
+     * 管道中的命令
+     */
+    sealed interface Op permits Get, Put, MultiPut, Expire, Delete, HashPut, Increment
+    {
+    }
+
+    /**
+     * @param type 回复解码的类型
+     */
+    record Get(String key, Class<?> type) implements Op
+    {
+    }
+
+    /**
+     * @param millis 有效期（毫秒），0 表示不过期
+     */
+    record Put(String key, Object value, long millis) implements Op
+    {
+    }
+
+    record MultiPut(Map<String, ?> values) implements Op
+    {
+    }
+
+    record Expire(String key, long millis) implements Op
+    {
+    }
+
+    record Delete(String key) implements Op
+    {
+    }
+
+    record HashPut(String key, String field, Object value) implements Op
+    {
+    }
+
+    record Increment(String key, long num) implements Op
+    {
+    }
+
+    private final List<Op> ops = new ArrayList<>();
+
+    public RedisPipeline get(String key)
+    {
+        return get(key, String.class);
+    }
+
+    /**
+     * 读取并按类型解码（自定义编码、字符串或 JSON，与 getCacheObject 一致）
+     */
+    public RedisPipeline get(String key, Class<?> type)
+    {
+        return add(new Get(key, type));
+    }
+
+    public RedisPipeline set(String key, Object value)
+    {
+        return add(new Put(key, RedisValues.required(value), 0));
+    }
+
+    public RedisPipeline set(String key, Object value, long timeout, TimeUnit unit)
+    {
+        return add(new Put(key, RedisValues.required(value), unit.toMillis(timeout)));
+    }
+
+    /**
+     * 批量写入，不设置过期时间时合并为一条 MSET
+     */
+    public RedisPipeline set(Map<String, ?> values)
+    {
+        if (values.isEmpty())
+        {
+            return this;
+        }
+        values.values().forEach(RedisValues::required);
+        return add(new MultiPut(values));
+    }
+
+    public RedisPipeline expire(String key, long timeout, TimeUnit unit)
+    {
+        return add(new Expire(key, unit.toMillis(timeout)));
+    }
+
+    public RedisPipeline delete(String key)
+    {
+        return add(new Delete(key));
+    }
+
+    public RedisPipeline hset(String key, String field, Object value)
+    {
+        return add(new HashPut(key, field, RedisValues.required(value)));
+    }
+
+    public RedisPipeline increment(String key, long num)
+    {
+        return add(new Increment(key, num));
+    }
+
+    public int size()
+    {
+        return ops.size();
+    }
+
+    List<Op> ops()
+    {
+        return Collections.unmodifiableList(ops);
+    }
+
+    private RedisPipeline add(Op op)
+    {
+        ops.add(op);
+        return this;
+    }
+}
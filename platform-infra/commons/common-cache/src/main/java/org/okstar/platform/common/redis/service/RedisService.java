@@ -13,41 +13,38 @@
 
 package org.okstar.platform.common.redis.service;
 
-import io.quarkus.arc.impl.Sets;
-import io.quarkus.redis.datasource.RedisDataSource;
-import io.quarkus.redis.datasource.value.ValueCommands;
-import jakarta.enterprise.context.ApplicationScoped;
-import jakarta.inject.Inject;
-
-import java.util.*;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
- * spring redis 工具类
- * 
- * 
+ * Redis 工具类
+ * <p>
+ * 实现由构建配置 okstar.redis.backend 选择：redis（默认，{@link RedisServiceImpl}）
+ * 或 memory（进程内实现 {@link MemoryRedisServiceImpl}，用于单机部署与测试）。
+ * <p>
+ * 值的编码与 RedisDataSource 一致：声明了 {@link org.okstar.platform.common.redis.codec.OkBinaryCodec} 的类型
+ * 使用二进制编码，字符串原样保存，其他对象保存为 JSON。
+ * 读取对象时应传入类型，未传入类型的读取只能还原为 Map、List 等基础结构。
+ * 批量读写（multiGet、multiSet、pipelined）在一次往返内完成。
  **/
-@ApplicationScoped
-public class RedisService
+public interface RedisService
 {
-//    @Inject
-//    public RedisTemplate redisTemplate;
-
-    @Inject
-    RedisDataSource redisDS;
+    /**
+     * 获取锁过期时间  1h
+     */
+    int LOCK_EXPIRE = 60 * 60 * 1000;
 
-//    ReactiveRedisDataSource reactiveRedisDS;
     /**
      * 缓存基本的对象，Integer、String、实体类等
      *
      * @param key 缓存的键值
      * @param value 缓存的值
      */
-    public <T> void setCacheObject(final String key, final T value)
-    {
-        ValueCommands<String, T> valueCommands = redisDS.value((Class<T>) value.getClass());
-        valueCommands.set(key, value);
-    }
+    <T> void setCacheObject(String key, T value);
 
     /**
      * 缓存基本的对象，Integer、String、实体类等
@@ -57,15 +54,23 @@ public class RedisService
      * @param timeout 时间
      * @param timeUnit 时间颗粒度
      */
-    public <T> void setCacheObject(final String key,
-                                   final T value,
-                                   final Long timeout,
-                                   final TimeUnit timeUnit)
-    {
-        ValueCommands<String, T> valueCommands = redisDS.value((Class<T>) value.getClass());
-        long seconds = timeUnit.toSeconds(timeout);
-        valueCommands.setex(key, seconds, value);
-    }
+    <T> void setCacheObject(String key, T value, Long timeout, TimeUnit timeUnit);
+
+    /**
+     * 批量缓存对象（MSET）
+     *
+     * @param values 键值对
+     */
+    <T> void multiSet(Map<String, T> values);
+
+    /**
+     * 批量缓存对象并设置相同的有效时间，在一个管道内发送
+     *
+     * @param values 键值对
+     * @param timeout 时间
+     * @param timeUnit 时间颗粒度
+     */
+    <T> void multiSet(Map<String, T> values, long timeout, TimeUnit timeUnit);
 
     /**
      * 设置有效时间
@@ -74,7 +79,7 @@ public class RedisService
      * @param timeout 超时时间
      * @return true=设置成功；false=设置失败
      */
-    public boolean expire(final String key, final long timeout)
+    default boolean expire(String key, long timeout)
     {
         return expire(key, timeout, TimeUnit.SECONDS);
     }
@@ -87,12 +92,7 @@ public class RedisService
      * @param unit 时间单位
      * @return true=设置成功；false=设置失败
      */
-    public boolean expire(final String key, final long timeout, final TimeUnit unit)
-    {
-
-        return false;
-//        return redisTemplate.expire(key, timeout, unit);
-    }
+    boolean expire(String key, long timeout, TimeUnit unit);
 
     /**
      * 判断 key是否存在
@@ -100,10 +100,7 @@ public class RedisService
      * @param key 键
      * @return true 存在 false不存在
      */
-    public Boolean hasKey(String key)
-    {
-        return redisDS.key().exists(key);
-    }
+    Boolean hasKey(String key);
 
     /**
      * 获得缓存的基本对象。
@@ -111,35 +108,43 @@ public class RedisService
      * @param key 缓存键值
      * @return 缓存键值对应的数据
      */
-    public <T> T getCacheObject(final String key)
+    default <T> T getCacheObject(String key)
     {
-        ValueCommands<String, Object> value = redisDS.value(Object.class);
-        Object o = value.get(key);
-        return (T) o;
+        return (T) getCacheObject(key, Object.class);
     }
 
+    /**
+     * 获得缓存的对象
+     *
+     * @param key 缓存键值
+     * @param type 对象类型
+     * @return 缓存键值对应的数据，不存在时为空
+     */
+    <T> T getCacheObject(String key, Class<T> type);
+
+    /**
+     * 批量获取缓存的对象（MGET）
+     *
+     * @param type 对象类型
+     * @param keys 缓存键值
+     * @return 存在的键与对应的数据
+     */
+    <T> Map<String, T> multiGet(Class<T> type, Collection<String> keys);
+
     /**
      * 删除单个对象
      *
      * @param key
      */
-    public boolean deleteObject(final String key)
-    {
-//        return redisTemplate.delete(key);
-        return false;
-    }
+    boolean deleteObject(String key);
 
     /**
      * 删除集合对象
      *
      * @param collection 多个对象
-     * @return
+     * @return 删除的数量
      */
-    public long deleteObject(final Collection collection)
-    {
-        return 0;
-//        return redisTemplate.delete(collection);
-    }
+    long deleteObject(Collection<String> collection);
 
     /**
      * 缓存List数据
@@ -148,12 +153,7 @@ public class RedisService
      * @param dataList 待缓存的List数据
      * @return 缓存的对象
      */
-    public <T> long setCacheList(final String key, final List<T> dataList)
-    {
-        return 0;
-//        Long count = redisTemplate.opsForList().rightPushAll(key, dataList);
-//        return count == null ? 0 : count;
-    }
+    <T> long setCacheList(String key, List<T> dataList);
 
     /**
      * 获得缓存的list对象
@@ -161,12 +161,21 @@ public class RedisService
      * @param key 缓存的键值
      * @return 缓存键值对应的数据
      */
-    public <T> List<T> getCacheList(final String key)
+    default <T> List<T> getCacheList(String key)
     {
-        return Collections.emptyList();
-//        return redisTemplate.opsForList().range(key, 0, -1);
+        return (List<T>) getCacheList(key, Object.class);
     }
 
+    <T> List<T> getCacheList(String key, Class<T> type);
+
+    /**
+     * 缓存Set
+     *
+     * @param key 缓存的键值
+     * @param dataSet 待缓存的数据
+     * @return 新增的数量
+     */
+    <T> long setCacheSet(String key, Set<T> dataSet);
 
     /**
      * 获得缓存的set
@@ -174,24 +183,20 @@ public class RedisService
      * @param key
      * @return
      */
-    public <T> Set<T> getCacheSet(final String key)
+    default <T> Set<T> getCacheSet(String key)
     {
-        return Sets.of();
-//        return redisTemplate.opsForSet().members(key);
+        return (Set<T>) getCacheSet(key, Object.class);
     }
 
+    <T> Set<T> getCacheSet(String key, Class<T> type);
+
     /**
      * 缓存Map
      *
      * @param key
      * @param dataMap
      */
-    public <T> void setCacheMap(final String key, final Map<String, T> dataMap)
-    {
-//        if (dataMap != null) {
-//            redisTemplate.opsForHash().putAll(key, dataMap);
-//        }
-    }
+    <T> void setCacheMap(String key, Map<String, T> dataMap);
 
     /**
      * 获得缓存的Map
@@ -199,12 +204,13 @@ public class RedisService
      * @param key
      * @return
      */
-    public <T> Map<String, T> getCacheMap(final String key)
+    default <T> Map<String, T> getCacheMap(String key)
     {
-        return new HashMap<>();
-//        return redisTemplate.opsForHash().entries(key);
+        return (Map<String, T>) getCacheMap(key, Object.class);
     }
 
+    <T> Map<String, T> getCacheMap(String key, Class<T> type);
+
     /**
      * 往Hash中存入数据
      *
@@ -212,10 +218,7 @@ public class RedisService
      * @param hKey Hash键
      * @param value 值
      */
-    public <T> void setCacheMapValue(final String key, final String hKey, final T value)
-    {
-//        redisTemplate.opsForHash().put(key, hKey, value);
-    }
+    <T> void setCacheMapValue(String key, String hKey, T value);
 
     /**
      * 获取Hash中的数据
@@ -224,113 +227,65 @@ public class RedisService
      * @param hKey Hash键
      * @return Hash中的对象
      */
-    public <T> T getCacheMapValue(final String key, final String hKey)
+    default <T> T getCacheMapValue(String key, String hKey)
     {
-        return null;
-//        HashOperations<String, String, T> opsForHash = redisTemplate.opsForHash();
-//        return opsForHash.get(key, hKey);
+        return (T) getCacheMapValue(key, hKey, Object.class);
     }
 
+    <T> T getCacheMapValue(String key, String hKey, Class<T> type);
+
     /**
-     * 获取多个Hash中的数据
+     * 获取多个Hash中的数据（HMGET）
      *
      * @param key Redis键
      * @param hKeys Hash键集合
-     * @return Hash对象集合
+     * @return Hash对象集合，与 hKeys 顺序一致，不存在的为空
      */
-    public <T> List<T> getMultiCacheMapValue(final String key, final Collection<Object> hKeys)
-    {
-        return List.of();
-//        return redisTemplate.opsForHash().multiGet(key, hKeys);
-    }
+    <T> List<T> getMultiCacheMapValue(String key, Collection<Object> hKeys);
 
     /**
-     * 获得缓存的基本对象列表
+     * 获得缓存的基本对象列表，使用 SCAN 迭代，不阻塞 Redis
      * 
-     * @param pattern 字符串前缀
-     * @return 对象列表
+     * @param pattern 匹配模式，如 login_tokens:*
+     * @return 匹配的键
      */
-    public Collection<String> keys(final String pattern)
-    {
-        return Collections.emptyList();
-//        return redisTemplate.keys(pattern);
-    }
+    Collection<String> keys(String pattern);
 
     /**
-     * 获取锁过期时间  1h
+     * 管道执行：收集的命令一次发送，按顺序返回每条命令的回复。
+     * <p>
+     * 读取的值按 {@link RedisPipeline#get(String, Class)} 指定的类型解码（默认字符串），不存在时为空；
+     * 写入的回复为 OK，其余命令（过期、删除、自增等）为整数（Long）。
+     *
+     * @param commands 向管道添加命令
+     * @return 每条命令的回复
      */
-    public static final int LOCK_EXPIRE = 60 * 60 * 1000;
+    List<Object> pipelined(Consumer<RedisPipeline> commands);
 
     /**
-     * 获取分布式锁
+     * 获取分布式锁，租约由看门狗续期直到释放。
+     * 需要防护令牌或自动释放时，直接使用 {@link org.okstar.platform.common.redis.lock.OkLocks}。
      *
      * @param key key值
      * @return 是否获取到
      */
-    public synchronized boolean tryLock(String key) {
-
-//        return (Boolean) redisTemplate.execute((RedisCallback) connection -> {
-//
-//            long expireAt = System.currentTimeMillis() + LOCK_EXPIRE + 1;
-//            Boolean acquire = connection.setNX(key.getBytes(), String.valueOf(expireAt).getBytes());
-//
-//            if (acquire) {
-//                return true;
-//            } else {
-//
-//                byte[] value = connection.get(key.getBytes());
-//
-//                if (Objects.nonNull(value) && value.length > 0) {
-//
-//                    long expireTime = Long.parseLong(new String(value));
-//
-//                    if (expireTime < System.currentTimeMillis()) {
-//                        // 如果锁已经过期
-//                        byte[] oldValue = connection.getSet(key.getBytes(), String.valueOf(System.currentTimeMillis() + LOCK_EXPIRE + 1).getBytes());
-//                        // 防止死锁
-//                        return Long.parseLong(new String(oldValue)) < System.currentTimeMillis();
-//                    }
-//                }
-//            }
-//            return false;
-//        });
-
-        return true;
-    }
+    boolean tryLock(String key);
 
     /**
      * 释放锁
      *
      * @param key key值
-     * @return 是否获取到
+     * @return 是否由本节点释放
      */
-    public synchronized boolean releaseLock(String key) {
-//        return (Boolean) redisTemplate.execute((RedisCallback) connection -> {
-//            byte[] value = connection.get(key.getBytes());
-//            //判断key是否存在，不存在说明已经删除
-//            if (Objects.nonNull(value) && value.length > 0) {
-//                long expireTime = Long.parseLong(new String(value));
-//                //判断过期时间是否大于当前时间，如果过期时间没到，手动删除key
-//                if (expireTime >= System.currentTimeMillis()) {
-//                    connection.del(key.getBytes());
-//                }
-//            }
-//            return true;
-//        });
-        return true;
-    }
+    boolean releaseLock(String key);
 
     /**
      * @param key:
      * @return java.lang.Long
-     * @Description 获取过期时间
+     * @Description 获取过期时间（秒），-1 表示未设置过期时间，-2 表示不存在
      * @Date 17:38 2019-12-19
      */
-    public Long getExpire(String key) {
-//        Long expire = redisTemplate.getExpire(key);
-//        return expire;
-        return 0L;
-    }
+    Long getExpire(String key);
 
     /**
      * 减一操作（原子性）
@@ -339,16 +294,11 @@ public class RedisService
      * @return 操作后的结果
      * @date 2020/3/9 13:53
      **/
-    public Long decrement(String key, int num) throws Exception {
-//        Boolean result = redisTemplate.hasKey(key);
-//        if (result == null || !result) {
-//            throw new Exception("缓存数据不存在");
-//        }
-//        return redisTemplate.opsForValue().increment(key, -num);
-        return 0L;
+    default Long decrement(String key, int num) throws Exception
+    {
+        return increment(key, -num);
     }
 
-
     /**
      * 加一操作（原子性）
      *
@@ -356,38 +306,16 @@ public class RedisService
      * @return 操作后的结果
      * @date 2020/3/9 13:53
      **/
-    public Long increment(String key, int num) throws Exception {
-//        Boolean result = redisTemplate.hasKey(key);
-//        if (result == null || !result) {
-//            throw new Exception("缓存数据不存在");
-//        }
-//        return redisTemplate.opsForValue().increment(key, num);
-        return 0L;
-    }
+    Long increment(String key, int num) throws Exception;
 
     /**
-     * 分布式锁
+     * 不存在时写入并设置过期时间（SET NX EX，单条命令保证原子性）
      *
      * @param key
      * @param value
      * @param expire 秒
      *
-     * @return
+     * @return 是否写入
      */
-    public  Boolean setnx(String key, String value, int expire) {
-//        return (Boolean)redisTemplate.execute((connection) -> {
-//            try {
-//                Boolean successFull = connection.setNX(key.getBytes("UTF-8"),value.getBytes("UTF-8"));
-//                if (successFull) {
-//                    redisTemplate.expire(key, expire, TimeUnit.SECONDS);
-//                }
-//                return successFull;
-//            } catch (Exception var8) {
-//                var8.printStackTrace();
-//                return null;
-//            }
-//        }, true);
-        return false;
-    }
-
+    Boolean setnx(String key, String value, int expire);
 }
@@ -0,0 +1,384 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.redis.service;
+
+import io.quarkus.arc.properties.UnlessBuildProperty;
+import io.quarkus.redis.datasource.RedisDataSource;
+import io.quarkus.redis.datasource.codecs.Codec;
+import io.quarkus.redis.datasource.keys.KeyScanArgs;
+import io.quarkus.redis.datasource.value.ValueCommands;
+import io.vertx.mutiny.core.buffer.Buffer;
+import io.vertx.mutiny.redis.client.Command;
+import io.vertx.mutiny.redis.client.Redis;
+import io.vertx.mutiny.redis.client.Request;
+import io.vertx.mutiny.redis.client.Response;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.okstar.platform.common.redis.lock.OkLease;
+import org.okstar.platform.common.redis.lock.OkLocks;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 基于 RedisDataSource 的实现
+ **/
+@ApplicationScoped
+@UnlessBuildProperty(name = RedisServiceImpl.BACKEND, stringValue = MemoryRedisServiceImpl.MEMORY, enableIfMissing = true)
+public class RedisServiceImpl implements RedisService
+{
+    /**
+     * 构建配置：Redis 工具类的实现，redis 或 memory
+     */
+    public static final String BACKEND = "okstar.redis.backend";
+
+    /**
+     * SCAN 每次迭代的建议数量
+     */
+    private static final int SCAN_COUNT = 500;
+
+    /**
+     * 存在时自增，不存在时返回空
+     */
+    private static final String INCREMENT = """
+            if redis.call('EXISTS', KEYS[1]) == 1 then
+                return redis.call('INCRBY', KEYS[1], ARGV[1])
+            end
+            return false""";
+
+    @Inject
+    RedisDataSource redisDS;
+
+    @Inject
+    Redis redis;
+
+    @Inject
+    OkLocks locks;
+
+    @Inject
+    Instance<Codec> codecs;
+
+    @Override
+    public <T> void setCacheObject(final String key, final T value)
+    {
+        valueOf(value).set(key, value);
+    }
+
+    @Override
+    public <T> void setCacheObject(final String key,
+                                   final T value,
+                                   final Long timeout,
+                                   final TimeUnit timeUnit)
+    {
+        valueOf(value).psetex(key, timeUnit.toMillis(timeout), value);
+    }
+
+    @Override
+    public <T> void multiSet(final Map<String, T> values)
+    {
+        if (values.isEmpty())
+        {
+            return;
+        }
+        pipelined(pipeline -> pipeline.set(values));
+    }
+
+    @Override
+    public <T> void multiSet(final Map<String, T> values, final long timeout, final TimeUnit timeUnit)
+    {
+        pipelined(pipeline -> values.forEach((k, v) -> pipeline.set(k, v, timeout, timeUnit)));
+    }
+
+    @Override
+    public boolean expire(final String key, final long timeout, final TimeUnit unit)
+    {
+        return redisDS.key().pexpire(key, unit.toMillis(timeout));
+    }
+
+    @Override
+    public Boolean hasKey(String key)
+    {
+        return redisDS.key().exists(key);
+    }
+
+    @Override
+    public <T> T getCacheObject(final String key, final Class<T> type)
+    {
+        return redisDS.value(type).get(key);
+    }
+
+    @Override
+    public <T> Map<String, T> multiGet(final Class<T> type, final Collection<String> keys)
+    {
+        if (keys.isEmpty())
+        {
+            return Collections.emptyMap();
+        }
+        Map<String, T> values = redisDS.value(type).mget(keys.toArray(String[]::new));
+        values.values().removeIf(Objects::isNull);
+        return values;
+    }
+
+    @Override
+    public boolean deleteObject(final String key)
+    {
+        return redisDS.key().del(key) > 0;
+    }
+
+    @Override
+    public long deleteObject(final Collection<String> collection)
+    {
+        if (collection.isEmpty())
+        {
+            return 0;
+        }
+        return redisDS.key().del(collection.toArray(String[]::new));
+    }
+
+    @Override
+    public <T> long setCacheList(final String key, final List<T> dataList)
+    {
+        if (dataList.isEmpty())
+        {
+            return 0;
+        }
+        return redisDS.list(typeOf(dataList)).rpush(key, (T[]) dataList.toArray());
+    }
+
+    @Override
+    public <T> List<T> getCacheList(final String key, final Class<T> type)
+    {
+        return redisDS.list(type).lrange(key, 0, -1);
+    }
+
+    @Override
+    public <T> long setCacheSet(final String key, final Set<T> dataSet)
+    {
+        if (dataSet.isEmpty())
+        {
+            return 0;
+        }
+        return redisDS.set(typeOf(dataSet)).sadd(key, (T[]) dataSet.toArray());
+    }
+
+    @Override
+    public <T> Set<T> getCacheSet(final String key, final Class<T> type)
+    {
+        return redisDS.set(type).smembers(key);
+    }
+
+    @Override
+    public <T> void setCacheMap(final String key, final Map<String, T> dataMap)
+    {
+        if (dataMap != null && !dataMap.isEmpty())
+        {
+            redisDS.hash(typeOf(dataMap.values())).hset(key, dataMap);
+        }
+    }
+
+    @Override
+    public <T> Map<String, T> getCacheMap(final String key, final Class<T> type)
+    {
+        return redisDS.hash(type).hgetall(key);
+    }
+
+    @Override
+    public <T> void setCacheMapValue(final String key, final String hKey, final T value)
+    {
+        redisDS.hash((Class<T>) value.getClass()).hset(key, hKey, value);
+    }
+
+    @Override
+    public <T> T getCacheMapValue(final String key, final String hKey, final Class<T> type)
+    {
+        return redisDS.hash(type).hget(key, hKey);
+    }
+
+    @Override
+    public <T> List<T> getMultiCacheMapValue(final String key, final Collection<Object> hKeys)
+    {
+        if (hKeys.isEmpty())
+        {
+            return Collections.emptyList();
+        }
+        String[] fields = hKeys.stream().map(String::valueOf).toArray(String[]::new);
+        Map<String, Object> values = redisDS.hash(Object.class).hmget(key, fields);
+        List<T> list = new ArrayList<>(fields.length);
+        for (String field : fields)
+        {
+            list.add((T) values.get(field));
+        }
+        return list;
+    }
+
+    @Override
+    public Collection<String> keys(final String pattern)
+    {
+        KeyScanArgs args = new KeyScanArgs().match(pattern).count(SCAN_COUNT);
+        Set<String> keys = new LinkedHashSet<>();
+        for (String key : redisDS.key().scan(args).toIterable())
+        {
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    @Override
+    public List<Object> pipelined(Consumer<RedisPipeline> commands)
+    {
+        RedisPipeline pipeline = new RedisPipeline();
+        commands.accept(pipeline);
+        if (pipeline.size() == 0)
+        {
+            return Collections.emptyList();
+        }
+        List<Codec> codecList = codecs.stream().toList();
+        List<Request> requests = new ArrayList<>(pipeline.size());
+        for (RedisPipeline.Op op : pipeline.ops())
+        {
+            requests.add(toRequest(op, codecList));
+        }
+        List<Response> responses = redis.batchAndAwait(requests);
+        List<Object> replies = new ArrayList<>(responses.size());
+        for (int i = 0; i < responses.size(); i++)
+        {
+            replies.add(reply(pipeline.ops().get(i), responses.get(i), codecList));
+        }
+        return replies;
+    }
+
+    /**
+     * 本节点持有的锁，供 {@link #releaseLock(String)} 按键释放
+     */
+    private final Map<String, OkLease> leases = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean tryLock(String key) {
+        Optional<OkLease> lease = locks.tryLock(key, Duration.ofMillis(LOCK_EXPIRE));
+        lease.ifPresent(l -> leases.put(key, l));
+        return lease.isPresent();
+    }
+
+    @Override
+    public boolean releaseLock(String key) {
+        OkLease lease = leases.remove(key);
+        return lease != null && locks.release(lease);
+    }
+
+    @Override
+    public Long getExpire(String key) {
+        return redisDS.key().ttl(key);
+    }
+
+    @Override
+    public Long increment(String key, int num) throws Exception {
+        //判断存在与 INCRBY 在同一脚本内执行，其间键不会被删除或过期
+        Response response = redisDS.execute("EVAL", INCREMENT, "1", key, String.valueOf(num));
+        if (response == null) {
+            throw new Exception("缓存数据不存在");
+        }
+        return response.toLong();
+    }
+
+    @Override
+    public  Boolean setnx(String key, String value, int expire) {
+        Response response = redisDS.execute("SET", key, value, "NX", "EX", String.valueOf(expire));
+        return response != null;
+    }
+
+    private static Request toRequest(RedisPipeline.Op op, List<Codec> codecs)
+    {
+        if (op instanceof RedisPipeline.Get get)
+        {
+            return Request.cmd(Command.GET).arg(get.key());
+        }
+        if (op instanceof RedisPipeline.Put put)
+        {
+            Request request = Request.cmd(Command.SET).arg(put.key()).arg(buffer(put.value(), codecs));
+            return put.millis() > 0 ? request.arg("PX").arg(put.millis()) : request;
+        }
+        if (op instanceof RedisPipeline.MultiPut multiPut)
+        {
+            Request request = Request.cmd(Command.MSET);
+            multiPut.values().forEach((k, v) -> request.arg(k).arg(buffer(v, codecs)));
+            return request;
+        }
+        if (op instanceof RedisPipeline.Expire expire)
+        {
+            return Request.cmd(Command.PEXPIRE).arg(expire.key()).arg(expire.millis());
+        }
+        if (op instanceof RedisPipeline.Delete delete)
+        {
+            return Request.cmd(Command.DEL).arg(delete.key());
+        }
+        if (op instanceof RedisPipeline.HashPut hashPut)
+        {
+            return Request.cmd(Command.HSET).arg(hashPut.key()).arg(hashPut.field()).arg(buffer(hashPut.value(), codecs));
+        }
+        RedisPipeline.Increment increment = (RedisPipeline.Increment) op;
+        return Request.cmd(Command.INCRBY).arg(increment.key()).arg(increment.num());
+    }
+
+    /**
+     * 值按读取时指定的类型解码（原始字节，不经字符串转换），写入为 OK，其余为整数
+     */
+    private static Object reply(RedisPipeline.Op op, Response response, List<Codec> codecs)
+    {
+        if (response == null)
+        {
+            return null;
+        }
+        if (op instanceof RedisPipeline.Get get)
+        {
+            return RedisValues.decode(response.toBytes(), get.type(), codecs);
+        }
+        if (op instanceof RedisPipeline.Put || op instanceof RedisPipeline.MultiPut)
+        {
+            return response.toString();
+        }
+        return response.toLong();
+    }
+
+    private static Buffer buffer(Object value, List<Codec> codecs)
+    {
+        return Buffer.buffer(RedisValues.encode(value, codecs));
+    }
+
+    /**
+     * 取值的命令，类型由值推断
+     */
+    private <T> ValueCommands<String, T> valueOf(T value)
+    {
+        return redisDS.value((Class<T>) value.getClass());
+    }
+
+    /**
+     * 集合元素的类型，同一集合的元素应为同一类型
+     */
+    private static <T> Class<T> typeOf(Collection<T> values)
+    {
+        for (T value : values)
+        {
+            if (value != null)
+            {
+                return (Class<T>) value.getClass();
+            }
+        }
+        throw new IllegalArgumentException("集合中没有非空元素");
+    }
+}
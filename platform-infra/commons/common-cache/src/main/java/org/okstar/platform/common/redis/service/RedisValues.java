@@ -0,0 +1,88 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.redis.service;
+
+import io.quarkus.redis.datasource.codecs.Codec;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.Json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 值的编解码，与 RedisDataSource 的规则一致：
+ * 有自定义编码的类型使用该编码，字符串原样保存，其他对象保存为 JSON。
+ */
+final class RedisValues
+{
+    private RedisValues()
+    {
+    }
+
+    static <T> T required(T value)
+    {
+        if (value == null)
+        {
+            throw new IllegalArgumentException("缓存的值不能为空");
+        }
+        return value;
+    }
+
+    static byte[] encode(Object value, List<Codec> codecs)
+    {
+        required(value);
+        for (Codec codec : codecs)
+        {
+            if (codec.canHandle(value.getClass()))
+            {
+                return codec.encode(value);
+            }
+        }
+        String text = value instanceof String s ? s : Json.encode(value);
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static <T> T decode(byte[] bytes, Class<T> type, List<Codec> codecs)
+    {
+        if (bytes == null)
+        {
+            return null;
+        }
+        for (Codec codec : codecs)
+        {
+            if (codec.canHandle(type))
+            {
+                return type.cast(codec.decode(bytes));
+            }
+        }
+        if (type == String.class)
+        {
+            return type.cast(new String(bytes, StandardCharsets.UTF_8));
+        }
+        try
+        {
+            return Json.decodeValue(Buffer.buffer(bytes), type);
+        }
+        catch (DecodeException e)
+        {
+            //按字符串写入的值未经 JSON 编码
+            if (type == Object.class)
+            {
+                return type.cast(new String(bytes, StandardCharsets.UTF_8));
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.redis.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 时间轮：按到期时间把键放入对应的槽，推进时处理经过的槽。
+ * <p>
+ * 只负责回收过期的键，读取时另有惰性检查，因此处理稍晚不影响正确性。
+ * 超过一圈的到期时间由回调重新放入。
+ */
+final class TimerWheel
+{
+    private final long tickMillis;
+
+    private final Set<String>[] slots;
+
+    /**
+     * 已处理到的刻度
+     */
+    private volatile long lastTick;
+
+    /**
+     * 同一时刻只有一个线程推进
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @SuppressWarnings("unchecked")
+    TimerWheel(long tickMillis, int size, long now)
+    {
+        this.tickMillis = tickMillis;
+        this.slots = new Set[size];
+        for (int i = 0; i < size; i++)
+        {
+            slots[i] = ConcurrentHashMap.newKeySet();
+        }
+        this.lastTick = now / tickMillis;
+    }
+
+    void schedule(String key, long expireAt)
+    {
+        //向上取整，保证处理时已到期；落在已处理的刻度时放入下一个刻度
+        long tick = Math.max((expireAt + tickMillis - 1) / tickMillis, lastTick + 1);
+        slots[(int) (tick % slots.length)].add(key);
+    }
+
+    /**
+     * 推进到 now，对经过的槽中的键调用 expire
+     */
+    void advance(long now, Consumer<String> expire)
+    {
+        lock.lock();
+        try
+        {
+            long tick = now / tickMillis;
+            //停顿超过一圈时每个槽只需处理一次
+            long from = Math.max(lastTick, tick - slots.length);
+            for (long t = from + 1; t <= tick; t++)
+            {
+                lastTick = t;
+                //先取出再回调，回调中重新放入同一个槽的键留到下一圈
+                Set<String> slot = slots[(int) (t % slots.length)];
+                List<String> keys = new ArrayList<>(slot);
+                slot.removeAll(keys);
+                keys.forEach(expire);
+            }
+            lastTick = Math.max(lastTick, tick);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+}
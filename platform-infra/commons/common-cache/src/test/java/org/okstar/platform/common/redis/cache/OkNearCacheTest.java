@@ -0,0 +1,99 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.redis.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.common.constraint.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.okstar.platform.common.redis.service.MemoryRedisServiceImpl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class OkNearCacheTest {
+
+    /**
+     * 后端读取次数
+     */
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Map<String, Object> backing = new HashMap<>();
+
+    private final OkNearCaches caches = new OkNearCaches();
+
+    @BeforeEach
+    void setUp() {
+        caches.backend = MemoryRedisServiceImpl.MEMORY;
+        caches.registry = new SimpleMeterRegistry();
+        //进程内实现不订阅也不发布，redisDS 为空时一旦访问即失败
+        caches.redisDS = null;
+        caches.redisService = new MemoryRedisServiceImpl() {
+            @Override
+            public <T> T getCacheObject(String key, Class<T> type) {
+                loads.incrementAndGet();
+                return type.cast(backing.get(key));
+            }
+
+            @Override
+            public <T> void setCacheObject(String key, T value, Long timeout, TimeUnit timeUnit) {
+                backing.put(key, value);
+            }
+
+            @Override
+            public boolean deleteObject(String key) {
+                return backing.remove(key) != null;
+            }
+        };
+    }
+
+    @Test
+    void localHit() {
+        backing.put("k1", "v1");
+        OkNearCache<String> cache = caches.get("orders", String.class);
+        Assert.assertTrue("v1".equals(cache.get("k1")));
+        Assert.assertTrue("v1".equals(cache.get("k1")));
+        Assert.assertTrue(loads.get() == 1);
+        Assert.assertTrue(cache.stats().hitCount() == 1);
+        Assert.assertTrue(caches.get("orders", String.class) == cache);
+
+        //写入与删除在本地直接生效
+        cache.put("k2", "v2", 1, TimeUnit.MINUTES);
+        Assert.assertTrue("v2".equals(cache.get("k2")));
+        cache.evict("k2");
+        Assert.assertTrue(cache.get("k2") == null);
+        Assert.assertTrue(loads.get() == 2);
+    }
+
+    @Test
+    void invalidateFromOtherNode() {
+        backing.put("k1", "v1");
+        OkNearCache<String> cache = caches.get("orders", String.class);
+        cache.get("k1");
+
+        //其他节点在 okstar:cache:invalidate 上的通知只清除本地副本
+        backing.put("k1", "v2");
+        caches.onMessage("other-node|orders|k1");
+        Assert.assertTrue("v2".equals(cache.get("k1")));
+        Assert.assertTrue(loads.get() == 2);
+
+        //未知缓存与格式错误的消息被忽略
+        caches.onMessage("other-node|missing|k1");
+        caches.onMessage("malformed");
+        Assert.assertTrue("v2".equals(cache.get("k1")));
+        Assert.assertTrue(loads.get() == 2);
+    }
+}
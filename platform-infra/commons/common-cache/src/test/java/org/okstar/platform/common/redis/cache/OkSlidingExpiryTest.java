@@ -0,0 +1,83 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.redis.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.common.constraint.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.okstar.platform.common.redis.service.MemoryRedisServiceImpl;
+import org.okstar.platform.common.redis.service.RedisPipeline;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+class OkSlidingExpiryTest {
+
+    /**
+     * 每次 pipelined 调用的命令数
+     */
+    private final List<Integer> pipelines = new ArrayList<>();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final OkSlidingExpiry expiry = new OkSlidingExpiry();
+
+    @BeforeEach
+    void setUp() {
+        expiry.touchInterval = Duration.ofMinutes(1);
+        expiry.registry = registry;
+        expiry.redisService = new MemoryRedisServiceImpl() {
+            @Override
+            public List<Object> pipelined(Consumer<RedisPipeline> commands) {
+                RedisPipeline pipeline = new RedisPipeline();
+                commands.accept(pipeline);
+                pipelines.add(pipeline.size());
+                return List.of();
+            }
+        };
+    }
+
+    @Test
+    void coalescesWithinInterval() {
+        Assert.assertTrue(expiry.touch("a", 30, TimeUnit.MINUTES));
+        Assert.assertTrue(!expiry.touch("a", 30, TimeUnit.MINUTES));
+        Assert.assertTrue(!expiry.touch("a", 30, TimeUnit.MINUTES));
+        Assert.assertTrue(registry.counter("okstar.sliding.skipped").count() == 2);
+
+        //写入后重新计算间隔
+        expiry.forget("a");
+        Assert.assertTrue(expiry.touch("a", 30, TimeUnit.MINUTES));
+    }
+
+    @Test
+    void flushBatchesOneExpirePerKey() {
+        expiry.touch("a", 30, TimeUnit.MINUTES);
+        expiry.touch("a", 30, TimeUnit.MINUTES);
+        expiry.touch("b", 30, TimeUnit.MINUTES);
+        expiry.touch("c", 30, TimeUnit.MINUTES);
+
+        expiry.flush();
+        Assert.assertTrue(pipelines.equals(List.of(3)));
+        Assert.assertTrue(registry.counter("okstar.sliding.flushed").count() == 3);
+
+        //间隔内再次访问不产生新的延期
+        expiry.touch("a", 30, TimeUnit.MINUTES);
+        expiry.flush();
+        Assert.assertTrue(pipelines.equals(List.of(3)));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.redis.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 二进制缓存格式与 JSON 的编解码对比，permissions 控制对象大小（大对象会触发压缩），运行 main 方法即可：
+ * <pre>
+ * mvn -pl platform-infra/commons/common-cache test-compile exec:java \
+ *   -Dexec.classpathScope=test -Dexec.mainClass=org.okstar.platform.common.redis.codec.OkCacheFormatBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OkCacheFormatBenchmark {
+
+    @Param({"2", "100"})
+    int permissions;
+
+    private final ObjectMapper json = new ObjectMapper();
+
+    private final OkCacheFormat format = new OkCacheFormat(512);
+
+    private OkCacheSample sample;
+
+    private byte[] jsonBytes;
+
+    private byte[] binaryBytes;
+
+    @Setup
+    public void setup() throws Exception {
+        sample = OkCacheSample.of(permissions);
+        jsonBytes = json.writeValueAsBytes(sample);
+        binaryBytes = format.encode(sample, 1);
+        System.out.printf("permissions=%d json=%d bytes binary=%d bytes%n",
+                permissions, jsonBytes.length, binaryBytes.length);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() throws Exception {
+        return json.writeValueAsBytes(sample);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return format.encode(sample, 1);
+    }
+
+    @Benchmark
+    public Object jsonDecode() throws Exception {
+        return json.readValue(jsonBytes, OkCacheSample.class);
+    }
+
+    @Benchmark
+    public Object binaryDecode() {
+        return format.decode(binaryBytes, OkCacheSample.class, 1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OkCacheFormatBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
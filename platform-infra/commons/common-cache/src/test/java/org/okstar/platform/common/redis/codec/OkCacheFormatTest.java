@@ -0,0 +1,57 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.redis.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smallrye.common.constraint.Assert;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+class OkCacheFormatTest {
+
+    private final OkCacheFormat format = new OkCacheFormat(512);
+
+    @Test
+    void roundTrip() {
+        OkCacheSample small = OkCacheSample.of(2);
+        byte[] bytes = format.encode(small, 1);
+        Assert.assertTrue(!OkCacheFormat.isCompressed(bytes));
+        Assert.assertTrue(small.equals(format.decode(bytes, OkCacheSample.class, 1)));
+
+        //权限较多时超过阈值，压缩后仍能还原
+        OkCacheSample large = OkCacheSample.of(100);
+        byte[] packed = format.encode(large, 1);
+        Assert.assertTrue(OkCacheFormat.isCompressed(packed));
+        Assert.assertTrue(large.equals(format.decode(packed, OkCacheSample.class, 1)));
+    }
+
+    @Test
+    void smallerThanJson() throws Exception {
+        OkCacheSample sample = OkCacheSample.of(100);
+        byte[] json = new ObjectMapper().writeValueAsBytes(sample);
+        Assert.assertTrue(format.encode(sample, 1).length < json.length);
+    }
+
+    @Test
+    void mismatchIsMiss() throws Exception {
+        OkCacheSample sample = OkCacheSample.of(2);
+        //结构版本变更
+        Assert.assertTrue(format.decode(format.encode(sample, 1), OkCacheSample.class, 2) == null);
+        //旧的 JSON 值
+        byte[] json = new ObjectMapper().writeValueAsString(sample).getBytes(StandardCharsets.UTF_8);
+        Assert.assertTrue(format.decode(json, OkCacheSample.class, 1) == null);
+        Assert.assertTrue(format.decode(null, OkCacheSample.class, 1) == null);
+    }
+}
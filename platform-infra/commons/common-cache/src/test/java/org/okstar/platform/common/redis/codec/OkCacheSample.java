@@ -0,0 +1,59 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.redis.codec;
+
+import lombok.Data;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 测试与基准用的会话对象，结构与 LoginUser 相近
+ */
+@Data
+public class OkCacheSample {
+
+    private String token;
+
+    private Long userid;
+
+    private String username;
+
+    private Long loginTime;
+
+    private Long expireTime;
+
+    private String ipaddr;
+
+    private Set<String> permissions;
+
+    private Set<String> roles;
+
+    public static OkCacheSample of(int permissions) {
+        OkCacheSample sample = new OkCacheSample();
+        sample.setToken("3f1c2a9e-5b7d-4e0f-9a61-2c8d7e4b1f30");
+        sample.setUserid(10086L);
+        sample.setUsername("okstar");
+        sample.setLoginTime(1_700_000_000_000L);
+        sample.setExpireTime(1_700_000_720_000L);
+        sample.setIpaddr("192.168.1.100");
+        Set<String> perms = new LinkedHashSet<>();
+        for (int i = 0; i < permissions; i++) {
+            perms.add("system:account:operation-" + i);
+        }
+        sample.setPermissions(perms);
+        sample.setRoles(Set.of("admin"));
+        return sample;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.redis.lock;
+
+import io.smallrye.common.constraint.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class OkLocalLocksTest {
+
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor();
+
+    private final OkLocks locks = new OkLocalLocks(watchdog);
+
+    @AfterEach
+    void tearDown() {
+        watchdog.shutdownNow();
+    }
+
+    @Test
+    void exclusiveAndFenced() {
+        Optional<OkLease> first = locks.tryLock("job", Duration.ofMinutes(1));
+        Assert.assertTrue(first.isPresent());
+        Assert.assertTrue(locks.tryLock("job", Duration.ofMinutes(1)).isEmpty());
+        //不同名称互不影响
+        Assert.assertTrue(locks.tryLock("other", Duration.ofMinutes(1)).isPresent());
+
+        first.get().close();
+        Assert.assertTrue(!first.get().isHeld());
+
+        Optional<OkLease> second = locks.tryLock("job", Duration.ofMinutes(1));
+        Assert.assertTrue(second.isPresent());
+        Assert.assertTrue(second.get().getFence() > first.get().getFence());
+    }
+
+    @Test
+    void renewedWhileHeld() throws InterruptedException {
+        OkLease held = locks.tryLock("job", Duration.ofMillis(30)).orElseThrow();
+        //超过租约时长仍由看门狗续期
+        Thread.sleep(120);
+        Assert.assertTrue(held.isHeld());
+        Assert.assertTrue(locks.tryLock("job", Duration.ofMinutes(1)).isEmpty());
+        Assert.assertTrue(locks.release(held));
+        Assert.assertTrue(locks.tryLock("job", Duration.ofMinutes(1)).isPresent());
+    }
+
+    @Test
+    void expiredLeaseCannotRelease() throws InterruptedException {
+        OkLease stale = locks.tryLock("job", Duration.ofMillis(20)).orElseThrow();
+        //停止续期，相当于持有者失联
+        locks.keep(stale);
+        Thread.sleep(40);
+
+        OkLease current = locks.tryLock("job", Duration.ofMinutes(1)).orElseThrow();
+        //过期的持有者不能释放他人的锁
+        Assert.assertTrue(!locks.release(stale));
+        Assert.assertTrue(locks.tryLock("job", Duration.ofMinutes(1)).isEmpty());
+        Assert.assertTrue(locks.release(current));
+    }
+
+    @Test
+    void waitAndRunExclusive() {
+        OkLease held = locks.tryLock("job", Duration.ofMillis(50)).orElseThrow();
+        locks.keep(held);
+        Assert.assertTrue(locks.tryLock("job", Duration.ofMinutes(1), Duration.ofMillis(10)).isEmpty());
+        //等待超过租约时长后获得
+        Assert.assertTrue(locks.tryLock("job", Duration.ofMinutes(1), Duration.ofSeconds(1)).isPresent());
+        Assert.assertTrue(!locks.release(held));
+
+        AtomicInteger runs = new AtomicInteger();
+        Assert.assertTrue(!locks.runExclusive("job", Duration.ofMinutes(1), lease -> runs.incrementAndGet()));
+        Assert.assertTrue(locks.runExclusive("free", Duration.ofMinutes(1), lease -> runs.incrementAndGet()));
+        Assert.assertTrue(runs.get() == 1);
+    }
+
+    @Test
+    void scheduledHoldsUntilLeaseEnds() {
+        AtomicInteger runs = new AtomicInteger();
+        Assert.assertTrue(locks.runScheduled("tick", Duration.ofMinutes(1), lease -> runs.incrementAndGet()));
+        //同一周期内其他实例不再执行
+        Assert.assertTrue(!locks.runScheduled("tick", Duration.ofMinutes(1), lease -> runs.incrementAndGet()));
+        Assert.assertTrue(runs.get() == 1);
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.redis.service;
+
+import io.quarkus.redis.datasource.codecs.Codec;
+import io.smallrye.common.constraint.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.okstar.platform.common.redis.lock.OkLocalLocks;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+class MemoryRedisServiceImplTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor();
+
+    private final MemoryRedisServiceImpl redis = new MemoryRedisServiceImpl(now::get, new OkLocalLocks(watchdog), List.of());
+
+    @AfterEach
+    void tearDown() {
+        watchdog.shutdownNow();
+    }
+
+    @Test
+    void valuesAndExpiry() {
+        redis.setCacheObject("a", Map.of("name", "okstar"), 10L, TimeUnit.SECONDS);
+        redis.setCacheObject("b", "text");
+        Assert.assertTrue("okstar".equals(redis.getCacheObject("a", Map.class).get("name")));
+        Assert.assertTrue("text".equals(redis.getCacheObject("b", String.class)));
+        Assert.assertTrue(redis.getExpire("a") == 10);
+        Assert.assertTrue(redis.getExpire("b") == -1);
+        Assert.assertTrue(redis.multiGet(String.class, List.of("b", "missing")).size() == 1);
+
+        now.addAndGet(5_000);
+        Assert.assertTrue(redis.expire("a", 10, TimeUnit.SECONDS));
+        now.addAndGet(9_000);
+        Assert.assertTrue(redis.hasKey("a"));
+        now.addAndGet(2_000);
+        Assert.assertTrue(!redis.hasKey("a"));
+        Assert.assertTrue(redis.getExpire("a") == -2);
+        Assert.assertTrue(!redis.expire("a", 10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void wheelReclaims() {
+        redis.setCacheObject("short", "v", 2L, TimeUnit.SECONDS);
+        //超过时间轮一圈
+        redis.setCacheObject("long", "v", 600L, TimeUnit.SECONDS);
+
+        now.addAndGet(3_000);
+        redis.tick();
+        Assert.assertTrue(redis.size() == 1);
+
+        now.addAndGet(600_000);
+        redis.tick();
+        Assert.assertTrue(redis.size() == 0);
+    }
+
+    @Test
+    void collectionsAndCounters() throws Exception {
+        Assert.assertTrue(redis.setCacheList("list", List.of("x", "y")) == 2);
+        Assert.assertTrue(redis.setCacheList("list", List.of("z")) == 3);
+        Assert.assertTrue(redis.getCacheList("list", String.class).equals(List.of("x", "y", "z")));
+
+        Assert.assertTrue(redis.setCacheSet("set", Set.of(1, 2)) == 2);
+        Assert.assertTrue(redis.setCacheSet("set", Set.of(2, 3)) == 1);
+        Assert.assertTrue(redis.getCacheSet("set", Integer.class).equals(Set.of(1, 2, 3)));
+
+        redis.setCacheMap("hash", Map.of("f1", 1L));
+        redis.setCacheMapValue("hash", "f2", 2L);
+        Assert.assertTrue(redis.getCacheMap("hash", Long.class).equals(Map.of("f1", 1L, "f2", 2L)));
+        Assert.assertTrue(redis.getMultiCacheMapValue("hash", List.of("f2", "f3")).get(0).equals(2));
+
+        redis.setCacheObject("counter", 10L);
+        Assert.assertTrue(redis.increment("counter", 5) == 15);
+        Assert.assertTrue(redis.decrement("counter", 20) == -5);
+        //不存在时不创建
+        boolean missing = false;
+        try {
+            redis.increment("no-counter", 1);
+        } catch (Exception e) {
+            missing = true;
+        }
+        Assert.assertTrue(missing && !redis.hasKey("no-counter"));
+
+        Assert.assertTrue(redis.setnx("nx", "1", 10));
+        Assert.assertTrue(!redis.setnx("nx", "2", 10));
+
+        Assert.assertTrue(redis.keys("h?sh").equals(Set.of("hash")));
+        Assert.assertTrue(redis.keys("[ls]*").equals(Set.of("list", "set")));
+        Assert.assertTrue(redis.deleteObject(List.of("list", "set", "missing")) == 2);
+
+        boolean wrongType = false;
+        try {
+            redis.getCacheObject("hash", String.class);
+        } catch (IllegalStateException e) {
+            wrongType = true;
+        }
+        Assert.assertTrue(wrongType);
+    }
+
+    @Test
+    void pipelinedAndLocks() {
+        List<Object> replies = redis.pipelined(p -> p
+                .set("k", "v", 1, TimeUnit.MINUTES)
+                .get("k")
+                .increment("n", 3)
+                .delete("k")
+                .get("k"));
+        Assert.assertTrue(replies.equals(Arrays.asList("OK", "v", 3L, 1L, null)));
+
+        Assert.assertTrue(redis.tryLock("job"));
+        Assert.assertTrue(!redis.tryLock("job"));
+        Assert.assertTrue(redis.releaseLock("job"));
+        Assert.assertTrue(redis.tryLock("job"));
+    }
+
+    record Blob(int n) {
+    }
+
+    /**
+     * 编码结果不是合法的 UTF-8，经字符串转换后无法还原
+     */
+    static class BlobCodec implements Codec {
+        @Override
+        public boolean canHandle(Type clazz) {
+            return clazz == Blob.class;
+        }
+
+        @Override
+        public byte[] encode(Object item) {
+            return new byte[]{(byte) 0xff, (byte) 0xfe, (byte) ((Blob) item).n()};
+        }
+
+        @Override
+        public Object decode(byte[] item) {
+            return new Blob(item[2]);
+        }
+    }
+
+    @Test
+    void pipelinedBinary() {
+        MemoryRedisServiceImpl binary = new MemoryRedisServiceImpl(now::get, new OkLocalLocks(watchdog), List.of(new BlobCodec()));
+        List<Object> replies = binary.pipelined(p -> p
+                .set("blob", new Blob(7))
+                .get("blob", Blob.class)
+                .set("map", Map.of("a", 1))
+                .get("map", Map.class));
+        Assert.assertTrue(new Blob(7).equals(replies.get(1)));
+        Assert.assertTrue(Map.of("a", 1).equals(replies.get(3)));
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.redis.service;
+
+import io.smallrye.common.constraint.Assert;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+class RedisPipelineTest {
+
+    @Test
+    void encode() {
+        Assert.assertTrue("abc".equals(text(RedisValues.encode("abc", List.of()))));
+        Assert.assertTrue("42".equals(text(RedisValues.encode(42L, List.of()))));
+        Assert.assertTrue("{\"a\":1}".equals(text(RedisValues.encode(Map.of("a", 1), List.of()))));
+        Assert.assertTrue(Long.valueOf(42).equals(RedisValues.decode("42".getBytes(StandardCharsets.UTF_8), Long.class, List.of())));
+    }
+
+    @Test
+    void collect() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("k1", "v1");
+        values.put("k2", 2);
+
+        RedisPipeline pipeline = new RedisPipeline()
+                .set(values)
+                .set("k3", "v3", 30, TimeUnit.SECONDS)
+                .expire("k1", 1, TimeUnit.MINUTES)
+                .set(Map.of());
+        //MSET 合并为一条，空的批量写入不产生命令
+        Assert.assertTrue(pipeline.size() == 3);
+        Assert.assertTrue(pipeline.ops().get(0) instanceof RedisPipeline.MultiPut);
+        Assert.assertTrue(((RedisPipeline.Put) pipeline.ops().get(1)).millis() == 30_000);
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -21,7 +21,12 @@ import org.eclipse.microprofile.health.HealthCheckResponse;
 import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
 import org.eclipse.microprofile.health.Readiness;
 
-
+/**
+ * 连接池就绪检查，只读取池内计数，不访问数据库；
+ * 连接已全部借出且仍有线程等待时视为未就绪。
+ * <p>
+ * 连接池详细指标（agroal_*）通过 /q/metrics 暴露。
+ */
 @Readiness
 public class DataSourceHealthCheck implements HealthCheck {
     @Inject
@@ -29,23 +34,16 @@ public class DataSourceHealthCheck implements HealthCheck {
 
     @Override
     public HealthCheckResponse call() {
-        HealthCheckResponseBuilder responseBuilder = HealthCheckResponse.named("Database connections health check");
-        responseBuilder.up();
-
-
-        StringBuilder stringBuilder = new StringBuilder();
         AgroalDataSourceMetrics metrics = agroalDataSource.getMetrics();
-        stringBuilder.append("<pre>")
-                .append("activeCount").append("=").append(metrics.activeCount()).append(";\n")
-                .append("leakDetectionCount").append("=").append(metrics.leakDetectionCount()).append(";\n")
-                .append("creationCount").append("=").append(metrics.creationCount()).append(";\n")
-                .append("availableCount").append("=").append(metrics.availableCount()).append(";\n")
-                .append("maxUsedCount").append("=").append(metrics.maxUsedCount()).append(";\n")
-                .append("awaitingCount").append("=").append(metrics.awaitingCount()).append(";\n")
-                .append("blockingTimeAverage").append("=").append(metrics.blockingTimeAverage().toSeconds()).append("s").append(";\n")
-                .append("blockingTimeMax").append("=").append(metrics.blockingTimeMax().toSeconds()).append("s").append(";\n");
-        stringBuilder.append("</pre>");
-        responseBuilder.withData("OkStar", stringBuilder.toString());
+        int maxSize = agroalDataSource.getConfiguration().connectionPoolConfiguration().maxSize();
+        boolean exhausted = metrics.activeCount() >= maxSize && metrics.awaitingCount() > 0;
+
+        HealthCheckResponseBuilder responseBuilder = HealthCheckResponse.named("Database connections health check")
+                .status(!exhausted)
+                .withData("active", metrics.activeCount())
+                .withData("available", metrics.availableCount())
+                .withData("awaiting", metrics.awaitingCount())
+                .withData("max", maxSize);
         return responseBuilder.build();
     }
 }
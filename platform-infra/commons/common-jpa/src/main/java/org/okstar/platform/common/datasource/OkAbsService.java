@@ -15,8 +15,8 @@ package org.okstar.platform.common.datasource;
 
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
-import org.eclipse.microprofile.context.ManagedExecutor;
 import org.eclipse.microprofile.context.ThreadContext;
+import org.okstar.platform.common.executor.OkExecutors;
 
 
 
@@ -26,7 +26,9 @@ public abstract class OkAbsService {
     @Inject
     protected ThreadContext threadContext;
 
-    protected ManagedExecutor managedExecutor = ManagedExecutor.builder()
-            .propagated(ThreadContext.CDI)
-            .build();
+    /**
+     * 共享的有界线程池，按名称提交异步任务
+     */
+    @Inject
+    protected OkExecutors executors;
 }
@@ -0,0 +1,69 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量操作结果，按输入顺序记录每一行的处理结果
+ */
+@Data
+public class OkBatchResult implements Serializable {
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Row implements Serializable {
+        /**
+         * 输入中的序号
+         */
+        private int index;
+
+        /**
+         * 实体ID，失败时为空
+         */
+        private Long id;
+
+        private boolean success;
+
+        /**
+         * 失败原因
+         */
+        private String error;
+    }
+
+    private final List<Row> rows = new ArrayList<>();
+
+    void ok(int index, Long id) {
+        rows.add(new Row(index, id, true, null));
+    }
+
+    void failed(int index, Long id, String error) {
+        rows.add(new Row(index, id, false, error));
+    }
+
+    public long getSuccessCount() {
+        return rows.stream().filter(Row::isSuccess).count();
+    }
+
+    public long getFailedCount() {
+        return rows.size() - getSuccessCount();
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource;
+
+import io.quarkus.hibernate.orm.panache.Panache;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.okstar.platform.common.datasource.cache.OkCacheSync;
+import org.okstar.platform.common.datasource.domain.OkEntity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 批量写入
+ * <p>
+ * 加入调用方的事务（没有时新建），每 quarkus.hibernate-orm.jdbc.statement-batch-size 行 flush 一次，
+ * 配合 hibernate.order_inserts/order_updates 与序列池化分配，以 JDBC 批处理写入。
+ * 新增时只分离本批新建的实体，调用方已加载的实体仍受管理；更新只 flush，不分离。
+ * 行内校验失败（如断言、找不到记录）记为该行失败；持久化异常或事务已被标记回滚时整个批次失败。
+ */
+final class OkBatches {
+
+    static final int BATCH_SIZE = ConfigProvider.getConfig()
+            .getOptionalValue("quarkus.hibernate-orm.jdbc.statement-batch-size", Integer.class)
+            .filter(s -> s > 0)
+            .orElse(50);
+
+    private OkBatches() {
+    }
+
+    static <T extends OkEntity> OkBatchResult write(Collection<T> list, Consumer<T> writer) {
+        if (list == null || list.isEmpty()) {
+            return new OkBatchResult();
+        }
+        return QuarkusTransaction.joiningExisting().call(() ->
+                write(Panache.getEntityManager(), QuarkusTransaction::isRollbackOnly, BATCH_SIZE, list, writer));
+    }
+
+    static <T extends OkEntity> OkBatchResult write(EntityManager em, BooleanSupplier rollbackOnly, int batchSize,
+                                                    Collection<T> list, Consumer<T> writer) {
+        OkBatchResult result = new OkBatchResult();
+        List<T> created = new ArrayList<>(batchSize);
+        int index = 0;
+        for (T t : list) {
+            boolean managed = em.contains(t);
+            try {
+                writer.accept(t);
+                result.ok(index, t.id);
+                if (!managed) {
+                    created.add(t);
+                }
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                failed(rollbackOnly, result, index, t.id, e);
+            }
+            if (++index % batchSize == 0) {
+                flush(em, created);
+            }
+        }
+        flush(em, created);
+        return result;
+    }
+
+    /**
+     * 按批预加载待更新的实体，使后续 get(id) 命中一级缓存
+     */
+    static <T extends OkEntity> OkBatchResult update(Class<?> entity, Collection<T> list, Consumer<T> writer) {
+        if (list == null || list.isEmpty()) {
+            return new OkBatchResult();
+        }
+        return QuarkusTransaction.joiningExisting().call(() ->
+                update(Panache.getEntityManager(), QuarkusTransaction::isRollbackOnly, BATCH_SIZE, entity, list, writer));
+    }
+
+    static <T extends OkEntity> OkBatchResult update(EntityManager em, BooleanSupplier rollbackOnly, int batchSize,
+                                                     Class<?> entity, Collection<T> list, Consumer<T> writer) {
+        OkBatchResult result = new OkBatchResult();
+        List<T> rows = new ArrayList<>(list);
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<T> chunk = rows.subList(from, Math.min(from + batchSize, rows.size()));
+            List<Long> ids = chunk.stream().map(t -> t.id).filter(Objects::nonNull).toList();
+            Set<Long> exists = ids.isEmpty() ? Set.of() : em.createQuery(
+                            "from " + entity.getName() + " e where e.id in :ids", OkEntity.class)
+                    .setParameter("ids", ids)
+                    .getResultStream()
+                    .map(e -> e.id)
+                    .collect(Collectors.toSet());
+
+            for (int i = 0; i < chunk.size(); i++) {
+                T t = chunk.get(i);
+                if (t.id == null || !exists.contains(t.id)) {
+                    result.failed(from + i, t.id, "Not found");
+                    continue;
+                }
+                try {
+                    writer.accept(t);
+                    result.ok(from + i, t.id);
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                    failed(rollbackOnly, result, from + i, t.id, e);
+                }
+            }
+            //更新的实体可能已被调用方持有，不分离
+            em.flush();
+        }
+        return result;
+    }
+
+    static long deleteByIds(Class<?> entity, Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        return QuarkusTransaction.joiningExisting().call(() -> deleteByIds(Panache.getEntityManager(), entity, ids));
+    }
+
+    private static long deleteByIds(EntityManager em, Class<?> entity, Collection<Long> ids) {
+        //实体中的脏数据先写入，避免批量删除后被重新写回
+        em.flush();
+
+        List<Long> list = ids.stream().filter(Objects::nonNull).distinct().toList();
+        long count = 0;
+        for (int from = 0; from < list.size(); from += BATCH_SIZE) {
+            count += em.createQuery("delete from " + entity.getName() + " e where e.id in :ids")
+                    .setParameter("ids", list.subList(from, Math.min(from + BATCH_SIZE, list.size())))
+                    .executeUpdate();
+        }
+        OkCountCache.invalidateOnCommit(entity);
+        list.forEach(id -> OkCacheSync.changed(entity, id));
+        return count;
+    }
+
+    /**
+     * 行内失败只在事务仍可提交时记录，否则该批次已无法写入，直接失败
+     */
+    private static void failed(BooleanSupplier rollbackOnly, OkBatchResult result, int index, Long id, RuntimeException e) {
+        if (rollbackOnly.getAsBoolean()) {
+            throw e;
+        }
+        Log.debugf("Batch row %d failed: %s", index, e.getMessage());
+        result.failed(index, id, e.getMessage());
+    }
+
+    private static void flush(EntityManager em, List<?> created) {
+        em.flush();
+        created.forEach(em::detach);
+        created.clear();
+    }
+}
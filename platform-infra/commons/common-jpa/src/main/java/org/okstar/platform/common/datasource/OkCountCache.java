@@ -0,0 +1,119 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource;
+
+import io.quarkus.arc.Arc;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * 分页总数缓存，按 (实体, 查询条件) 缓存 COUNT 结果。
+ * <p>
+ * 有效期通过 okstar.page.count-ttl（秒，默认 30）配置，
+ * 可按实体覆盖，如 okstar.page.count-ttl.SysAccount=120；
+ * 实体新增、修改、删除时由 {@link org.okstar.platform.common.datasource.domain.OkEntityListener} 在事务提交后失效。
+ */
+public final class OkCountCache {
+
+    public static final String TTL_KEY = "okstar.page.count-ttl";
+
+    private static final long DEFAULT_TTL = 30;
+
+    /**
+     * 每个实体最多缓存的条件数
+     */
+    private static final int MAX_FILTERS = 256;
+
+    private record Entry(long count, long expireAt) {
+    }
+
+    private static final Map<Class<?>, Map<String, Entry>> CACHE = new ConcurrentHashMap<>();
+
+    private static final ClassValue<Long> TTL = new ClassValue<>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+            Config config = ConfigProvider.getConfig();
+            long ttl = config.getOptionalValue(TTL_KEY, Long.class).orElse(DEFAULT_TTL);
+            return config.getOptionalValue(TTL_KEY + "." + type.getSimpleName(), Long.class).orElse(ttl) * 1000;
+        }
+    };
+
+    private OkCountCache() {
+    }
+
+    public static long get(Class<?> entity, String filter, LongSupplier counter) {
+        long now = System.currentTimeMillis();
+        Map<String, Entry> entries = CACHE.computeIfAbsent(entity, k -> new ConcurrentHashMap<>());
+        Entry entry = entries.get(filter);
+        if (entry != null && entry.expireAt() > now) {
+            return entry.count();
+        }
+
+        long count = counter.getAsLong();
+        if (entries.size() >= MAX_FILTERS) {
+            entries.clear();
+        }
+        entries.put(filter, new Entry(count, now + TTL.get(entity)));
+        return count;
+    }
+
+    /**
+     * 失效该实体的全部缓存
+     */
+    public static void invalidate(Class<?> entity) {
+        CACHE.remove(entity);
+    }
+
+    /**
+     * 事务提交后失效该实体的缓存，不在事务中时立即失效。
+     * 提交前失效时，并发的读取会把提交前的总数重新写入缓存，直到过期。
+     */
+    @SuppressWarnings("unchecked")
+    public static void invalidateOnCommit(Class<?> entity) {
+        TransactionSynchronizationRegistry registry = Arc.container().instance(TransactionSynchronizationRegistry.class).get();
+        if (registry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            invalidate(entity);
+            return;
+        }
+
+        Set<Class<?>> entities = (Set<Class<?>>) registry.getResource(OkCountCache.class);
+        if (entities == null) {
+            Set<Class<?>> pending = new HashSet<>();
+            registry.putResource(OkCountCache.class, pending);
+            registry.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == Status.STATUS_COMMITTED) {
+                        pending.forEach(OkCountCache::invalidate);
+                    }
+                }
+            });
+            entities = pending;
+        }
+        entities.add(entity);
+    }
+}
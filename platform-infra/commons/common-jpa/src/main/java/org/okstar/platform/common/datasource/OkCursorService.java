@@ -0,0 +1,26 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource;
+
+import org.okstar.platform.common.core.web.page.OkCursorPageResult;
+import org.okstar.platform.common.core.web.page.OkCursorPageable;
+import org.okstar.platform.common.datasource.domain.OkEntity;
+
+/**
+ * 支持游标分页的服务，通过 {@link OkRepository#findPage(OkCursorPageable, OkKeyset)} 实现
+ */
+public interface OkCursorService<T extends OkEntity> extends OkService<T> {
+
+    OkCursorPageResult<T> findPage(OkCursorPageable page);
+}
@@ -0,0 +1,145 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource;
+
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
+import lombok.Getter;
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.okstar.platform.common.core.utils.OkStringUtil;
+import org.okstar.platform.common.core.web.page.OkCursorPageResult;
+import org.okstar.platform.common.core.web.page.OkCursorPageable;
+import org.okstar.platform.common.core.web.page.OkPageCursor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 游标分页（Keyset）的排序定义，按 (key, id) 定位，不使用 OFFSET 与 COUNT。
+ * <p>
+ * 排序键必须是非空列，建议与 id 组成联合索引。
+ */
+@Getter
+public final class OkKeyset {
+
+    public static final String ID = "id";
+
+    /**
+     * 排序键（实体属性名）
+     */
+    private final String key;
+
+    private final boolean ascending;
+
+    private OkKeyset(String key, boolean ascending) {
+        this.key = key;
+        this.ascending = ascending;
+    }
+
+    public static OkKeyset asc(String key) {
+        return new OkKeyset(key, true);
+    }
+
+    public static OkKeyset desc(String key) {
+        return new OkKeyset(key, false);
+    }
+
+    private boolean byId() {
+        return ID.equals(key);
+    }
+
+    <T> OkCursorPageResult<T> page(PanacheRepository<T> repository,
+                                   String query,
+                                   OkCursorPageable pageable,
+                                   Object... params) {
+        OkPageCursor cursor = OkPageCursor.decode(pageable.getCursor());
+        boolean backward = cursor != null && cursor.getDirection() == OkPageCursor.Direction.prev;
+
+        //向前翻页时反向扫描，取回后再倒序
+        boolean scanAsc = ascending != backward;
+        Sort.Direction direction = scanAsc ? Sort.Direction.Ascending : Sort.Direction.Descending;
+        Sort sort = byId() ? Sort.by(ID, direction) : Sort.by(key, direction).and(ID, direction);
+
+        List<Object> args = new ArrayList<>(Arrays.asList(params));
+        StringBuilder where = new StringBuilder();
+        if (OkStringUtil.isNotBlank(query)) {
+            where.append("(").append(query).append(")");
+        }
+        if (cursor != null) {
+            if (!where.isEmpty()) where.append(" and ");
+            String op = scanAsc ? " > " : " < ";
+            if (byId()) {
+                args.add(cursor.getId());
+                where.append(ID).append(op).append("?").append(args.size());
+            } else {
+                args.add(cursor.getKey());
+                int k = args.size();
+                args.add(cursor.getId());
+                int i = args.size();
+                where.append("(").append(key).append(op).append("?").append(k)
+                        .append(" or (").append(key).append(" = ?").append(k)
+                        .append(" and ").append(ID).append(op).append("?").append(i).append("))");
+            }
+        }
+
+        int size = pageable.getPageSize();
+        PanacheQuery<T> panacheQuery = where.isEmpty()
+                ? repository.findAll(sort)
+                : repository.find(where.toString(), sort, args.toArray());
+
+        //多取一行用于判断是否还有数据
+        List<T> rows = new ArrayList<>(panacheQuery.range(0, size).list());
+        boolean more = rows.size() > size;
+        if (more) {
+            rows = new ArrayList<>(rows.subList(0, size));
+        }
+        if (backward) {
+            Collections.reverse(rows);
+        }
+
+        if (rows.isEmpty()) {
+            //越过边界时，返回指回原位置的游标
+            String next = backward ? cursorOf(OkPageCursor.Direction.next, cursor) : null;
+            String prev = cursor != null && !backward ? cursorOf(OkPageCursor.Direction.prev, cursor) : null;
+            return OkCursorPageResult.build(rows, next, prev);
+        }
+
+        boolean hasNext = backward || more;
+        boolean hasPrev = backward ? more : cursor != null;
+        String next = hasNext ? cursorOf(OkPageCursor.Direction.next, rows.get(rows.size() - 1)) : null;
+        String prev = hasPrev ? cursorOf(OkPageCursor.Direction.prev, rows.get(0)) : null;
+        return OkCursorPageResult.build(rows, next, prev);
+    }
+
+    private String cursorOf(OkPageCursor.Direction direction, OkPageCursor cursor) {
+        return new OkPageCursor(direction, cursor.getId(), cursor.getKey()).encode();
+    }
+
+    private String cursorOf(OkPageCursor.Direction direction, Object row) {
+        Long id = (Long) read(row, ID);
+        Object value = byId() ? null : read(row, key);
+        return new OkPageCursor(direction, id, value).encode();
+    }
+
+    private static Object read(Object row, String field) {
+        try {
+            return FieldUtils.readField(row, field, true);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("无法读取排序键：" + field, e);
+        }
+    }
+}
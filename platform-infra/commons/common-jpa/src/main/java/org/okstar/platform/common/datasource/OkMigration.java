@@ -0,0 +1,49 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+
+/**
+ * 版本化迁移（db/migration）。
+ * <p>
+ * 表结构仍由 Hibernate（database.generation=update）创建，索引等由 Flyway 维护，
+ * 因此在持久化单元启动之后、其它启动任务之前执行，而不是 migrate-at-start。
+ */
+@ApplicationScoped
+public class OkMigration {
+
+    @ConfigProperty(name = "okstar.flyway.migrate", defaultValue = "true")
+    boolean migrate;
+
+    @Inject
+    Flyway flyway;
+
+    void onStart(@Observes @Priority(Interceptor.Priority.PLATFORM_BEFORE) StartupEvent event) {
+        if (!migrate) {
+            return;
+        }
+        MigrateResult result = flyway.migrate();
+        Log.infof("Flyway migrated %d script(s), schema version: %s", result.migrationsExecuted, result.targetSchemaVersion);
+    }
+}
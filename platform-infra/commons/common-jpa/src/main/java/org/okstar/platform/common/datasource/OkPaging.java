@@ -0,0 +1,55 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource;
+
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import org.okstar.platform.common.core.web.page.OkPageResult;
+import org.okstar.platform.common.core.web.page.OkPageable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按 {@link org.okstar.platform.common.core.web.page.OkCountMode} 执行分页查询
+ */
+final class OkPaging {
+
+    private OkPaging() {
+    }
+
+    static <T> OkPageResult<T> page(PanacheQuery<T> query,
+                                    Class<?> entity,
+                                    String filter,
+                                    OkPageable pageable) {
+        int index = pageable.getPageIndex();
+        int size = pageable.getPageSize();
+
+        long count;
+        switch (pageable.getCountMode()) {
+            case none -> {
+                //多取一行判断是否有下一页
+                int first = index * size;
+                List<T> rows = new ArrayList<>(query.range(first, first + size).list());
+                boolean more = rows.size() > size;
+                return OkPageResult.build(more ? new ArrayList<>(rows.subList(0, size)) : rows, more);
+            }
+            case cached -> count = OkCountCache.get(entity, filter, query::count);
+            default -> count = query.count();
+        }
+
+        long pageCount = (count + size - 1) / size;
+        List<T> list = query.page(index, size).list();
+        return OkPageResult.build(list, count, pageCount, index + 1 < pageCount);
+    }
+}
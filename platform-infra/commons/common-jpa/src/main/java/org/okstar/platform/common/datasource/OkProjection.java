@@ -0,0 +1,190 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource;
+
+import io.quarkus.hibernate.orm.panache.Panache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import org.apache.commons.lang3.ClassUtils;
+import org.hibernate.jpa.HibernateHints;
+import org.okstar.platform.common.core.utils.OkStringUtil;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DTO 投影：只查询 DTO 需要的列并直接填充 DTO，结果不进入持久化上下文，也不参与脏检查。
+ * <p>
+ * 默认按属性名匹配实体的基本属性（类型兼容时），嵌入对象等用 {@link #path(String, String)} 指定：
+ * <pre>
+ * static final OkProjection&lt;OrgStaff0&gt; STAFF0 = OkProjection.of(OrgStaff0.class)
+ *         .path("name", "fragment.name");
+ * </pre>
+ * 投影定义应作为常量在使用前配置好，查询计划按实体类型缓存。
+ */
+public final class OkProjection<P> {
+
+    private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private record Column(String path, MethodHandle setter) {
+    }
+
+    private record Plan(String select, MethodHandle constructor, Column[] columns) {
+    }
+
+    private final Class<P> type;
+
+    private final Map<String, String> paths = new LinkedHashMap<>();
+
+    private boolean cacheable;
+
+    private final Map<Class<?>, Plan> plans = new ConcurrentHashMap<>();
+
+    private OkProjection(Class<P> type) {
+        this.type = type;
+    }
+
+    public static <P> OkProjection<P> of(Class<P> type) {
+        return new OkProjection<>(type);
+    }
+
+    /**
+     * 指定 DTO 属性对应的实体路径，如 fragment.name
+     */
+    public OkProjection<P> path(String property, String path) {
+        paths.put(property, path);
+        return this;
+    }
+
+    /**
+     * 结果进入查询缓存
+     */
+    public OkProjection<P> cacheable() {
+        this.cacheable = true;
+        return this;
+    }
+
+    /**
+     * @param query HQL 条件，与 Panache 相同，可只写属性名（如 "username"），也可写完整条件或 order by
+     * @param max   最多返回的行数，0 表示不限
+     */
+    List<P> list(Class<?> entity, String query, int max, Object... params) {
+        Plan plan = plans.computeIfAbsent(entity, this::plan);
+
+        EntityManager em = Panache.getEntityManager();
+        Query q = em.createQuery(plan.select() + where(query, params));
+        for (int i = 0; i < params.length; i++) {
+            q.setParameter(i + 1, params[i]);
+        }
+        q.setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (cacheable) {
+            q.setHint(HibernateHints.HINT_CACHEABLE, true);
+        }
+        if (max > 0) {
+            q.setMaxResults(max);
+        }
+
+        List<?> rows = q.getResultList();
+        List<P> list = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            list.add(map(plan, row));
+        }
+        return list;
+    }
+
+    private static String where(String query, Object[] params) {
+        if (OkStringUtil.isBlank(query)) {
+            return "";
+        }
+        String q = query.trim();
+        if (q.toLowerCase().startsWith("order by")) {
+            return " " + q;
+        }
+        //Panache 简写：find("username", value)
+        if (params.length == 1 && q.matches("[\\w.]+")) {
+            return " where " + q + " = ?1";
+        }
+        return " where " + q;
+    }
+
+    @SuppressWarnings("unchecked")
+    private P map(Plan plan, Object row) {
+        Column[] columns = plan.columns();
+        Object[] values = columns.length == 1 ? new Object[]{row} : (Object[]) row;
+        try {
+            P dto = (P) plan.constructor().invoke();
+            for (int i = 0; i < columns.length; i++) {
+                if (values[i] != null) {
+                    columns[i].setter().invokeExact((Object) dto, values[i]);
+                }
+            }
+            return dto;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("投影失败：" + type.getName(), e);
+        }
+    }
+
+    private Plan plan(Class<?> entity) {
+        EntityType<?> entityType = Panache.getEntityManager().getMetamodel().entity(entity);
+        Map<String, Attribute<?, ?>> attributes = new LinkedHashMap<>();
+        entityType.getAttributes().forEach(a -> attributes.put(a.getName(), a));
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<Column> columns = new ArrayList<>();
+        try {
+            for (PropertyDescriptor pd : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+                if (pd.getWriteMethod() == null) {
+                    continue;
+                }
+                String path = paths.get(pd.getName());
+                if (path == null) {
+                    Attribute<?, ?> attribute = attributes.get(pd.getName());
+                    if (attribute == null
+                            || attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC
+                            || !ClassUtils.primitiveToWrapper(pd.getPropertyType())
+                            .isAssignableFrom(ClassUtils.primitiveToWrapper(attribute.getJavaType()))) {
+                        continue;
+                    }
+                    path = pd.getName();
+                }
+                pd.getWriteMethod().trySetAccessible();
+                columns.add(new Column(path, lookup.unreflect(pd.getWriteMethod()).asType(SETTER)));
+            }
+
+            if (columns.isEmpty()) {
+                throw new IllegalStateException("没有可投影的属性：" + type.getName());
+            }
+
+            String select = "select " + String.join(", ", columns.stream().map(Column::path).toList())
+                    + " from " + entity.getName();
+            MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class));
+            return new Plan(select, constructor, columns.toArray(new Column[0]));
+        } catch (IntrospectionException | ReflectiveOperationException e) {
+            throw new IllegalStateException("无法解析投影：" + type.getName(), e);
+        }
+    }
+}
@@ -13,7 +13,101 @@
 
 package org.okstar.platform.common.datasource;
 
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
+import org.hibernate.jpa.HibernateHints;
+import org.okstar.platform.common.core.web.page.OkCursorPageResult;
+import org.okstar.platform.common.core.web.page.OkCursorPageable;
+import org.okstar.platform.common.core.web.page.OkPageResult;
+import org.okstar.platform.common.core.web.page.OkPageable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 public interface OkRepository<T> extends PanacheRepository<T> {
+
+    /**
+     * 分页查询，按 {@link OkPageable#getCountMode()} 统计总数
+     */
+    default OkPageResult<T> findPage(OkPageable pageable) {
+        return OkPaging.page(findAll(), OkTypes.entityOf(this), "", pageable);
+    }
+
+    default OkPageResult<T> findPage(OkPageable pageable, Sort sort) {
+        return OkPaging.page(findAll(sort), OkTypes.entityOf(this), "", pageable);
+    }
+
+    /**
+     * 带条件的分页查询，条件与参数同时作为总数缓存的键
+     */
+    default OkPageResult<T> findPage(String query, Sort sort, OkPageable pageable, Object... params) {
+        return OkPaging.page(find(query, sort, params), OkTypes.entityOf(this),
+                query + Arrays.toString(params), pageable);
+    }
+
+    /**
+     * 游标分页（Keyset），按 (key, id) 定位，不执行 OFFSET 与 COUNT
+     */
+    default OkCursorPageResult<T> findPage(OkCursorPageable pageable, OkKeyset keyset) {
+        return keyset.page(this, null, pageable);
+    }
+
+    /**
+     * 带条件的游标分页
+     *
+     * @param query  HQL 条件（完整的 where 子句，使用 ?1、?2 位置参数）
+     * @param params 条件参数
+     */
+    default OkCursorPageResult<T> findPage(String query, OkCursorPageable pageable, OkKeyset keyset, Object... params) {
+        return keyset.page(this, query, pageable, params);
+    }
+
+    /**
+     * 可缓存的查询，结果进入查询缓存，实体需标注 {@link jakarta.persistence.Cacheable}
+     */
+    default PanacheQuery<T> findCacheable(String query, Object... params) {
+        return find(query, params).withHint(HibernateHints.HINT_CACHEABLE, true);
+    }
+
+    default PanacheQuery<T> findAllCacheable() {
+        return findAll().withHint(HibernateHints.HINT_CACHEABLE, true);
+    }
+
+    /**
+     * DTO 投影查询，只选择 DTO 需要的列，结果不受持久化上下文管理
+     */
+    default <P> List<P> findProjected(OkProjection<P> projection, String query, Object... params) {
+        return projection.list(OkTypes.entityOf(this), query, 0, params);
+    }
+
+    default <P> Optional<P> findProjectedFirst(OkProjection<P> projection, String query, Object... params) {
+        return projection.list(OkTypes.entityOf(this), query, 1, params).stream().findFirst();
+    }
+
+    /**
+     * 不存在时创建，由唯一约束保证并发下只创建一次
+     *
+     * @param finder  按唯一键查询
+     * @param creator 构造待插入的实体
+     */
+    default T findOrCreate(Supplier<Optional<T>> finder, Supplier<T> creator) {
+        return OkUpsert.findOrCreate(this, finder, creator);
+    }
+
+    /**
+     * 校验提交的版本（@Version）与当前版本一致，不一致时抛出 {@link jakarta.persistence.OptimisticLockException}
+     */
+    default void checkVersion(Long expected, Long actual, T entity) {
+        OkUpsert.checkVersion(expected, actual, entity);
+    }
+
+    /**
+     * 是否由唯一约束等数据库约束冲突引起
+     */
+    static boolean isConstraintViolation(Throwable e) {
+        return OkUpsert.isConstraintViolation(e);
+    }
 }
@@ -19,7 +19,9 @@ import org.okstar.platform.common.core.web.page.OkPageResult;
 import org.okstar.platform.common.core.web.page.OkPageable;
 import org.okstar.platform.common.datasource.domain.OkEntity;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface OkService <T extends OkEntity> {
 
@@ -34,10 +36,54 @@ public interface OkService <T extends OkEntity> {
     default void create(T t, Long createBy){
         t.id = null;
         t.setCreateAt(OkDateUtils.now());
+        t.setCreateBy(createBy);
         t.setUpdateBy(createBy);
         save(t);
     }
 
+    /**
+     * 批量新增，按批次 flush 使用 JDBC 批处理，加入调用方的事务（没有时新建）
+     *
+     * @return 每一行的处理结果
+     */
+    default OkBatchResult createAll(Collection<T> list, Long createBy) {
+        return OkBatches.write(list, t -> create(t, createBy));
+    }
+
+    /**
+     * 批量新增，逐行设置创建信息后只由 persist 写入，不经过 save；
+     * save 中有逐行查询（查询前的自动 flush 会打断 JDBC 批处理）时使用，写入后由调用方统一处理
+     *
+     * @return 每一行的处理结果
+     */
+    default OkBatchResult createAll(Collection<T> list, Long createBy, Consumer<T> persist) {
+        return OkBatches.write(list, t -> {
+            t.id = null;
+            t.setCreateAt(OkDateUtils.now());
+            t.setCreateBy(createBy);
+            t.setUpdateBy(createBy);
+            persist.accept(t);
+        });
+    }
+
+    /**
+     * 批量更新，按批次预加载已有记录，不存在的记录标记为失败
+     *
+     * @return 每一行的处理结果
+     */
+    default OkBatchResult updateAll(Collection<T> list, Long updateBy) {
+        return OkBatches.update(OkTypes.entityOf(this), list, t -> update(t, updateBy));
+    }
+
+    /**
+     * 按 ID 批量删除，每批执行一条 DELETE
+     *
+     * @return 删除的行数
+     */
+    default long deleteByIds(Collection<Long> ids) {
+        return OkBatches.deleteByIds(OkTypes.entityOf(this), ids);
+    }
+
     void save(T t);
 
     List<T> findAll();
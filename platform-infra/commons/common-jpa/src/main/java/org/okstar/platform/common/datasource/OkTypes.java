@@ -0,0 +1,78 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * 解析仓库、服务声明的实体类型
+ */
+final class OkTypes {
+
+    private OkTypes() {
+    }
+
+    private static final ClassValue<Class<?>> REPOSITORY_ENTITY = new ClassValue<>() {
+        @Override
+        protected Class<?> computeValue(Class<?> type) {
+            return resolve(type, PanacheRepositoryBase.class);
+        }
+    };
+
+    private static final ClassValue<Class<?>> SERVICE_ENTITY = new ClassValue<>() {
+        @Override
+        protected Class<?> computeValue(Class<?> type) {
+            return resolve(type, OkService.class);
+        }
+    };
+
+    static Class<?> entityOf(OkRepository<?> repository) {
+        return REPOSITORY_ENTITY.get(repository.getClass());
+    }
+
+    static Class<?> entityOf(OkService<?> service) {
+        return SERVICE_ENTITY.get(service.getClass());
+    }
+
+    private static Class<?> resolve(Class<?> type, Class<?> generic) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            Class<?> found = resolve(c.getGenericInterfaces(), generic);
+            if (found != null) {
+                return found;
+            }
+        }
+        throw new IllegalStateException("Can not resolve entity of " + type.getName());
+    }
+
+    private static Class<?> resolve(Type[] interfaces, Class<?> generic) {
+        for (Type t : interfaces) {
+            Class<?> raw = t instanceof ParameterizedType pt ? (Class<?>) pt.getRawType() : (Class<?>) t;
+            if (!generic.isAssignableFrom(raw)) {
+                continue;
+            }
+            if (t instanceof ParameterizedType p && p.getActualTypeArguments()[0] instanceof Class<?> entity) {
+                return entity;
+            }
+            //如 OrgDeptService extends OkService<OrgDept>
+            Class<?> found = resolve(raw.getGenericInterfaces(), generic);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.persistence.OptimisticLockException;
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * 依赖数据库唯一约束与 @Version 的并发写入，替代 JVM 内的 synchronized。
+ * <p>
+ * 不存在时创建：在独立事务中插入并 flush，并发插入触发唯一约束冲突时放弃本次插入，
+ * 在当前事务中重新查询已存在的数据，当前事务不会被标记为回滚。
+ */
+final class OkUpsert {
+
+    private OkUpsert() {
+    }
+
+    static <T> T findOrCreate(PanacheRepository<T> repository, Supplier<Optional<T>> finder, Supplier<T> creator) {
+        Optional<T> found = finder.get();
+        if (found.isPresent()) {
+            return found.get();
+        }
+
+        try {
+            QuarkusTransaction.requiringNew().run(() -> repository.persistAndFlush(creator.get()));
+        } catch (RuntimeException e) {
+            if (!isConstraintViolation(e)) {
+                throw e;
+            }
+            Log.debugf("Concurrent create detected: %s", e.getMessage());
+        }
+
+        //重新查询，使返回的实体受当前持久化上下文管理
+        return finder.get().orElseThrow(() -> new IllegalStateException("创建后无法查询到数据！"));
+    }
+
+    static boolean isConstraintViolation(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ConstraintViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 校验客户端提交的版本，提交了旧版本时拒绝覆盖
+     */
+    static void checkVersion(Long expected, Long actual, Object entity) {
+        if (expected != null && !Objects.equals(expected, actual)) {
+            throw new OptimisticLockException("数据已被修改，请刷新后重试！", null, entity);
+        }
+    }
+}
@@ -13,17 +13,20 @@
 
 package org.okstar.platform.common.datasource.annotation;
 
+import jakarta.interceptor.InterceptorBinding;
+
 import java.lang.annotation.*;
 
 /**
- * 主库数据源
- * 
+ * 主库数据源，方法级标注可覆盖类上的 {@link Slave}
  * 
+ *
  */
+@Inherited
+@InterceptorBinding
 @Target({ ElementType.TYPE, ElementType.METHOD })
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
-//@DS("master")
 public @interface Master
 {
 
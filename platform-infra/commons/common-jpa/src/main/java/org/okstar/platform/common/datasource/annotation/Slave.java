@@ -13,17 +13,21 @@
 
 package org.okstar.platform.common.datasource.annotation;
 
+import jakarta.interceptor.InterceptorBinding;
+
 import java.lang.annotation.*;
 
 /**
- * 从库数据源
+ * 从库数据源，标注的方法（或类）在新开事务时路由到从库；
+ * 从库不可用或复制延迟超限时回落主库
  * 
  *
  */
+@Inherited
+@InterceptorBinding
 @Target({ ElementType.TYPE, ElementType.METHOD })
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
-//@DS("slave")
 public @interface Slave
 {
 
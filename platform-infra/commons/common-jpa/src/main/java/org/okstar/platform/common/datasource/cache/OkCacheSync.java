@@ -0,0 +1,239 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource.cache;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.datasource.common.runtime.DataSourceUtil;
+import io.quarkus.logging.Log;
+import io.quarkus.redis.datasource.RedisDataSource;
+import io.quarkus.redis.datasource.pubsub.PubSubCommands;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import jakarta.persistence.Cacheable;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.okstar.platform.common.datasource.domain.OkEntity;
+import org.okstar.platform.common.datasource.routing.OkReplicaMonitor;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 二级缓存的跨节点失效。
+ * <p>
+ * 标注 {@link Cacheable} 的实体在事务提交后，通过 Redis 发布 “节点|实体类|id”，
+ * 其它节点收到后清除对应的实体缓存和查询缓存。本节点的缓存由 Hibernate 自行维护。
+ * <p>
+ * 读写分离（DATABASE 多租户）时实体缓存键带租户标识，主库会话的写入只清除主库租户的键，
+ * 因此提交后还要清除本节点从库租户下的同一实体；查询缓存按表的更新时间戳失效，与租户无关。
+ */
+@ApplicationScoped
+public class OkCacheSync {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * 多租户时缓存键使用的租户标识（数据源名称）
+     */
+    private static final List<String> TENANTS = List.of(DataSourceUtil.DEFAULT_DATASOURCE_NAME, OkReplicaMonitor.SLAVE);
+
+    private static final ClassValue<Boolean> CACHEABLE = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return type.isAnnotationPresent(Cacheable.class);
+        }
+    };
+
+    /**
+     * 本节点标识，忽略自己发布的消息
+     */
+    private final String node = UUID.randomUUID().toString();
+
+    @ConfigProperty(name = "okstar.cache.sync.enabled", defaultValue = "true")
+    boolean enabled;
+
+    /**
+     * 进程内的 Redis 实现（单机部署）不需要跨节点失效，也不连接 Redis
+     */
+    @ConfigProperty(name = "okstar.redis.backend", defaultValue = "redis")
+    String backend;
+
+    @ConfigProperty(name = "okstar.cache.sync.channel", defaultValue = "okstar:l2:evict")
+    String channel;
+
+    @Inject
+    Instance<RedisDataSource> redis;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Inject
+    TransactionSynchronizationRegistry registry;
+
+    /**
+     * 是否开启了 DATABASE 多租户（读写分离）
+     */
+    private boolean tenants;
+
+    private PubSubCommands.RedisSubscriber subscriber;
+
+    /**
+     * 实体新增、修改、删除后调用
+     */
+    public static void changed(Object entity) {
+        if (entity instanceof OkEntity e) {
+            changed(e.getClass(), e.id);
+        }
+    }
+
+    /**
+     * 批量删除等绕过实体监听的操作后调用
+     */
+    public static void changed(Class<?> type, Long id) {
+        if (!CACHEABLE.get(type)) {
+            return;
+        }
+        Arc.container().instance(OkCacheSync.class).get().onCommit(type, id);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        tenants = factory().getSessionFactoryOptions().isMultiTenancyEnabled();
+        if ("memory".equals(backend)) {
+            enabled = false;
+        }
+        if (!enabled) {
+            return;
+        }
+        try {
+            subscriber = redis.get().pubsub(String.class).subscribe(channel, this::evict);
+        } catch (RuntimeException e) {
+            Log.warnf("二级缓存失效订阅失败：%s", e.getMessage());
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (subscriber != null) {
+            subscriber.unsubscribe();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    void onCommit(Class<?> type, Long id) {
+        if (!enabled && !tenants) {
+            return;
+        }
+        Changed changed = new Changed(type, id);
+        if (registry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            committed(Set.of(changed));
+            return;
+        }
+
+        //同一事务内的变更合并，提交后一次处理
+        Set<Changed> changes = (Set<Changed>) registry.getResource(OkCacheSync.class);
+        if (changes == null) {
+            Set<Changed> pending = new LinkedHashSet<>();
+            registry.putResource(OkCacheSync.class, pending);
+            registry.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == Status.STATUS_COMMITTED) {
+                        committed(pending);
+                    }
+                }
+            });
+            changes = pending;
+        }
+        changes.add(changed);
+    }
+
+    private void committed(Set<Changed> changes) {
+        if (tenants) {
+            changes.forEach(c -> evict(c.type(), c.id(), List.of(OkReplicaMonitor.SLAVE)));
+        }
+        if (enabled) {
+            publish(changes);
+        }
+    }
+
+    private void publish(Set<Changed> changes) {
+        try {
+            PubSubCommands<String> pubsub = redis.get().pubsub(String.class);
+            changes.forEach(c -> pubsub.publish(channel, node + SEPARATOR + c.type().getName() + SEPARATOR + c.id()));
+        } catch (RuntimeException e) {
+            Log.warnf("二级缓存失效通知发送失败：%s", e.getMessage());
+        }
+    }
+
+    void evict(String message) {
+        String[] parts = message.split("\\|", 3);
+        if (parts.length != 3 || node.equals(parts[0])) {
+            return;
+        }
+
+        Class<?> type;
+        try {
+            type = Class.forName(parts[1], false, Thread.currentThread().getContextClassLoader());
+        } catch (ClassNotFoundException e) {
+            //其它模块的实体
+            return;
+        }
+        if (!CACHEABLE.get(type)) {
+            return;
+        }
+
+        Log.debugf("清除二级缓存：%s#%s", type.getSimpleName(), parts[2]);
+        evict(type, Long.valueOf(parts[2]), TENANTS);
+        sessionFactory.getCache().evictDefaultQueryRegion();
+    }
+
+    /**
+     * 清除实体缓存，多租户时按租户逐个清除（不带租户的键匹配不到任何租户的缓存）
+     */
+    void evict(Class<?> type, Long id, List<String> tenantIds) {
+        SessionFactoryImplementor factory = factory();
+        if (!tenants) {
+            factory.getCache().evictEntityData(type, id);
+            return;
+        }
+        EntityPersister persister = factory.getMappingMetamodel().getEntityDescriptor(type);
+        EntityDataAccess access = persister.getCacheAccessStrategy();
+        if (access == null) {
+            return;
+        }
+        tenantIds.forEach(tenant -> access.evict(access.generateCacheKey(id, persister, factory, tenant)));
+    }
+
+    private SessionFactoryImplementor factory() {
+        return sessionFactory.unwrap(SessionFactoryImplementor.class);
+    }
+
+    private record Changed(Class<?> type, Long id) {
+    }
+}
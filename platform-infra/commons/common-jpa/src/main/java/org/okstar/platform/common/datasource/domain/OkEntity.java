@@ -14,6 +14,7 @@
 package org.okstar.platform.common.datasource.domain;
 
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.MappedSuperclass;
 import lombok.Data;
 
@@ -21,6 +22,7 @@ import java.util.Date;
 
 @Data
 @MappedSuperclass
+@EntityListeners(OkEntityListener.class)
 public class OkEntity extends PanacheEntity {
     /**
      * 创建者
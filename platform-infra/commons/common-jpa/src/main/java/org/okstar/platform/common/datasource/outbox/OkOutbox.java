@@ -0,0 +1,80 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.hibernate.orm.panache.Panache;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.okstar.platform.common.core.utils.OkAssert;
+
+import java.util.Date;
+
+/**
+ * 发件箱：在业务事务中登记事件，提交后由 {@link OkOutboxRelay} 投递，
+ * 跨模块的后续步骤不再阻塞当前请求。
+ */
+@ApplicationScoped
+public class OkOutbox {
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    /**
+     * 登记事件，必须在事务中调用；相同 key 的事件已存在时忽略
+     *
+     * @param topic   主题
+     * @param key     幂等键
+     * @param payload 事件内容，序列化为 JSON
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void publish(String topic, String key, Object payload) {
+        OkAssert.hasText(topic, "topic is empty");
+        OkAssert.hasText(key, "key is empty");
+
+        var em = Panache.getEntityManager();
+        long existed = em.createQuery("select count(id) from OkOutboxEvent where eventKey = ?1", Long.class)
+                .setParameter(1, key)
+                .getSingleResult();
+        if (existed > 0) {
+            Log.debugf("Outbox event existed: %s", key);
+            return;
+        }
+
+        OkOutboxEvent event = new OkOutboxEvent();
+        event.setTopic(topic);
+        event.setEventKey(key);
+        event.setPayload(write(payload));
+        event.setStatus(OkOutboxEvent.Status.pending);
+        event.setCreateAt(new Date());
+        event.setNextAt(event.getCreateAt());
+        em.persist(event);
+        Log.debugf("Outbox event published: %s[%s]", topic, key);
+    }
+
+    String write(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("事件内容无法序列化：" + e.getMessage(), e);
+        }
+    }
+
+    <T> T read(String payload, Class<T> type) throws JsonProcessingException {
+        return objectMapper.readValue(payload, type);
+    }
+}
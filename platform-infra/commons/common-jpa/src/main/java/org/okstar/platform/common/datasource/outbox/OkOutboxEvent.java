@@ -0,0 +1,88 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource.outbox;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 发件箱事件，与业务数据在同一事务中写入，由 {@link OkOutboxRelay} 异步投递
+ */
+@Data
+@Entity
+@Table(uniqueConstraints = {@UniqueConstraint(columnNames = {"eventKey"})},
+        indexes = {@Index(columnList = "status, nextAt")})
+public class OkOutboxEvent extends PanacheEntity {
+
+    public enum Status {
+        /**
+         * 待投递（含失败待重试）
+         */
+        pending,
+        /**
+         * 已投递
+         */
+        done,
+        /**
+         * 超过重试次数，需人工处理
+         */
+        dead
+    }
+
+    /**
+     * 主题，对应 {@link OkOutboxHandler#topic()}
+     */
+    private String topic;
+
+    /**
+     * 幂等键，同一个键只写入一次
+     */
+    private String eventKey;
+
+    /**
+     * 事件内容（JSON）
+     */
+    @Lob
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    /**
+     * 已投递次数
+     */
+    private int attempts;
+
+    /**
+     * 下次投递时间
+     */
+    private Date nextAt;
+
+    /**
+     * 认领标识与认领有效期，多个节点只有一个能认领到同一事件
+     */
+    private String claimToken;
+
+    private Date claimUntil;
+
+    @Column(length = 1024)
+    private String lastError;
+
+    private Date createAt;
+
+    private Date doneAt;
+}
@@ -0,0 +1,31 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource.outbox;
+
+/**
+ * 发件箱事件处理器，按主题注册为 CDI Bean。
+ * <p>
+ * 投递至少一次：处理失败或超时会重试，实现需按 key 保证幂等。
+ * 处理时不在事务中，需要写库时自行开启事务。
+ *
+ * @param <T> 事件内容类型
+ */
+public interface OkOutboxHandler<T> {
+
+    String topic();
+
+    Class<T> type();
+
+    void handle(String key, T payload) throws Exception;
+}
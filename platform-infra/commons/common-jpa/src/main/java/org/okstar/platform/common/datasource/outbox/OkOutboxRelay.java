@@ -0,0 +1,207 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.hibernate.orm.panache.Panache;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * 发件箱投递：定时按批认领待投递事件，在事务外调用处理器，再在一个事务中回写结果。
+ * <p>
+ * 认领通过条件更新 claimToken/claimUntil 完成，多节点不会重复认领；
+ * 节点在认领期内宕机时，过期后由其它节点重新认领。
+ * 失败按指数退避重试，超过 okstar.outbox.max-attempts 次后标记为 dead。
+ */
+@ApplicationScoped
+public class OkOutboxRelay {
+
+    @ConfigProperty(name = "okstar.outbox.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "okstar.outbox.batch-size", defaultValue = "50")
+    int batchSize;
+
+    @ConfigProperty(name = "okstar.outbox.max-attempts", defaultValue = "10")
+    int maxAttempts;
+
+    @ConfigProperty(name = "okstar.outbox.backoff", defaultValue = "2s")
+    Duration backoff;
+
+    @ConfigProperty(name = "okstar.outbox.max-backoff", defaultValue = "10m")
+    Duration maxBackoff;
+
+    @ConfigProperty(name = "okstar.outbox.claim-timeout", defaultValue = "5m")
+    Duration claimTimeout;
+
+    @ConfigProperty(name = "okstar.outbox.retention", defaultValue = "168h")
+    Duration retention;
+
+    @Inject
+    Instance<OkOutboxHandler<?>> handlers;
+
+    @Inject
+    OkOutbox outbox;
+
+    @Inject
+    MeterRegistry registry;
+
+    private record Result(Long id, String topic, String error) {
+    }
+
+    @Scheduled(every = "${okstar.outbox.interval:1s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    @RunOnVirtualThread
+    void relay() {
+        if (!enabled || handlers.isUnsatisfied()) {
+            return;
+        }
+        int claimed;
+        do {
+            claimed = relayOnce();
+        } while (claimed == batchSize);
+    }
+
+    /**
+     * 认领并投递一批到期事件，不受 okstar.outbox.enabled 控制（定时任务与测试共用）
+     *
+     * @return 本批认领的事件数
+     */
+    public int relayOnce() {
+        Map<String, OkOutboxHandler<?>> byTopic = new HashMap<>();
+        handlers.forEach(h -> byTopic.put(h.topic(), h));
+
+        List<OkOutboxEvent> events = QuarkusTransaction.requiringNew().call(this::claim);
+        if (events.isEmpty()) {
+            return 0;
+        }
+        List<Result> results = new ArrayList<>(events.size());
+        for (OkOutboxEvent event : events) {
+            results.add(dispatch(byTopic.get(event.getTopic()), event));
+        }
+        QuarkusTransaction.requiringNew().run(() -> complete(results));
+        return events.size();
+    }
+
+    /**
+     * 清理已投递的事件
+     */
+    @Scheduled(every = "1h", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    @RunOnVirtualThread
+    void purge() {
+        if (!enabled || handlers.isUnsatisfied()) {
+            return;
+        }
+        Date before = new Date(System.currentTimeMillis() - retention.toMillis());
+        int deleted = QuarkusTransaction.requiringNew().call(() -> Panache.getEntityManager()
+                .createQuery("delete from OkOutboxEvent where status = ?1 and doneAt < ?2")
+                .setParameter(1, OkOutboxEvent.Status.done)
+                .setParameter(2, before)
+                .executeUpdate());
+        if (deleted > 0) {
+            Log.infof("Outbox purged %d events", deleted);
+        }
+    }
+
+    private List<OkOutboxEvent> claim() {
+        var em = Panache.getEntityManager();
+        Date now = new Date();
+        List<Long> ids = em.createQuery("select id from OkOutboxEvent where status = ?1 and nextAt <= ?2"
+                        + " and (claimUntil is null or claimUntil < ?2) order by id", Long.class)
+                .setParameter(1, OkOutboxEvent.Status.pending)
+                .setParameter(2, now)
+                .setMaxResults(batchSize)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        String token = UUID.randomUUID().toString();
+        em.createQuery("update OkOutboxEvent set claimToken = ?1, claimUntil = ?2"
+                        + " where id in ?3 and (claimUntil is null or claimUntil < ?4)")
+                .setParameter(1, token)
+                .setParameter(2, new Date(now.getTime() + claimTimeout.toMillis()))
+                .setParameter(3, ids)
+                .setParameter(4, now)
+                .executeUpdate();
+        return em.createQuery("from OkOutboxEvent where claimToken = ?1 order by id", OkOutboxEvent.class)
+                .setParameter(1, token)
+                .getResultList();
+    }
+
+    private <T> Result dispatch(OkOutboxHandler<T> handler, OkOutboxEvent event) {
+        if (handler == null) {
+            return new Result(event.id, event.getTopic(), "No handler for topic: " + event.getTopic());
+        }
+        try {
+            handler.handle(event.getEventKey(), outbox.read(event.getPayload(), handler.type()));
+            return new Result(event.id, event.getTopic(), null);
+        } catch (Exception e) {
+            Log.warnf("Outbox event %s[%s] failed: %s", event.getTopic(), event.getEventKey(), e.getMessage());
+            return new Result(event.id, event.getTopic(), Objects.toString(e.getMessage(), e.getClass().getName()));
+        }
+    }
+
+    private void complete(List<Result> results) {
+        var em = Panache.getEntityManager();
+        Date now = new Date();
+        for (Result result : results) {
+            OkOutboxEvent event = em.find(OkOutboxEvent.class, result.id());
+            if (event == null) {
+                continue;
+            }
+            event.setAttempts(event.getAttempts() + 1);
+            event.setClaimToken(null);
+            event.setClaimUntil(null);
+
+            String outcome;
+            if (result.error() == null) {
+                event.setStatus(OkOutboxEvent.Status.done);
+                event.setDoneAt(now);
+                event.setLastError(null);
+                outcome = "done";
+            } else {
+                event.setLastError(result.error().length() > 1024 ? result.error().substring(0, 1024) : result.error());
+                if (event.getAttempts() >= maxAttempts) {
+                    event.setStatus(OkOutboxEvent.Status.dead);
+                    Log.errorf("Outbox event %s[%s] is dead after %d attempts: %s",
+                            event.getTopic(), event.getEventKey(), event.getAttempts(), result.error());
+                    outcome = "dead";
+                } else {
+                    event.setNextAt(new Date(now.getTime() + delay(event.getAttempts())));
+                    outcome = "retry";
+                }
+            }
+            registry.counter("okstar.outbox.events", "topic", result.topic(), "result", outcome).increment();
+        }
+    }
+
+    /**
+     * 指数退避：backoff * 2^(attempts-1)，不超过 max-backoff
+     */
+    private long delay(int attempts) {
+        long delay = backoff.toMillis() << Math.min(attempts - 1, 20);
+        return Math.min(delay, maxBackoff.toMillis());
+    }
+}
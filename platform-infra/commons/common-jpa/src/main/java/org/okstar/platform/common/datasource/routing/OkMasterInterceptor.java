@@ -0,0 +1,46 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource.routing;
+
+import jakarta.annotation.Priority;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+import org.okstar.platform.common.datasource.annotation.Master;
+import org.okstar.platform.common.datasource.annotation.Slave;
+
+/**
+ * {@link Master} 拦截器，方法上标注 {@link Slave} 时不生效。
+ * <p>
+ * 优先级高于事务拦截器，保证开启事务前已确定路由
+ */
+@Master
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 100)
+public class OkMasterInterceptor {
+
+    @AroundInvoke
+    Object route(InvocationContext context) throws Exception {
+        if (context.getMethod().isAnnotationPresent(Slave.class)) {
+            return context.proceed();
+        }
+
+        OkRouteContext.push(OkRoute.master);
+        try {
+            return context.proceed();
+        } finally {
+            OkRouteContext.pop();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource.routing;
+
+import io.agroal.api.AgroalDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 从库状态检测，定时读取复制延迟（秒）。
+ * <p>
+ * MariaDB/MySQL 读取 SHOW SLAVE STATUS 的 Seconds_Behind_Master，
+ * 未配置复制（如两个独立的本地实例）或其它数据库只检测连通性，延迟记为 0。
+ */
+@ApplicationScoped
+public class OkReplicaMonitor {
+
+    /**
+     * 从库数据源名称
+     */
+    public static final String SLAVE = "slave";
+
+    /**
+     * 不可用
+     */
+    private static final long UNAVAILABLE = -1;
+
+    @ConfigProperty(name = "okstar.datasource.slave.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "okstar.datasource.slave.max-lag", defaultValue = "5")
+    long maxLag;
+
+    @Inject
+    @DataSource(SLAVE)
+    Instance<AgroalDataSource> slave;
+
+    @Inject
+    MeterRegistry registry;
+
+    private volatile long lag = UNAVAILABLE;
+
+    void onStart(@Observes StartupEvent event) {
+        Gauge.builder("okstar.datasource.slave.lag", this, m -> m.lag).baseUnit("seconds").register(registry);
+        check();
+    }
+
+    /**
+     * 是否可以路由到从库
+     */
+    public boolean available() {
+        return enabled && lag != UNAVAILABLE && lag <= maxLag;
+    }
+
+    public long getLag() {
+        return lag;
+    }
+
+    @Scheduled(every = "${okstar.datasource.slave.check-interval:10s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    @RunOnVirtualThread
+    void check() {
+        if (!enabled) {
+            return;
+        }
+        if (!slave.isResolvable()) {
+            Log.warnf("未配置从库数据源：%s", SLAVE);
+            lag = UNAVAILABLE;
+            return;
+        }
+
+        long current;
+        try (Connection connection = slave.get().getConnection()) {
+            current = readLag(connection);
+        } catch (SQLException e) {
+            Log.warnf("从库不可用：%s", e.getMessage());
+            current = UNAVAILABLE;
+        }
+
+        if (current > maxLag || current == UNAVAILABLE) {
+            Log.warnf("从库延迟：%ds，读请求回落主库", current);
+        }
+        lag = current;
+    }
+
+    private long readLag(Connection connection) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName();
+        if (!"MariaDB".equalsIgnoreCase(product) && !"MySQL".equalsIgnoreCase(product)) {
+            return connection.isValid(1) ? 0 : UNAVAILABLE;
+        }
+
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SHOW SLAVE STATUS")) {
+            if (!rs.next()) {
+                return 0;
+            }
+            long seconds = rs.getLong("Seconds_Behind_Master");
+            //复制线程停止时为 NULL
+            return rs.wasNull() ? UNAVAILABLE : seconds;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource.routing;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 当前线程的数据源路由，支持嵌套，未标注时为主库。
+ */
+public final class OkRouteContext {
+
+    private static final ThreadLocal<Deque<OkRoute>> ROUTES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private OkRouteContext() {
+    }
+
+    public static OkRoute current() {
+        OkRoute route = ROUTES.get().peek();
+        return route == null ? OkRoute.master : route;
+    }
+
+    static void push(OkRoute route) {
+        ROUTES.get().push(route);
+    }
+
+    static void pop() {
+        Deque<OkRoute> routes = ROUTES.get();
+        routes.poll();
+        if (routes.isEmpty()) {
+            ROUTES.remove();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource.routing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.datasource.common.runtime.DataSourceUtil;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import io.quarkus.hibernate.orm.runtime.tenant.TenantResolver;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * 读写分离：借助 Hibernate 的 DATABASE 多租户，在打开会话时按 {@link OkRouteContext} 选择数据源。
+ * <p>
+ * 需配置 quarkus.hibernate-orm.multitenant=DATABASE 和名为 slave 的数据源，
+ * 并开启 okstar.datasource.slave.enabled。同一事务内的会话只解析一次，
+ * 因此写事务中调用 {@code @Slave} 方法仍走主库。
+ * <p>
+ * 指标 okstar.datasource.route 按 route=master|slave|fallback 统计打开的会话数。
+ */
+@PersistenceUnitExtension
+@ApplicationScoped
+public class OkRouteResolver implements TenantResolver {
+
+    private static final String METRIC = "okstar.datasource.route";
+
+    @Inject
+    OkReplicaMonitor monitor;
+
+    private final Counter master;
+    private final Counter slave;
+    private final Counter fallback;
+
+    @Inject
+    public OkRouteResolver(MeterRegistry registry) {
+        this.master = registry.counter(METRIC, "route", "master");
+        this.slave = registry.counter(METRIC, "route", "slave");
+        this.fallback = registry.counter(METRIC, "route", "fallback");
+    }
+
+    @Override
+    public String getDefaultTenantId() {
+        return DataSourceUtil.DEFAULT_DATASOURCE_NAME;
+    }
+
+    @Override
+    public String resolveTenantId() {
+        if (OkRouteContext.current() != OkRoute.slave) {
+            master.increment();
+            return DataSourceUtil.DEFAULT_DATASOURCE_NAME;
+        }
+        if (!monitor.available()) {
+            fallback.increment();
+            return DataSourceUtil.DEFAULT_DATASOURCE_NAME;
+        }
+        slave.increment();
+        return OkReplicaMonitor.SLAVE;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource.stat;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * SQL 预算，超出时记录日志，fail 为真时直接抛出异常
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OkSqlBudget {
+
+    /**
+     * 最大语句数
+     */
+    private int statements;
+
+    /**
+     * 最大实体加载数
+     */
+    private int entities;
+
+    /**
+     * 最大集合抓取数
+     */
+    private int collections;
+
+    /**
+     * 同一形状重复多少次视为 N+1
+     */
+    private int repeat;
+
+    private boolean fail;
+}
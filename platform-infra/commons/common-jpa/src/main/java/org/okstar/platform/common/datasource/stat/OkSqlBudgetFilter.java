@@ -0,0 +1,96 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource.stat;
+
+import io.quarkus.logging.Log;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.ext.Provider;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按 HTTP 请求与 RPC 调用（rpc/ 路径）统计 SQL，超出预算或出现重复形状（N+1）时告警。
+ */
+@Provider
+public class OkSqlBudgetFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final String SCOPE = OkSqlScope.class.getName();
+
+    /**
+     * 开启后在响应头中返回统计结果，便于接口测试断言
+     */
+    public static final String HEADER = "X-Ok-Sql";
+
+    @ConfigProperty(name = "okstar.sql.budget.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "okstar.sql.budget.statements", defaultValue = "50")
+    int statements;
+
+    @ConfigProperty(name = "okstar.sql.budget.entities", defaultValue = "1000")
+    int entities;
+
+    @ConfigProperty(name = "okstar.sql.budget.collections", defaultValue = "50")
+    int collections;
+
+    @ConfigProperty(name = "okstar.sql.budget.repeat", defaultValue = "10")
+    int repeat;
+
+    @ConfigProperty(name = "okstar.sql.budget.fail", defaultValue = "false")
+    boolean fail;
+
+    @ConfigProperty(name = "okstar.sql.budget.header", defaultValue = "false")
+    boolean header;
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        if (!enabled) {
+            return;
+        }
+        String path = request.getUriInfo().getPath();
+        boolean rpc = path.startsWith("rpc/") || path.startsWith("/rpc/");
+        String name = (rpc ? "RPC " : "HTTP ") + request.getMethod() + " " + path;
+
+        //上一个请求异常结束时可能残留
+        OkSqlScope.reset();
+        OkSqlBudget budget = new OkSqlBudget(statements, entities, collections, repeat, fail);
+        request.setProperty(SCOPE, OkSqlScope.open(name, budget));
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        if (!(request.getProperty(SCOPE) instanceof OkSqlScope scope)) {
+            return;
+        }
+        scope.close();
+
+        if (header) {
+            response.getHeaders().add(HEADER, "statements=" + scope.getStatements()
+                    + ";entities=" + scope.getEntities()
+                    + ";collections=" + scope.getCollections());
+        }
+        if (scope.exceeded()) {
+            Log.warnf("SQL 超出预算：%s", scope.summary());
+        }
+        List<Map.Entry<String, Integer>> repeated = scope.repeated();
+        if (!repeated.isEmpty()) {
+            Log.warnf("疑似 N+1：%s %s", scope.getName(), repeated);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource.stat;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.logging.Log;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 查询耗时指标与慢查询日志。
+ * <p>
+ * 总耗时记录为直方图 okstar.sql.queries（不带标签，可算任意分位数）；
+ * 按查询形状（HQL，字面量替换为 ?）记录 okstar.sql.query，只统计几个固定的耗时档位，
+ * 超过 okstar.sql.slow-threshold（毫秒，默认 500）时记录慢查询日志。
+ * 参数始终以占位符出现，日志中不包含绑定值。
+ * <p>
+ * 数据来自 Hibernate 统计的 queryExecuted 回调：覆盖 HQL 与 Criteria 查询（后者形状为 &lt;criteria&gt;），
+ * 原生 SQL、按 ID 加载与集合加载不在其中，可参考连接池指标与 quarkus.hibernate-orm.log.queries-slower-than-ms。
+ */
+final class OkSqlMetrics {
+
+    private static final String METRIC = "okstar.sql.query";
+
+    private static final String TOTAL = "okstar.sql.queries";
+
+    private static final String COVERAGE = "HQL/Criteria 查询耗时（不含原生 SQL）";
+
+    /**
+     * 按形状的耗时档位，形状最多 512 个，不为每个形状发布完整直方图
+     */
+    private static final Duration[] SLOS = {
+            Duration.ofMillis(10), Duration.ofMillis(50), Duration.ofMillis(100),
+            Duration.ofMillis(500), Duration.ofSeconds(1)
+    };
+
+    /**
+     * 最多记录的形状数，超出的归为 other，避免指标膨胀
+     */
+    private static final int MAX_SHAPES = 512;
+
+    private static final int MAX_LENGTH = 256;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w?.:])\\d+(?:\\.\\d+)?");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+
+    private static volatile Timer total;
+
+    private static final long SLOW_THRESHOLD = ConfigProvider.getConfig()
+            .getOptionalValue("okstar.sql.slow-threshold", Long.class).orElse(500L);
+
+    private OkSqlMetrics() {
+    }
+
+    static void record(String hql, int rows, long millis) {
+        String shape = redact(hql);
+        total().record(millis, TimeUnit.MILLISECONDS);
+        timer(shape).record(millis, TimeUnit.MILLISECONDS);
+        if (millis >= SLOW_THRESHOLD) {
+            Log.warnf("慢查询 %dms rows=%d：%s", millis, rows, shape);
+        }
+    }
+
+    static String redact(String hql) {
+        if (hql == null) {
+            return "";
+        }
+        String s = STRING_LITERAL.matcher(hql).replaceAll("'?'");
+        s = NUMBER_LITERAL.matcher(s).replaceAll("?");
+        s = WHITESPACE.matcher(s).replaceAll(" ").trim();
+        return s.length() > MAX_LENGTH ? s.substring(0, MAX_LENGTH) : s;
+    }
+
+    private static Timer total() {
+        Timer timer = total;
+        if (timer == null) {
+            timer = Timer.builder(TOTAL)
+                    .description(COVERAGE)
+                    .publishPercentileHistogram()
+                    .register(Metrics.globalRegistry);
+            total = timer;
+        }
+        return timer;
+    }
+
+    private static Timer timer(String shape) {
+        Timer timer = TIMERS.get(shape);
+        if (timer != null) {
+            return timer;
+        }
+        String key = TIMERS.size() < MAX_SHAPES ? shape : "other";
+        return TIMERS.computeIfAbsent(key, k -> Timer.builder(METRIC)
+                .description(COVERAGE)
+                .tag("query", k)
+                .serviceLevelObjectives(SLOS)
+                .register(Metrics.globalRegistry));
+    }
+}
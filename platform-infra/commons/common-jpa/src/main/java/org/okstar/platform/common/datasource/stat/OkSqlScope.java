@@ -0,0 +1,182 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource.stat;
+
+import lombok.Getter;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次请求（或一段代码）内的 SQL 统计：语句数、实体加载数、集合抓取数及按形状（HQL/实体/集合）汇总的次数。
+ * <p>
+ * 由 {@link OkSqlStatistics} 记录到当前线程的作用域，可嵌套，内层的计数同时累加到外层。
+ * 测试中可直接使用：
+ * <pre>
+ * try (OkSqlScope scope = OkSqlScope.open("children")) {
+ *     staffService.children(deptId);
+ *     scope.assertStatementsAtMost(3);
+ * }
+ * </pre>
+ */
+@Getter
+public final class OkSqlScope implements AutoCloseable {
+
+    private static final ThreadLocal<OkSqlScope> CURRENT = new ThreadLocal<>();
+
+    private final String name;
+
+    private final OkSqlBudget budget;
+
+    private final OkSqlScope parent;
+
+    private int statements;
+
+    private int entities;
+
+    private int collections;
+
+    private final Map<String, Integer> shapes = new HashMap<>();
+
+    private OkSqlScope(String name, OkSqlBudget budget, OkSqlScope parent) {
+        this.name = name;
+        this.budget = budget;
+        this.parent = parent;
+    }
+
+    public static OkSqlScope open(String name) {
+        return open(name, null);
+    }
+
+    /**
+     * @param budget 预算，为空时只统计
+     */
+    public static OkSqlScope open(String name, OkSqlBudget budget) {
+        OkSqlScope scope = new OkSqlScope(name, budget, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static OkSqlScope current() {
+        return CURRENT.get();
+    }
+
+    static void reset() {
+        CURRENT.remove();
+    }
+
+    @Override
+    public void close() {
+        if (CURRENT.get() != this) {
+            return;
+        }
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+
+    void statement() {
+        for (OkSqlScope s = this; s != null; s = s.parent) {
+            s.statements++;
+            s.checkFail();
+        }
+    }
+
+    void entity() {
+        for (OkSqlScope s = this; s != null; s = s.parent) {
+            s.entities++;
+        }
+    }
+
+    void collection(String role) {
+        for (OkSqlScope s = this; s != null; s = s.parent) {
+            s.collections++;
+            s.shapes.merge("fetch " + role, 1, Integer::sum);
+        }
+    }
+
+    void shape(String shape) {
+        for (OkSqlScope s = this; s != null; s = s.parent) {
+            s.shapes.merge(shape, 1, Integer::sum);
+        }
+    }
+
+    private void checkFail() {
+        if (budget != null && budget.isFail() && statements > budget.getStatements()) {
+            throw new IllegalStateException("SQL 语句数超出预算：" + summary());
+        }
+    }
+
+    /**
+     * 是否超出预算
+     */
+    public boolean exceeded() {
+        return budget != null && (statements > budget.getStatements()
+                || entities > budget.getEntities()
+                || collections > budget.getCollections());
+    }
+
+    /**
+     * 重复次数达到阈值的形状，通常意味着 N+1
+     */
+    public List<Map.Entry<String, Integer>> repeated() {
+        if (budget == null) {
+            return List.of();
+        }
+        return shapes.entrySet().stream()
+                .filter(e -> e.getValue() >= budget.getRepeat())
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .toList();
+    }
+
+    /**
+     * 执行次数最多的形状
+     */
+    public List<Map.Entry<String, Integer>> top(int n) {
+        return shapes.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.naturalOrder())))
+                .limit(n)
+                .toList();
+    }
+
+    public String summary() {
+        return name + " statements=" + statements
+                + " entities=" + entities
+                + " collections=" + collections
+                + " top=" + top(5);
+    }
+
+    public void assertStatementsAtMost(int max) {
+        if (statements > max) {
+            throw new AssertionError("期望最多 " + max + " 条语句，实际：" + summary());
+        }
+    }
+
+    public void assertEntitiesAtMost(int max) {
+        if (entities > max) {
+            throw new AssertionError("期望最多加载 " + max + " 个实体，实际：" + summary());
+        }
+    }
+
+    public void assertCollectionsAtMost(int max) {
+        if (collections > max) {
+            throw new AssertionError("期望最多抓取 " + max + " 次集合，实际：" + summary());
+        }
+    }
+}
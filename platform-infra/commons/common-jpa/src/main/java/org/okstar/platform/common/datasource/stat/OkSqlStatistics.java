@@ -0,0 +1,76 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource.stat;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+
+/**
+ * 在 Hibernate 统计的基础上，把计数同时记到当前线程的 {@link OkSqlScope}，
+ * 查询耗时记入 {@link OkSqlMetrics}。
+ * <p>
+ * 需开启 quarkus.hibernate-orm.statistics，并通过 hibernate.stats.factory 指定 {@link OkSqlStatisticsFactory}。
+ */
+public class OkSqlStatistics extends StatisticsImpl {
+
+    public OkSqlStatistics(SessionFactoryImplementor sessionFactory) {
+        super(sessionFactory);
+    }
+
+    @Override
+    public void prepareStatement() {
+        super.prepareStatement();
+        OkSqlScope scope = OkSqlScope.current();
+        if (scope != null) {
+            scope.statement();
+        }
+    }
+
+    @Override
+    public void loadEntity(String entityName) {
+        super.loadEntity(entityName);
+        OkSqlScope scope = OkSqlScope.current();
+        if (scope != null) {
+            scope.entity();
+        }
+    }
+
+    @Override
+    public void fetchEntity(String entityName) {
+        super.fetchEntity(entityName);
+        OkSqlScope scope = OkSqlScope.current();
+        if (scope != null) {
+            scope.shape("fetch " + entityName);
+        }
+    }
+
+    @Override
+    public void fetchCollection(String role) {
+        super.fetchCollection(role);
+        OkSqlScope scope = OkSqlScope.current();
+        if (scope != null) {
+            scope.collection(role);
+        }
+    }
+
+    @Override
+    public void queryExecuted(String hql, int rows, long time) {
+        super.queryExecuted(hql, rows, time);
+        OkSqlMetrics.record(hql, rows, time);
+        OkSqlScope scope = OkSqlScope.current();
+        if (scope != null) {
+            scope.shape(hql);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource;
+
+import io.smallrye.common.constraint.Assert;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.okstar.platform.common.datasource.domain.OkEntity;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+class OkBatchesTest {
+
+    /**
+     * 记录 flush / detach 的持久化上下文
+     */
+    static class Context {
+        final Set<Object> managed = Collections.newSetFromMap(new IdentityHashMap<>());
+        final List<Integer> flushes = new ArrayList<>();
+        final AtomicLong sequence = new AtomicLong();
+        int persisted;
+
+        EntityManager em() {
+            return (EntityManager) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{EntityManager.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "contains" -> managed.contains(args[0]);
+                        case "detach" -> managed.remove(args[0]);
+                        case "flush" -> flushes.add(persisted);
+                        case "clear" -> throw new AssertionError("clear() detaches the caller's entities");
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        void persist(OkEntity entity) {
+            entity.id = sequence.incrementAndGet();
+            managed.add(entity);
+            persisted++;
+        }
+    }
+
+    @Test
+    void chunksAndDetachesOnlyCreatedRows() {
+        Context context = new Context();
+        OkEntity loaded = new OkEntity();
+        context.persist(loaded);
+
+        List<OkEntity> rows = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            rows.add(new OkEntity());
+        }
+        OkBatchResult result = OkBatches.write(context.em(), () -> false, 2, rows, context::persist);
+
+        Assert.assertTrue(result.getSuccessCount() == 5);
+        //每 2 行一次，最后一批 1 行
+        Assert.assertTrue(context.flushes.equals(List.of(3, 5, 6)));
+        //调用方已加载的实体仍受管理
+        Assert.assertTrue(context.managed.size() == 1 && context.managed.contains(loaded));
+    }
+
+    @Test
+    void rowFailureIsRecorded() {
+        Context context = new Context();
+        List<OkEntity> rows = List.of(new OkEntity(), new OkEntity(), new OkEntity());
+        OkBatchResult result = OkBatches.write(context.em(), () -> false, 50, rows, entity -> {
+            if (entity == rows.get(1)) {
+                throw new IllegalArgumentException("invalid");
+            }
+            context.persist(entity);
+        });
+
+        Assert.assertTrue(result.getSuccessCount() == 2);
+        Assert.assertTrue(result.getFailedCount() == 1);
+        OkBatchResult.Row failed = result.getRows().get(1);
+        Assert.assertTrue(!failed.isSuccess() && failed.getIndex() == 1 && "invalid".equals(failed.getError()));
+    }
+
+    @Test
+    void rollbackOnlyFailsTheBatch() {
+        Context context = new Context();
+        AtomicBoolean rollbackOnly = new AtomicBoolean();
+        List<OkEntity> rows = List.of(new OkEntity(), new OkEntity());
+
+        boolean thrown = false;
+        try {
+            OkBatches.write(context.em(), rollbackOnly::get, 50, rows, entity -> {
+                rollbackOnly.set(true);
+                throw new IllegalStateException("constraint");
+            });
+        } catch (IllegalStateException e) {
+            thrown = true;
+        }
+        Assert.assertTrue(thrown);
+    }
+}
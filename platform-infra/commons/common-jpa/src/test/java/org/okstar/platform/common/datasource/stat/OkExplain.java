@@ -0,0 +1,123 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource.stat;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 执行计划检查（测试工具，随 common-jpa 的 test-jar 提供）：
+ * 执行真实的仓库查询，记录 Hibernate 生成的 SQL，在 Flyway 迁移后的库上 EXPLAIN，出现全表扫描时失败。
+ * <p>
+ * 模块的测试配置需注册 {@link OkExplainInspector}：
+ * <pre>
+ * %test.quarkus.hibernate-orm.unsupported-properties."hibernate.session_factory.statement_inspector"=org.okstar.platform.common.datasource.stat.OkExplainInspector
+ * </pre>
+ * H2 计划中出现 tableScan、MariaDB/MySQL 计划中 type=ALL 视为全表扫描。
+ */
+public final class OkExplain {
+
+    private OkExplain() {
+    }
+
+    /**
+     * 在事务中执行 action，返回期间生成的查询语句
+     */
+    public static List<String> capture(Runnable action) {
+        OkExplainInspector.start();
+        try {
+            QuarkusTransaction.joiningExisting().run(action);
+            return OkExplainInspector.captured();
+        } finally {
+            OkExplainInspector.stop();
+        }
+    }
+
+    /**
+     * 执行 action，其中的每条查询都必须走索引
+     */
+    public static void assertIndexed(DataSource dataSource, Runnable action) throws SQLException {
+        List<String> statements = capture(action);
+        if (statements.isEmpty()) {
+            throw new AssertionError("没有执行查询，检查是否注册了 OkExplainInspector 或命中了缓存");
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            for (String sql : statements) {
+                assertIndexed(connection, sql);
+            }
+        }
+    }
+
+    public static void assertIndexed(Connection connection, String sql) throws SQLException {
+        List<String> scans = fullScans(connection, sql);
+        if (!scans.isEmpty()) {
+            throw new AssertionError("查询未使用索引：" + sql + "\n" + String.join("\n", scans));
+        }
+    }
+
+    /**
+     * @return 全表扫描的描述，走索引时为空
+     */
+    public static List<String> fullScans(Connection connection, String sql) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName();
+        List<String> scans = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            bind(statement);
+            try (ResultSet rs = statement.executeQuery()) {
+                if ("H2".equalsIgnoreCase(product)) {
+                    while (rs.next()) {
+                        String plan = rs.getString(1);
+                        if (plan.contains(".tableScan")) {
+                            scans.add(plan);
+                        }
+                    }
+                } else {
+                    while (rs.next()) {
+                        if ("ALL".equalsIgnoreCase(rs.getString("type"))) {
+                            scans.add(rs.getString("table") + " type=ALL");
+                        }
+                    }
+                }
+            }
+        }
+        return scans;
+    }
+
+    /**
+     * 按参数类型绑定示例值，索引的选择与具体值无关
+     */
+    private static void bind(PreparedStatement statement) throws SQLException {
+        ParameterMetaData meta = statement.getParameterMetaData();
+        for (int i = 1; i <= meta.getParameterCount(); i++) {
+            int type;
+            try {
+                type = meta.getParameterType(i);
+            } catch (SQLException e) {
+                type = Types.VARCHAR;
+            }
+            switch (type) {
+                case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT,
+                        Types.NUMERIC, Types.DECIMAL, Types.DOUBLE, Types.FLOAT, Types.REAL -> statement.setLong(i, 1);
+                case Types.BOOLEAN, Types.BIT -> statement.setBoolean(i, false);
+                case Types.DATE, Types.TIME, Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE ->
+                        statement.setTimestamp(i, new Timestamp(System.currentTimeMillis()));
+                default -> statement.setString(i, "1");
+            }
+        }
+    }
+}
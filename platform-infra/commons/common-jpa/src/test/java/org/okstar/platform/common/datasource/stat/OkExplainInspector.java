@@ -0,0 +1,49 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource.stat;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 记录当前线程在 {@link OkExplain#capture(Runnable)} 期间生成的查询语句，不修改 SQL
+ */
+public class OkExplainInspector implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    static void start() {
+        CAPTURED.set(new ArrayList<>());
+    }
+
+    static List<String> captured() {
+        List<String> list = CAPTURED.get();
+        return list == null ? List.of() : List.copyOf(list);
+    }
+
+    static void stop() {
+        CAPTURED.remove();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> list = CAPTURED.get();
+        if (list != null && sql.stripLeading().regionMatches(true, 0, "select", 0, 6)) {
+            list.add(sql);
+        }
+        return sql;
+    }
+}
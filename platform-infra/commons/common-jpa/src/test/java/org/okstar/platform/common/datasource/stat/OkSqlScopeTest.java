@@ -0,0 +1,61 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.datasource.stat;
+
+import io.smallrye.common.constraint.Assert;
+import org.junit.jupiter.api.Test;
+
+class OkSqlScopeTest {
+
+    @Test
+    void nestedCountsAndRepeatedShapes() {
+        OkSqlBudget budget = new OkSqlBudget(2, 100, 10, 3, false);
+        try (OkSqlScope outer = OkSqlScope.open("outer", budget)) {
+            try (OkSqlScope inner = OkSqlScope.open("inner")) {
+                for (int i = 0; i < 3; i++) {
+                    OkSqlScope.current().statement();
+                    OkSqlScope.current().shape("fetch OrgPost");
+                }
+                inner.assertStatementsAtMost(3);
+            }
+            Assert.assertTrue(OkSqlScope.current() == outer);
+            Assert.assertTrue(outer.getStatements() == 3);
+            Assert.assertTrue(outer.exceeded());
+            Assert.assertTrue(outer.repeated().get(0).getKey().equals("fetch OrgPost"));
+
+            boolean failed = false;
+            try {
+                outer.assertStatementsAtMost(2);
+            } catch (AssertionError e) {
+                failed = true;
+            }
+            Assert.assertTrue(failed);
+        }
+        Assert.assertTrue(OkSqlScope.current() == null);
+    }
+
+    @Test
+    void failWhenBudgetExceeded() {
+        try (OkSqlScope scope = OkSqlScope.open("fail", new OkSqlBudget(1, 100, 10, 10, true))) {
+            scope.statement();
+            boolean failed = false;
+            try {
+                scope.statement();
+            } catch (IllegalStateException e) {
+                failed = true;
+            }
+            Assert.assertTrue(failed);
+        }
+    }
+}
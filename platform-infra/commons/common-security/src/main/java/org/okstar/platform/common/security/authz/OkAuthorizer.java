@@ -0,0 +1,147 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.security.authz;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.okstar.platform.common.core.annotation.PreAuthorize;
+import org.okstar.platform.common.redis.cache.OkNearCache;
+import org.okstar.platform.common.redis.cache.OkNearCaches;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 权限判断：用户的授权快照与权限字典都在两级缓存中，命中时不访问数据库。
+ * <p>
+ * 角色绑定、角色授权变化后调用 {@link #invalidate(String)} 只清除受影响的用户；
+ * 资源的权限标识变化后调用 {@link #invalidateDictionary()}，字典版本变化后旧的授权快照在读取时重新计算。
+ */
+@ApplicationScoped
+public class OkAuthorizer {
+
+    public static final String GRANTS_CACHE = "authz-grants";
+
+    public static final String DICTIONARY_CACHE = "authz-dictionary";
+
+    /**
+     * 授权快照的键前缀，后接用户名
+     */
+    public static final String GRANTS_KEY = "authz:grants:";
+
+    public static final String DICTIONARY_KEY = "authz:dictionary";
+
+    @Inject
+    OkNearCaches nearCaches;
+
+    @Inject
+    OkGrantsLoader loader;
+
+    /**
+     * Redis 中的有效期，本地副本按 okstar.cache.authz-*.expire-after-write 过期
+     */
+    @ConfigProperty(name = "okstar.authz.expire", defaultValue = "30m")
+    Duration expire;
+
+    private OkNearCache<OkGrants> grants;
+
+    private OkNearCache<OkPermissionDictionary> dictionary;
+
+    @PostConstruct
+    void init() {
+        grants = nearCaches.get(GRANTS_CACHE, OkGrants.class);
+        dictionary = nearCaches.get(DICTIONARY_CACHE, OkPermissionDictionary.class);
+    }
+
+    public OkGrants grants(String username) {
+        String key = GRANTS_KEY + username;
+        OkGrants value = grants.get(key);
+        if (value == null || value.getVersion() != dictionary().getVersion()) {
+            value = loader.load(username);
+            if (loader.authoritative()) {
+                grants.put(key, value, expire.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+        return value;
+    }
+
+    public OkPermissionDictionary dictionary() {
+        OkPermissionDictionary value = dictionary.get(DICTIONARY_KEY);
+        if (value == null || value.getVersion() == 0) {
+            value = loader.dictionary();
+            if (loader.authoritative()) {
+                dictionary.put(DICTIONARY_KEY, value, expire.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+        return value;
+    }
+
+    public boolean hasPermi(String username, String permission) {
+        return hasPermi(grants(username), permission);
+    }
+
+    public boolean hasRole(String username, String role) {
+        return grants(username).hasRole(role);
+    }
+
+    /**
+     * 按注解判断，设置的条件需全部满足
+     */
+    public boolean check(String username, PreAuthorize rule) {
+        OkGrants g = grants(username);
+        if (!rule.hasPermi().isEmpty() && !hasPermi(g, rule.hasPermi())) {
+            return false;
+        }
+        if (!rule.lacksPermi().isEmpty() && hasPermi(g, rule.lacksPermi())) {
+            return false;
+        }
+        if (rule.hasAnyPermi().length > 0 && !hasAnyPermi(g, rule.hasAnyPermi())) {
+            return false;
+        }
+        if (!rule.hasRole().isEmpty() && !g.hasRole(rule.hasRole())) {
+            return false;
+        }
+        if (!rule.lacksRole().isEmpty() && g.hasRole(rule.lacksRole())) {
+            return false;
+        }
+        if (rule.hasAnyRoles().length > 0) {
+            for (String role : rule.hasAnyRoles()) {
+                if (g.hasRole(role)) return true;
+            }
+            return false;
+        }
+        return true;
+    }
+
+    public void invalidate(String username) {
+        grants.evict(GRANTS_KEY + username);
+    }
+
+    public void invalidateDictionary() {
+        dictionary.evict(DICTIONARY_KEY);
+    }
+
+    private boolean hasPermi(OkGrants g, String permission) {
+        return g.isAll() || g.has(dictionary().ordinal(permission));
+    }
+
+    private boolean hasAnyPermi(OkGrants g, String[] permissions) {
+        for (String permission : permissions) {
+            if (hasPermi(g, permission)) return true;
+        }
+        return false;
+    }
+}
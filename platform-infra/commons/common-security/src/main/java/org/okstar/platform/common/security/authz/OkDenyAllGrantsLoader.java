@@ -0,0 +1,45 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.security.authz;
+
+import io.quarkus.arc.DefaultBean;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 未提供 RBAC 数据的模块：只能读取其他模块写入缓存的授权快照，缓存未命中时拒绝
+ */
+@DefaultBean
+@ApplicationScoped
+public class OkDenyAllGrantsLoader implements OkGrantsLoader {
+
+    @Override
+    public OkGrants load(String username) {
+        Log.warnf("No grants loader, deny %s", username);
+        return OkGrants.of(Set.of(), Set.of(), false);
+    }
+
+    @Override
+    public OkPermissionDictionary dictionary() {
+        return OkPermissionDictionary.of(Map.of());
+    }
+
+    @Override
+    public boolean authoritative() {
+        return false;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.security.authz;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * 用户的授权快照：权限按资源序号压缩为位图，角色为名称集合。
+ * <p>
+ * 由 {@link OkGrantsLoader} 计算，缓存在两级缓存中，判断权限只需一次位运算。
+ */
+@Data
+@NoArgsConstructor
+public class OkGrants implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 所有权限标识
+     */
+    public static final String ALL_PERMISSION = "*:*:*";
+
+    /**
+     * 资源序号位图，第 n 位表示拥有序号为 n 的资源
+     */
+    private long[] bits = new long[0];
+
+    private Set<String> roles = Set.of();
+
+    /**
+     * 拥有全部权限（{@link #ALL_PERMISSION}）
+     */
+    private boolean all;
+
+    /**
+     * 序号所依据的 {@link OkPermissionDictionary} 版本
+     */
+    private int version;
+
+    public static OkGrants of(Collection<Integer> ordinals, Set<String> roles, boolean all, int version) {
+        OkGrants grants = of(ordinals, roles, all);
+        grants.setVersion(version);
+        return grants;
+    }
+
+    public static OkGrants of(Collection<Integer> ordinals, Set<String> roles, boolean all) {
+        int max = ordinals.stream().mapToInt(Integer::intValue).max().orElse(-1);
+        long[] bits = new long[(max >> 6) + 1];
+        for (int ordinal : ordinals) {
+            bits[ordinal >> 6] |= 1L << ordinal;
+        }
+        OkGrants grants = new OkGrants();
+        grants.setBits(bits);
+        grants.setRoles(Set.copyOf(roles));
+        grants.setAll(all);
+        return grants;
+    }
+
+    public boolean has(int ordinal) {
+        if (all) {
+            return true;
+        }
+        int word = ordinal >> 6;
+        return ordinal >= 0 && word < bits.length && (bits[word] & (1L << ordinal)) != 0;
+    }
+
+    public boolean hasRole(String role) {
+        return roles.contains(role);
+    }
+}
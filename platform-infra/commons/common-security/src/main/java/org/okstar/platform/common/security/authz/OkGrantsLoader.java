@@ -11,21 +11,24 @@
  * /
  */
 
-package org.okstar.platform.org.utils;
+package org.okstar.platform.common.security.authz;
 
-import org.okstar.platform.org.domain.OrgStaff;
-import org.okstar.platform.org.dto.OrgStaff0;
+/**
+ * 授权数据来源，由持有 RBAC 数据的模块实现（module-org），缓存未命中时调用
+ */
+public interface OkGrantsLoader {
 
-public class StaffUtils {
+    /**
+     * 计算用户的授权快照，资源序号需与 {@link #dictionary()} 一致
+     */
+    OkGrants load(String username);
 
-    public static OrgStaff0 toStaff0(OrgStaff staff) {
-        return OrgStaff0.builder()
-                .no(staff.getFragment().getNo())
-                .name(staff.getFragment().getName())
-                .phone(staff.getFragment().getPhone())
-                .email(staff.getFragment().getEmail())
-                .accountId(staff.getAccountId())
-                .build();
-    }
+    OkPermissionDictionary dictionary();
 
+    /**
+     * 结果是否可以写入共享缓存
+     */
+    default boolean authoritative() {
+        return true;
+    }
 }
@@ -0,0 +1,83 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.security.authz;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 权限标识到资源序号的映射，各节点共享同一份，保证位图含义一致。
+ * <p>
+ * 序号按资源 id 升序为不同的权限标识依次编号（0..n-1），位图长度只与权限数量有关，与 id 的取值无关；
+ * 同一标识的多个资源共用一个序号。version 由映射内容计算，授权快照记录生成时的版本，字典变化后旧快照失效。
+ */
+@Data
+@NoArgsConstructor
+public class OkPermissionDictionary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Map<String, Integer> ordinals = Map.of();
+
+    /**
+     * 资源 id 到序号
+     */
+    private Map<Long, Integer> resources = Map.of();
+
+    /**
+     * 内容版本，不为 0（0 为旧格式或未初始化）
+     */
+    private int version;
+
+    /**
+     * @param codes 资源 id 到权限标识
+     */
+    public static OkPermissionDictionary of(Map<Long, String> codes) {
+        Map<String, Integer> ordinals = new HashMap<>();
+        Map<Long, Integer> resources = new HashMap<>();
+        int version = 1;
+        for (Map.Entry<Long, String> code : new TreeMap<>(codes).entrySet()) {
+            int ordinal = ordinals.computeIfAbsent(code.getValue(), c -> ordinals.size());
+            resources.put(code.getKey(), ordinal);
+            version = 31 * version + (code.getKey().hashCode() ^ code.getValue().hashCode());
+        }
+
+        OkPermissionDictionary dictionary = new OkPermissionDictionary();
+        dictionary.setOrdinals(Map.copyOf(ordinals));
+        dictionary.setResources(Map.copyOf(resources));
+        dictionary.setVersion(version == 0 ? 1 : version);
+        return dictionary;
+    }
+
+    /**
+     * @return 未登记的权限标识返回 -1
+     */
+    public int ordinal(String permission) {
+        Integer ordinal = ordinals.get(permission);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * @return 未登记（无权限标识）的资源返回 -1
+     */
+    public int resourceOrdinal(Long resourceId) {
+        Integer ordinal = resources.get(resourceId);
+        return ordinal == null ? -1 : ordinal;
+    }
+}
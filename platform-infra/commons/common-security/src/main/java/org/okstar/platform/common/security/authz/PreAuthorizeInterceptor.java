@@ -0,0 +1,72 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.security.authz;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.vertx.http.runtime.CurrentVertxRequest;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+import org.okstar.platform.common.core.annotation.PreAuthorize;
+import org.okstar.platform.common.core.defined.SystemDefines;
+import org.okstar.platform.common.core.exception.NotPermissionException;
+
+import java.lang.reflect.Method;
+
+/**
+ * 校验 {@link PreAuthorize}，当前用户取自 TokenFilters 写入的用户名。
+ * 不在 HTTP 请求中（定时任务、outbox 处理器等）时没有当前用户，按无权限拒绝。
+ */
+@PreAuthorize
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_AFTER)
+public class PreAuthorizeInterceptor {
+
+    @Inject
+    OkAuthorizer authorizer;
+
+    @Inject
+    CurrentVertxRequest request;
+
+    @AroundInvoke
+    Object check(InvocationContext ctx) throws Exception {
+        Method method = ctx.getMethod();
+        PreAuthorize rule = method.getAnnotation(PreAuthorize.class);
+        //拦截的目标可能是生成的子类，沿父类查找类上的注解
+        for (Class<?> c = ctx.getTarget().getClass(); rule == null && c != null; c = c.getSuperclass()) {
+            rule = c.getAnnotation(PreAuthorize.class);
+        }
+        if (rule != null) {
+            String username = username();
+            if (username == null || !authorizer.check(username, rule)) {
+                throw new NotPermissionException(method.getDeclaringClass().getSimpleName() + "#" + method.getName());
+            }
+        }
+        return ctx.proceed();
+    }
+
+    /**
+     * 当前用户名，不在 HTTP 请求中时为空
+     */
+    String username() {
+        if (!Arc.container().requestContext().isActive()) {
+            return null;
+        }
+        RoutingContext rc = request.getCurrent();
+        return rc == null ? null : rc.get(SystemDefines.Header_X_OK_username);
+    }
+}
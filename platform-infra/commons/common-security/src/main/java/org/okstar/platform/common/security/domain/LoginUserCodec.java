@@ -0,0 +1,28 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.security.domain;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.okstar.platform.common.redis.codec.OkBinaryCodec;
+
+/**
+ * 登录用户的缓存编码，字段不兼容地变更时递增结构版本
+ */
+@ApplicationScoped
+public class LoginUserCodec extends OkBinaryCodec<LoginUser> {
+
+    public LoginUserCodec() {
+        super(LoginUser.class, 1);
+    }
+}
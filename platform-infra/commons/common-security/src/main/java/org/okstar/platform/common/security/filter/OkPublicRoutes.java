@@ -0,0 +1,127 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.security.filter;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.enterprise.inject.spi.BeanManager;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Path;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.okstar.platform.common.core.annotation.OkPublic;
+
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * 公开路由：启动时扫描标注了 {@link OkPublic} 的资源，连同配置项 okstar.security.public-paths 编译为路由表。
+ */
+@ApplicationScoped
+public class OkPublicRoutes {
+
+    private static final String REACTIVE_RECORDER = "io.quarkus.resteasy.reactive.server.runtime.ResteasyReactiveRecorder";
+
+    @Inject
+    BeanManager beanManager;
+
+    @ConfigProperty(name = "okstar.security.public-paths")
+    Optional<List<String>> extraPaths;
+
+    @ConfigProperty(name = "quarkus.http.root-path", defaultValue = "/")
+    String rootPath;
+
+    /**
+     * RESTEasy Classic（默认构建）与 RESTEasy Reactive 的根路径配置项不同，按实际使用的实现选取
+     */
+    @ConfigProperty(name = "quarkus.resteasy.path")
+    Optional<String> classicPath;
+
+    @ConfigProperty(name = "quarkus.resteasy-reactive.path")
+    Optional<String> reactivePath;
+
+    private volatile OkRouteTable table = new OkRouteTable();
+
+    void onStart(@Observes StartupEvent event) {
+        Set<String> patterns = new TreeSet<>();
+        String base = join(rootPath, restPath(reactive(), classicPath, reactivePath));
+        for (Bean<?> bean : beanManager.getBeans(Object.class, Any.Literal.INSTANCE)) {
+            collect(bean.getBeanClass(), base, patterns);
+        }
+        extraPaths.ifPresent(paths -> paths.forEach(p -> patterns.add(join(rootPath, p))));
+
+        OkRouteTable compiled = new OkRouteTable();
+        patterns.forEach(compiled::add);
+        table = compiled;
+        Log.infof("Public routes: %s", patterns);
+    }
+
+    public boolean isPublic(String path) {
+        return table.matches(path);
+    }
+
+    static String restPath(boolean reactive, Optional<String> classicPath, Optional<String> reactivePath) {
+        return (reactive ? reactivePath : classicPath).orElse("/");
+    }
+
+    private static boolean reactive() {
+        try {
+            Class.forName(REACTIVE_RECORDER, false, Thread.currentThread().getContextClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    static void collect(Class<?> beanClass, String base, Set<String> patterns) {
+        for (Class<?> type : hierarchy(beanClass)) {
+            Path path = type.getAnnotation(Path.class);
+            if (path == null) {
+                continue;
+            }
+            String prefix = join(base, path.value());
+            if (type.isAnnotationPresent(OkPublic.class) || beanClass.isAnnotationPresent(OkPublic.class)) {
+                patterns.add(join(prefix, "**"));
+                continue;
+            }
+            for (Method method : type.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(OkPublic.class)) {
+                    Path sub = method.getAnnotation(Path.class);
+                    patterns.add(sub == null ? prefix : join(prefix, sub.value()));
+                }
+            }
+        }
+    }
+
+    /**
+     * 类本身、父类及其实现的接口（RPC 接口的 @Path 声明在接口上）
+     */
+    private static List<Class<?>> hierarchy(Class<?> beanClass) {
+        List<Class<?>> types = new ArrayList<>();
+        for (Class<?> c = beanClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            types.add(c);
+            types.addAll(Arrays.asList(c.getInterfaces()));
+        }
+        return types;
+    }
+
+    static String join(String left, String right) {
+        String l = left.endsWith("/") ? left.substring(0, left.length() - 1) : left;
+        String r = right.startsWith("/") ? right : "/" + right;
+        return (l + r).replaceAll("/{2,}", "/");
+    }
+}
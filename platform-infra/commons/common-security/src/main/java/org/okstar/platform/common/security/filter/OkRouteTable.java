@@ -0,0 +1,116 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.security.filter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 路由表：按路径段组织的前缀树，启动时构建，之后只读。
+ * <p>
+ * 规则写法：
+ * <ul>
+ *     <li>/passport/signIn：精确匹配</li>
+ *     <li>/account/{id}：{...} 匹配任意单个路径段</li>
+ *     <li>/passport/**：匹配 /passport 本身及其下的全部路径</li>
+ * </ul>
+ * 按整段比较，/staff/** 不会匹配 /staff-x 或 /org/staff。
+ */
+public final class OkRouteTable {
+
+    private static final String ANY = "**";
+
+    private final Node root = new Node();
+
+    private int size;
+
+    public OkRouteTable add(String pattern) {
+        Node node = root;
+        String[] segments = split(pattern);
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (ANY.equals(segment)) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("** 只能出现在路由末尾：" + pattern);
+                }
+                node.prefix = true;
+                size++;
+                return this;
+            }
+            if (segment.indexOf('{') >= 0) {
+                if (node.param == null) node.param = new Node();
+                node = node.param;
+            } else {
+                node = node.children.computeIfAbsent(segment, k -> new Node());
+            }
+        }
+        node.terminal = true;
+        size++;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 路径是否命中，path 应是已规范化的路径（不含查询参数）
+     */
+    public boolean matches(String path) {
+        if (size == 0 || path == null) {
+            return false;
+        }
+        return match(root, path, skip(path, 0));
+    }
+
+    private static boolean match(Node node, String path, int from) {
+        if (node.prefix) {
+            return true;
+        }
+        if (from >= path.length()) {
+            return node.terminal;
+        }
+        int end = path.indexOf('/', from);
+        if (end < 0) end = path.length();
+        int next = skip(path, end);
+
+        if (!node.children.isEmpty()) {
+            Node child = node.children.get(path.substring(from, end));
+            if (child != null && match(child, path, next)) {
+                return true;
+            }
+        }
+        return node.param != null && match(node.param, path, next);
+    }
+
+    private static int skip(String path, int from) {
+        while (from < path.length() && path.charAt(from) == '/') from++;
+        return from;
+    }
+
+    private static String[] split(String pattern) {
+        String trimmed = pattern.trim();
+        int from = skip(trimmed, 0);
+        int to = trimmed.length();
+        while (to > from && trimmed.charAt(to - 1) == '/') to--;
+        return from >= to ? new String[0] : trimmed.substring(from, to).split("/+");
+    }
+
+    private static final class Node {
+        final Map<String, Node> children = new HashMap<>();
+        Node param;
+        boolean terminal;
+        boolean prefix;
+    }
+}
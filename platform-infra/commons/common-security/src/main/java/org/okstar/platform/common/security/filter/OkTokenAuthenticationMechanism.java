@@ -0,0 +1,79 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.security.filter;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.quarkus.security.identity.IdentityProviderManager;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.security.identity.request.AuthenticationRequest;
+import io.quarkus.vertx.http.runtime.security.ChallengeData;
+import io.quarkus.vertx.http.runtime.security.HttpAuthenticationMechanism;
+import io.quarkus.vertx.http.runtime.security.HttpSecurityUtils;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.okstar.platform.common.security.token.OkTokenClaims;
+import org.okstar.platform.common.security.token.OkTokenVerifier;
+
+import java.util.Set;
+
+/**
+ * 启用本地验证时，直接用 {@link TokenFilters} 已验证的声明建立身份，@Authenticated 等安全检查不再由 OIDC 重复验证。
+ * <p>
+ * 优先级高于 OIDC；未启用本地验证时不处理，交给 OIDC。
+ */
+@ApplicationScoped
+public class OkTokenAuthenticationMechanism implements HttpAuthenticationMechanism {
+
+    @Inject
+    OkTokenVerifier verifier;
+
+    @Override
+    public Uni<SecurityIdentity> authenticate(RoutingContext rc, IdentityProviderManager identityProviderManager) {
+        if (!verifier.isEnabled()) {
+            return Uni.createFrom().nullItem();
+        }
+        OkTokenClaims claims = rc.get(TokenFilters.CLAIMS);
+        if (claims == null) {
+            //公开路由未经过过滤器验证
+            claims = TokenFilters.verify(rc, verifier);
+            if (claims == null) {
+                return Uni.createFrom().nullItem();
+            }
+        }
+        return identityProviderManager.authenticate(
+                HttpSecurityUtils.setRoutingContextAttribute(new OkTokenAuthenticationRequest(claims), rc));
+    }
+
+    @Override
+    public Uni<ChallengeData> getChallenge(RoutingContext rc) {
+        if (!verifier.isEnabled()) {
+            return Uni.createFrom().nullItem();
+        }
+        return Uni.createFrom().item(new ChallengeData(HttpResponseStatus.UNAUTHORIZED.code(),
+                HttpHeaders.WWW_AUTHENTICATE, "Bearer"));
+    }
+
+    @Override
+    public Set<Class<? extends AuthenticationRequest>> getCredentialTypes() {
+        return Set.of(OkTokenAuthenticationRequest.class);
+    }
+
+    @Override
+    public int getPriority() {
+        return DEFAULT_PRIORITY + 1000;
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.security.filter;
+
+import io.quarkus.security.identity.request.BaseAuthenticationRequest;
+import lombok.Getter;
+import org.okstar.platform.common.security.token.OkTokenClaims;
+
+/**
+ * 已在本地验证过的令牌，交给 {@link OkTokenIdentityProvider} 生成身份
+ */
+@Getter
+public class OkTokenAuthenticationRequest extends BaseAuthenticationRequest {
+
+    private final OkTokenClaims claims;
+
+    public OkTokenAuthenticationRequest(OkTokenClaims claims) {
+        this.claims = claims;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.security.filter;
+
+import io.quarkus.security.identity.AuthenticationRequestContext;
+import io.quarkus.security.identity.IdentityProvider;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.security.runtime.QuarkusPrincipal;
+import io.quarkus.security.runtime.QuarkusSecurityIdentity;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.okstar.platform.common.security.token.OkTokenClaims;
+
+import java.util.Collection;
+
+/**
+ * 由本地验证的令牌声明生成身份，不再访问 OIDC；角色取 groups 声明（与 MP-JWT 一致）
+ */
+@ApplicationScoped
+public class OkTokenIdentityProvider implements IdentityProvider<OkTokenAuthenticationRequest> {
+
+    @Override
+    public Class<OkTokenAuthenticationRequest> getRequestType() {
+        return OkTokenAuthenticationRequest.class;
+    }
+
+    @Override
+    public Uni<SecurityIdentity> authenticate(OkTokenAuthenticationRequest request, AuthenticationRequestContext context) {
+        OkTokenClaims claims = request.getClaims();
+        QuarkusSecurityIdentity.Builder builder = QuarkusSecurityIdentity.builder()
+                .setPrincipal(new QuarkusPrincipal(claims.getName()))
+                .addAttribute(TokenFilters.CLAIMS, claims);
+        Object groups = claims.claim("groups");
+        if (groups instanceof Collection<?> c) {
+            c.forEach(g -> builder.addRole(String.valueOf(g)));
+        }
+        return Uni.createFrom().item(builder.build());
+    }
+}
@@ -15,39 +15,106 @@ package org.okstar.platform.common.security.filter;
 
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.quarkus.logging.Log;
+import io.quarkus.vertx.http.runtime.security.QuarkusHttpUser;
 import io.quarkus.vertx.web.RouteFilter;
+import io.vertx.core.http.HttpHeaders;
 import io.vertx.ext.web.RoutingContext;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import org.eclipse.microprofile.jwt.JsonWebToken;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.okstar.platform.common.core.defined.SystemDefines;
 import org.okstar.platform.common.core.utils.OkStringUtil;
+import org.okstar.platform.common.security.token.OkTokenClaims;
+import org.okstar.platform.common.security.token.OkTokenVerifier;
 
+import java.util.concurrent.ThreadLocalRandom;
 
+
+/**
+ * 登录校验：公开路由直接放行，其余路由才解析 JWT。
+ * <p>
+ * 启用本地验证（{@link OkTokenVerifier}）时直接验证 Authorization 头中的令牌，验证结果放入 {@link #CLAIMS}，
+ * 并由 {@link OkTokenAuthenticationMechanism} 复用为请求身份；否则非阻塞地等待 OIDC 验证。
+ * <p>
+ * 日志按 okstar.security.log-every 抽样（每 N 个请求记录一次），开启 DEBUG 时逐条记录。
+ */
 @ApplicationScoped
 public class TokenFilters {
 
+    /**
+     * RoutingContext 中已验证的 {@link OkTokenClaims}
+     */
+    public static final String CLAIMS = "okstar.token.claims";
+
+    private static final String BEARER = "Bearer ";
+
     @Inject
-    JsonWebToken jwt;
+    OkTokenVerifier verifier;
+
+    @Inject
+    OkPublicRoutes publicRoutes;
+
+    @ConfigProperty(name = "okstar.security.log-every", defaultValue = "1000")
+    int logEvery;
 
     @RouteFilter(100)
     void jwtFilter(RoutingContext rc) {
-        String uri = rc.request().uri();
-        Log.infof("uri=%s", uri);
+        String path = rc.normalizedPath();
+        boolean sampled = sampled();
 
-        String username = jwt.getName();
-        if (uri.contains("/passport") || uri.contains("/rpc") || uri.contains("/_well-known") || uri.contains("/staff")) {
-            Log.infof("bypass the uri.");
+        if (publicRoutes.isPublic(path)) {
+            if (sampled) Log.infof("Public route: %s", path);
             rc.next();
             return;
         }
 
+        if (verifier.isEnabled()) {
+            OkTokenClaims claims = verify(rc, verifier);
+            if (claims != null) {
+                rc.put(CLAIMS, claims);
+            }
+            proceed(rc, path, claims == null ? null : claims.getName(), sampled);
+            return;
+        }
+
+        //未启用本地验证：非阻塞地等待 OIDC 身份，不能在事件循环上调用 jwt.getName()
+        QuarkusHttpUser.getSecurityIdentity(rc, null).subscribe().with(
+                identity -> proceed(rc, path, identity == null || identity.isAnonymous()
+                        ? null : identity.getPrincipal().getName(), sampled),
+                failure -> {
+                    Log.debugf("Authentication failed: %s", failure.getMessage());
+                    proceed(rc, path, null, sampled);
+                });
+    }
+
+    private void proceed(RoutingContext rc, String path, String username, boolean sampled) {
         if (OkStringUtil.isEmpty(username)) {
+            if (sampled) Log.infof("Forbidden: %s", path);
             rc.fail(HttpResponseStatus.FORBIDDEN.code());
             return;
         }
-        Log.infof("username:%s", username);
+        if (sampled) Log.infof("path=%s username=%s", path, username);
         rc.put(SystemDefines.Header_X_OK_username, username);
         rc.next();
     }
+
+    /**
+     * 本地验证 Authorization 头中的 Bearer 令牌
+     *
+     * @return 没有令牌或令牌无效时返回 null
+     */
+    static OkTokenClaims verify(RoutingContext rc, OkTokenVerifier verifier) {
+        String authorization = rc.request().getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return null;
+        }
+        return verifier.verify(authorization.substring(BEARER.length()).trim());
+    }
+
+    private boolean sampled() {
+        if (Log.isDebugEnabled()) {
+            return true;
+        }
+        return logEvery > 0 && ThreadLocalRandom.current().nextInt(logEvery) == 0;
+    }
 }
@@ -15,18 +15,25 @@ package org.okstar.platform.common.security.service;
 
 import io.smallrye.common.constraint.Assert;
 import io.vertx.core.http.HttpServerRequest;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import org.okstar.platform.common.core.constant.CacheConstants;
 import org.okstar.platform.common.core.constant.Constants;
 import org.okstar.platform.common.core.constant.SecurityConstants;
 import org.okstar.platform.common.core.utils.IdUtils;
 import org.okstar.platform.common.core.utils.OkStringUtil;
 import org.okstar.platform.common.core.utils.OkWebUtil;
+import org.okstar.platform.common.redis.cache.OkNearCache;
+import org.okstar.platform.common.redis.cache.OkNearCaches;
+import org.okstar.platform.common.redis.cache.OkSlidingExpiry;
 import org.okstar.platform.common.redis.service.RedisService;
 import org.okstar.platform.common.security.domain.LoginUser;
 import org.okstar.platform.common.security.utils.SecurityUtils;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
@@ -46,8 +53,17 @@ public class TokenService {
     private String clientId;
     //	@Value("${tokenVerifier.enableSSO:}")
     private String enableSSO;
-    //    @Inject
-    private RedisService redisService;
+    @Inject
+    RedisService redisService;
+    @Inject
+    OkNearCaches nearCaches;
+    @Inject
+    OkSlidingExpiry slidingExpiry;
+
+    /**
+     * 登录用户的两级缓存，本地命中时不访问 Redis
+     */
+    private OkNearCache<LoginUser> loginUsers;
 
     private final static long EXPIRE_TIME = Constants.TOKEN_EXPIRE * 60;
 
@@ -56,15 +72,22 @@ public class TokenService {
 
     protected static final long MILLIS_SECOND = 1000;
 
+    public static final String LOGIN_USER_CACHE = "login-user";
+
+    @PostConstruct
+    void init() {
+        loginUsers = nearCaches.get(LOGIN_USER_CACHE, LoginUser.class);
+    }
+
     /**
-     * 设置过期时间
+     * 设置过期时间（滑动过期，按间隔批量延期，不重写用户信息）
      */
     public void updateExpireTime(String token) {
 //        if (enableSSO.equals("true")) {
 //            String subject = extractedSubjectInToken(token);
 //            redisService.expire(getSSOTokenKey(subject), TokenService.EXPIRE_TIME);
 //        } else {
-        redisService.expire(getTokenKey(token), TokenService.EXPIRE_TIME);
+        slidingExpiry.touch(getTokenKey(token), EXPIRE_TIME, TimeUnit.SECONDS);
 //        }
     }
 
@@ -79,13 +102,12 @@ public class TokenService {
         String token = IdUtils.makeUuid();
         loginUser.setToken(token);
         loginUser.setIpaddr(OkWebUtil.getIpAddr(request));
+        // 保存或更新用户token
         refreshToken(loginUser);
 
-        // 保存或更新用户token
         Map<String, Object> map = new HashMap<String, Object>();
         map.put("access_token", token);
         map.put("expires_in", EXPIRE_TIME);
-        redisService.setCacheObject(ACCESS_TOKEN + token, loginUser, EXPIRE_TIME, TimeUnit.SECONDS);
         return map;
     }
 
@@ -110,12 +132,30 @@ public class TokenService {
         if (OkStringUtil.isNotEmpty(token)) {
 
             String userKey = getTokenKey(token);
-            LoginUser user = redisService.getCacheObject(userKey);
+            LoginUser user = loginUsers.get(userKey);
             return user;
         }
         return null;
     }
 
+    /**
+     * 批量获取用户身份信息，一次往返
+     *
+     * @return 令牌与用户信息，无效的令牌不包含在内
+     */
+    public Map<String, LoginUser> getLoginUsers(Collection<String> tokens) {
+        Map<String, String> keys = new LinkedHashMap<>();
+        for (String token : tokens) {
+            if (OkStringUtil.isNotEmpty(token)) {
+                keys.put(getTokenKey(token), token);
+            }
+        }
+        Map<String, LoginUser> users = new LinkedHashMap<>();
+        loginUsers.getAll(keys.keySet())
+                .forEach((key, user) -> users.put(keys.get(key), user));
+        return users;
+    }
+
     /**
      * 设置用户身份信息
      */
@@ -128,7 +168,8 @@ public class TokenService {
     public void delLoginUser(String token) {
         if (OkStringUtil.isNotEmpty(token)) {
             String userKey = getTokenKey(token);
-            redisService.deleteObject(userKey);
+            loginUsers.evict(userKey);
+            slidingExpiry.forget(userKey);
         }
     }
 
@@ -138,19 +179,44 @@ public class TokenService {
      * @param loginUser 登录信息
      */
     public void refreshToken(LoginUser loginUser) {
-        loginUser.setLoginTime(System.currentTimeMillis());
-        loginUser.setExpireTime(loginUser.getLoginTime() + EXPIRE_TIME * MILLIS_SECOND);
         // 根据uuid将loginUser缓存
-        String userKey = getTokenKey(loginUser.getToken());
-        redisService.setCacheObject(userKey, loginUser, EXPIRE_TIME, TimeUnit.SECONDS);
+        save(getTokenKey(loginUser.getToken()), loginUser);
     }
 
     public void refreshTokenSSO(LoginUser loginUser) {
+        // 根据uuid将loginUser缓存
+        save(getSSOTokenKey(loginUser.getSubject()), loginUser);
+    }
+
+    /**
+     * 用户信息有变化时整体重写，否则只滑动延期。
+     * 未重写时缓存中的 loginTime/expireTime 保持首次写入的值，有效期以 Redis 的 TTL 为准。
+     */
+    private void save(String userKey, LoginUser loginUser) {
         loginUser.setLoginTime(System.currentTimeMillis());
         loginUser.setExpireTime(loginUser.getLoginTime() + EXPIRE_TIME * MILLIS_SECOND);
-        // 根据uuid将loginUser缓存
-        String userKey = getSSOTokenKey(loginUser.getSubject());
-        redisService.setCacheObject(userKey, loginUser, EXPIRE_TIME, TimeUnit.SECONDS);
+
+        //同一实例可能已被修改，无法比较，直接重写
+        LoginUser cached = loginUsers.get(userKey);
+        if (cached != null && cached != loginUser && sameContent(cached, loginUser)) {
+            slidingExpiry.touch(userKey, EXPIRE_TIME, TimeUnit.SECONDS);
+            return;
+        }
+        loginUsers.put(userKey, loginUser, EXPIRE_TIME, TimeUnit.SECONDS);
+        slidingExpiry.forget(userKey);
+    }
+
+    /**
+     * 除登录与过期时间外的字段是否一致
+     */
+    private static boolean sameContent(LoginUser a, LoginUser b) {
+        return Objects.equals(a.getToken(), b.getToken())
+                && Objects.equals(a.getUserid(), b.getUserid())
+                && Objects.equals(a.getUsername(), b.getUsername())
+                && Objects.equals(a.getIpaddr(), b.getIpaddr())
+                && Objects.equals(a.getPermissions(), b.getPermissions())
+                && Objects.equals(a.getRoles(), b.getRoles())
+                && Objects.equals(a.getSubject(), b.getSubject());
     }
 
     private String getTokenKey(String token) {
@@ -164,7 +230,7 @@ public class TokenService {
     public LoginUser getLoginUserFromSSO(String subject) {
         if (OkStringUtil.isNotEmpty(subject)) {
             String userKey = getSSOTokenKey(subject);
-            LoginUser user = redisService.getCacheObject(userKey);
+            LoginUser user = loginUsers.get(userKey);
             return user;
         }
         return null;
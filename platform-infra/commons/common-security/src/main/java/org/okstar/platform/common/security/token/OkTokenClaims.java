@@ -0,0 +1,58 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.security.token;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.jose4j.jwt.JwtClaims;
+import org.jose4j.jwt.MalformedClaimException;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 已验证的令牌声明，验证后不再变化，可在请求间共享
+ */
+@Getter
+@ToString(of = {"name", "subject", "expiresAt"})
+public class OkTokenClaims {
+
+    /**
+     * 用户名，依次取 upn、preferred_username、sub（与 JsonWebToken#getName 一致）
+     */
+    private final String name;
+
+    private final String subject;
+
+    /**
+     * 过期时间（毫秒）
+     */
+    private final long expiresAt;
+
+    private final Map<String, Object> claims;
+
+    OkTokenClaims(JwtClaims jwt) throws MalformedClaimException {
+        this.subject = jwt.getSubject();
+        this.expiresAt = jwt.getExpirationTime().getValueInMillis();
+        this.claims = Collections.unmodifiableMap(jwt.getClaimsMap());
+        String n = jwt.getStringClaimValue("upn");
+        if (n == null) n = jwt.getStringClaimValue("preferred_username");
+        this.name = n != null ? n : subject;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T claim(String claim) {
+        return (T) claims.get(claim);
+    }
+}
@@ -0,0 +1,343 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.security.token;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jose4j.http.Get;
+import org.jose4j.jwa.AlgorithmConstraints;
+import org.jose4j.jwk.HttpsJwks;
+import org.jose4j.jwk.JsonWebKey;
+import org.jose4j.jws.AlgorithmIdentifiers;
+import org.jose4j.jws.JsonWebSignature;
+import org.jose4j.jwx.JsonWebStructure;
+import org.jose4j.jwt.MalformedClaimException;
+import org.jose4j.jwt.consumer.InvalidJwtException;
+import org.jose4j.jwt.consumer.JwtConsumer;
+import org.jose4j.jwt.consumer.JwtConsumerBuilder;
+import org.jose4j.keys.resolvers.JwksVerificationKeyResolver;
+import org.jose4j.keys.resolvers.VerificationKeyResolver;
+import org.jose4j.lang.UnresolvableKeyException;
+import org.okstar.platform.common.executor.OkExecutors;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地验证访问令牌：按 JWKS 公钥验签，验证结果按令牌摘要缓存到过期时间（exp）。
+ * <p>
+ * JWKS 在启动时预取并定时刷新，验签只使用已取得的公钥，热路径（事件循环）上不访问 Keycloak；
+ * 遇到未知的 kid 时拒绝该令牌，并在工作线程上异步刷新（间隔不小于 okstar.security.jwks.min-refresh-interval），
+ * 伪造的 kid 不会阻塞 IO 线程，也不会频繁请求 Keycloak。
+ * 默认从 quarkus.oidc.auth-server-url 推导 JWKS 地址与签发者，未配置时不启用，由 OIDC 验证。
+ * <p>
+ * 指标：okstar.token.verify（验签耗时，result=valid/invalid）、okstar.token.jwks.refresh，
+ * 以及缓存 token 的命中率。
+ */
+@ApplicationScoped
+public class OkTokenVerifier {
+
+    private static final String CACHE = "token";
+
+    private static final String JWKS = "jwks";
+
+    @ConfigProperty(name = "quarkus.oidc.auth-server-url")
+    Optional<String> authServerUrl;
+
+    /**
+     * JWKS 地址，默认为 Keycloak 的 {auth-server-url}/protocol/openid-connect/certs
+     */
+    @ConfigProperty(name = "okstar.security.jwks-url")
+    Optional<String> jwksUrl;
+
+    @ConfigProperty(name = "quarkus.oidc.tls.verification", defaultValue = "required")
+    String tlsVerification;
+
+    @ConfigProperty(name = "okstar.security.token-cache.maximum-size", defaultValue = "10000")
+    long maximumSize;
+
+    /**
+     * 未知 kid 触发刷新的最小间隔
+     */
+    @ConfigProperty(name = "okstar.security.jwks.min-refresh-interval", defaultValue = "30s")
+    Duration minRefreshInterval;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    OkExecutors executors;
+
+    /**
+     * 拉取 JWKS（阻塞），只在工作线程上调用
+     */
+    private Callable<List<JsonWebKey>> source;
+
+    private Executor executor;
+
+    /**
+     * 最近一次取得的公钥
+     */
+    private volatile VerificationKeyResolver keys = new JwksVerificationKeyResolver(List.of());
+
+    private final AtomicLong lastRefresh = new AtomicLong();
+
+    private JwtConsumer consumer;
+
+    private Cache<String, OkTokenClaims> cache;
+
+    private Timer valid;
+
+    private Timer invalid;
+
+    OkTokenVerifier() {
+    }
+
+    /**
+     * 测试使用，指定 JWKS 来源与执行刷新的线程池
+     */
+    OkTokenVerifier(Callable<List<JsonWebKey>> source, Executor executor, Duration minRefreshInterval,
+                    String issuer, long maximumSize, MeterRegistry registry) {
+        this.source = source;
+        this.executor = executor;
+        this.minRefreshInterval = minRefreshInterval;
+        this.maximumSize = maximumSize;
+        this.registry = registry;
+        build(issuer);
+    }
+
+    @PostConstruct
+    void init() {
+        Optional<String> url = jwksUrl.or(() -> authServerUrl.map(s -> trim(s) + "/protocol/openid-connect/certs"));
+        if (url.isEmpty()) {
+            Log.infof("Local token verification disabled: no JWKS url");
+            return;
+        }
+        HttpsJwks jwks = new HttpsJwks(url.get());
+        if ("none".equalsIgnoreCase(tlsVerification)) {
+            jwks.setSimpleHttpGet(insecureGet());
+        }
+        source = () -> {
+            jwks.refresh();
+            return jwks.getJsonWebKeys();
+        };
+        executor = executors.get(JWKS);
+        build(authServerUrl.map(OkTokenVerifier::trim).orElse(null));
+        Log.infof("Local token verification enabled: jwks=%s", url.get());
+    }
+
+    private void build(String issuer) {
+        JwtConsumerBuilder builder = new JwtConsumerBuilder()
+                .setRequireExpirationTime()
+                .setAllowedClockSkewInSeconds(30)
+                .setSkipDefaultAudienceValidation()
+                .setJwsAlgorithmConstraints(AlgorithmConstraints.ConstraintType.PERMIT,
+                        AlgorithmIdentifiers.RSA_USING_SHA256,
+                        AlgorithmIdentifiers.RSA_USING_SHA384,
+                        AlgorithmIdentifiers.RSA_USING_SHA512,
+                        AlgorithmIdentifiers.RSA_PSS_USING_SHA256,
+                        AlgorithmIdentifiers.ECDSA_USING_P256_CURVE_AND_SHA256)
+                .setVerificationKeyResolver(this::resolve);
+        if (issuer != null) {
+            builder.setExpectedIssuer(issuer);
+        }
+        consumer = builder.build();
+
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilExpired())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE);
+        valid = Timer.builder("okstar.token.verify").tag("result", "valid").register(registry);
+        invalid = Timer.builder("okstar.token.verify").tag("result", "invalid").register(registry);
+        lastRefresh.set(System.nanoTime() - minRefreshInterval.toNanos());
+    }
+
+    public boolean isEnabled() {
+        return consumer != null;
+    }
+
+    /**
+     * 验证访问令牌（不含 Bearer 前缀）
+     *
+     * @return 令牌无效或已过期时返回 null
+     */
+    public OkTokenClaims verify(String token) {
+        String key = digest(token);
+        OkTokenClaims claims = cache.getIfPresent(key);
+        if (claims != null) {
+            return claims;
+        }
+
+        long start = System.nanoTime();
+        try {
+            claims = new OkTokenClaims(consumer.processToClaims(token));
+        } catch (InvalidJwtException | MalformedClaimException e) {
+            invalid.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            Log.debugf("Invalid token: %s", e.getMessage());
+            return null;
+        }
+        valid.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        cache.put(key, claims);
+        return claims;
+    }
+
+    /**
+     * 启动时预取，之后定时刷新，密钥轮换后新 kid 可直接命中
+     */
+    void prefetch(@Observes StartupEvent event) {
+        refresh();
+    }
+
+    @Scheduled(every = "${okstar.security.jwks.refresh-interval:10m}", delayed = "1m")
+    void refresh() {
+        if (source == null) {
+            return;
+        }
+        String result = "ok";
+        try {
+            List<JsonWebKey> fetched = source.call();
+            keys = new JwksVerificationKeyResolver(fetched);
+            Log.debugf("JWKS refreshed: %d keys", fetched.size());
+        } catch (Exception e) {
+            //刷新失败时沿用已有的公钥
+            result = "error";
+            Log.warnf("JWKS refresh failed: %s", e.getMessage());
+        }
+        Counter.builder("okstar.token.jwks.refresh").tag("result", result).register(registry).increment();
+    }
+
+    /**
+     * 只从已取得的公钥中查找，不发起网络请求
+     */
+    private Key resolve(JsonWebSignature jws, List<JsonWebStructure> nesting) throws UnresolvableKeyException {
+        try {
+            return keys.resolveKey(jws, nesting);
+        } catch (UnresolvableKeyException e) {
+            refreshLater();
+            throw e;
+        }
+    }
+
+    /**
+     * 异步刷新，最小间隔内只提交一次
+     */
+    private void refreshLater() {
+        if (source == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        long last = lastRefresh.get();
+        if (now - last < minRefreshInterval.toNanos() || !lastRefresh.compareAndSet(last, now)) {
+            return;
+        }
+        try {
+            executor.execute(this::refresh);
+        } catch (RejectedExecutionException e) {
+            Log.warnf("JWKS refresh rejected: %s", e.getMessage());
+        }
+    }
+
+    static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String trim(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    /**
+     * 与 quarkus.oidc.tls.verification=none 保持一致
+     */
+    private static Get insecureGet() {
+        Get get = new Get();
+        try {
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, new TrustManager[]{new X509TrustManager() {
+                @Override
+                public void checkClientTrusted(X509Certificate[] chain, String authType) {
+                }
+
+                @Override
+                public void checkServerTrusted(X509Certificate[] chain, String authType) {
+                }
+
+                @Override
+                public X509Certificate[] getAcceptedIssuers() {
+                    return new X509Certificate[0];
+                }
+            }}, null);
+            get.setSslSocketFactory(context.getSocketFactory());
+            get.setHostnameVerifier((host, session) -> true);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        return get;
+    }
+
+    /**
+     * 缓存到令牌过期
+     */
+    private static class UntilExpired implements Expiry<String, OkTokenClaims> {
+        @Override
+        public long expireAfterCreate(String key, OkTokenClaims value, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.getExpiresAt() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, OkTokenClaims value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, OkTokenClaims value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
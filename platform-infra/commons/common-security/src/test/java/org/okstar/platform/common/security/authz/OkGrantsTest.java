@@ -0,0 +1,67 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.security.authz;
+
+import io.smallrye.common.constraint.Assert;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class OkGrantsTest {
+
+    @Test
+    void bits() {
+        OkGrants grants = OkGrants.of(List.of(0, 63, 64, 1000), Set.of("admin"), false);
+        Assert.assertTrue(grants.getBits().length == 16);
+        for (int ordinal : new int[]{0, 63, 64, 1000}) {
+            Assert.assertTrue(grants.has(ordinal));
+        }
+        for (int ordinal : new int[]{-1, 1, 62, 65, 999, 1001, 1_000_000}) {
+            Assert.assertTrue(!grants.has(ordinal));
+        }
+        Assert.assertTrue(grants.hasRole("admin") && !grants.hasRole("guest"));
+    }
+
+    @Test
+    void emptyAndAll() {
+        OkGrants none = OkGrants.of(List.of(), Set.of(), false);
+        Assert.assertTrue(none.getBits().length == 0 && !none.has(0));
+
+        OkGrants all = OkGrants.of(List.of(), Set.of(), true);
+        Assert.assertTrue(all.has(12345));
+    }
+
+    @Test
+    void denseDictionary() {
+        //稀疏的资源 id 编为连续序号，同一标识共用序号
+        OkPermissionDictionary dictionary = OkPermissionDictionary.of(
+                Map.of(5_000_000L, "sys:user:edit", 42L, "sys:user:list", 1000L, "sys:user:list"));
+        Assert.assertTrue(dictionary.resourceOrdinal(42L) == 0);
+        Assert.assertTrue(dictionary.resourceOrdinal(1000L) == 0);
+        Assert.assertTrue(dictionary.resourceOrdinal(5_000_000L) == 1);
+        Assert.assertTrue(dictionary.resourceOrdinal(7L) == -1);
+        Assert.assertTrue(dictionary.ordinal("sys:user:edit") == 1);
+
+        OkGrants grants = OkGrants.of(List.of(dictionary.resourceOrdinal(5_000_000L)), Set.of(), false, dictionary.getVersion());
+        Assert.assertTrue(grants.getBits().length == 1);
+
+        //内容相同时版本一致，变化后不同
+        Assert.assertTrue(dictionary.getVersion() != 0);
+        Assert.assertTrue(dictionary.getVersion() == OkPermissionDictionary.of(
+                Map.of(1000L, "sys:user:list", 42L, "sys:user:list", 5_000_000L, "sys:user:edit")).getVersion());
+        Assert.assertTrue(dictionary.getVersion() != OkPermissionDictionary.of(Map.of(42L, "sys:user:list")).getVersion());
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.security.authz;
+
+import io.smallrye.common.constraint.Assert;
+import jakarta.interceptor.InvocationContext;
+import org.junit.jupiter.api.Test;
+import org.okstar.platform.common.core.annotation.PreAuthorize;
+import org.okstar.platform.common.core.exception.NotPermissionException;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 权限判断与拦截：授权快照与字典直接给出，不经过缓存
+ */
+class PreAuthorizeInterceptorTest {
+
+    private static final OkPermissionDictionary DICTIONARY = OkPermissionDictionary.of(
+            Map.of(42L, "sys:user:list", 5_000_000L, "sys:user:edit"));
+
+    private static final Map<String, OkGrants> USERS = Map.of(
+            "alice", OkGrants.of(List.of(DICTIONARY.resourceOrdinal(5_000_000L)), Set.of("staff"), false,
+                    DICTIONARY.getVersion()),
+            "root", OkGrants.of(List.of(), Set.of("admin"), true, DICTIONARY.getVersion()));
+
+    private final OkAuthorizer authorizer = new OkAuthorizer() {
+        @Override
+        public OkGrants grants(String username) {
+            return USERS.getOrDefault(username, OkGrants.of(Set.of(), Set.of(), false, DICTIONARY.getVersion()));
+        }
+
+        @Override
+        public OkPermissionDictionary dictionary() {
+            return DICTIONARY;
+        }
+    };
+
+    @PreAuthorize(hasRole = "staff")
+    static class Probe {
+
+        @PreAuthorize(hasPermi = "sys:user:edit")
+        public String edit() {
+            return "edit";
+        }
+
+        @PreAuthorize(hasPermi = "sys:user:list")
+        public String list() {
+            return "list";
+        }
+
+        @PreAuthorize(hasAnyRoles = {"admin", "auditor"}, lacksPermi = "sys:user:list")
+        public String audit() {
+            return "audit";
+        }
+
+        public String staff() {
+            return "staff";
+        }
+    }
+
+    @Test
+    void check() throws Exception {
+        Assert.assertTrue(authorizer.check("alice", rule("edit")));
+        Assert.assertTrue(!authorizer.check("alice", rule("list")));
+        //未登记的权限标识
+        Assert.assertTrue(!authorizer.hasPermi("alice", "sys:role:edit"));
+        //all 拥有全部权限，lacksPermi 因此不满足
+        Assert.assertTrue(authorizer.check("root", rule("list")));
+        Assert.assertTrue(!authorizer.check("root", rule("audit")));
+        Assert.assertTrue(!authorizer.check("bob", rule("edit")));
+    }
+
+    @Test
+    void intercept() throws Exception {
+        Assert.assertTrue("edit".equals(invoke("alice", "edit")));
+        //方法上没有注解时使用类上的注解
+        Assert.assertTrue("staff".equals(invoke("alice", "staff")));
+        Assert.assertTrue(denied("alice", "list"));
+        Assert.assertTrue(denied("root", "staff"));
+        //不在 HTTP 请求中没有当前用户
+        Assert.assertTrue(denied(null, "edit"));
+    }
+
+    private static PreAuthorize rule(String method) throws NoSuchMethodException {
+        return Probe.class.getMethod(method).getAnnotation(PreAuthorize.class);
+    }
+
+    private boolean denied(String username, String method) throws Exception {
+        try {
+            invoke(username, method);
+            return false;
+        } catch (NotPermissionException e) {
+            return true;
+        }
+    }
+
+    private Object invoke(String username, String name) throws Exception {
+        PreAuthorizeInterceptor interceptor = new PreAuthorizeInterceptor() {
+            @Override
+            String username() {
+                return username;
+            }
+        };
+        interceptor.authorizer = authorizer;
+
+        Probe target = new Probe();
+        Method method = Probe.class.getMethod(name);
+        InvocationContext ctx = (InvocationContext) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{InvocationContext.class}, (proxy, m, args) -> switch (m.getName()) {
+                    case "getMethod" -> method;
+                    case "getTarget" -> target;
+                    case "proceed" -> method.invoke(target);
+                    default -> throw new UnsupportedOperationException(m.getName());
+                });
+        return interceptor.check(ctx);
+    }
+}
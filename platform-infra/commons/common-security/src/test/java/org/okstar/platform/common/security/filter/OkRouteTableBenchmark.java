@@ -0,0 +1,84 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.security.filter;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TokenFilters 每个请求的放行判断开销：原先的子串扫描与路由表对比，运行 main 方法即可：
+ * <pre>
+ * mvn -pl platform-infra/commons/common-security test-compile exec:java \
+ *   -Dexec.classpathScope=test -Dexec.mainClass=org.okstar.platform.common.security.filter.OkRouteTableBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OkRouteTableBenchmark {
+
+    private static final String[] PATHS = {
+            "/passport/signIn",
+            "/rpc/SysAccountRpc/findById/1",
+            "/staff/pending/page",
+            "/dept/children/12",
+            "/settings/basic/personal",
+            "/billing/order/detail/100",
+    };
+
+    private final OkRouteTable table = new OkRouteTable()
+            .add("/passport/**")
+            .add("/rpc/PassportRpc/**")
+            .add("/rpc/SysAccountRpc/**")
+            .add("/rpc/SysProfileRpc/**")
+            .add("/rpc/SysSettingsRpc/**")
+            .add("/rpc/OrgRpc/**")
+            .add("/rpc/OrgStaffRpc/**")
+            .add("/staff/**")
+            .add("/staff/employed/**")
+            .add("/staff/left/**")
+            .add("/staff/pending/**")
+            .add("/staff/post/**")
+            .add("/.well-known/**");
+
+    private int i;
+
+    private String next() {
+        return PATHS[i++ % PATHS.length];
+    }
+
+    @Benchmark
+    public boolean substring() {
+        String uri = next();
+        return uri.contains("/passport") || uri.contains("/rpc") || uri.contains("/_well-known") || uri.contains("/staff");
+    }
+
+    @Benchmark
+    public boolean routeTable() {
+        return table.matches(next());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OkRouteTableBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.security.filter;
+
+import io.smallrye.common.constraint.Assert;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import org.junit.jupiter.api.Test;
+import org.okstar.platform.common.core.annotation.OkPublic;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+class OkRouteTableTest {
+
+    @Test
+    void segmentsNotSubstrings() {
+        OkRouteTable table = new OkRouteTable()
+                .add("/passport/**")
+                .add("/staff/**")
+                .add("/account/{id}/detail")
+                .add("/.well-known/git.json");
+
+        Assert.assertTrue(table.matches("/passport"));
+        Assert.assertTrue(table.matches("/passport/signIn"));
+        Assert.assertTrue(table.matches("/staff/pending/page"));
+        Assert.assertTrue(table.matches("/account/42/detail"));
+        Assert.assertTrue(table.matches("/.well-known/git.json"));
+
+        Assert.assertTrue(!table.matches("/org/staff-anything"));
+        Assert.assertTrue(!table.matches("/staff-anything"));
+        Assert.assertTrue(!table.matches("/me/passport"));
+        Assert.assertTrue(!table.matches("/account/42"));
+        Assert.assertTrue(!table.matches("/account/42/detail/x"));
+        Assert.assertTrue(!table.matches("/"));
+    }
+
+    @Test
+    void literalBeforeParam() {
+        OkRouteTable table = new OkRouteTable()
+                .add("/dept/children")
+                .add("/dept/{id}/public");
+
+        Assert.assertTrue(table.matches("/dept/children"));
+        Assert.assertTrue(table.matches("/dept/children/public"));
+        Assert.assertTrue(!table.matches("/dept/1"));
+    }
+
+    @Test
+    void collectAnnotations() {
+        Set<String> patterns = new TreeSet<>();
+        OkPublicRoutes.collect(PublicResource.class, "/", patterns);
+        OkPublicRoutes.collect(MixedResource.class, "/api", patterns);
+        OkPublicRoutes.collect(RpcImpl.class, "/", patterns);
+
+        Assert.assertTrue(patterns.equals(new TreeSet<>(Set.of(
+                "/open/**", "/api/mixed/ping", "/rpc/Demo/**"))));
+    }
+
+    @Test
+    void restPathOfActiveImplementation() {
+        Optional<String> classic = Optional.of("/api");
+        Optional<String> reactive = Optional.of("/rest");
+        Assert.assertTrue("/api".equals(OkPublicRoutes.restPath(false, classic, reactive)));
+        Assert.assertTrue("/rest".equals(OkPublicRoutes.restPath(true, classic, reactive)));
+        Assert.assertTrue("/".equals(OkPublicRoutes.restPath(false, Optional.empty(), reactive)));
+    }
+
+    @OkPublic
+    @Path("open")
+    static class PublicResource {
+    }
+
+    @Path("/mixed")
+    static class MixedResource {
+        @GET
+        @OkPublic
+        @Path("ping")
+        public String ping() {
+            return "pong";
+        }
+
+        @GET
+        @Path("secret")
+        public String secret() {
+            return "";
+        }
+    }
+
+    @OkPublic
+    @Path("rpc/Demo")
+    interface DemoRpc {
+    }
+
+    static class RpcImpl implements DemoRpc {
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.common.security.token;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.common.constraint.Assert;
+import org.jose4j.jwk.JsonWebKey;
+import org.jose4j.jwk.RsaJsonWebKey;
+import org.jose4j.jwk.RsaJwkGenerator;
+import org.jose4j.jws.AlgorithmIdentifiers;
+import org.jose4j.jws.JsonWebSignature;
+import org.jose4j.jwt.JwtClaims;
+import org.jose4j.lang.JoseException;
+import org.junit.jupiter.api.Test;
+import org.okstar.platform.common.security.filter.OkTokenAuthenticationRequest;
+import org.okstar.platform.common.security.filter.OkTokenIdentityProvider;
+import org.okstar.platform.common.security.filter.TokenFilters;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class OkTokenVerifierTest {
+
+    private static final String ISSUER = "https://keycloak/realms/okstar";
+
+    @Test
+    void verifyAndCache() throws JoseException {
+        RsaJsonWebKey key = RsaJwkGenerator.generateJwk(2048);
+        key.setKeyId("k1");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OkTokenVerifier verifier = verifier(List.of(key), Runnable::run, registry);
+
+        String token = sign(key, ISSUER, 5);
+        OkTokenClaims claims = verifier.verify(token);
+        Assert.assertTrue(claims != null && "alice".equals(claims.getName()));
+        Assert.assertTrue(verifier.verify(token) == claims);
+        Assert.assertTrue(registry.get("okstar.token.verify").tag("result", "valid").timer().count() == 1);
+
+        Assert.assertTrue(verifier.verify(sign(key, "https://other", 5)) == null);
+        Assert.assertTrue(verifier.verify(sign(key, ISSUER, -5)) == null);
+        Assert.assertTrue(verifier.verify(token.substring(0, token.length() - 2) + "xx") == null);
+
+        RsaJsonWebKey unknown = RsaJwkGenerator.generateJwk(2048);
+        unknown.setKeyId("k2");
+        Assert.assertTrue(verifier.verify(sign(unknown, ISSUER, 5)) == null);
+    }
+
+    @Test
+    void identityFromClaims() throws JoseException {
+        RsaJsonWebKey key = RsaJwkGenerator.generateJwk(2048);
+        key.setKeyId("k1");
+        OkTokenVerifier verifier = verifier(List.of(key), Runnable::run, new SimpleMeterRegistry());
+        OkTokenClaims claims = verifier.verify(sign(key, ISSUER, 5));
+
+        SecurityIdentity identity = new OkTokenIdentityProvider()
+                .authenticate(new OkTokenAuthenticationRequest(claims), null)
+                .await().indefinitely();
+        Assert.assertTrue("alice".equals(identity.getPrincipal().getName()));
+        Assert.assertTrue(identity.hasRole("admin") && !identity.isAnonymous());
+        Assert.assertTrue(identity.getAttribute(TokenFilters.CLAIMS) == claims);
+    }
+
+    @Test
+    void unknownKidRefreshesAsync() throws JoseException {
+        RsaJsonWebKey key = RsaJwkGenerator.generateJwk(2048);
+        key.setKeyId("k1");
+        RsaJsonWebKey rotated = RsaJwkGenerator.generateJwk(2048);
+        rotated.setKeyId("k2");
+        List<JsonWebKey> published = new ArrayList<>(List.of(key));
+        AtomicInteger fetches = new AtomicInteger();
+        List<Runnable> tasks = new ArrayList<>();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OkTokenVerifier verifier = new OkTokenVerifier(() -> {
+            fetches.incrementAndGet();
+            return List.copyOf(published);
+        }, tasks::add, Duration.ofMinutes(1), ISSUER, 100, registry);
+        verifier.refresh();
+        Assert.assertTrue(fetches.get() == 1);
+
+        //未知 kid 直接拒绝，不在调用线程上拉取；最小间隔内只提交一次刷新
+        published.add(rotated);
+        String token = sign(rotated, ISSUER, 5);
+        Assert.assertTrue(verifier.verify(token) == null);
+        Assert.assertTrue(verifier.verify(sign(rotated, ISSUER, 6)) == null);
+        Assert.assertTrue(fetches.get() == 1 && tasks.size() == 1);
+
+        tasks.get(0).run();
+        Assert.assertTrue(fetches.get() == 2);
+        Assert.assertTrue(verifier.verify(token) != null);
+        Assert.assertTrue(registry.get("okstar.token.jwks.refresh").tag("result", "ok").counter().count() == 2);
+    }
+
+    private static OkTokenVerifier verifier(List<JsonWebKey> keys, Executor executor, SimpleMeterRegistry registry) {
+        OkTokenVerifier verifier = new OkTokenVerifier(() -> keys, executor, Duration.ofMinutes(1),
+                ISSUER, 100, registry);
+        verifier.refresh();
+        return verifier;
+    }
+
+    private static String sign(RsaJsonWebKey key, String issuer, float minutes) throws JoseException {
+        JwtClaims claims = new JwtClaims();
+        claims.setIssuer(issuer);
+        claims.setSubject("a1b2c3");
+        claims.setClaim("preferred_username", "alice");
+        claims.setStringListClaim("groups", "admin");
+        claims.setExpirationTimeMinutesInTheFuture(minutes);
+
+        JsonWebSignature jws = new JsonWebSignature();
+        jws.setPayload(claims.toJson());
+        jws.setKey(key.getPrivateKey());
+        jws.setKeyIdHeaderValue(key.getKeyId());
+        jws.setAlgorithmHeaderValue(AlgorithmIdentifiers.RSA_USING_SHA256);
+        return jws.getCompactSerialization();
+    }
+}
@@ -14,6 +14,8 @@
 package org.okstar.platform.auth.rpc;
 
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+import org.okstar.platform.auth.form.BackUserForm;
+import org.okstar.platform.common.core.annotation.OkPublic;
 import org.okstar.platform.common.rpc.RpcResult;
 import org.okstar.platform.system.sign.SignUpForm;
 import org.okstar.platform.system.sign.SignUpResult;
@@ -21,6 +23,7 @@ import org.okstar.platform.system.vo.SysAccount0;
 
 import jakarta.ws.rs.*;
 
+@OkPublic
 @Path("rpc/PassportRpc")
 @RegisterRestClient
 public interface PassportRpc {
@@ -30,6 +33,13 @@ public interface PassportRpc {
     RpcResult<SignUpResult> signUp(SignUpForm signUpDto);
 
 
+    /**
+     * 初始化认证帐号，已存在时忽略
+     */
+    @POST
+    @Path("initUser")
+    RpcResult<Boolean> initUser(BackUserForm form);
+
     @DELETE
     @Path("signDown/{accountId}")
     RpcResult<Boolean> signDown(@PathParam("accountId") Long accountId);
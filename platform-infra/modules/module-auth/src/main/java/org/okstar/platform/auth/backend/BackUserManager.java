@@ -35,6 +35,25 @@ public interface BackUserManager {
      */
     BackUser addUser(BackUser user);
 
+    /**
+     * 不存在时创建（含密码）
+     *
+     * @return 是否新建，已存在时为 false
+     */
+    default boolean provision(BackUser user) {
+        if (getUser(user.getUsername()).isPresent()) {
+            return false;
+        }
+        addUser(user);
+        return true;
+    }
+
+    /**
+     * 清除本地缓存的用户信息，下次按后端实际状态处理
+     */
+    default void evict(String username) {
+    }
+
     /**
      * 删除用户
      *
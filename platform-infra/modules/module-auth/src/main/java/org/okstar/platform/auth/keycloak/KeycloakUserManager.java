@@ -13,6 +13,10 @@
 
 package org.okstar.platform.auth.keycloak;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import io.quarkus.keycloak.admin.client.common.KeycloakAdminClientConfig;
 import io.quarkus.logging.Log;
 import io.quarkus.runtime.StartupEvent;
@@ -22,9 +26,12 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.resteasy.client.exception.ResteasyBadRequestException;
 import org.jboss.resteasy.client.jaxrs.internal.ResteasyClientBuilderImpl;
+import org.keycloak.admin.client.CreatedResponseUtil;
 import org.keycloak.admin.client.Keycloak;
 import org.keycloak.admin.client.resource.RealmResource;
 import org.keycloak.admin.client.resource.UserResource;
@@ -36,10 +43,19 @@ import org.okstar.platform.auth.backend.BackUserManager;
 import org.okstar.platform.common.core.exception.OkRuntimeException;
 import org.okstar.platform.common.core.utils.OkAssert;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+/**
+ * Keycloak 用户管理。
+ * <p>
+ * 按用户名精确查询，用户名到 Keycloak 用户 id 的映射缓存在本地（有界，创建时写入、删除时清除），
+ * 修改密码、找回密码与删除只需一次管理接口调用。
+ */
 @ApplicationScoped
 public class KeycloakUserManager implements BackUserManager {
     public static final String OKSTAR_REALM = "okstar";
@@ -52,8 +68,41 @@ public class KeycloakUserManager implements BackUserManager {
     @Inject
     KeycloakAdminClientConfig config;
 
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "okstar.keycloak.user-cache.maximum-size", defaultValue = "10000")
+    long cacheSize;
+
+    /**
+     * 用户在 Keycloak 中被直接删除时，缓存最多保留这么久（使用时发现 404 也会清除）
+     */
+    @ConfigProperty(name = "okstar.keycloak.user-cache.expire-after-write", defaultValue = "1h")
+    Duration cacheExpire;
+
     Keycloak keycloak;
 
+    /**
+     * 用户名（小写）=> Keycloak 用户 id
+     */
+    Cache<String, String> ids;
+
+    /**
+     * 测试时指定，否则取 okstar 域
+     */
+    UsersResource users;
+
+    KeycloakUserManager() {
+    }
+
+    /**
+     * 测试使用，指定用户管理接口
+     */
+    KeycloakUserManager(UsersResource users, long cacheSize) {
+        this.users = users;
+        this.ids = Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
     void startup(@Observes StartupEvent event) {
         /**
          * TODO 读取配置文件
@@ -77,9 +126,19 @@ public class KeycloakUserManager implements BackUserManager {
                 null,
                 (new ResteasyClientBuilderImpl().connectionPoolSize(20).build()),
                 true, null, null);
+
+        ids = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheExpire)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, ids, "keycloak-users");
     }
 
     private UsersResource usersResource() {
+        if (users != null) {
+            return users;
+        }
         RealmResource realm = keycloak.realms().realm(OKSTAR_REALM);
         return realm.users();
     }
@@ -94,20 +153,15 @@ public class KeycloakUserManager implements BackUserManager {
     @Override
     public void resetPassword(String username, String password) {
         Log.infof("Reset password for user:%s", username);
-        UsersResource usersResource = usersResource();
-        setPassword(usersResource, username, password);
+        withUser(username, "帐号不正确！", user -> user.resetPassword(credential(password)));
     }
 
     @Override
     public void forgot(String username) {
-        UsersResource usersResource = usersResource();
-        List<UserRepresentation> list = usersResource.search(username);
-        OkAssert.isTrue(!list.isEmpty(), "用户不存在！");
         try {
-            for (UserRepresentation user : list) {
-                UserResource userResource = usersResource.get(user.getId());
-                userResource.resetPasswordEmail();
-            }
+            withUser(username, "用户不存在！", UserResource::resetPasswordEmail);
+        } catch (OkRuntimeException e) {
+            throw e;
         } catch (Exception e) {
             Log.errorf(e, "重置密码异常！");
             if (e instanceof ResteasyBadRequestException) {
@@ -129,62 +183,140 @@ public class KeycloakUserManager implements BackUserManager {
 
     @Override
     public Optional<BackUser> getUser(String username) {
-        Log.infof("getUser:%s", username);
+        Log.debugf("getUser:%s", username);
         UsersResource usersResource = usersResource();
-        List<UserRepresentation> list = usersResource.search(username);
-        return list.stream().map(KeycloakUserManager::toBackend).toList().stream().findFirst();
+        String id = ids.getIfPresent(key(username));
+        if (id != null) {
+            try {
+                return Optional.of(toBackend(usersResource.get(id).toRepresentation()));
+            } catch (NotFoundException e) {
+                ids.invalidate(key(username));
+            }
+        }
+        Optional<UserRepresentation> user = search(usersResource, username);
+        user.ifPresent(u -> ids.put(key(username), u.getId()));
+        return user.map(KeycloakUserManager::toBackend);
     }
 
-
     @Override
     public BackUser addUser(BackUser user) {
         Log.infof("Add user:%s", user.getUsername());
-        UsersResource usersResource = usersResource();
-        try {
-            var response = usersResource.create(toRepresent(user));
-            Log.infof("statusCode=>%s", response.getStatus());
-            Assert.assertTrue(response.getStatus() == Response.Status.CREATED.getStatusCode());
-        } catch (Exception e) {
-            throw new OkRuntimeException("Creating account exception occurred: %s".formatted(e.getMessage()), e);
+        return create(user).orElseThrow(() ->
+                new OkRuntimeException("User:%s is existed".formatted(user.getUsername())));
+    }
+
+    /**
+     * 已缓存时不调用管理接口；否则直接创建，冲突（409）说明已存在
+     */
+    @Override
+    public boolean provision(BackUser user) {
+        if (ids.getIfPresent(key(user.getUsername())) != null) {
+            return false;
         }
+        return create(user).isPresent();
+    }
 
-        var u = usersResource.search(user.getUsername()).stream().peek(userRepresentation -> {
-            CredentialRepresentation cr = new CredentialRepresentation();
-            cr.setUserLabel("My password");
-            cr.setType("password");
-            cr.setValue(user.getPassword());
-            UserResource userResource = usersResource.get(userRepresentation.getId());
-            userResource.resetPassword(cr);
-        }).findFirst().map(KeycloakUserManager::toBackend).orElse(null);
-        Log.debugf("User is:%s", u);
-        return u;
+    @Override
+    public void evict(String username) {
+        ids.invalidate(key(username));
     }
 
     @Override
     public boolean deleteUser(String username) {
         Log.infof("Delete user:%s", username);
-        Optional<BackUser> backUser = getUser(username);
-        if (backUser.isEmpty()) {
+        UsersResource usersResource = usersResource();
+        Optional<String> id = findId(usersResource, username);
+        if (id.isEmpty()) {
             Log.warnf("User:%s is not exist", username);
             return true;
         }
+        try (Response response = usersResource.delete(id.get())) {
+            ids.invalidate(key(username));
+            Log.infof("Delete user:%s=>%s", username, response.getStatus());
+            //已被删除时同样视为成功
+            return response.getStatus() == Response.Status.NO_CONTENT.getStatusCode()
+                    || response.getStatus() == Response.Status.NOT_FOUND.getStatusCode();
+        }
+    }
+
+    /**
+     * 创建用户并在同一请求中设置密码，id 取自响应的 Location
+     *
+     * @return 已存在时为空
+     */
+    private Optional<BackUser> create(BackUser user) {
+        UserRepresentation represent = toRepresent(user);
+        if (user.getPassword() != null) {
+            represent.setCredentials(List.of(credential(user.getPassword())));
+        }
+        try (Response response = usersResource().create(represent)) {
+            int status = response.getStatus();
+            Log.infof("Create user:%s=>%s", user.getUsername(), status);
+            if (status == Response.Status.CONFLICT.getStatusCode()) {
+                return Optional.empty();
+            }
+            if (status != Response.Status.CREATED.getStatusCode()) {
+                throw new OkRuntimeException("Creating account failed: %s".formatted(status));
+            }
+            represent.setId(CreatedResponseUtil.getCreatedId(response));
+        } catch (OkRuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new OkRuntimeException("Creating account exception occurred: %s".formatted(e.getMessage()), e);
+        }
+        ids.put(key(user.getUsername()), represent.getId());
+        return Optional.of(toBackend(represent));
+    }
+
+    /**
+     * 对用户执行操作；缓存的 id 已失效（404）时重新查询一次
+     */
+    private void withUser(String username, String notExist, Consumer<UserResource> action) {
         UsersResource usersResource = usersResource();
-        var response = usersResource.delete(backUser.get().getId());
-        Log.infof("Delete user:%s=>", username, response.getStatus());
-        return response.getStatus() == Response.Status.NO_CONTENT.getStatusCode();
-    }
-
-    private void setPassword(UsersResource usersResource, String username, String password) {
-        List<UserRepresentation> list = usersResource.search(username);
-        OkAssert.isTrue(!list.isEmpty(), "帐号不正确！");
-        list.forEach(userRepresentation -> {
-            CredentialRepresentation cr = new CredentialRepresentation();
-            cr.setUserLabel("My password");
-            cr.setType("password");
-            cr.setValue(password);
-            UserResource userResource = usersResource.get(userRepresentation.getId());
-            userResource.resetPassword(cr);
-        });
+        Optional<String> id = findId(usersResource, username);
+        OkAssert.isTrue(id.isPresent(), notExist);
+        try {
+            action.accept(usersResource.get(id.get()));
+        } catch (NotFoundException e) {
+            ids.invalidate(key(username));
+            String fresh = search(usersResource, username)
+                    .map(UserRepresentation::getId)
+                    .orElseThrow(() -> new OkRuntimeException(notExist));
+            ids.put(key(username), fresh);
+            action.accept(usersResource.get(fresh));
+        }
+    }
+
+    private Optional<String> findId(UsersResource usersResource, String username) {
+        String id = ids.getIfPresent(key(username));
+        if (id != null) {
+            return Optional.of(id);
+        }
+        Optional<String> found = search(usersResource, username).map(UserRepresentation::getId);
+        found.ifPresent(i -> ids.put(key(username), i));
+        return found;
+    }
+
+    /**
+     * 精确匹配用户名（search(username) 为模糊分页查询，可能返回多个用户）
+     */
+    private static Optional<UserRepresentation> search(UsersResource usersResource, String username) {
+        return usersResource.search(username, true).stream()
+                .filter(u -> username.equalsIgnoreCase(u.getUsername()))
+                .findFirst();
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private static CredentialRepresentation credential(String password) {
+        CredentialRepresentation cr = new CredentialRepresentation();
+        cr.setUserLabel("My password");
+        cr.setType(CredentialRepresentation.PASSWORD);
+        cr.setValue(password);
+        cr.setTemporary(false);
+        return cr;
     }
 
     private UserRepresentation toRepresent(BackUser user) {
@@ -14,32 +14,37 @@
 package org.okstar.platform.auth.resource;
 
 import io.quarkus.logging.Log;
+import io.vertx.ext.web.RoutingContext;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import lombok.extern.slf4j.Slf4j;
-import org.eclipse.microprofile.jwt.JsonWebToken;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
 import org.okstar.cloud.OkCloudApiClient;
 import org.okstar.cloud.channel.FederalChannel;
 import org.okstar.cloud.entity.AuthenticationToken;
 import org.okstar.cloud.entity.FederalCitizenEntity;
 import org.okstar.platform.common.core.defined.OkCloudDefines;
+import org.okstar.platform.common.core.defined.SystemDefines;
 import org.okstar.platform.common.core.web.bean.Req;
 import org.okstar.platform.common.core.web.bean.Res;
+import org.okstar.platform.common.executor.OkExecutors;
 import org.okstar.platform.common.rpc.RpcAssert;
 import org.okstar.platform.org.rpc.OrgRpc;
 import org.okstar.platform.system.rpc.SysAccountRpc;
 import org.okstar.platform.system.vo.SysAccount0;
 
-import java.util.concurrent.ExecutorService;
-
 @Slf4j
 @Path("me")
 public class MeResource {
 
+    /**
+     * 联邦注册使用的线程池
+     */
+    private static final String FEDERAL = "federal";
+
     @Inject
-    JsonWebToken jwt;
+    RoutingContext rc;
 
     @Inject
     @RestClient
@@ -48,7 +53,7 @@ public class MeResource {
     @RestClient
     OrgRpc orgRpc;
     @Inject
-    ExecutorService executorService;
+    OkExecutors executors;
 
     OkCloudApiClient client;
 
@@ -60,17 +65,13 @@ public class MeResource {
 
     @GET
     public Res<SysAccount0> get() {
-        for (var name : jwt.getClaimNames()) {
-            Log.infof("claim=>%s %s", name, jwt.claim(name));
-        }
-        String name = jwt.getName();
-        Log.infof("name:%s", name);
+        //用户名由 TokenFilters 验证令牌后写入
+        String name = rc.get(SystemDefines.Header_X_OK_username);
+        Log.debugf("name:%s", name);
 
         var account0 = RpcAssert.isTrue(sysAccountRpc.findByUsername(name));
 
-        executorService.execute(() -> {
-            detach(account0);
-        });
+        executors.execute(FEDERAL, () -> detach(account0));
 
         Log.infof("My info is:%s", account0);
         return Res.ok(Req.empty(), account0);
@@ -19,6 +19,7 @@ import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import org.okstar.platform.auth.service.PassportService;
+import org.okstar.platform.common.core.annotation.OkPublic;
 import org.okstar.platform.common.core.web.bean.Req;
 import org.okstar.platform.common.core.web.bean.Res;
 import org.okstar.platform.common.resource.OkCommonResource;
@@ -27,6 +28,7 @@ import org.okstar.platform.system.sign.*;
 /**
  * 通行
  */
+@OkPublic
 @Path("passport")
 public class PassportResource extends OkCommonResource {
 
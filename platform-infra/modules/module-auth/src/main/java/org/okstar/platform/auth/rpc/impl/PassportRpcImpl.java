@@ -15,6 +15,7 @@ package org.okstar.platform.auth.rpc.impl;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.okstar.platform.auth.form.BackUserForm;
 import org.okstar.platform.auth.rpc.PassportRpc;
 import org.okstar.platform.auth.service.PassportService;
 import org.okstar.platform.common.rpc.RpcResult;
@@ -42,6 +43,16 @@ public class PassportRpcImpl implements PassportRpc {
         }
     }
 
+    @Override
+    public RpcResult<Boolean> initUser(BackUserForm form) {
+        try {
+            passportService.initUser(form);
+            return RpcResult.<Boolean>builder().success(true).data(true).build();
+        } catch (Exception e) {
+            return RpcResult.<Boolean>builder().success(false).msg(e.getMessage()).build();
+        }
+    }
+
     @Override
     public RpcResult<Boolean> signDown(Long accountId) {
         try {
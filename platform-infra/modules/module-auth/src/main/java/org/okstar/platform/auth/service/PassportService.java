@@ -13,7 +13,7 @@
 
 package org.okstar.platform.auth.service;
 
-
+import org.okstar.platform.auth.form.BackUserForm;
 import org.okstar.platform.system.sign.*;
 import org.okstar.platform.system.vo.SysAccount0;
 
@@ -22,6 +22,8 @@ public interface PassportService {
 
     SignUpResult signUp(SignUpForm signUpForm);
 
+    void initUser(BackUserForm form);
+
     void signDown(Long accountId);
 
     SignInResult signIn(SignInForm signInForm);
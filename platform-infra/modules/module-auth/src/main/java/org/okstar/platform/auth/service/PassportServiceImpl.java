@@ -21,20 +21,17 @@ import org.eclipse.microprofile.rest.client.inject.RestClient;
 import org.okstar.platform.auth.backend.AuthzClientManager;
 import org.okstar.platform.auth.backend.BackUser;
 import org.okstar.platform.auth.backend.BackUserManager;
+import org.okstar.platform.auth.form.BackUserForm;
 import org.okstar.platform.common.core.defined.AccountDefines;
 import org.okstar.platform.common.core.exception.OkRuntimeException;
 import org.okstar.platform.common.core.utils.OkAssert;
 import org.okstar.platform.common.core.utils.OkStringUtil;
 import org.okstar.platform.common.rpc.RpcAssert;
-import org.okstar.platform.common.rpc.RpcResult;
-import org.okstar.platform.org.dto.OrgStaffFragment;
-import org.okstar.platform.org.rpc.OrgStaffRpc;
 import org.okstar.platform.system.rpc.SysAccountRpc;
 import org.okstar.platform.system.sign.*;
 import org.okstar.platform.system.vo.SysAccount0;
 
 import java.util.Objects;
-import java.util.Optional;
 
 import static org.okstar.platform.common.core.defined.AccountDefines.BindType.email;
 import static org.okstar.platform.common.core.defined.AccountDefines.BindType.phone;
@@ -47,49 +44,46 @@ public class PassportServiceImpl implements PassportService {
     @RestClient
     SysAccountRpc sysAccountRpc;
     @Inject
-    @RestClient
-    OrgStaffRpc orgStaffRpc;
-    @Inject
     BackUserManager backUserManager;
     @Inject
     AuthzClientManager authzClientManager;
 
 
+    /**
+     * 注册只提交系统帐号（同一事务登记发件箱事件），
+     * 人员与认证帐号由系统模块的发件箱异步创建，见 {@link #initUser(BackUserForm)}；
+     * 创建前登录由 {@link #signIn(SignInForm)} 按系统帐号密码补建
+     */
     @Override
-    public synchronized SignUpResult signUp(SignUpForm form) {
+    public SignUpResult signUp(SignUpForm form) {
         log.info("signUp:{}", form);
 
         //初始化系统帐号
         SignUpResult signUpResult = RpcAssert.isTrue(sysAccountRpc.signUp(form));
         Log.infof("signUp=>%s", signUpResult.getUsername());
+        return signUpResult;
+    }
 
-        OrgStaffFragment staff = new OrgStaffFragment();
-        staff.setName(form.getName());
-        staff.setFirstName(form.getFirstName());
-        staff.setLastName(form.getLastName());
-        staff.setIso(form.getIso());
-        switch (form.getAccountType()) {
-            case email -> staff.setEmail(form.getAccount());
-            case phone -> staff.setPhone(form.getAccount());
-        }
-        var added = RpcAssert.isTrue(orgStaffRpc.add(staff));
-        Log.infof("保存到人员帐号=>%s", added);
+    @Override
+    public void initUser(BackUserForm form) {
+        OkAssert.notNull(form.getAccountId(), "accountId is null");
+        OkAssert.hasText(form.getUsername(), "username is empty");
 
+        String pwd = RpcAssert.isTrue(sysAccountRpc.lastPassword(form.getAccountId()));
         BackUser user = BackUser.builder()
-                .username(signUpResult.getUsername())
+                .username(form.getUsername())
                 .firstName(form.getFirstName())
                 .lastName(form.getLastName())
-                .password(form.getPassword())
+                .email(form.getEmail())
+                .password(pwd)
                 .build();
 
-        if (form.getAccountType() == email) {
-            user.setEmail(form.getAccount());
+        //重试或已登录初始化过时跳过
+        if (!backUserManager.provision(user)) {
+            Log.infof("User:%s is existed.", form.getUsername());
+            return;
         }
-
-
-        BackUser backUser = backUserManager.addUser(user);
-        log.info("Added user:{}", backUser.getUsername());
-        return signUpResult;
+        log.info("Added user:{}", form.getUsername());
     }
 
     @Override
@@ -118,22 +112,29 @@ public class PassportServiceImpl implements PassportService {
         SysAccount0 account0 = getAccount(account);
         Log.debugf("Get Account info is:%s", account0);
 
-        /**
-         * 初始化LDAP用户
-         */
-        Optional<BackUser> backUser = backUserManager.getUser(account0.getUsername());
-        if (backUser.isEmpty()) {
-            RpcResult<String> lastedPassword = sysAccountRpc.lastPassword(account0.getId());
-            String pwd = RpcAssert.isTrue(lastedPassword);
-            OkAssert.isTrue(OkStringUtil.equals(pwd, signInForm.getPassword()), "密码不正确！");
+        //直接认证，登录不调用管理接口
+        try {
+            return authzClientManager.authorization(account0.getUsername(), signInForm.getPassword());
+        } catch (OkRuntimeException e) {
+            /**
+             * 初始化LDAP用户：认证失败且密码与系统帐号一致时，可能是后端尚无该用户，
+             * 创建（一次管理接口调用）后重试；已存在说明后端密码不同，按认证失败处理
+             */
+            String pwd = RpcAssert.isTrue(sysAccountRpc.lastPassword(account0.getId()));
+            if (!OkStringUtil.equals(pwd, signInForm.getPassword())) {
+                throw e;
+            }
 
             BackUser addUser = new BackUser();
             addUser.setId(String.valueOf(account0.getId()));
             addUser.setUsername(account0.getUsername());
             addUser.setPassword(pwd);
-
-            BackUser added = backUserManager.addUser(addUser);
-            Log.infof("User:%s is initialized to ldap successfully.", added.getUsername());
+            //缓存的用户可能已在后端删除，不能据此判定已存在
+            backUserManager.evict(account0.getUsername());
+            if (!backUserManager.provision(addUser)) {
+                throw e;
+            }
+            Log.infof("User:%s is initialized to ldap successfully.", account0.getUsername());
         }
         return authzClientManager.authorization(account0.getUsername(), signInForm.getPassword());
     }
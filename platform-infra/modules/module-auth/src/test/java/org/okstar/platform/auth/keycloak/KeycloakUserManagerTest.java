@@ -0,0 +1,168 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.auth.keycloak;
+
+import io.smallrye.common.constraint.Assert;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.resource.UserResource;
+import org.keycloak.admin.client.resource.UsersResource;
+import org.keycloak.representations.idm.CredentialRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.okstar.platform.auth.backend.BackUser;
+import org.okstar.platform.common.core.exception.OkRuntimeException;
+
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.*;
+
+/**
+ * 精确查询、缓存 id 失效（404）后重新查询、创建冲突（409）视为已存在
+ */
+class KeycloakUserManagerTest {
+
+    /**
+     * 模拟 Keycloak：id => 用户
+     */
+    private final Map<String, UserRepresentation> backend = new LinkedHashMap<>();
+    private final Map<String, String> passwords = new HashMap<>();
+    private int searches;
+    private int creates;
+    private KeycloakUserManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new KeycloakUserManager(usersResource(), 100);
+    }
+
+    @Test
+    void exactSearch() {
+        put("bobby");
+        put("BOB");
+
+        Optional<BackUser> user = manager.getUser("bob");
+        Assert.assertTrue(user.isPresent() && "BOB".equals(user.get().getUsername()));
+        Assert.assertTrue(manager.getUser("bo").isEmpty());
+
+        //命中缓存后按 id 读取，不再查询
+        int before = searches;
+        Assert.assertTrue(manager.getUser("Bob").isPresent());
+        Assert.assertTrue(searches == before);
+    }
+
+    @Test
+    void relookupAfterNotFound() {
+        String stale = put("bob");
+        Assert.assertTrue(manager.getUser("bob").isPresent());
+
+        //用户在 Keycloak 中被删除后重建，缓存的 id 已失效
+        backend.remove(stale);
+        String fresh = put("bob");
+        manager.resetPassword("bob", "secret");
+        Assert.assertTrue("secret".equals(passwords.get(fresh)));
+
+        backend.remove(fresh);
+        Assert.assertTrue(failed(() -> manager.resetPassword("bob", "again")));
+    }
+
+    @Test
+    void conflictMeansExists() {
+        put("bob");
+        Assert.assertTrue(!manager.provision(user("bob")));
+        Assert.assertTrue(failed(() -> manager.addUser(user("bob"))));
+
+        Assert.assertTrue(manager.provision(user("alice")));
+        Assert.assertTrue(backend.values().stream().anyMatch(u -> "alice".equals(u.getUsername())));
+        Assert.assertTrue("okstar".equals(passwords.get(manager.getUser("alice").get().getId())));
+
+        //已缓存时不调用管理接口，清除后按实际状态处理
+        int before = creates;
+        Assert.assertTrue(!manager.provision(user("alice")));
+        Assert.assertTrue(creates == before);
+        backend.clear();
+        manager.evict("alice");
+        Assert.assertTrue(manager.provision(user("alice")));
+        Assert.assertTrue(creates == before + 1);
+    }
+
+    private String put(String username) {
+        UserRepresentation u = new UserRepresentation();
+        u.setId(UUID.randomUUID().toString());
+        u.setUsername(username);
+        backend.put(u.getId(), u);
+        return u.getId();
+    }
+
+    private static BackUser user(String username) {
+        return BackUser.builder().username(username).password("okstar").build();
+    }
+
+    private static boolean failed(Runnable runnable) {
+        try {
+            runnable.run();
+            return false;
+        } catch (OkRuntimeException e) {
+            return true;
+        }
+    }
+
+    private UsersResource usersResource() {
+        return (UsersResource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{UsersResource.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "search" -> {
+                        //与 Keycloak 的模糊查询一样按子串匹配
+                        searches++;
+                        String q = ((String) args[0]).toLowerCase(Locale.ROOT);
+                        yield backend.values().stream()
+                                .filter(u -> u.getUsername().toLowerCase(Locale.ROOT).contains(q))
+                                .toList();
+                    }
+                    case "get" -> userResource((String) args[0]);
+                    case "create" -> create((UserRepresentation) args[0]);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private UserResource userResource(String id) {
+        return (UserResource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{UserResource.class}, (proxy, method, args) -> {
+                    UserRepresentation u = backend.get(id);
+                    if (u == null) {
+                        throw new NotFoundException();
+                    }
+                    return switch (method.getName()) {
+                        case "toRepresentation" -> u;
+                        case "resetPassword" -> {
+                            passwords.put(id, ((CredentialRepresentation) args[0]).getValue());
+                            yield null;
+                        }
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    };
+                });
+    }
+
+    private Response create(UserRepresentation represent) {
+        creates++;
+        boolean exists = backend.values().stream()
+                .anyMatch(u -> u.getUsername().equalsIgnoreCase(represent.getUsername()));
+        if (exists) {
+            return Response.status(Response.Status.CONFLICT).build();
+        }
+        String id = put(represent.getUsername());
+        passwords.put(id, represent.getCredentials().get(0).getValue());
+        return Response.created(URI.create("http://keycloak/admin/realms/okstar/users/" + id)).build();
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.auth.service;
+
+import io.smallrye.common.constraint.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.okstar.platform.auth.backend.AuthzClientManager;
+import org.okstar.platform.auth.backend.BackUser;
+import org.okstar.platform.auth.backend.BackUserManager;
+import org.okstar.platform.auth.form.BackUserForm;
+import org.okstar.platform.common.core.exception.OkRuntimeException;
+import org.okstar.platform.common.rpc.RpcResult;
+import org.okstar.platform.system.rpc.SysAccountRpc;
+import org.okstar.platform.system.sign.SignInForm;
+import org.okstar.platform.system.sign.SignInResult;
+import org.okstar.platform.system.vo.SysAccount0;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+/**
+ * 注册后发件箱尚未创建认证帐号时立即登录：密码与系统帐号一致则补建后登录，之后的发件箱投递跳过
+ */
+class PassportServiceSignInTest {
+
+    private static final String ACCOUNT = "new@okstar.org";
+    private static final String PASSWORD = "okstar";
+
+    private final Map<String, BackUser> backend = new HashMap<>();
+    /**
+     * 模拟本地缓存的用户名，命中时 provision 视为已存在
+     */
+    private final Set<String> cached = new HashSet<>();
+    private int added;
+    private PassportServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        SysAccount0 account0 = new SysAccount0();
+        account0.setId(1L);
+        account0.setUsername("u1");
+
+        service = new PassportServiceImpl();
+        service.sysAccountRpc = (SysAccountRpc) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{SysAccountRpc.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findByBind" -> RpcResult.success(account0);
+                    case "lastPassword" -> RpcResult.success(PASSWORD);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        service.backUserManager = new MemoryBackUserManager();
+        service.authzClientManager = new AuthzClientManager() {
+            @Override
+            public SignInResult authorization(String username, String password) {
+                BackUser user = backend.get(username);
+                if (user == null || !Objects.equals(user.getPassword(), password)) {
+                    throw new OkRuntimeException("invalid_grant");
+                }
+                return SignInResult.builder().accessToken("token-" + username).build();
+            }
+
+            @Override
+            public SignInResult refresh(String refreshToken) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void revoke(String accessToken) {
+            }
+        };
+    }
+
+    @Test
+    void signInBeforeOutboxCreatesUser() {
+        SignInResult result = service.signIn(form(PASSWORD));
+        Assert.assertTrue("token-u1".equals(result.getAccessToken()));
+        Assert.assertTrue(added == 1);
+
+        //发件箱随后投递，用户已存在时跳过
+        service.initUser(BackUserForm.builder().accountId(1L).username("u1").build());
+        Assert.assertTrue(added == 1);
+    }
+
+    @Test
+    void staleCacheDoesNotBlockProvision() {
+        //用户已在后端删除，但用户名仍在缓存中
+        cached.add("u1");
+        SignInResult result = service.signIn(form(PASSWORD));
+        Assert.assertTrue("token-u1".equals(result.getAccessToken()));
+        Assert.assertTrue(added == 1);
+    }
+
+    @Test
+    void wrongPasswordDoesNotCreateUser() {
+        Assert.assertTrue(failed(form("wrong")));
+        Assert.assertTrue(added == 0);
+    }
+
+    @Test
+    void existingUserWithOtherPasswordFails() {
+        backend.put("u1", BackUser.builder().username("u1").password("changed").build());
+        Assert.assertTrue(failed(form(PASSWORD)));
+        Assert.assertTrue(added == 0);
+    }
+
+    private boolean failed(SignInForm form) {
+        try {
+            service.signIn(form);
+            return false;
+        } catch (OkRuntimeException e) {
+            return true;
+        }
+    }
+
+    private static SignInForm form(String password) {
+        SignInForm form = new SignInForm();
+        form.setAccount(ACCOUNT);
+        form.setPassword(password);
+        return form;
+    }
+
+    private class MemoryBackUserManager implements BackUserManager {
+
+        @Override
+        public void resetPassword(String username, String password) {
+            backend.get(username).setPassword(password);
+        }
+
+        @Override
+        public List<BackUser> users() {
+            return new ArrayList<>(backend.values());
+        }
+
+        @Override
+        public Optional<BackUser> getUser(String username) {
+            return Optional.ofNullable(backend.get(username));
+        }
+
+        @Override
+        public BackUser addUser(BackUser user) {
+            added++;
+            backend.put(user.getUsername(), user);
+            cached.add(user.getUsername());
+            return user;
+        }
+
+        @Override
+        public boolean provision(BackUser user) {
+            if (cached.contains(user.getUsername())) {
+                return false;
+            }
+            return BackUserManager.super.provision(user);
+        }
+
+        @Override
+        public void evict(String username) {
+            cached.remove(username);
+        }
+
+        @Override
+        public boolean deleteUser(String username) {
+            return backend.remove(username) != null;
+        }
+
+        @Override
+        public void forgot(String username) {
+        }
+    }
+}
@@ -13,9 +13,9 @@
 
 package org.okstar.platform.billing.order.mapper;
 
-import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.okstar.platform.billing.order.domain.BillingOrder;
+import org.okstar.platform.common.datasource.OkRepository;
 
 import java.util.Optional;
 
@@ -25,7 +25,7 @@ import java.util.Optional;
  * 
  */
 @ApplicationScoped
-public class BillingOrderMapper implements PanacheRepository<BillingOrder>
+public class BillingOrderMapper implements OkRepository<BillingOrder>
 {
 
     public Optional<BillingOrder> findByNo(String no) {
@@ -14,6 +14,7 @@
 package org.okstar.platform.billing.order.resource;
 
 import io.quarkus.security.Authenticated;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
@@ -24,11 +25,14 @@ import org.okstar.platform.billing.order.domain.BillingOrder;
 import org.okstar.platform.billing.order.service.BillingOrderService;
 import org.okstar.platform.billing.resource.BillingBaseResource;
 import org.okstar.platform.common.core.web.bean.Res;
+import org.okstar.platform.common.core.web.page.OkCursorPageResult;
+import org.okstar.platform.common.core.web.page.OkCursorPageable;
 import org.okstar.platform.common.core.web.page.OkPageResult;
 import org.okstar.platform.common.core.web.page.OkPageable;
 
 @Authenticated
 @Path("order")
+@RunOnVirtualThread
 public class BillingOrderResource extends BillingBaseResource {
 
 
@@ -69,6 +73,18 @@ public class BillingOrderResource extends BillingBaseResource {
         return Res.ok(result);
     }
 
+    /**
+     * 列表查询（游标分页）
+     * @param pageable
+     * @return
+     */
+    @POST
+    @Path("cursor")
+    public Res<OkCursorPageResult<BillingOrder>> cursor(OkCursorPageable pageable) {
+        var result = orderService.findPage(pageable);
+        return Res.ok(result);
+    }
+
     /**
      * 订单明细
      * @param id
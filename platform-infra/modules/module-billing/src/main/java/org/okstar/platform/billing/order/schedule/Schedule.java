@@ -14,6 +14,7 @@
 package org.okstar.platform.billing.order.schedule;
 
 import io.quarkus.scheduler.Scheduled;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.okstar.cloud.OkCloudApiClient;
@@ -21,12 +22,17 @@ import org.okstar.cloud.entity.AuthenticationToken;
 import org.okstar.cloud.entity.PayOrderEntity;
 import org.okstar.platform.billing.order.service.BillingOrderService;
 import org.okstar.platform.common.core.defined.OkCloudDefines;
+import org.okstar.platform.common.redis.lock.OkLocks;
+
+import java.time.Duration;
 
 @ApplicationScoped
 public class Schedule {
     private final OkCloudApiClient client;
     @Inject
     private BillingOrderService billingOrderService;
+    @Inject
+    OkLocks locks;
 
     public Schedule() {
         client = new OkCloudApiClient(OkCloudDefines.OK_CLOUD_API_STACK,
@@ -35,7 +41,13 @@ public class Schedule {
     }
 
     @Scheduled(every = "1m")
+    @RunOnVirtualThread
     public void orderTask() {
+        //多实例部署时每分钟只由一个实例同步
+        locks.runScheduled("billing:order-task", Duration.ofSeconds(50), lease -> syncOrders());
+    }
+
+    private void syncOrders() {
         /**
          * 查询未同步的订单
          */
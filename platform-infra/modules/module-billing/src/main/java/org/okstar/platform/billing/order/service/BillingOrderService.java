@@ -15,11 +15,11 @@ package org.okstar.platform.billing.order.service;
 
 import org.okstar.cloud.entity.OrderResultEntity;
 import org.okstar.platform.billing.order.domain.BillingOrder;
-import org.okstar.platform.common.datasource.OkService;
+import org.okstar.platform.common.datasource.OkCursorService;
 
 import java.util.stream.Stream;
 
-public interface BillingOrderService extends OkService<BillingOrder> {
+public interface BillingOrderService extends OkCursorService<BillingOrder> {
     Stream<BillingOrder> notSyncList();
 
     void saveResult(OrderResultEntity result, Long createBy);
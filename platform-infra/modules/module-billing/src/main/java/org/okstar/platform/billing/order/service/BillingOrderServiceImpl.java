@@ -26,8 +26,12 @@ import org.okstar.platform.billing.order.domain.BillingOrder;
 import org.okstar.platform.billing.order.mapper.BillingOrderMapper;
 import org.okstar.platform.common.core.defined.OkCloudDefines;
 import org.okstar.platform.common.core.utils.bean.OkBeanUtils;
+import org.okstar.platform.common.core.web.page.OkCursorPageResult;
+import org.okstar.platform.common.core.web.page.OkCursorPageable;
 import org.okstar.platform.common.core.web.page.OkPageResult;
 import org.okstar.platform.common.core.web.page.OkPageable;
+import org.okstar.platform.common.datasource.OkKeyset;
+import org.okstar.platform.common.datasource.annotation.Slave;
 
 import java.util.List;
 import java.util.stream.Stream;
@@ -66,11 +70,15 @@ public class BillingOrderServiceImpl implements BillingOrderService {
     }
 
     @Override
+    @Slave
     public OkPageResult<BillingOrder> findPage(OkPageable page) {
-        var paged = orderMapper
-                .findAll(Sort.descending("id"))
-                .page(page.getPageIndex(), page.getPageSize());
-        return OkPageResult.build(paged.list(), paged.count(), paged.pageCount());
+        return orderMapper.findPage(page, Sort.descending("id"));
+    }
+
+    @Override
+    @Slave
+    public OkCursorPageResult<BillingOrder> findPage(OkCursorPageable page) {
+        return orderMapper.findPage(page, OkKeyset.desc(OkKeyset.ID));
     }
 
     @Override
@@ -0,0 +1,3 @@
+-- 订单：按订单号查询、同步任务扫描未同步订单
+CREATE INDEX IF NOT EXISTS idx_billing_order_no ON billing_order (no);
+CREATE INDEX IF NOT EXISTS idx_billing_order_sync ON billing_order (sync);
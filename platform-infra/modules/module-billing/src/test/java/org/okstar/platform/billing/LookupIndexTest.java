@@ -0,0 +1,43 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.billing;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.okstar.platform.billing.order.mapper.BillingOrderMapper;
+import org.okstar.platform.common.datasource.stat.OkExplain;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * 主要查询在 Flyway 迁移后的库上走索引（执行真实的仓库方法，检查生成的 SQL）。
+ * <p>
+ * 定时同步的 sync is null or sync = false 是对低选择性标记的批量扫描，不在此检查。
+ */
+@QuarkusTest
+class LookupIndexTest {
+
+    @Inject
+    DataSource dataSource;
+
+    @Inject
+    BillingOrderMapper orderMapper;
+
+    @Test
+    void findByNo() throws SQLException {
+        OkExplain.assertIndexed(dataSource, () -> orderMapper.findByNo("O001"));
+    }
+}
@@ -13,6 +13,7 @@
 
 package org.okstar.platform.chat.resource;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import org.okstar.platform.chat.beans.ChatGroup;
 import org.okstar.platform.chat.openfire.OpenfireManager;
@@ -23,6 +24,7 @@ import jakarta.ws.rs.Path;
 import java.util.List;
 
 @Path("group")
+@RunOnVirtualThread
 public class ChatGroupResource {
 
     @Inject
@@ -13,6 +13,7 @@
 
 package org.okstar.platform.chat.resource;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import org.okstar.platform.chat.beans.ChatParticipant;
 import org.okstar.platform.chat.beans.ChatRoom;
@@ -26,6 +27,7 @@ import jakarta.ws.rs.PathParam;
 import java.util.List;
 
 @Path("room")
+@RunOnVirtualThread
 public class ChatRoomResource {
 
     @Inject
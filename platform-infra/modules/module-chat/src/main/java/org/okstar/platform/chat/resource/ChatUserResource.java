@@ -13,6 +13,7 @@
 
 package org.okstar.platform.chat.resource;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
@@ -31,6 +32,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 @Path("user")
+@RunOnVirtualThread
 public class ChatUserResource {
 
     @Inject
@@ -16,9 +16,11 @@ package org.okstar.platform.org.rpc;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+import org.okstar.platform.common.core.annotation.OkPublic;
 import org.okstar.platform.common.rpc.RpcResult;
 import org.okstar.platform.org.dto.Org0;
 
+@OkPublic
 @Path("rpc/OrgRpc")
 @RegisterRestClient
 public interface OrgRpc {
@@ -16,6 +16,7 @@ package org.okstar.platform.org.rpc;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.QueryParam;
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+import org.okstar.platform.common.core.annotation.OkPublic;
 import org.okstar.platform.common.rpc.RpcResult;
 import org.okstar.platform.org.dto.OrgStaff0;
 import org.okstar.platform.org.dto.OrgStaffFragment;
@@ -25,6 +26,7 @@ import jakarta.ws.rs.Path;
 
 import java.util.List;
 
+@OkPublic
 @Path("rpc/OrgStaffRpc")
 @RegisterRestClient
 public interface OrgStaffRpc {
@@ -33,6 +35,13 @@ public interface OrgStaffRpc {
     @Path("add")
     RpcResult<Boolean> add(OrgStaffFragment staffFragment);
 
+    /**
+     * 为注册的帐号添加员工，该帐号已有员工时返回 false
+     */
+    @POST
+    @Path("addForAccount")
+    RpcResult<Boolean> addForAccount(@QueryParam("accountId") Long accountId, OrgStaffFragment staffFragment);
+
     @GET
     @Path("search")
     RpcResult<List<OrgStaff0>> search(@QueryParam("q") String query);
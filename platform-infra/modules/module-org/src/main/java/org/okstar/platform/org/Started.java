@@ -15,6 +15,7 @@ package org.okstar.platform.org;
 
 import io.quarkus.logging.Log;
 import io.quarkus.scheduler.Scheduled;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
@@ -26,11 +27,13 @@ import org.okstar.platform.common.core.defined.OkCloudDefines;
 import org.okstar.platform.common.core.utils.OkStringUtil;
 import org.okstar.platform.common.os.HostInfo;
 import org.okstar.platform.common.os.HostUtils;
+import org.okstar.platform.common.redis.lock.OkLocks;
 import org.okstar.platform.org.domain.Org;
 import org.okstar.platform.org.service.OrgService;
 import org.okstar.platform.system.dto.SysSetGlobalDTO;
 import org.okstar.platform.system.rpc.SysSettingsRpc;
 
+import java.time.Duration;
 import java.util.Optional;
 
 @ApplicationScoped
@@ -45,6 +48,9 @@ public class Started {
     @RestClient
     SysSettingsRpc settingsRpc;
 
+    @Inject
+    OkLocks locks;
+
 
     public Started() {
         client = new OkCloudApiClient(OkCloudDefines.OK_CLOUD_API_STACK,
@@ -53,9 +59,11 @@ public class Started {
 
 
     @Scheduled(every = "1m")
+    @RunOnVirtualThread
     public void pingTask() {
         try {
-            doPing();
+            //多实例部署时每分钟只由一个实例上报
+            locks.runScheduled("org:ping-task", Duration.ofSeconds(50), lease -> doPing());
         } catch (Throwable e) {
 
         }
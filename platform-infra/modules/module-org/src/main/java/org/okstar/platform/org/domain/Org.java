@@ -13,9 +13,11 @@
 
 package org.okstar.platform.org.domain;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.Data;
 
 
@@ -26,6 +28,7 @@ import lombok.Data;
  */
 @Data
 @Entity
+@Cacheable
 @Table(uniqueConstraints = {@UniqueConstraint(columnNames = {"name", "no"})})
 public class Org extends BaseEntity
 {
@@ -67,4 +70,10 @@ public class Org extends BaseEntity
      * 认证号
      */
     private String cert;
+
+    /**
+     * 乐观锁版本
+     */
+    @Version
+    private Long version;
 }
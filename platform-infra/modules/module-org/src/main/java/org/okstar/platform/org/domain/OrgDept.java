@@ -13,6 +13,7 @@
 
 package org.okstar.platform.org.domain;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
@@ -25,6 +26,7 @@ import lombok.Data;
  */
 @Data
 @Entity
+@Cacheable
 @Table(uniqueConstraints = {@UniqueConstraint(columnNames = {"name", "no"})})
 public class OrgDept extends BaseEntity
 {
@@ -13,9 +13,11 @@
 
 package org.okstar.platform.org.domain;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.Data;
 
 /**
@@ -25,6 +27,7 @@ import lombok.Data;
  */
 @Data
 @Entity
+@Cacheable
 @Table(uniqueConstraints = {@UniqueConstraint(columnNames = {"name", "no"})})
 public class OrgPost extends BaseEntity
 {
@@ -57,4 +60,10 @@ public class OrgPost extends BaseEntity
      * 招聘链接
      */
     private String recruit;
+
+    /**
+     * 乐观锁版本
+     */
+    @Version
+    private Long version;
 }
@@ -28,7 +28,7 @@ import java.util.List;
  * 组织-人员
  */
 @Data
-@Table
+@Table(uniqueConstraints = {@UniqueConstraint(columnNames = {"accountId"})})
 @Entity
 public class OrgStaff extends BaseEntity {
 
@@ -53,6 +53,11 @@ public class OrgStaff extends BaseEntity {
     @Enumerated(EnumType.STRING)
     private JobDefines.PostStatus postStatus;
 
+    /**
+     * 乐观锁版本
+     */
+    @Version
+    private Long version;
 
     @Transient
     private List<String> postNames = new LinkedList<>();
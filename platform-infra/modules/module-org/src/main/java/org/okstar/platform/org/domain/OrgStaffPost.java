@@ -15,6 +15,7 @@ package org.okstar.platform.org.domain;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Data;
 import org.okstar.platform.common.datasource.domain.OkEntity;
 
@@ -22,7 +23,7 @@ import org.okstar.platform.common.datasource.domain.OkEntity;
  * 人员和岗位关联
  */
 @Data
-@Table
+@Table(uniqueConstraints = {@UniqueConstraint(columnNames = {"staffId", "postId"})})
 @Entity
 public class OrgStaffPost extends OkEntity {
 
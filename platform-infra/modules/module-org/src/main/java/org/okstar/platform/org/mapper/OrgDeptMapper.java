@@ -14,8 +14,8 @@
 package org.okstar.platform.org.mapper;
 
 
-import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.okstar.platform.common.datasource.OkRepository;
 import org.okstar.platform.org.domain.OrgDept;
 
 
@@ -25,6 +25,6 @@ import org.okstar.platform.org.domain.OrgDept;
  * 部门管理 数据层
  */
 @ApplicationScoped
-public class OrgDeptMapper implements PanacheRepository<OrgDept> {
+public class OrgDeptMapper implements OkRepository<OrgDept> {
 
 }
@@ -14,8 +14,8 @@
 package org.okstar.platform.org.mapper;
 
 
-import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.okstar.platform.common.datasource.OkRepository;
 import org.okstar.platform.org.domain.Org;
 
 
@@ -25,6 +25,6 @@ import org.okstar.platform.org.domain.Org;
  * 部门管理 数据层
  */
 @ApplicationScoped
-public class OrgMapper implements PanacheRepository<Org> {
+public class OrgMapper implements OkRepository<Org> {
 
 }
@@ -14,8 +14,8 @@
 package org.okstar.platform.org.mapper;
 
 
-import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.okstar.platform.common.datasource.OkRepository;
 import org.okstar.platform.org.domain.OrgPost;
 
 
@@ -27,6 +27,6 @@ import org.okstar.platform.org.domain.OrgPost;
  *
  */
 @ApplicationScoped
-public class OrgPostMapper implements PanacheRepository<OrgPost>
+public class OrgPostMapper implements OkRepository<OrgPost>
 {
 }
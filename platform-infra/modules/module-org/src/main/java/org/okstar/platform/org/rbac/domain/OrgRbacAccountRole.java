@@ -0,0 +1,38 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.org.rbac.domain;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+
+/**
+ * 帐号的有效角色（直接绑定与岗位角色的闭包），paths 为来源数量，为 0 的行视为不存在，定期清理
+ */
+@Data
+@Entity
+@Table(uniqueConstraints = {@UniqueConstraint(columnNames = {"accountId", "roleId"})})
+public class OrgRbacAccountRole extends PanacheEntity {
+
+    /** 帐号 */
+    private Long accountId;
+
+    /** 角色 */
+    private Long roleId;
+
+    /** 推导路径数 */
+    private int paths;
+}
@@ -29,4 +29,9 @@ public class OrgRbacResource extends BaseEntity {
      * 绑定到菜单[SysMenu]
      */
     private Long menuId;
+
+    /**
+     * 权限标识，与菜单的 perms 一致，如 org:staff:list；{@code *:*:*} 表示全部权限
+     */
+    private String code;
 }
@@ -0,0 +1,9 @@
+package org.okstar.platform.org.rbac.mapper;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.okstar.platform.org.rbac.domain.OrgRbacAccountResource;
+
+@ApplicationScoped
+public class OrgRbacAccountResourceMapper implements PanacheRepository<OrgRbacAccountResource> {
+}
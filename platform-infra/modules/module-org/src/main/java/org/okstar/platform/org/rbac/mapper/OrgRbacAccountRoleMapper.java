@@ -0,0 +1,9 @@
+package org.okstar.platform.org.rbac.mapper;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.okstar.platform.org.rbac.domain.OrgRbacAccountRole;
+
+@ApplicationScoped
+public class OrgRbacAccountRoleMapper implements PanacheRepository<OrgRbacAccountRole> {
+}
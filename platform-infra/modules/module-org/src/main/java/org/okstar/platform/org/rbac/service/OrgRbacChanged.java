@@ -0,0 +1,33 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.org.rbac.service;
+
+import java.util.Set;
+
+/**
+ * RBAC 数据变化，事务提交后清除受影响帐号的授权缓存
+ *
+ * @param accountIds 授权发生变化的帐号
+ * @param dictionary 资源的权限标识是否变化
+ */
+public record OrgRbacChanged(Set<Long> accountIds, boolean dictionary) {
+
+    public static OrgRbacChanged accounts(Set<Long> accountIds) {
+        return new OrgRbacChanged(accountIds, false);
+    }
+
+    public static OrgRbacChanged resources() {
+        return new OrgRbacChanged(Set.of(), true);
+    }
+}
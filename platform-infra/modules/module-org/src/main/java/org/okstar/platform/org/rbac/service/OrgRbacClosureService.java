@@ -0,0 +1,56 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.org.rbac.service;
+
+import java.util.Collection;
+
+/**
+ * 帐号到角色、资源的物化闭包。
+ * <p>
+ * 有效角色 = 直接绑定的角色 ∪ 所在岗位绑定的角色；可访问资源 = 有效角色授予的资源。
+ * 每行记录推导路径数，增删只调整受影响的行，变化提交后发布 {@link OrgRbacChanged}。
+ */
+public interface OrgRbacClosureService {
+
+    /**
+     * 帐号直接绑定 / 解绑角色（源数据已写入后调用）
+     */
+    void bindRoles(Long accountId, Collection<Long> roleIds);
+
+    void unbindRoles(Long accountId, Collection<Long> roleIds);
+
+    /**
+     * 角色授予 / 收回资源（源数据已写入后调用），只影响持有该角色的帐号
+     */
+    void grant(Long roleId, Collection<Long> resourceIds);
+
+    void revoke(Long roleId, Collection<Long> resourceIds);
+
+    /**
+     * 帐号加入 / 离开岗位，岗位绑定的角色随之增减
+     */
+    void joinPosts(Long accountId, Collection<Long> postIds);
+
+    void leavePosts(Long accountId, Collection<Long> postIds);
+
+    /**
+     * 帐号能否访问菜单，只查询闭包表
+     */
+    boolean canAccess(Long accountId, Long menuId);
+
+    /**
+     * 按源数据全量重建，用于首次启用或修复
+     */
+    void rebuild();
+}
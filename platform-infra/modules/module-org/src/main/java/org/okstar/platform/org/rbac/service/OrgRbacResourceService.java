@@ -11,4 +11,9 @@ public interface OrgRbacResourceService {
      * @return
      */
     List<OrgRbacRoleResponseVo> querySourceList();
+
+    /**
+     * 设置资源的权限标识
+     */
+    void setCode(Long resourceId, String code);
 }
@@ -3,6 +3,7 @@ package org.okstar.platform.org.rbac.service;
 import org.okstar.platform.org.rbac.resource.vo.OrgRbacRoleResponseVo;
 
 import java.util.List;
+import java.util.Set;
 
 public interface OrgRbacRoleService {
     /**
@@ -18,4 +19,19 @@ public interface OrgRbacRoleService {
      * @return
      */
     List<OrgRbacRoleResponseVo> queryRoleList(Long menuId);
+
+    /**
+     * 为角色授予资源，已授予时忽略
+     */
+    void grant(Long roleId, Long resourceId);
+
+    /**
+     * 收回角色的资源
+     */
+    void revoke(Long roleId, Long resourceId);
+
+    /**
+     * 设置角色授予的资源，只增删有差异的授权
+     */
+    void setResources(Long roleId, Set<Long> resourceIds);
 }
@@ -4,6 +4,7 @@ import org.okstar.platform.org.rbac.resource.vo.OrgRbacRoleResponseVo;
 import org.okstar.platform.org.rbac.resource.vo.OrgRbacUserResponseVo;
 
 import java.util.List;
+import java.util.Set;
 
 public interface OrgRbacUserService {
     /**
@@ -13,4 +14,19 @@ public interface OrgRbacUserService {
      */
     List<OrgRbacUserResponseVo> queryUserList(Long roleId);
     List<OrgRbacUserResponseVo> queryUserList();
+
+    /**
+     * 为帐号绑定角色，已绑定时忽略
+     */
+    void bindRole(Long accountId, Long roleId);
+
+    /**
+     * 解除帐号与角色的绑定
+     */
+    void unbindRole(Long accountId, Long roleId);
+
+    /**
+     * 设置帐号直接绑定的角色，只增删有差异的绑定
+     */
+    void setRoles(Long accountId, Set<Long> roleIds);
 }
@@ -0,0 +1,369 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.org.rbac.service.impl;
+
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.okstar.platform.common.datasource.OkRepository;
+import org.okstar.platform.common.redis.lock.OkLocks;
+import org.okstar.platform.org.rbac.domain.OrgRbacAccountResource;
+import org.okstar.platform.org.rbac.domain.OrgRbacAccountRole;
+import org.okstar.platform.org.rbac.mapper.OrgRbacAccountResourceMapper;
+import org.okstar.platform.org.rbac.mapper.OrgRbacAccountRoleMapper;
+import org.okstar.platform.org.rbac.mapper.OrgRbacUserRoleMapper;
+import org.okstar.platform.org.rbac.service.OrgRbacChanged;
+import org.okstar.platform.org.rbac.service.OrgRbacClosureService;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * 闭包表的增量维护：角色层与资源层都按路径数增减，只有路径数从 0 变为正数或降为 0 时才影响下一层，
+ * 因此一次变更的开销与受影响的行数成正比。
+ * <p>
+ * 路径数以 update ... set paths = paths + ? 原子调整，update 持有行锁直到提交，并发调整依次生效；
+ * 行不存在时先在独立事务中插入 paths = 0 的行（唯一约束去重），读取时只认 paths > 0 的行。
+ * 降为 0 的行不在当前事务中删除（同一事务稍后可能再次插入同一键，会等待自己未提交的删除），由定期清理删除。
+ * 同一事务内按 id 顺序加锁，减少死锁。
+ */
+@ApplicationScoped
+public class OrgRbacClosureServiceImpl implements OrgRbacClosureService {
+
+    private static final String REBUILD_LOCK = "org:rbac:closure:rebuild";
+
+    /**
+     * 插入后仍未更新到行（被定期清理删除）时的重试次数
+     */
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Inject
+    OrgRbacAccountRoleMapper accountRoleMapper;
+
+    @Inject
+    OrgRbacAccountResourceMapper accountResourceMapper;
+
+    @Inject
+    OrgRbacUserRoleMapper userRoleMapper;
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    OkLocks locks;
+
+    @Inject
+    Event<OrgRbacChanged> changed;
+
+    /**
+     * 启动时全量重建；未开启时只在闭包为空且存在角色绑定时重建
+     */
+    @ConfigProperty(name = "okstar.rbac.closure.rebuild-at-start", defaultValue = "false")
+    boolean rebuildAtStart;
+
+    void onStart(@Observes StartupEvent event) {
+        boolean empty = accountRoleMapper.count() == 0 && userRoleMapper.count() > 0;
+        if (rebuildAtStart || empty) {
+            //多个节点同时启动时只由一个节点重建
+            locks.runExclusive(REBUILD_LOCK, Duration.ofMinutes(5), lease -> rebuild());
+        }
+    }
+
+    /**
+     * 清理路径数为 0 的行；并发调整中的行被删除时由 {@link #adjust} 重新插入
+     */
+    @Scheduled(every = "${okstar.rbac.closure.purge-every:1h}", delayed = "5m")
+    void purge() {
+        locks.runScheduled("org:rbac:closure:purge", Duration.ofMinutes(1), lease -> QuarkusTransaction.requiringNew().run(() -> {
+            int roles = em.createQuery("delete from OrgRbacAccountRole where paths <= 0").executeUpdate();
+            int resources = em.createQuery("delete from OrgRbacAccountResource where paths <= 0").executeUpdate();
+            Log.debugf("RBAC closure purged: roles=%d resources=%d", roles, resources);
+        }));
+    }
+
+    /**
+     * 定期按源数据校正（默认关闭），用于修复绕过服务直接修改源数据造成的偏差
+     */
+    @Scheduled(cron = "${okstar.rbac.closure.rebuild-cron:off}")
+    void scheduledRebuild() {
+        locks.runScheduled(REBUILD_LOCK, Duration.ofMinutes(5), lease -> rebuild());
+    }
+
+    @Transactional
+    @Override
+    public void bindRoles(Long accountId, Collection<Long> roleIds) {
+        adjustRoles(accountId, roleIds, 1);
+    }
+
+    @Transactional
+    @Override
+    public void unbindRoles(Long accountId, Collection<Long> roleIds) {
+        adjustRoles(accountId, roleIds, -1);
+    }
+
+    @Transactional
+    @Override
+    public void grant(Long roleId, Collection<Long> resourceIds) {
+        adjustHolders(roleId, resourceIds, 1);
+    }
+
+    @Transactional
+    @Override
+    public void revoke(Long roleId, Collection<Long> resourceIds) {
+        adjustHolders(roleId, resourceIds, -1);
+    }
+
+    @Transactional
+    @Override
+    public void joinPosts(Long accountId, Collection<Long> postIds) {
+        if (accountId != null && !postIds.isEmpty()) {
+            adjustRoles(accountId, rolesOfPosts(postIds), 1);
+        }
+    }
+
+    @Transactional
+    @Override
+    public void leavePosts(Long accountId, Collection<Long> postIds) {
+        if (accountId != null && !postIds.isEmpty()) {
+            adjustRoles(accountId, rolesOfPosts(postIds), -1);
+        }
+    }
+
+    @Override
+    public boolean canAccess(Long accountId, Long menuId) {
+        return em.createQuery("select count(ar) from OrgRbacAccountResource ar, OrgRbacResource r"
+                        + " where r.id = ar.resourceId and ar.accountId = ?1 and ar.paths > 0 and r.menuId = ?2", Long.class)
+                .setParameter(1, accountId)
+                .setParameter(2, menuId)
+                .getSingleResult() > 0;
+    }
+
+    @Transactional
+    @Override
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Set<Long> affected = new HashSet<>(em.createQuery(
+                "select distinct ar.accountId from OrgRbacAccountRole ar", Long.class).getResultList());
+        accountResourceMapper.deleteAll();
+        accountRoleMapper.deleteAll();
+
+        //有效角色：直接绑定 + 岗位角色
+        Map<Long, Map<Long, Integer>> roles = new HashMap<>();
+        List<Object[]> sources = new ArrayList<>(em.createQuery(
+                "select u.accountId, ur.role.id from OrgRbacUserRole ur join ur.user u", Object[].class).getResultList());
+        sources.addAll(em.createQuery("select s.accountId, r.id from OrgStaff s, OrgStaffPost sp, OrgRbacRole r"
+                + " where sp.staffId = s.id and r.postId = sp.postId and s.accountId is not null", Object[].class).getResultList());
+        for (Object[] row : sources) {
+            roles.computeIfAbsent((Long) row[0], k -> new HashMap<>()).merge((Long) row[1], 1, Integer::sum);
+        }
+
+        Map<Long, List<Long>> grants = new HashMap<>();
+        em.createQuery("select rr.role.id, rr.menuId.id from SysRbacRoleResource rr", Object[].class)
+                .getResultList()
+                .forEach(row -> grants.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((Long) row[1]));
+
+        long rows = 0;
+        for (var account : roles.entrySet()) {
+            Map<Long, Integer> resources = new HashMap<>();
+            for (var role : account.getValue().entrySet()) {
+                accountRoleMapper.persist(accountRole(account.getKey(), role.getKey(), role.getValue()));
+                grants.getOrDefault(role.getKey(), List.of()).forEach(r -> resources.merge(r, 1, Integer::sum));
+                rows++;
+            }
+            for (var resource : resources.entrySet()) {
+                accountResourceMapper.persist(accountResource(account.getKey(), resource.getKey(), resource.getValue()));
+                rows++;
+            }
+        }
+        affected.addAll(roles.keySet());
+        fire(affected);
+        Log.infof("RBAC closure rebuilt: accounts=%d rows=%d cost=%dms",
+                roles.size(), rows, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 调整帐号的有效角色，角色出现或消失时再调整其资源
+     */
+    private void adjustRoles(Long accountId, Collection<Long> roleIds, int delta) {
+        if (roleIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> deltas = new TreeMap<>();
+        roleIds.forEach(roleId -> deltas.merge(roleId, delta, Integer::sum));
+
+        List<Long> appeared = new ArrayList<>();
+        List<Long> vanished = new ArrayList<>();
+        for (var entry : deltas.entrySet()) {
+            Long roleId = entry.getKey();
+            Integer paths = adjust(OrgRbacAccountRole.class, "roleId", accountId, roleId, entry.getValue(),
+                    () -> accountRoleMapper.persistAndFlush(accountRole(accountId, roleId, 0)));
+            if (paths != null) {
+                crossed(paths - entry.getValue(), paths, roleId, appeared, vanished);
+            }
+        }
+        if (appeared.isEmpty() && vanished.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Integer> resources = new HashMap<>();
+        resourcesOf(appeared).forEach(r -> resources.merge(r, 1, Integer::sum));
+        resourcesOf(vanished).forEach(r -> resources.merge(r, -1, Integer::sum));
+        adjustResources(List.of(accountId), resources);
+        //角色名称也在授权快照中
+        fire(Set.of(accountId));
+    }
+
+    /**
+     * 角色的资源变化，调整持有该角色的全部帐号
+     */
+    private void adjustHolders(Long roleId, Collection<Long> resourceIds, int delta) {
+        if (resourceIds.isEmpty()) {
+            return;
+        }
+        List<Long> holders = em.createQuery(
+                        "select ar.accountId from OrgRbacAccountRole ar where ar.roleId = ?1 and ar.paths > 0", Long.class)
+                .setParameter(1, roleId)
+                .getResultList();
+        if (holders.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> resources = new HashMap<>();
+        resourceIds.forEach(r -> resources.merge(r, delta, Integer::sum));
+        fire(adjustResources(holders, resources));
+    }
+
+    /**
+     * @return 可访问资源发生变化的帐号
+     */
+    private Set<Long> adjustResources(Collection<Long> accountIds, Map<Long, Integer> deltas) {
+        Set<Long> affected = new HashSet<>();
+        Map<Long, Integer> sorted = new TreeMap<>(deltas);
+        sorted.values().removeIf(d -> d == 0);
+        if (sorted.isEmpty()) {
+            return affected;
+        }
+
+        for (Long accountId : new TreeSet<>(accountIds)) {
+            for (var entry : sorted.entrySet()) {
+                Long resourceId = entry.getKey();
+                Integer paths = adjust(OrgRbacAccountResource.class, "resourceId", accountId, resourceId, entry.getValue(),
+                        () -> accountResourceMapper.persistAndFlush(accountResource(accountId, resourceId, 0)));
+                if (paths != null && (paths - entry.getValue() > 0) != (paths > 0)) {
+                    affected.add(accountId);
+                }
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * 原子地调整一行的路径数
+     *
+     * @param insert 行不存在时插入 paths = 0 的行
+     * @return 调整后的路径数，减少不存在的行时为空
+     */
+    private Integer adjust(Class<?> entity, String column, Long accountId, Long targetId, int delta, Runnable insert) {
+        String name = entity.getSimpleName();
+        String update = "update " + name + " set paths = paths + ?1 where accountId = ?2 and " + column + " = ?3";
+        String select = "select paths from " + name + " where accountId = ?1 and " + column + " = ?2";
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            int updated = em.createQuery(update)
+                    .setParameter(1, delta)
+                    .setParameter(2, accountId)
+                    .setParameter(3, targetId)
+                    .executeUpdate();
+            if (updated == 0) {
+                if (delta < 0) {
+                    Log.warnf("RBAC closure missing: %s account=%d %s=%d", name, accountId, column, targetId);
+                    return null;
+                }
+                insertIfAbsent(insert);
+                continue;
+            }
+
+            //本事务已持有行锁，读到的是调整后的值
+            return em.createQuery(select, Integer.class)
+                    .setParameter(1, accountId)
+                    .setParameter(2, targetId)
+                    .getSingleResult();
+        }
+        throw new IllegalStateException("RBAC closure row %s(%d, %d) keeps vanishing".formatted(name, accountId, targetId));
+    }
+
+    /**
+     * 在独立事务中插入，并发插入触发唯一约束冲突时忽略，当前事务不会被标记为回滚
+     */
+    private static void insertIfAbsent(Runnable insert) {
+        try {
+            QuarkusTransaction.requiringNew().run(insert);
+        } catch (RuntimeException e) {
+            if (!OkRepository.isConstraintViolation(e)) {
+                throw e;
+            }
+        }
+    }
+
+    private static void crossed(int before, int after, Long id, List<Long> appeared, List<Long> vanished) {
+        if (before <= 0 && after > 0) {
+            appeared.add(id);
+        } else if (before > 0 && after <= 0) {
+            vanished.add(id);
+        }
+    }
+
+    private List<Long> resourcesOf(Collection<Long> roleIds) {
+        if (roleIds.isEmpty()) {
+            return List.of();
+        }
+        return em.createQuery("select rr.menuId.id from SysRbacRoleResource rr where rr.role.id in ?1", Long.class)
+                .setParameter(1, roleIds)
+                .getResultList();
+    }
+
+    private List<Long> rolesOfPosts(Collection<Long> postIds) {
+        return em.createQuery("select r.id from OrgRbacRole r where r.postId in ?1", Long.class)
+                .setParameter(1, postIds)
+                .getResultList();
+    }
+
+    private void fire(Set<Long> accountIds) {
+        if (!accountIds.isEmpty()) {
+            changed.fire(OrgRbacChanged.accounts(accountIds));
+        }
+    }
+
+    private static OrgRbacAccountRole accountRole(Long accountId, Long roleId, int paths) {
+        OrgRbacAccountRole row = new OrgRbacAccountRole();
+        row.setAccountId(accountId);
+        row.setRoleId(roleId);
+        row.setPaths(paths);
+        return row;
+    }
+
+    private static OrgRbacAccountResource accountResource(Long accountId, Long resourceId, int paths) {
+        OrgRbacAccountResource row = new OrgRbacAccountResource();
+        row.setAccountId(accountId);
+        row.setResourceId(resourceId);
+        row.setPaths(paths);
+        return row;
+    }
+}
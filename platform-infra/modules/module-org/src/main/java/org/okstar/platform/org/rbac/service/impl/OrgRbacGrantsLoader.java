@@ -0,0 +1,171 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.org.rbac.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.quarkus.logging.Log;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+import org.okstar.platform.common.security.authz.OkAuthorizer;
+import org.okstar.platform.common.security.authz.OkGrants;
+import org.okstar.platform.common.security.authz.OkGrantsLoader;
+import org.okstar.platform.common.security.authz.OkPermissionDictionary;
+import org.okstar.platform.org.rbac.service.OrgRbacChanged;
+import org.okstar.platform.system.rpc.SysAccountRpc;
+import org.okstar.platform.system.vo.SysAccount0;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * 从 RBAC 表计算授权快照：帐号 -> 角色 -> 资源，资源 id 按权限字典换算为连续的序号。
+ * <p>
+ * RBAC 数据变化的事务提交后，按 {@link OrgRbacChanged} 清除受影响帐号的缓存。
+ * 授权缓存按用户名存放，帐号 id 与用户名的对应关系缓存在本地（okstar.authz.account-cache.maximum-size），
+ * 未命中的帐号一次批量查询，不在提交后的观察者中逐个调用系统模块。
+ */
+@ApplicationScoped
+public class OrgRbacGrantsLoader implements OkGrantsLoader {
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    @RestClient
+    SysAccountRpc sysAccountRpc;
+
+    @Inject
+    OkAuthorizer authorizer;
+
+    @ConfigProperty(name = "okstar.authz.account-cache.maximum-size", defaultValue = "10000")
+    long cacheSize;
+
+    /**
+     * 帐号 id => 用户名
+     */
+    private Cache<Long, String> usernames;
+
+    /**
+     * 用户名 => 帐号 id
+     */
+    private Cache<String, Long> accountIds;
+
+    @PostConstruct
+    void init() {
+        usernames = Caffeine.newBuilder().maximumSize(cacheSize).expireAfterWrite(Duration.ofHours(1)).build();
+        accountIds = Caffeine.newBuilder().maximumSize(cacheSize).expireAfterWrite(Duration.ofHours(1)).build();
+    }
+
+    @Override
+    public OkGrants load(String username) {
+        OkPermissionDictionary dictionary = authorizer.dictionary();
+        Long accountId = accountIds.getIfPresent(username);
+        if (accountId == null) {
+            SysAccount0 account = sysAccountRpc.findByUsername(username).getData();
+            if (account == null) {
+                return OkGrants.of(Set.of(), Set.of(), false, dictionary.getVersion());
+            }
+            accountId = account.getId();
+            remember(accountId, username);
+        }
+
+        //读取物化闭包（OrgRbacClosureService 维护），不再逐层关联角色与岗位
+        List<Object[]> roles = em.createQuery(
+                        "select r.id, r.name from OrgRbacAccountRole ar, OrgRbacRole r where r.id = ar.roleId and ar.accountId = ?1 and ar.paths > 0",
+                        Object[].class)
+                .setParameter(1, accountId)
+                .getResultList();
+        if (roles.isEmpty()) {
+            return OkGrants.of(Set.of(), Set.of(), false, dictionary.getVersion());
+        }
+
+        Set<String> roleNames = new HashSet<>();
+        for (Object[] role : roles) {
+            if (role[1] != null) roleNames.add((String) role[1]);
+        }
+
+        List<Object[]> resources = em.createQuery(
+                        "select ar.resourceId, res.code from OrgRbacAccountResource ar, OrgRbacResource res where res.id = ar.resourceId and ar.accountId = ?1 and ar.paths > 0",
+                        Object[].class)
+                .setParameter(1, accountId)
+                .getResultList();
+        List<Integer> ordinals = new ArrayList<>(resources.size());
+        boolean all = false;
+        for (Object[] resource : resources) {
+            int ordinal = dictionary.resourceOrdinal((Long) resource[0]);
+            //没有权限标识的资源不参与判断
+            if (ordinal >= 0) {
+                ordinals.add(ordinal);
+            }
+            all |= OkGrants.ALL_PERMISSION.equals(resource[1]);
+        }
+        return OkGrants.of(ordinals, roleNames, all, dictionary.getVersion());
+    }
+
+    @Override
+    public OkPermissionDictionary dictionary() {
+        Map<Long, String> codes = new HashMap<>();
+        em.createQuery("select r.id, r.code from OrgRbacResource r where r.code is not null", Object[].class)
+                .getResultList()
+                .forEach(row -> codes.put((Long) row[0], (String) row[1]));
+        return OkPermissionDictionary.of(codes);
+    }
+
+    void onChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) OrgRbacChanged event) {
+        if (event.dictionary()) {
+            authorizer.invalidateDictionary();
+        }
+        if (event.accountIds().isEmpty()) {
+            return;
+        }
+
+        List<Long> missing = new ArrayList<>();
+        for (Long accountId : event.accountIds()) {
+            String username = usernames.getIfPresent(accountId);
+            if (username != null) {
+                authorizer.invalidate(username);
+            } else {
+                missing.add(accountId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        try {
+            List<SysAccount0> accounts = sysAccountRpc.findByIds(missing).getData();
+            for (SysAccount0 account : accounts) {
+                remember(account.getId(), account.getUsername());
+                authorizer.invalidate(account.getUsername());
+            }
+            if (accounts.size() < missing.size()) {
+                Log.warnf("Invalidate grants: %d of %d accounts not found", missing.size() - accounts.size(), missing.size());
+            }
+        } catch (RuntimeException e) {
+            //已提交，失败时授权快照在过期后刷新
+            Log.warnf(e, "Invalidate grants of accounts %s failed", missing);
+        }
+    }
+
+    private void remember(Long accountId, String username) {
+        usernames.put(accountId, username);
+        accountIds.put(username, accountId);
+    }
+}
@@ -1,10 +1,13 @@
 package org.okstar.platform.org.rbac.service.impl;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
 import org.okstar.platform.common.core.utils.bean.OkBeanUtils;
 import org.okstar.platform.org.rbac.mapper.OrgRbacResourceMapper;
 import org.okstar.platform.org.rbac.resource.vo.OrgRbacRoleResponseVo;
+import org.okstar.platform.org.rbac.service.OrgRbacChanged;
 import org.okstar.platform.org.rbac.service.OrgRbacResourceService;
 
 import java.util.List;
@@ -18,6 +21,8 @@ import java.util.stream.Collectors;
 public class OrgRbacResourceServiceImpl implements OrgRbacResourceService {
     @Inject
     private OrgRbacResourceMapper orgRbacResourceMapper;
+    @Inject
+    Event<OrgRbacChanged> changed;
 
     @Override
     public List<OrgRbacRoleResponseVo> querySourceList() {
@@ -29,4 +34,13 @@ public class OrgRbacResourceServiceImpl implements OrgRbacResourceService {
     }
 
 
+
+    @Transactional
+    @Override
+    public void setCode(Long resourceId, String code) {
+        orgRbacResourceMapper.findByIdOptional(resourceId).ifPresent(resource -> {
+            resource.setCode(code);
+            changed.fire(OrgRbacChanged.resources());
+        });
+    }
 }
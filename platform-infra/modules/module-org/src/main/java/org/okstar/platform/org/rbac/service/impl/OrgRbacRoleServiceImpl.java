@@ -3,13 +3,20 @@ package org.okstar.platform.org.rbac.service.impl;
 import io.quarkus.panache.common.Parameters;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
 import org.okstar.platform.common.core.utils.bean.OkBeanUtils;
+import org.okstar.platform.org.rbac.domain.OrgRbacResource;
+import org.okstar.platform.org.rbac.domain.OrgRbacRole;
+import org.okstar.platform.org.rbac.domain.SysRbacRoleResource;
 import org.okstar.platform.org.rbac.mapper.OrgRbacRoleMapper;
 import org.okstar.platform.org.rbac.mapper.SysRbacRoleResourceMapper;
 import org.okstar.platform.org.rbac.resource.vo.OrgRbacRoleResponseVo;
+import org.okstar.platform.org.rbac.service.OrgRbacClosureService;
 import org.okstar.platform.org.rbac.service.OrgRbacRoleService;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 
@@ -22,6 +29,8 @@ public class OrgRbacRoleServiceImpl implements OrgRbacRoleService {
     private OrgRbacRoleMapper orgRbacRoleMapper;
     @Inject
     private SysRbacRoleResourceMapper sysRbacRoleResourceMapper;
+    @Inject
+    OrgRbacClosureService closureService;
 
     @Override
     public List<OrgRbacRoleResponseVo> queryRoleList() {
@@ -41,4 +50,49 @@ public class OrgRbacRoleServiceImpl implements OrgRbacRoleService {
             return orgRbacRoleResponseVo;
         }).collect(Collectors.toList());
     }
+
+    @Transactional
+    @Override
+    public void grant(Long roleId, Long resourceId) {
+        if (sysRbacRoleResourceMapper.count("role.id = ?1 and menuId.id = ?2", roleId, resourceId) > 0) {
+            return;
+        }
+        persist(roleId, List.of(resourceId));
+    }
+
+    @Transactional
+    @Override
+    public void revoke(Long roleId, Long resourceId) {
+        if (sysRbacRoleResourceMapper.delete("role.id = ?1 and menuId.id = ?2", roleId, resourceId) > 0) {
+            closureService.revoke(roleId, List.of(resourceId));
+        }
+    }
+
+    @Transactional
+    @Override
+    public void setResources(Long roleId, Set<Long> resourceIds) {
+        Set<Long> existed = new HashSet<>(sysRbacRoleResourceMapper.getEntityManager()
+                .createQuery("select rr.menuId.id from SysRbacRoleResource rr where rr.role.id = ?1", Long.class)
+                .setParameter(1, roleId)
+                .getResultList());
+
+        persist(roleId, resourceIds.stream().filter(id -> !existed.contains(id)).toList());
+
+        List<Long> removed = existed.stream().filter(id -> !resourceIds.contains(id)).toList();
+        if (!removed.isEmpty()) {
+            sysRbacRoleResourceMapper.delete("role.id = ?1 and menuId.id in ?2", roleId, removed);
+            closureService.revoke(roleId, removed);
+        }
+    }
+
+    private void persist(Long roleId, List<Long> resourceIds) {
+        var em = sysRbacRoleResourceMapper.getEntityManager();
+        for (Long resourceId : resourceIds) {
+            SysRbacRoleResource roleResource = new SysRbacRoleResource();
+            roleResource.setRole(em.getReference(OrgRbacRole.class, roleId));
+            roleResource.setMenuId(em.getReference(OrgRbacResource.class, resourceId));
+            sysRbacRoleResourceMapper.persist(roleResource);
+        }
+        closureService.grant(roleId, resourceIds);
+    }
 }
@@ -3,20 +3,26 @@ package org.okstar.platform.org.rbac.service.impl;
 import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
 import org.okstar.platform.common.core.utils.bean.OkBeanUtils;
 import org.okstar.platform.common.rpc.RpcResult;
+import org.okstar.platform.org.rbac.domain.OrgRbacRole;
 import org.okstar.platform.org.rbac.domain.OrgRbacUser;
 import org.okstar.platform.org.rbac.domain.OrgRbacUserRole;
+import org.okstar.platform.org.rbac.mapper.OrgRbacRoleMapper;
 import org.okstar.platform.org.rbac.mapper.OrgRbacUserMapper;
 import org.okstar.platform.org.rbac.mapper.OrgRbacUserRoleMapper;
 import org.okstar.platform.org.rbac.resource.vo.OrgRbacUserResponseVo;
+import org.okstar.platform.org.rbac.service.OrgRbacClosureService;
 import org.okstar.platform.org.rbac.service.OrgRbacUserService;
 import org.okstar.platform.system.rpc.SysAccountRpc;
 import org.okstar.platform.system.vo.SysAccount0;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -31,6 +37,10 @@ public class OrgRbacUserServiceImpl implements OrgRbacUserService, PanacheReposi
     SysAccountRpc sysAccountRpc;
     @Inject
     private OrgRbacUserRoleMapper orgRbacUserRoleMapper;
+    @Inject
+    private OrgRbacRoleMapper orgRbacRoleMapper;
+    @Inject
+    OrgRbacClosureService closureService;
 
     @Override
     public List<OrgRbacUserResponseVo> queryUserList(Long roleId) {
@@ -65,6 +75,63 @@ public class OrgRbacUserServiceImpl implements OrgRbacUserService, PanacheReposi
         }).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
+    @Transactional
+    @Override
+    public void bindRole(Long accountId, Long roleId) {
+        setRoles(accountId, Set.of(roleId), false);
+    }
+
+    @Transactional
+    @Override
+    public void unbindRole(Long accountId, Long roleId) {
+        var user = orgRbacUserMapper.find("accountId", accountId).firstResultOptional();
+        if (user.isEmpty()) {
+            return;
+        }
+        if (orgRbacUserRoleMapper.delete("user.id = ?1 and role.id = ?2", user.get().id, roleId) > 0) {
+            closureService.unbindRoles(accountId, List.of(roleId));
+        }
+    }
+
+    @Transactional
+    @Override
+    public void setRoles(Long accountId, Set<Long> roleIds) {
+        setRoles(accountId, roleIds, true);
+    }
+
+    /**
+     * @param exclusive 是否移除 roleIds 以外的绑定
+     */
+    private void setRoles(Long accountId, Set<Long> roleIds, boolean exclusive) {
+        OrgRbacUser user = orgRbacUserMapper.find("accountId", accountId).firstResultOptional().orElseGet(() -> {
+            OrgRbacUser u = new OrgRbacUser();
+            u.setAccountId(accountId);
+            orgRbacUserMapper.persist(u);
+            return u;
+        });
+        Set<Long> existed = new HashSet<>(orgRbacUserRoleMapper.getEntityManager()
+                .createQuery("select ur.role.id from OrgRbacUserRole ur where ur.user.id = ?1", Long.class)
+                .setParameter(1, user.id)
+                .getResultList());
+
+        List<Long> added = roleIds.stream().filter(id -> !existed.contains(id)).toList();
+        for (Long roleId : added) {
+            OrgRbacUserRole userRole = new OrgRbacUserRole();
+            userRole.setUser(user);
+            userRole.setRole(orgRbacRoleMapper.getEntityManager().getReference(OrgRbacRole.class, roleId));
+            orgRbacUserRoleMapper.persist(userRole);
+        }
+        closureService.bindRoles(accountId, added);
+
+        if (exclusive) {
+            List<Long> removed = existed.stream().filter(id -> !roleIds.contains(id)).toList();
+            if (!removed.isEmpty()) {
+                orgRbacUserRoleMapper.delete("user.id = ?1 and role.id in ?2", user.id, removed);
+                closureService.unbindRoles(accountId, removed);
+            }
+        }
+    }
+
     public SysAccount0 getAccount(Long accountId) {
         RpcResult<SysAccount0> sysAccount0RpcResult = sysAccountRpc.findById(accountId);
         return sysAccount0RpcResult.getData();
@@ -13,6 +13,7 @@
 
 package org.okstar.platform.org.resource;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import org.okstar.platform.common.core.utils.OkAssert;
@@ -29,6 +30,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Path("dept")
+@RunOnVirtualThread
 public class OrgDeptResource extends BaseResource {
     @Inject
     OrgDeptService deptService;
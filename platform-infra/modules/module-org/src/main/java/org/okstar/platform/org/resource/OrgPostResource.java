@@ -13,6 +13,7 @@
 
 package org.okstar.platform.org.resource;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import org.okstar.platform.common.core.utils.OkStringUtil;
@@ -26,6 +27,7 @@ import org.okstar.platform.org.staff.service.OrgStaffService;
 import java.util.List;
 
 @Path("post")
+@RunOnVirtualThread
 public class OrgPostResource {
     @Inject
     OrgPostService postService;
@@ -14,6 +14,7 @@
 package org.okstar.platform.org.resource;
 
 import io.quarkus.logging.Log;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
@@ -45,6 +46,7 @@ import java.util.stream.Collectors;
  * 组织
  */
 @Path("")
+@RunOnVirtualThread
 public class OrgResource extends OkCommonResource {
 
     @Inject
@@ -13,12 +13,11 @@
 
 package org.okstar.platform.org.rpc.impl;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
-import org.okstar.platform.common.core.utils.bean.OkBeanUtils;
 import org.okstar.platform.common.rpc.RpcResult;
-import org.okstar.platform.org.domain.Org;
 import org.okstar.platform.org.dto.Org0;
 import org.okstar.platform.org.rpc.OrgRpc;
 import org.okstar.platform.org.service.OrgService;
@@ -27,6 +26,7 @@ import java.util.Optional;
 
 @Transactional
 @ApplicationScoped
+@RunOnVirtualThread
 public class OrgRpcImpl implements OrgRpc {
 
     @Inject
@@ -34,12 +34,10 @@ public class OrgRpcImpl implements OrgRpc {
 
     @Override
     public RpcResult<Org0> current() {
-        Optional<Org> org = orgService.current();
+        Optional<Org0> org = orgService.current0();
         if (org.isEmpty()) {
             return RpcResult.failed("Not exist");
         }
-        Org0 o = new Org0();
-        OkBeanUtils.copyPropertiesTo(org.get(), o);
-        return RpcResult.success(o);
+        return RpcResult.success(org.get());
     }
 }
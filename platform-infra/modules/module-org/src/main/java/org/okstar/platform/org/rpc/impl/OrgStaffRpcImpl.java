@@ -13,6 +13,7 @@
 
 package org.okstar.platform.org.rpc.impl;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.okstar.platform.common.rpc.RpcResult;
@@ -26,6 +27,7 @@ import java.util.List;
 
 
 @ApplicationScoped
+@RunOnVirtualThread
 public class OrgStaffRpcImpl implements OrgStaffRpc {
 
     @Inject
@@ -43,6 +45,15 @@ public class OrgStaffRpcImpl implements OrgStaffRpc {
         }
     }
 
+    @Override
+    public RpcResult<Boolean> addForAccount(Long accountId, OrgStaffFragment staffFragment) {
+        try {
+            return RpcResult.success(orgStaffService.addForAccount(accountId, staffFragment));
+        } catch (Exception e) {
+            return RpcResult.failed(e);
+        }
+    }
+
     @Override
     public RpcResult<List<OrgStaff0>> search(String query) {
         try {
@@ -13,14 +13,17 @@
 
 package org.okstar.platform.org.service;
 
-import io.quarkus.panache.common.Page;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import org.okstar.platform.common.core.utils.OkAssert;
 import org.okstar.platform.common.core.utils.OkDateUtils;
+import org.okstar.platform.common.core.web.page.OkCursorPageResult;
+import org.okstar.platform.common.core.web.page.OkCursorPageable;
 import org.okstar.platform.common.core.web.page.OkPageResult;
 import org.okstar.platform.common.core.web.page.OkPageable;
+import org.okstar.platform.common.datasource.OkKeyset;
+import org.okstar.platform.common.datasource.annotation.Slave;
 import org.okstar.platform.org.domain.OrgDept;
 import org.okstar.platform.org.dto.OrgDeptAdd;
 import org.okstar.platform.org.mapper.OrgDeptMapper;
@@ -44,17 +47,19 @@ public class OrgDeptServiceImpl implements OrgDeptService {
 
     @Override
     public List<OrgDept> findAll() {
-        return orgDeptMapper.findAll().stream().toList();
+        return orgDeptMapper.findAllCacheable().list();
     }
 
     @Override
+    @Slave
     public OkPageResult<OrgDept> findPage(OkPageable pageable) {
-        var all = orgDeptMapper.findAll();
-        var query = all.page(Page.of(pageable.getPageIndex(), pageable.getPageSize()));
-        return OkPageResult.build(
-                query.list(),
-                query.count(),
-                query.pageCount());
+        return orgDeptMapper.findPage(pageable);
+    }
+
+    @Override
+    @Slave
+    public OkCursorPageResult<OrgDept> findPage(OkCursorPageable pageable) {
+        return orgDeptMapper.findPage(pageable, OkKeyset.asc(OkKeyset.ID));
     }
 
     @Override
@@ -76,11 +81,11 @@ public class OrgDeptServiceImpl implements OrgDeptService {
 
     @Override
     public List<OrgDept> children(Long parentId) {
-        return orgDeptMapper.list("parentId", parentId).stream().toList();
+        return orgDeptMapper.findCacheable("parentId", parentId).list();
     }
     @Override
     public List<OrgDept> getByOrgId(Long orgId) {
-        return orgDeptMapper.list("parentId = ?1 and orgId = ?2", 0L, orgId).stream().toList();
+        return orgDeptMapper.findCacheable("parentId = ?1 and orgId = ?2", 0L, orgId).list();
     }
 
     @Override
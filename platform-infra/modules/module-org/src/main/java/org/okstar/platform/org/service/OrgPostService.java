@@ -14,7 +14,7 @@
 package org.okstar.platform.org.service;
 
 
-import org.okstar.platform.common.datasource.OkService;
+import org.okstar.platform.common.datasource.OkCursorService;
 import org.okstar.platform.org.domain.OrgPost;
 
 import java.util.List;
@@ -24,7 +24,7 @@ import java.util.List;
  * 
  * 
  */
-public interface OrgPostService extends OkService<OrgPost>
+public interface OrgPostService extends OkCursorService<OrgPost>
 {
 
     List<OrgPost> findByDept(Long deptId);
@@ -13,14 +13,17 @@
 
 package org.okstar.platform.org.service;
 
-import io.quarkus.panache.common.Page;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import org.locationtech.jts.util.Assert;
 import org.okstar.platform.common.core.utils.OkDateUtils;
+import org.okstar.platform.common.core.web.page.OkCursorPageResult;
+import org.okstar.platform.common.core.web.page.OkCursorPageable;
 import org.okstar.platform.common.core.web.page.OkPageResult;
 import org.okstar.platform.common.core.web.page.OkPageable;
+import org.okstar.platform.common.datasource.OkKeyset;
+import org.okstar.platform.common.datasource.annotation.Slave;
 import org.okstar.platform.org.domain.OrgPost;
 import org.okstar.platform.org.mapper.OrgPostMapper;
 
@@ -54,17 +57,19 @@ public class OrgPostServiceImpl implements OrgPostService {
 
     @Override
     public List<OrgPost> findAll() {
-        return postMapper.findAll().stream().toList();
+        return postMapper.findAllCacheable().list();
     }
 
     @Override
+    @Slave
     public OkPageResult<OrgPost> findPage(OkPageable pageable) {
-        var all = postMapper.findAll();
-        var query = all.page(Page.of(pageable.getPageIndex(), pageable.getPageSize()));
-        return OkPageResult.build(
-                query.list(),
-                query.count(),
-                query.pageCount());
+        return postMapper.findPage(pageable);
+    }
+
+    @Override
+    @Slave
+    public OkCursorPageResult<OrgPost> findPage(OkCursorPageable pageable) {
+        return postMapper.findPage(pageable, OkKeyset.asc(OkKeyset.ID));
     }
 
     @Override
@@ -84,7 +89,7 @@ public class OrgPostServiceImpl implements OrgPostService {
 
     @Override
     public List<OrgPost> findByDept(Long deptId) {
-        return postMapper.find("deptId", deptId).stream().toList();
+        return postMapper.findCacheable("deptId", deptId).list();
     }
 
     @Override
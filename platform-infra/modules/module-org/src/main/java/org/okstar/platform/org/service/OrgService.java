@@ -16,6 +16,7 @@ package org.okstar.platform.org.service;
 
 import org.okstar.platform.common.datasource.OkService;
 import org.okstar.platform.org.domain.Org;
+import org.okstar.platform.org.dto.Org0;
 
 import java.util.Optional;
 
@@ -23,6 +24,11 @@ public interface OrgService extends OkService<Org>
 {
     Optional<Org> current();
 
+    /**
+     * 当前组织（DTO 投影，只读）
+     */
+    Optional<Org0> current0();
+
     void setDefault();
 
     void setCert(Long id, String cert);
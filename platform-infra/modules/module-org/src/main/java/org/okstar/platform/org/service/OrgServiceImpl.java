@@ -22,7 +22,9 @@ import org.apache.commons.lang3.BooleanUtils;
 import org.okstar.platform.common.core.utils.OkDateUtils;
 import org.okstar.platform.common.core.web.page.OkPageResult;
 import org.okstar.platform.common.core.web.page.OkPageable;
+import org.okstar.platform.common.datasource.OkProjection;
 import org.okstar.platform.org.domain.Org;
+import org.okstar.platform.org.dto.Org0;
 import org.okstar.platform.org.mapper.OrgMapper;
 
 import java.util.List;
@@ -31,6 +33,9 @@ import java.util.Optional;
 @Transactional
 @ApplicationScoped
 public class OrgServiceImpl implements OrgService {
+
+    private static final OkProjection<Org0> ORG0 = OkProjection.of(Org0.class).cacheable();
+
     @Inject
     OrgMapper orgMapper;
 
@@ -45,7 +50,7 @@ public class OrgServiceImpl implements OrgService {
 
     @Override
     public List<Org> findAll() {
-        return orgMapper.findAll().stream().toList();
+        return orgMapper.findAllCacheable().list();
     }
 
     @Override
@@ -74,9 +79,14 @@ public class OrgServiceImpl implements OrgService {
     }
 
     @Override
-    public synchronized void setDefault() {
-        Optional<Org> orgs = current();
-        if (orgs.isEmpty()) {
+    public Optional<Org0> current0() {
+        return orgMapper.findProjectedFirst(ORG0, "current = ?1", true);
+    }
+
+    @Override
+    public void setDefault() {
+        //多个节点同时启动时，由唯一约束 (name, no) 保证只创建一次
+        orgMapper.findOrCreate(this::current, () -> {
             Org org = new Org();
             org.setCurrent(true);
             org.setName("OkStar开源社区");
@@ -85,8 +95,8 @@ public class OrgServiceImpl implements OrgService {
             org.setParentId(0L);
             org.setCreateBy(1L);
             org.setCreateAt(OkDateUtils.now());
-            save(org);
-        }
+            return org;
+        });
     }
 
     @Override
@@ -15,12 +15,17 @@ package org.okstar.platform.org.service;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
 import org.okstar.platform.common.core.web.page.OkPageResult;
 import org.okstar.platform.common.core.web.page.OkPageable;
+import org.okstar.platform.common.datasource.OkCountCache;
 import org.okstar.platform.org.mapper.SysUserRoleRepository;
 import org.okstar.platform.org.rbac.domain.OrgRbacUserRole;
+import org.okstar.platform.org.rbac.service.OrgRbacClosureService;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 @ApplicationScoped
 public class SysUserRoleServiceImpl implements SysUserRoleService {
@@ -28,6 +33,9 @@ public class SysUserRoleServiceImpl implements SysUserRoleService {
     @Inject
     private SysUserRoleRepository userRoleRepository;
 
+    @Inject
+    OrgRbacClosureService closureService;
+
     @Override
     public void save(OrgRbacUserRole orgRbacUserRole) {
         userRoleRepository.persist(orgRbacUserRole);
@@ -69,22 +77,31 @@ public class SysUserRoleServiceImpl implements SysUserRoleService {
     }
 
     /**
-     * 批量取消授权用户角色
+     * 批量取消授权用户角色，单条 DELETE 完成，随后从 RBAC 闭包中移除该角色
      *
      * @param roleId  角色ID
      * @param userIds 需要取消授权的用户数据ID
      * @return 结果
      */
+    @Transactional
     @Override
     public long deleteByUserIds(Long roleId, Long[] userIds) {
-        long c = 0;
-        if (userIds == null)
-            return c;
-        for (int i = 0; i < userIds.length; i++) {
-            c += userRoleRepository.delete("roleId = ?1 and userId = ?2",
-                    roleId, userIds[i]);
-        }
+        if (roleId == null || userIds == null)
+            return 0;
+        List<Long> ids = Arrays.stream(userIds).filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty())
+            return 0;
 
+        //删除前查出绑定该角色的帐号
+        List<Long> accountIds = userRoleRepository.getEntityManager()
+                .createQuery("select distinct ur.user.accountId from OrgRbacUserRole ur where ur.role.id = ?1 and ur.user.id in ?2",
+                        Long.class)
+                .setParameter(1, roleId)
+                .setParameter(2, ids)
+                .getResultList();
+        long c = userRoleRepository.delete("role.id = ?1 and user.id in ?2", roleId, ids);
+        accountIds.forEach(accountId -> closureService.unbindRoles(accountId, List.of(roleId)));
+        OkCountCache.invalidateOnCommit(OrgRbacUserRole.class);
         return c;
     }
 
@@ -14,8 +14,8 @@
 package org.okstar.platform.org.staff.mapper;
 
 
-import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.okstar.platform.common.datasource.OkRepository;
 import org.okstar.platform.org.domain.OrgStaff;
 
 
@@ -25,6 +25,6 @@ import org.okstar.platform.org.domain.OrgStaff;
  * 人员管理
  */
 @ApplicationScoped
-public class OrgStaffMapper implements PanacheRepository<OrgStaff> {
+public class OrgStaffMapper implements OkRepository<OrgStaff> {
 
 }
@@ -0,0 +1,80 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.org.staff.outbox;
+
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+import org.okstar.platform.auth.rpc.PassportRpc;
+import org.okstar.platform.common.datasource.outbox.OkOutboxHandler;
+import org.okstar.platform.common.rpc.RpcAssert;
+import org.okstar.platform.org.staff.service.OrgStaffService;
+import org.okstar.platform.system.rpc.SysAccountRpc;
+import org.okstar.platform.system.sign.SignUpForm;
+import org.okstar.platform.system.sign.SignUpResult;
+import org.okstar.platform.system.vo.SysAccount0;
+
+/**
+ * 入职后注册帐号（邮箱号）并关联到人员；帐号已存在时只做关联，重试幂等
+ */
+@ApplicationScoped
+public class StaffSignUpHandler implements OkOutboxHandler<StaffSignUp> {
+
+    public static final String TOPIC = "staff.sign-up";
+
+    @Inject
+    OrgStaffService staffService;
+
+    @Inject
+    @RestClient
+    SysAccountRpc sysAccountRpc;
+
+    @Inject
+    @RestClient
+    PassportRpc passportRpc;
+
+    @Override
+    public String topic() {
+        return TOPIC;
+    }
+
+    @Override
+    public Class<StaffSignUp> type() {
+        return StaffSignUp.class;
+    }
+
+    @Override
+    public void handle(String key, StaffSignUp payload) {
+        SignUpForm form = payload.getForm();
+        SysAccount0 account0 = RpcAssert.isTrue(sysAccountRpc.findByBind(
+                form.getAccountType(),
+                form.getIso(),
+                form.getAccount()));
+
+        Long accountId;
+        if (account0 == null) {
+            Log.debugf("注册帐号:%s", form);
+            //人员已存在，注册后只做关联
+            form.setStaffed(true);
+            SignUpResult upResult = RpcAssert.isTrue(passportRpc.signUp(form));
+            Log.infof("signUp=>{userId: %s, username: %s}", upResult.getUserId(), upResult.getUsername());
+            accountId = upResult.getUserId();
+        } else {
+            accountId = account0.getId();
+        }
+
+        staffService.setAccountId(payload.getStaffId(), accountId);
+    }
+}
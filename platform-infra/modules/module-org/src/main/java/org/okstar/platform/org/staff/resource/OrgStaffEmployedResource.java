@@ -13,9 +13,11 @@
 
 package org.okstar.platform.org.staff.resource;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
+import org.okstar.platform.common.core.annotation.OkPublic;
 import org.okstar.platform.common.core.web.bean.Req;
 import org.okstar.platform.common.core.web.bean.Res;
 import org.okstar.platform.common.core.web.page.OkPageResult;
@@ -27,7 +29,9 @@ import org.okstar.platform.org.vo.OrgStaffFind;
 /**
  * 组织架构-人员管理-待入职
  */
+@OkPublic
 @Path("staff/employed")
+@RunOnVirtualThread
 public class OrgStaffEmployedResource {
 
     @Inject
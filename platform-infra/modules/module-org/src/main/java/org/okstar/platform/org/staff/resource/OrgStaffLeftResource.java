@@ -13,9 +13,11 @@
 
 package org.okstar.platform.org.staff.resource;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
+import org.okstar.platform.common.core.annotation.OkPublic;
 import org.okstar.platform.common.core.web.bean.Req;
 import org.okstar.platform.common.core.web.bean.Res;
 import org.okstar.platform.common.core.web.page.OkPageResult;
@@ -26,7 +28,9 @@ import org.okstar.platform.org.staff.service.OrgStaffService;
 /**
  * 组织架构-人员管理-已离职
  */
+@OkPublic
 @Path("staff/left")
+@RunOnVirtualThread
 public class OrgStaffLeftResource {
 
     @Inject
@@ -13,14 +13,17 @@
 
 package org.okstar.platform.org.staff.resource;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
+import org.okstar.platform.common.core.annotation.OkPublic;
 import org.okstar.platform.common.core.web.bean.Req;
 import org.okstar.platform.common.core.web.bean.Res;
 import org.okstar.platform.common.core.web.page.OkPageResult;
 import org.okstar.platform.common.core.web.page.OkPageable;
 import org.okstar.platform.org.domain.OrgStaff;
+import org.okstar.platform.org.resource.BaseResource;
 import org.okstar.platform.org.staff.service.OrgStaffPostService;
 import org.okstar.platform.org.staff.service.OrgStaffService;
 import org.okstar.platform.org.vo.OrgStaffJoinReq;
@@ -28,8 +31,10 @@ import org.okstar.platform.org.vo.OrgStaffJoinReq;
 /**
  * 组织架构-人员管理-待入职
  */
+@OkPublic
 @Path("staff/pending")
-public class OrgStaffPendingResource {
+@RunOnVirtualThread
+public class OrgStaffPendingResource extends BaseResource {
 
     @Inject
     OrgStaffService orgStaffService;
@@ -51,7 +56,9 @@ public class OrgStaffPendingResource {
     @POST
     @Path("join")
     public Res<Boolean> join(OrgStaffJoinReq req) {
-        var yes = staffPostService.join(req.getStaffId(), req.getPostIds());
+        //公开路由，已登录时记录操作人
+        Long createBy = getUsername() == null ? null : self().getId();
+        var yes = staffPostService.join(req.getStaffId(), req.getPostIds(), createBy);
         return Res.ok(req, yes);
     }
 }
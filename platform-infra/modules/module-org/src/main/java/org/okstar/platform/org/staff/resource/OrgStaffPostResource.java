@@ -13,7 +13,9 @@
 
 package org.okstar.platform.org.staff.resource;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
+import org.okstar.platform.common.core.annotation.OkPublic;
 import org.okstar.platform.common.core.web.bean.Req;
 import org.okstar.platform.common.core.web.bean.Res;
 import org.okstar.platform.org.domain.OrgPost;
@@ -25,7 +27,9 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.QueryParam;
 import java.util.List;
 
+@OkPublic
 @Path("staff/post")
+@RunOnVirtualThread
 public class OrgStaffPostResource {
 
     @Inject
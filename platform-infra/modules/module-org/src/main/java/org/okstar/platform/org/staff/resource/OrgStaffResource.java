@@ -13,11 +13,13 @@
 
 package org.okstar.platform.org.staff.resource;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
+import org.okstar.platform.common.core.annotation.OkPublic;
 import org.okstar.platform.common.core.web.bean.Res;
 import org.okstar.platform.common.resource.OkCommonResource;
 import org.okstar.platform.org.domain.OrgStaff;
@@ -26,7 +28,9 @@ import org.okstar.platform.org.vo.OrgStaffReq;
 
 import java.util.List;
 
+@OkPublic
 @Path("staff")
+@RunOnVirtualThread
 public class OrgStaffResource extends OkCommonResource {
 
     @Inject
@@ -44,9 +44,10 @@ public interface OrgStaffPostService extends OkService<OrgStaffPost> {
      *
      * @param staffId
      * @param postIds
+     * @param createBy 操作人帐号，匿名时为空
      * @return
      */
-    boolean join(Long staffId, SortedSet<Long> postIds);
+    boolean join(Long staffId, SortedSet<Long> postIds, Long createBy);
 
     /**
      * 查找员工的岗位
@@ -17,6 +17,7 @@ import io.quarkus.logging.Log;
 import io.quarkus.panache.common.Page;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.persistence.FlushModeType;
 import jakarta.transaction.Transactional;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
 import org.locationtech.jts.util.Assert;
@@ -27,25 +28,38 @@ import org.okstar.platform.common.core.utils.OkAssert;
 import org.okstar.platform.common.core.utils.OkDateUtils;
 import org.okstar.platform.common.core.web.page.OkPageResult;
 import org.okstar.platform.common.core.web.page.OkPageable;
+import org.okstar.platform.common.datasource.OkBatchResult;
 import org.okstar.platform.common.rpc.RpcAssert;
+import org.okstar.platform.common.datasource.outbox.OkOutbox;
 import org.okstar.platform.common.rpc.RpcResult;
 import org.okstar.platform.org.domain.OrgPost;
 import org.okstar.platform.org.domain.OrgStaff;
 import org.okstar.platform.org.domain.OrgStaffPost;
 import org.okstar.platform.org.mapper.OrgStaffPostMapper;
+import org.okstar.platform.org.rbac.service.OrgRbacClosureService;
 import org.okstar.platform.org.service.OrgPostService;
+import org.okstar.platform.org.staff.outbox.StaffSignUp;
+import org.okstar.platform.org.staff.outbox.StaffSignUpHandler;
 import org.okstar.platform.system.rpc.SysAccountRpc;
 import org.okstar.platform.system.sign.SignUpForm;
-import org.okstar.platform.system.sign.SignUpResult;
 import org.okstar.platform.system.vo.SysAccount0;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.stream.Collectors;
 
 
 /**
  * 人员服务
+ * <p>
+ * 入职、离职不加锁：人员与岗位带 @Version，同一人员或岗位被并发修改时后提交的事务失败，
+ * 人员与岗位的关联由唯一约束 (staffId, postId) 去重。
  */
 @Transactional
 @ApplicationScoped
@@ -66,9 +80,53 @@ public class OrgStaffPostServiceImpl implements OrgStaffPostService {
     @RestClient
     PassportRpc passportRpc;
 
+    @Inject
+    OkOutbox outbox;
+
+    @Inject
+    OrgRbacClosureService closureService;
+
+    /**
+     * 人员岗位关联的增删都经过这里，岗位绑定的角色随之进入或离开 RBAC 闭包
+     */
+    @Override
+    public void save(OrgStaffPost staffPost) {
+        if (staffPost.id != null) {
+            //按数据库中的原值判断是否变化，不触发 flush
+            Object[] old = orgStaffPostMapper.getEntityManager()
+                    .createQuery("select sp.staffId, sp.postId from OrgStaffPost sp where sp.id = ?1", Object[].class)
+                    .setParameter(1, staffPost.id)
+                    .setFlushMode(FlushModeType.COMMIT)
+                    .getResultStream()
+                    .findFirst()
+                    .orElse(null);
+            if (old != null) {
+                if (Objects.equals(old[0], staffPost.getStaffId()) && Objects.equals(old[1], staffPost.getPostId())) {
+                    orgStaffPostMapper.persist(staffPost);
+                    return;
+                }
+                closureService.leavePosts(accountOf((Long) old[0]), List.of((Long) old[1]));
+            }
+        }
+        orgStaffPostMapper.persist(staffPost);
+        closureService.joinPosts(accountOf(staffPost.getStaffId()), List.of(staffPost.getPostId()));
+    }
+
+    /**
+     * 先批量写入全部关联（不经过 save，避免逐行查询触发 flush），再按帐号一次调整 RBAC 闭包
+     */
     @Override
-    public void save(OrgStaffPost sysDept) {
-        orgStaffPostMapper.persist(sysDept);
+    public OkBatchResult createAll(Collection<OrgStaffPost> list, Long createBy) {
+        List<OrgStaffPost> rows = list == null ? List.of() : new ArrayList<>(list);
+        OkBatchResult result = OrgStaffPostService.super.createAll(rows, createBy, orgStaffPostMapper::persist);
+
+        Map<Long, List<Long>> posts = result.getRows().stream()
+                .filter(OkBatchResult.Row::isSuccess)
+                .map(row -> rows.get(row.getIndex()))
+                .collect(Collectors.groupingBy(OrgStaffPost::getStaffId,
+                        Collectors.mapping(OrgStaffPost::getPostId, Collectors.toList())));
+        byAccount(posts).forEach(closureService::joinPosts);
+        return result;
     }
 
     @Override
@@ -93,12 +151,64 @@ public class OrgStaffPostServiceImpl implements OrgStaffPostService {
 
     @Override
     public void deleteById(Long id) {
-        orgStaffPostMapper.deleteById(id);
+        OrgStaffPost staffPost = get(id);
+        if (staffPost != null) {
+            delete(staffPost);
+        }
+    }
+
+    @Override
+    public void delete(OrgStaffPost staffPost) {
+        orgStaffPostMapper.delete(staffPost);
+        closureService.leavePosts(accountOf(staffPost.getStaffId()), List.of(staffPost.getPostId()));
     }
 
     @Override
-    public void delete(OrgStaffPost sysDept) {
-        orgStaffPostMapper.delete(sysDept);
+    public long deleteByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> removed = orgStaffPostMapper.getEntityManager()
+                .createQuery("select sp.staffId, sp.postId from OrgStaffPost sp where sp.id in ?1", Object[].class)
+                .setParameter(1, ids)
+                .getResultList();
+        long count = OrgStaffPostService.super.deleteByIds(ids);
+
+        Map<Long, List<Long>> posts = removed.stream().collect(Collectors.groupingBy(
+                row -> (Long) row[0], Collectors.mapping(row -> (Long) row[1], Collectors.toList())));
+        byAccount(posts).forEach(closureService::leavePosts);
+        return count;
+    }
+
+    /**
+     * 人员 => 岗位 按帐号合并，一次查询所有人员的帐号，未注册帐号的人员忽略
+     */
+    private Map<Long, List<Long>> byAccount(Map<Long, List<Long>> posts) {
+        Map<Long, List<Long>> accounts = new HashMap<>();
+        if (posts.isEmpty()) {
+            return accounts;
+        }
+        orgStaffPostMapper.getEntityManager()
+                .createQuery("select s.id, s.accountId from OrgStaff s where s.id in ?1 and s.accountId is not null",
+                        Object[].class)
+                .setParameter(1, posts.keySet())
+                .getResultList()
+                .forEach(row -> accounts.computeIfAbsent((Long) row[1], k -> new ArrayList<>())
+                        .addAll(posts.get((Long) row[0])));
+        return accounts;
+    }
+
+    /**
+     * 人员绑定的帐号，尚未注册帐号时为空
+     */
+    private Long accountOf(Long staffId) {
+        return orgStaffPostMapper.getEntityManager()
+                .createQuery("select s.accountId from OrgStaff s where s.id = ?1", Long.class)
+                .setParameter(1, staffId)
+                .getResultStream()
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
     }
 
 
@@ -115,7 +225,7 @@ public class OrgStaffPostServiceImpl implements OrgStaffPostService {
 
 
     @Override
-    public synchronized boolean leave(Long staffId) {
+    public boolean leave(Long staffId) {
         OkAssert.isTrue(staffId != null && staffId > 0, "staffId is invalid");
 
         OrgStaff staff = staffService.get(staffId);
@@ -130,15 +240,14 @@ public class OrgStaffPostServiceImpl implements OrgStaffPostService {
         //删除全部岗位关联
         var staffPosts = findByStaffIds(Set.of(staff.id));
         staffPosts.forEach(sp -> {
-
             //清除分配标识
             OrgPost post = postService.get(sp.getPostId());
             post.setAssignFor(null);
-
-            //删除关联
-            delete(sp);
         });
 
+        //删除关联
+        deleteByIds(staffPosts.stream().map(sp -> sp.id).toList());
+
 
         /**
          * 注销其帐号
@@ -160,7 +269,7 @@ public class OrgStaffPostServiceImpl implements OrgStaffPostService {
     }
 
     @Override
-    public synchronized boolean join(Long staffId, SortedSet<Long> postIds) {
+    public boolean join(Long staffId, SortedSet<Long> postIds, Long createBy) {
         Log.infof("join staffId:%s postIds:%s", staffId, postIds);
 
         Assert.isTrue(staffId != null && staffId > 0, "参数异常！");
@@ -178,13 +287,21 @@ public class OrgStaffPostServiceImpl implements OrgStaffPostService {
 
         //删除多余的绑定
         List<OrgStaffPost> existed = findByStaffId(staffId);
-        List<OrgStaffPost> removable = existed.stream().filter(e -> !postIds.contains(e.id)).toList();
-        removable.forEach(this::delete);
+        deleteByIds(existed.stream()
+                .filter(e -> !postIds.contains(e.getPostId()))
+                .map(e -> e.id)
+                .toList());
+
+        //已经绑定的岗位
+        Set<Long> linked = existed.stream()
+                .map(OrgStaffPost::getPostId)
+                .filter(postIds::contains)
+                .collect(Collectors.toSet());
 
         //新增绑定
+        List<OrgStaffPost> staffPosts = new ArrayList<>();
         for (Long postId : postIds) {
-            if (isLinked(staff.id, postId)) {
-                //已经绑定的岗位
+            if (linked.contains(postId)) {
                 continue;
             }
 
@@ -196,46 +313,30 @@ public class OrgStaffPostServiceImpl implements OrgStaffPostService {
             OrgStaffPost staffPost = new OrgStaffPost();
             staffPost.setPostId(postId);
             staffPost.setStaffId(staffId);
-            save(staffPost);
+            staffPosts.add(staffPost);
         }
+        createAll(staffPosts, createBy);
 
 
         /**
-         * 注册其帐号(邮箱号)
+         * 注册其帐号(邮箱号)，提交后由发件箱异步执行
          */
-        AccountDefines.BindType emailType= AccountDefines.BindType.email;
-        String email = staff.getFragment().getEmail();
-        RpcResult<SysAccount0> bind = sysAccountRpc.findByBind(
-                emailType,
-                AccountDefines.DefaultISO,
-                email);
-
-        SysAccount0 account0 = RpcAssert.isTrue(bind);
-        if (account0 == null) {
-            SignUpForm form = new SignUpForm();
-            form.setPassword(AccountDefines.DefaultPWD);
-            form.setIso(AccountDefines.DefaultISO);
-
-            //设置邮箱为帐号
-            form.setAccount(email);
-            form.setAccountType(emailType);
-            form.setFirstName(staff.getFragment().getFirstName());
-            form.setLastName(staff.getFragment().getLastName());
-
-            Log.debugf("注册帐号:%s", form);
-            var result = passportRpc.signUp(form);
-            SignUpResult upResult = RpcAssert.isTrue(result);
-            Log.infof("signUp=>{userId: %s, username: %s}", upResult.getUserId(), upResult.getUsername());
-
-            staffService.setAccountId(staff.id, upResult.getUserId());
-        }
+        SignUpForm form = new SignUpForm();
+        form.setPassword(AccountDefines.DefaultPWD);
+        form.setIso(AccountDefines.DefaultISO);
+
+        //设置邮箱为帐号
+        form.setAccount(staff.getFragment().getEmail());
+        form.setAccountType(AccountDefines.BindType.email);
+        form.setFirstName(staff.getFragment().getFirstName());
+        form.setLastName(staff.getFragment().getLastName());
+
+        //每次入职一个事件
+        String key = StaffSignUpHandler.TOPIC + ":" + staffId + ":" + staff.getJoinedDate().getTime();
+        outbox.publish(StaffSignUpHandler.TOPIC, key, new StaffSignUp(staffId, form));
         return true;
     }
 
-    private boolean isLinked(Long staffId, Long postId) {
-        return orgStaffPostMapper.count("staffId = ?1 and postId = ?2", staffId, postId) > 0;
-    }
-
     @Override
     public List<OrgStaffPost> findByStaffId(Long staffId) {
         return orgStaffPostMapper.find("staffId = ?1", staffId).stream().toList();
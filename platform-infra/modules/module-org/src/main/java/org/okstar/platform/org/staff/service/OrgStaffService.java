@@ -19,6 +19,7 @@ import org.okstar.platform.common.core.web.page.OkPageable;
 import org.okstar.platform.common.datasource.OkService;
 import org.okstar.platform.org.domain.OrgStaff;
 import org.okstar.platform.org.dto.OrgStaff0;
+import org.okstar.platform.org.dto.OrgStaffFragment;
 import org.okstar.platform.org.vo.OrgStaffReq;
 
 import java.util.List;
@@ -53,6 +54,15 @@ public interface OrgStaffService extends OkService<OrgStaff> {
      */
     boolean add(OrgStaffReq req);
 
+    /**
+     * 为注册的帐号添加员工，该帐号已有员工时不再添加（重复投递幂等）
+     *
+     * @param accountId 帐号
+     * @param fragment  人员信息
+     * @return 是否新添加
+     */
+    boolean addForAccount(Long accountId, OrgStaffFragment fragment);
+
     void setAccountId(Long id, Long accountId);
 
     Optional<OrgStaff> getByAccountId(Long id);
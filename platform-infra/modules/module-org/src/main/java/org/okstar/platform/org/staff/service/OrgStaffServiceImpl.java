@@ -13,7 +13,7 @@
 
 package org.okstar.platform.org.staff.service;
 
-import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import io.quarkus.logging.Log;
 import io.quarkus.panache.common.Page;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -26,14 +26,15 @@ import org.okstar.platform.common.core.utils.OkDateUtils;
 import org.okstar.platform.common.core.utils.OkStringUtil;
 import org.okstar.platform.common.core.web.page.OkPageResult;
 import org.okstar.platform.common.core.web.page.OkPageable;
+import org.okstar.platform.common.datasource.OkProjection;
 import org.okstar.platform.org.domain.OrgPost;
 import org.okstar.platform.org.domain.OrgStaff;
 import org.okstar.platform.org.domain.OrgStaffPost;
 import org.okstar.platform.org.dto.OrgStaff0;
 import org.okstar.platform.org.dto.OrgStaffFragment;
+import org.okstar.platform.org.rbac.service.OrgRbacClosureService;
 import org.okstar.platform.org.service.OrgPostService;
 import org.okstar.platform.org.staff.mapper.OrgStaffMapper;
-import org.okstar.platform.org.utils.StaffUtils;
 import org.okstar.platform.org.vo.OrgStaffFind;
 import org.okstar.platform.org.vo.OrgStaffReq;
 
@@ -50,9 +51,19 @@ import java.util.stream.Collectors;
 @Transactional
 @ApplicationScoped
 public class OrgStaffServiceImpl implements OrgStaffService {
+
+    private static final OkProjection<OrgStaff0> STAFF0 = OkProjection.of(OrgStaff0.class)
+            .path("no", "fragment.no")
+            .path("name", "fragment.name")
+            .path("phone", "fragment.phone")
+            .path("email", "fragment.email");
+
     @Inject
     OrgStaffMapper orgStaffMapper;
 
+    @Inject
+    OrgRbacClosureService closureService;
+
     @Inject
     OrgStaffPostService orgStaffPostService;
 
@@ -194,22 +205,54 @@ public class OrgStaffServiceImpl implements OrgStaffService {
         if (id != null) {
             entity = get(id);
         } else {
-            entity = new OrgStaff();
-            entity.setDisabled(false);
-            entity.setJoinedDate(OkDateUtils.now());
-            entity.setPostStatus(JobDefines.PostStatus.pending);
+            entity = newStaff();
         }
         entity.setFragment(req.getFragment());
         save(entity);
         return true;
     }
 
+    @Override
+    public boolean addForAccount(Long accountId, OrgStaffFragment fragment) {
+        OkAssert.notNull(accountId, "参数异常！");
+        OkAssert.notNull(fragment, "参数异常！");
+
+        //新员工尚无岗位，直接关联帐号；并发投递时由唯一约束 (accountId) 保证只创建一个人员
+        OrgStaff entity = newStaff();
+        entity.setAccountId(accountId);
+        entity.setFragment(fragment);
+        entity.setCreateAt(OkDateUtils.now());
+        OrgStaff staff = orgStaffMapper.findOrCreate(() -> getByAccountId(accountId), () -> entity);
+        if (!Objects.equals(staff.id, entity.id)) {
+            Log.infof("Account:%s has staff:%s", accountId, staff.id);
+            return false;
+        }
+        return true;
+    }
+
+    private static OrgStaff newStaff() {
+        OrgStaff entity = new OrgStaff();
+        entity.setDisabled(false);
+        entity.setJoinedDate(OkDateUtils.now());
+        entity.setPostStatus(JobDefines.PostStatus.pending);
+        return entity;
+    }
+
     @Override
     public void setAccountId(Long id, Long accountId) {
         OrgStaff staff = get(id);
         if (staff == null)
             return;
+        if (Objects.equals(staff.getAccountId(), accountId))
+            return;
+
+        //岗位角色随帐号迁移
+        List<Long> postIds = orgStaffPostService.findByStaffId(id).stream()
+                .map(OrgStaffPost::getPostId)
+                .toList();
+        closureService.leavePosts(staff.getAccountId(), postIds);
         staff.setAccountId(accountId);
+        closureService.joinPosts(accountId, postIds);
     }
 
     @Override
@@ -226,7 +269,6 @@ public class OrgStaffServiceImpl implements OrgStaffService {
          */
 
 //        String k = OkStringUtil.wrap(query, "%");
-        PanacheQuery<OrgStaff> panacheQuery = orgStaffMapper.find("accountId IS NOT null");
 /**
  .find(
  "fragment.postStatus = ?1 AND " +
@@ -241,7 +283,7 @@ public class OrgStaffServiceImpl implements OrgStaffService {
  *
  */
 
-        return panacheQuery.stream().map(StaffUtils::toStaff0).collect(Collectors.toList());
+        return orgStaffMapper.findProjected(STAFF0, "accountId IS NOT null");
     }
 
     @Override
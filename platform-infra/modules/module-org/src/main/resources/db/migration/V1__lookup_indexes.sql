@@ -0,0 +1,11 @@
+-- 人员岗位关联
+CREATE INDEX IF NOT EXISTS idx_org_staff_post_staff ON org_staff_post (staff_id);
+CREATE INDEX IF NOT EXISTS idx_org_staff_post_post ON org_staff_post (post_id);
+
+-- 人员
+CREATE INDEX IF NOT EXISTS idx_org_staff_account ON org_staff (account_id);
+CREATE INDEX IF NOT EXISTS idx_org_staff_status ON org_staff (post_status);
+CREATE INDEX IF NOT EXISTS idx_org_staff_no ON org_staff (no);
+
+-- 岗位
+CREATE INDEX IF NOT EXISTS idx_org_post_dept ON org_post (dept_id);
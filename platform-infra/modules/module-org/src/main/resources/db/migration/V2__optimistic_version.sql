@@ -0,0 +1,4 @@
+-- 乐观锁：已有数据的版本初始化为 0（列由 Hibernate 建表时添加）
+UPDATE org SET version = 0 WHERE version IS NULL;
+UPDATE org_post SET version = 0 WHERE version IS NULL;
+UPDATE org_staff SET version = 0 WHERE version IS NULL;
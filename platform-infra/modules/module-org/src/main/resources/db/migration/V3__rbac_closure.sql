@@ -0,0 +1,8 @@
+-- RBAC 闭包：按角色、资源反查持有的帐号（授权变化时只调整这些帐号）
+CREATE INDEX IF NOT EXISTS idx_org_rbac_account_role_role ON org_rbac_account_role (role_id);
+CREATE INDEX IF NOT EXISTS idx_org_rbac_account_resource_resource ON org_rbac_account_resource (resource_id);
+
+-- 闭包的源数据
+CREATE INDEX IF NOT EXISTS idx_org_rbac_role_post ON org_rbac_role (post_id);
+CREATE INDEX IF NOT EXISTS idx_org_rbac_user_role_role ON org_rbac_user_role (role_id);
+CREATE INDEX IF NOT EXISTS idx_sys_rbac_role_resource_role ON sys_rbac_role_resource (role_id);
@@ -0,0 +1,6 @@
+-- 一个帐号只对应一个人员：重复的人员保留最早的一条关联，其余解除帐号关联
+UPDATE org_staff SET account_id = NULL
+WHERE id IN (SELECT id FROM (SELECT s.id FROM org_staff s
+                             JOIN org_staff k ON k.account_id = s.account_id AND k.id < s.id) d);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_org_staff_account ON org_staff (account_id);
@@ -0,0 +1,8 @@
+-- 唯一键：人员岗位 (staff_id, post_id)，join 的并发插入依赖该约束检测冲突。
+-- 已有数据违反约束时 Hibernate（update）只记录日志并跳过，这里先删除重复数据（保留最早的一行）再建唯一索引；
+-- 存在重复时闭包的路径数偏大，升级时设置 okstar.rbac.closure.rebuild-at-start=true 重建一次
+DELETE FROM org_staff_post
+WHERE id IN (SELECT id FROM (SELECT p.id FROM org_staff_post p
+                             JOIN org_staff_post k ON k.staff_id = p.staff_id
+                                 AND k.post_id = p.post_id AND k.id < p.id) d);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_org_staff_post ON org_staff_post (staff_id, post_id);
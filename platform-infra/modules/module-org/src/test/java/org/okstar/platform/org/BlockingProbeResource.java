@@ -0,0 +1,59 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.org;
+
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import org.okstar.platform.common.core.annotation.OkPublic;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 阻塞到 {@link #release()} 为止，记录同时处理中的请求数
+ */
+@OkPublic
+@Path("test/blocking")
+@RunOnVirtualThread
+public class BlockingProbeResource {
+
+    static final AtomicInteger IN_FLIGHT = new AtomicInteger();
+
+    static final AtomicInteger PEAK = new AtomicInteger();
+
+    private static volatile CountDownLatch latch = new CountDownLatch(1);
+
+    static void reset() {
+        latch = new CountDownLatch(1);
+        IN_FLIGHT.set(0);
+        PEAK.set(0);
+    }
+
+    static void release() {
+        latch.countDown();
+    }
+
+    @GET
+    public String block() throws InterruptedException {
+        PEAK.accumulateAndGet(IN_FLIGHT.incrementAndGet(), Math::max);
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } finally {
+            IN_FLIGHT.decrementAndGet();
+        }
+        return "ok";
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.org;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.okstar.platform.common.core.web.page.OkPageable;
+import org.okstar.platform.common.datasource.stat.OkExplain;
+import org.okstar.platform.org.service.OrgPostService;
+import org.okstar.platform.org.staff.mapper.OrgStaffMapper;
+import org.okstar.platform.org.staff.service.OrgStaffPostService;
+import org.okstar.platform.org.staff.service.OrgStaffService;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Set;
+
+/**
+ * 主要查询在 Flyway 迁移后的库上走索引（执行真实的服务与仓库方法，检查生成的 SQL）
+ */
+@QuarkusTest
+class LookupIndexTest {
+
+    @Inject
+    DataSource dataSource;
+
+    @Inject
+    OrgStaffService staffService;
+
+    @Inject
+    OrgStaffPostService staffPostService;
+
+    @Inject
+    OrgPostService postService;
+
+    @Inject
+    OrgStaffMapper staffMapper;
+
+    @Test
+    void staffPost() throws SQLException {
+        OkExplain.assertIndexed(dataSource, () -> staffPostService.findByStaffId(1L));
+        OkExplain.assertIndexed(dataSource, () -> staffPostService.findByPostIds(Set.of(1L, 2L)));
+    }
+
+    @Test
+    void staff() throws SQLException {
+        OkExplain.assertIndexed(dataSource, () -> staffService.getByAccountId(1L));
+        OkExplain.assertIndexed(dataSource, () -> staffService.findPendings(OkPageable.of(0, 10)));
+        //OrgStaffServiceImpl#findByNo
+        OkExplain.assertIndexed(dataSource, () -> staffMapper.find("no", "S001").list());
+    }
+
+    @Test
+    void postByDept() throws SQLException {
+        OkExplain.assertIndexed(dataSource, () -> postService.findByDept(-1L));
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.org;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.okstar.platform.common.core.web.page.OkCountMode;
+import org.okstar.platform.common.core.web.page.OkPageResult;
+import org.okstar.platform.common.core.web.page.OkPageable;
+import org.okstar.platform.common.datasource.OkCountCache;
+import org.okstar.platform.org.domain.OrgPost;
+import org.okstar.platform.org.mapper.OrgPostMapper;
+import org.okstar.platform.org.service.OrgPostService;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static io.smallrye.common.constraint.Assert.assertTrue;
+
+/**
+ * 分页总数的三种统计方式，以及总数缓存的命中与失效
+ */
+@QuarkusTest
+class PageCountModeTest {
+
+    @Inject
+    OrgPostMapper postMapper;
+
+    @Inject
+    OrgPostService postService;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Test
+    void exact() {
+        add();
+        long total = postMapper.count();
+        OkPageResult<OrgPost> page = postMapper.findPage(OkPageable.of(0, 2, OkCountMode.exact));
+        assertTrue(page.getTotalCount() == total);
+        assertTrue(page.getPageCount() == (total + 1) / 2);
+    }
+
+    @Test
+    void none() {
+        add();
+        add();
+        long total = postMapper.count();
+
+        OkPageResult<OrgPost> page = postMapper.findPage(OkPageable.of(0, (int) total - 1, OkCountMode.none));
+        assertTrue(page.getTotalCount() == -1 && page.getPageCount() == -1);
+        assertTrue(page.getList().size() == total - 1 && page.isHasNext());
+
+        page = postMapper.findPage(OkPageable.of(0, (int) total, OkCountMode.none));
+        assertTrue(page.getList().size() == total && !page.isHasNext());
+    }
+
+    @Test
+    void cachedHitAndInvalidate() throws SQLException {
+        OrgPost post = add();
+        long count = cached();
+
+        //绕过实体监听删除，缓存仍返回旧的总数
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement delete = connection.prepareStatement("delete from org_post where id = ?")) {
+            delete.setLong(1, post.id);
+            delete.executeUpdate();
+        }
+        assertTrue(cached() == count);
+        assertTrue(postMapper.count() == count - 1);
+
+        OkCountCache.invalidate(OrgPost.class);
+        assertTrue(cached() == count - 1);
+
+        //经过实体监听的写入在提交后失效
+        add();
+        assertTrue(cached() == count);
+    }
+
+    @Test
+    void invalidatedAfterCommit() throws Exception {
+        long before = cached();
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try {
+            long during = QuarkusTransaction.requiringNew().call(() -> {
+                postMapper.persistAndFlush(newPost());
+                //提交前另一个事务读取并缓存了旧的总数
+                return other.submit(() -> QuarkusTransaction.requiringNew().call(this::cached)).get();
+            });
+            assertTrue(during == before);
+        } finally {
+            other.shutdown();
+        }
+        assertTrue(cached() == before + 1);
+    }
+
+    private long cached() {
+        return postMapper.findPage(OkPageable.of(0, 1, OkCountMode.cached)).getTotalCount();
+    }
+
+    private OrgPost add() {
+        OrgPost post = newPost();
+        postService.save(post);
+        return post;
+    }
+
+    private static OrgPost newPost() {
+        OrgPost post = new OrgPost();
+        post.setNo(UUID.randomUUID().toString());
+        post.setName(UUID.randomUUID().toString());
+        post.setDeptId(1L);
+        return post;
+    }
+}
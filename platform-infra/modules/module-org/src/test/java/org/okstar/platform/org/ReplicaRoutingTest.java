@@ -0,0 +1,202 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.org;
+
+import io.agroal.api.AgroalDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.okstar.platform.common.core.web.page.OkPageable;
+import org.okstar.platform.common.datasource.routing.OkReplicaMonitor;
+import org.okstar.platform.org.domain.OrgPost;
+import org.okstar.platform.org.service.OrgPostService;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static io.smallrye.common.constraint.Assert.assertTrue;
+
+/**
+ * 读写分离：两个独立的 H2 库分别作为主库和从库，同一行在从库中改为不同的名称，
+ * 由读到的名称判断会话路由到哪个库
+ */
+@QuarkusTest
+@TestProfile(ReplicaRoutingTest.Replica.class)
+class ReplicaRoutingTest {
+
+    public static class Replica implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "quarkus.hibernate-orm.multitenant", "DATABASE",
+                    "quarkus.datasource.\"slave\".db-kind", "h2",
+                    "quarkus.datasource.\"slave\".username", "sa",
+                    "quarkus.datasource.\"slave\".password", "",
+                    "quarkus.datasource.\"slave\".jdbc.url", "jdbc:h2:mem:okstar-org-slave;DB_CLOSE_DELAY=-1",
+                    "okstar.datasource.slave.enabled", "true");
+        }
+    }
+
+    private static final String REPLICA = "replica";
+
+    @Inject
+    AgroalDataSource primary;
+
+    @Inject
+    @DataSource(OkReplicaMonitor.SLAVE)
+    AgroalDataSource slave;
+
+    @Inject
+    OrgPostService postService;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Inject
+    MeterRegistry registry;
+
+    /**
+     * 多租户时 Hibernate 只在主库建表，从库按主库的结构建表
+     */
+    @BeforeEach
+    void schema() throws SQLException {
+        try (Connection from = primary.getConnection();
+             Connection to = slave.getConnection();
+             ResultSet tables = to.getMetaData().getTables(null, null, "ORG_POST", null)) {
+            if (tables.next()) {
+                return;
+            }
+            try (Statement script = from.createStatement();
+                 ResultSet rs = script.executeQuery("SCRIPT NODATA");
+                 Statement ddl = to.createStatement()) {
+                while (rs.next()) {
+                    String sql = rs.getString(1);
+                    if (!sql.startsWith("--")) {
+                        ddl.execute(sql);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void readGoesToReplica() throws SQLException {
+        OrgPost post = replicated();
+        double routed = routes("slave");
+
+        assertTrue(names().contains(REPLICA));
+        assertTrue(routes("slave") > routed);
+        //未标注 @Slave 的方法读主库
+        assertTrue(post.getName().equals(postService.get(post.id).getName()));
+    }
+
+    @Test
+    void writeTransactionStaysOnPrimary() throws SQLException {
+        OrgPost post = replicated();
+
+        //事务中先访问过主库，会话已打开，之后的 @Slave 方法仍读主库
+        List<String> names = QuarkusTransaction.requiringNew().call(() -> {
+            postService.get(post.id);
+            return names();
+        });
+        assertTrue(names.contains(post.getName()));
+        assertTrue(!names.contains(REPLICA));
+    }
+
+    @Test
+    void writeEvictsReplicaCache() throws SQLException {
+        OrgPost post = replicated();
+
+        names();
+        assertTrue(cached(post.id, OkReplicaMonitor.SLAVE));
+
+        post.setName(UUID.randomUUID().toString());
+        postService.save(post);
+        assertTrue(!cached(post.id, OkReplicaMonitor.SLAVE));
+    }
+
+    private List<String> names() {
+        List<String> names = new ArrayList<>();
+        postService.findPage(OkPageable.of(0, 1000)).getList().forEach(p -> names.add(p.getName()));
+        return names;
+    }
+
+    /**
+     * 在主库新增岗位，复制到从库并把从库中的名称改为 {@link #REPLICA}
+     */
+    private OrgPost replicated() throws SQLException {
+        OrgPost post = new OrgPost();
+        post.setNo(UUID.randomUUID().toString());
+        post.setName(UUID.randomUUID().toString());
+        post.setDeptId(1L);
+        postService.save(post);
+
+        try (Connection from = primary.getConnection();
+             Connection to = slave.getConnection();
+             PreparedStatement select = from.prepareStatement("select * from org_post where id = ?")) {
+            select.setLong(1, post.id);
+            try (ResultSet rs = select.executeQuery()) {
+                assertTrue(rs.next());
+                ResultSetMetaData meta = rs.getMetaData();
+                List<String> columns = new ArrayList<>();
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    columns.add(meta.getColumnName(i));
+                }
+                String sql = "insert into org_post(" + String.join(",", columns) + ") values ("
+                        + String.join(",", columns.stream().map(c -> "?").toList()) + ")";
+                try (PreparedStatement insert = to.prepareStatement(sql)) {
+                    for (int i = 1; i <= columns.size(); i++) {
+                        insert.setObject(i, rs.getObject(i));
+                    }
+                    insert.executeUpdate();
+                }
+            }
+            try (PreparedStatement update = to.prepareStatement("update org_post set name = ? where id = ?")) {
+                update.setString(1, REPLICA);
+                update.setLong(2, post.id);
+                update.executeUpdate();
+            }
+        }
+        return post;
+    }
+
+    private boolean cached(Long id, String tenant) {
+        SessionFactoryImplementor factory = sessionFactory.unwrap(SessionFactoryImplementor.class);
+        EntityPersister persister = factory.getMappingMetamodel().getEntityDescriptor(OrgPost.class);
+        EntityDataAccess access = persister.getCacheAccessStrategy();
+        return access.contains(access.generateCacheKey(id, persister, factory, tenant));
+    }
+
+    private double routes(String route) {
+        return registry.counter("okstar.datasource.route", "route", route).count();
+    }
+}
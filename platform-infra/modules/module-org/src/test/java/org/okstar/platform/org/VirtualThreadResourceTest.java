@@ -0,0 +1,108 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.org;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.smallrye.common.constraint.Assert;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 以 -Dokstar.virtual-threads 构建（RESTEasy Reactive）时，并发请求 @RunOnVirtualThread 的 RPC 端点，
+ * 每个请求都在虚拟线程上处理；同时阻塞中的请求数可以超过工作线程池的上限（这里限制为 8）。
+ * 默认的 Classic 构建忽略该注解，跳过本测试。
+ */
+@QuarkusTest
+@TestProfile(VirtualThreadResourceTest.SmallWorkerPool.class)
+@EnabledForJreRange(min = JRE.JAVA_21)
+@EnabledIfSystemProperty(named = "okstar.virtual-threads", matches = ".*")
+class VirtualThreadResourceTest {
+
+    private static final int REQUESTS = Integer.getInteger("okstar.load.requests", 200);
+
+    @TestHTTPResource("rpc/OrgRpc/current")
+    URI current;
+
+    @TestHTTPResource("test/blocking")
+    URI blocking;
+
+    @ConfigProperty(name = "quarkus.thread-pool.max-threads")
+    int maxThreads;
+
+    public static class SmallWorkerPool implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("quarkus.thread-pool.max-threads", "8");
+        }
+    }
+
+    @Test
+    void rpcRunsOnVirtualThreads() {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(current).GET().build();
+
+        List<CompletableFuture<HttpResponse<String>>> futures = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+        for (CompletableFuture<HttpResponse<String>> future : futures) {
+            HttpResponse<String> response = future.join();
+            Assert.assertTrue(response.statusCode() == 200);
+            Assert.assertTrue("true".equals(response.headers().firstValue(VirtualThreadProbe.HEADER).orElse(null)));
+        }
+    }
+
+    @Test
+    void blockedRequestsExceedWorkerPool() throws InterruptedException {
+        BlockingProbeResource.reset();
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(blocking).GET().build();
+
+        int requests = maxThreads * 4;
+        List<CompletableFuture<HttpResponse<String>>> futures = new ArrayList<>(requests);
+        try {
+            for (int i = 0; i < requests; i++) {
+                futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+            //全部请求都已进入端点并阻塞，而工作线程只有 maxThreads 个
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+            while (BlockingProbeResource.PEAK.get() < requests && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            Assert.assertTrue(BlockingProbeResource.PEAK.get() > maxThreads);
+        } finally {
+            BlockingProbeResource.release();
+        }
+        for (CompletableFuture<HttpResponse<String>> future : futures) {
+            Assert.assertTrue(future.join().statusCode() == 200);
+        }
+        Assert.assertTrue(BlockingProbeResource.IN_FLIGHT.get() == 0);
+    }
+}
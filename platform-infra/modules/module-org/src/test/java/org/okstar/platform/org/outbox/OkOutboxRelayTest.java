@@ -0,0 +1,144 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.org.outbox;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.common.constraint.Assert;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.okstar.platform.common.datasource.outbox.OkOutbox;
+import org.okstar.platform.common.datasource.outbox.OkOutboxEvent;
+import org.okstar.platform.common.datasource.outbox.OkOutboxRelay;
+
+import java.util.Date;
+
+/**
+ * 发件箱认领、认领过期、退避重试与转入 dead（测试配置关闭了定时投递，由测试调用 relayOnce）
+ */
+@QuarkusTest
+class OkOutboxRelayTest {
+
+    @Inject
+    OkOutbox outbox;
+
+    @Inject
+    OkOutboxRelay relay;
+
+    @Inject
+    TestOutboxHandler handler;
+
+    @Inject
+    EntityManager em;
+
+    @ConfigProperty(name = "okstar.outbox.max-attempts", defaultValue = "10")
+    int maxAttempts;
+
+    @BeforeEach
+    void clear() {
+        QuarkusTransaction.requiringNew().run(() -> em.createQuery("delete from OkOutboxEvent").executeUpdate());
+    }
+
+    @Test
+    void deliverOnceForSameKey() {
+        publish("k-done", "ok");
+        publish("k-done", "ok");
+        Assert.assertTrue(relay.relayOnce() == 1);
+        Assert.assertTrue(relay.relayOnce() == 0);
+
+        OkOutboxEvent event = event("k-done");
+        Assert.assertTrue(event.getStatus() == OkOutboxEvent.Status.done);
+        Assert.assertTrue(event.getAttempts() == 1);
+        Assert.assertTrue(event.getClaimToken() == null);
+        Assert.assertTrue(handler.calls("k-done") == 1);
+    }
+
+    @Test
+    void claimedEventIsSkippedUntilClaimExpires() {
+        publish("k-claim", "ok");
+        //其它节点认领中
+        update("k-claim", "claimToken = 'other', claimUntil = ?2", new Date(System.currentTimeMillis() + 60_000));
+        Assert.assertTrue(relay.relayOnce() == 0);
+        Assert.assertTrue(handler.calls("k-claim") == 0);
+
+        //认领节点宕机，过期后重新认领
+        update("k-claim", "claimUntil = ?2", new Date(System.currentTimeMillis() - 1000));
+        Assert.assertTrue(relay.relayOnce() == 1);
+        Assert.assertTrue(handler.calls("k-claim") == 1);
+        Assert.assertTrue(event("k-claim").getStatus() == OkOutboxEvent.Status.done);
+    }
+
+    @Test
+    void failedEventBacksOff() {
+        publish("k-retry", "fail once");
+        long before = System.currentTimeMillis();
+        Assert.assertTrue(relay.relayOnce() == 1);
+
+        OkOutboxEvent event = event("k-retry");
+        Assert.assertTrue(event.getStatus() == OkOutboxEvent.Status.pending);
+        Assert.assertTrue(event.getAttempts() == 1);
+        Assert.assertTrue(event.getClaimUntil() == null);
+        Assert.assertTrue("fail once".equals(event.getLastError()));
+        //默认退避 2s
+        Assert.assertTrue(event.getNextAt().getTime() >= before + 2000);
+
+        //未到重试时间不会再次投递
+        Assert.assertTrue(relay.relayOnce() == 0);
+        Assert.assertTrue(handler.calls("k-retry") == 1);
+
+        //第二次失败退避翻倍
+        update("k-retry", "nextAt = ?2", new Date(System.currentTimeMillis() - 1000));
+        before = System.currentTimeMillis();
+        Assert.assertTrue(relay.relayOnce() == 1);
+        event = event("k-retry");
+        Assert.assertTrue(event.getAttempts() == 2);
+        Assert.assertTrue(event.getNextAt().getTime() >= before + 4000);
+    }
+
+    @Test
+    void exhaustedEventIsDead() {
+        publish("k-dead", "fail always");
+        update("k-dead", "attempts = ?2", maxAttempts - 1);
+        Assert.assertTrue(relay.relayOnce() == 1);
+
+        OkOutboxEvent event = event("k-dead");
+        Assert.assertTrue(event.getStatus() == OkOutboxEvent.Status.dead);
+        Assert.assertTrue(event.getAttempts() == maxAttempts);
+
+        //dead 事件不再投递
+        update("k-dead", "nextAt = ?2", new Date(System.currentTimeMillis() - 1000));
+        Assert.assertTrue(relay.relayOnce() == 0);
+        Assert.assertTrue(handler.calls("k-dead") == 1);
+    }
+
+    private void publish(String key, String payload) {
+        QuarkusTransaction.requiringNew().run(() -> outbox.publish(TestOutboxHandler.TOPIC, key, payload));
+    }
+
+    private void update(String key, String set, Object value) {
+        QuarkusTransaction.requiringNew().run(() -> em.createQuery("update OkOutboxEvent set " + set + " where eventKey = ?1")
+                .setParameter(1, key)
+                .setParameter(2, value)
+                .executeUpdate());
+    }
+
+    private OkOutboxEvent event(String key) {
+        return QuarkusTransaction.requiringNew().call(() -> em.createQuery("from OkOutboxEvent where eventKey = ?1", OkOutboxEvent.class)
+                .setParameter(1, key)
+                .getSingleResult());
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.org.outbox;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.okstar.platform.common.datasource.outbox.OkOutboxHandler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 测试处理器：内容以 fail 开头时抛出异常，记录每个键的投递次数
+ */
+@ApplicationScoped
+public class TestOutboxHandler implements OkOutboxHandler<String> {
+
+    public static final String TOPIC = "test.outbox";
+
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+    @Override
+    public String topic() {
+        return TOPIC;
+    }
+
+    @Override
+    public Class<String> type() {
+        return String.class;
+    }
+
+    @Override
+    public void handle(String key, String payload) {
+        calls.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+        if (payload.startsWith("fail")) {
+            throw new IllegalStateException(payload);
+        }
+    }
+
+    public int calls(String key) {
+        AtomicInteger count = calls.get(key);
+        return count == null ? 0 : count.get();
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.org.rbac.service.impl;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.common.constraint.Assert;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.okstar.platform.org.domain.OrgStaff;
+import org.okstar.platform.org.domain.OrgStaffPost;
+import org.okstar.platform.org.rbac.domain.OrgRbacResource;
+import org.okstar.platform.org.rbac.domain.OrgRbacRole;
+import org.okstar.platform.org.rbac.service.OrgRbacClosureService;
+import org.okstar.platform.org.rbac.service.OrgRbacRoleService;
+import org.okstar.platform.org.rbac.service.OrgRbacUserService;
+import org.okstar.platform.org.staff.service.OrgStaffPostService;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 增量维护的闭包与按源数据重建的结果一致
+ */
+@QuarkusTest
+class OrgRbacClosureServiceTest {
+
+    private static final long ACCOUNT = 1001L;
+
+    @Inject
+    OrgRbacClosureService closureService;
+
+    @Inject
+    OrgRbacUserService userService;
+
+    @Inject
+    OrgRbacRoleService roleService;
+
+    @Inject
+    OrgStaffPostService staffPostService;
+
+    @Inject
+    EntityManager em;
+
+    @Test
+    void incrementalMatchesRebuild() {
+        long post = 7001L;
+        Long direct = QuarkusTransaction.requiringNew().call(() -> role(null));
+        Long postRole = QuarkusTransaction.requiringNew().call(() -> role(post));
+        Long x = QuarkusTransaction.requiringNew().call(() -> resource(101L));
+        Long y = QuarkusTransaction.requiringNew().call(() -> resource(102L));
+        Long z = QuarkusTransaction.requiringNew().call(() -> resource(103L));
+        Long staff = QuarkusTransaction.requiringNew().call(this::staff);
+
+        //直接角色授予 x、y，岗位角色授予 y、z
+        userService.bindRole(ACCOUNT, direct);
+        roleService.grant(direct, x);
+        roleService.grant(direct, y);
+        roleService.grant(postRole, y);
+        roleService.grant(postRole, z);
+        Assert.assertTrue(closureService.canAccess(ACCOUNT, 101L));
+        Assert.assertTrue(!closureService.canAccess(ACCOUNT, 103L));
+
+        //入职：y 有两条路径
+        Long staffPost = QuarkusTransaction.requiringNew().call(() -> join(staff, post));
+        Assert.assertTrue(closureService.canAccess(ACCOUNT, 103L));
+        roleService.revoke(direct, y);
+        Assert.assertTrue(closureService.canAccess(ACCOUNT, 102L));
+
+        //离职：y、z 随岗位角色一起消失
+        QuarkusTransaction.requiringNew().run(() -> staffPostService.deleteById(staffPost));
+        Assert.assertTrue(!closureService.canAccess(ACCOUNT, 102L));
+        Assert.assertTrue(!closureService.canAccess(ACCOUNT, 103L));
+        Assert.assertTrue(closureService.canAccess(ACCOUNT, 101L));
+
+        //重新入职并把直接角色换成岗位角色：岗位角色有两条路径
+        QuarkusTransaction.requiringNew().call(() -> join(staff, post));
+        userService.setRoles(ACCOUNT, Set.of(postRole));
+        roleService.grant(direct, y);
+        Assert.assertTrue(!closureService.canAccess(ACCOUNT, 101L));
+
+        Set<String> incremental = snapshot();
+        closureService.rebuild();
+        Assert.assertTrue(incremental.equals(snapshot()));
+
+        //重建后的闭包继续增量维护
+        userService.unbindRole(ACCOUNT, postRole);
+        Assert.assertTrue(closureService.canAccess(ACCOUNT, 103L));
+        incremental = snapshot();
+        closureService.rebuild();
+        Assert.assertTrue(incremental.equals(snapshot()));
+    }
+
+    @Test
+    void batchJoinMatchesRebuild() {
+        long account = 1002L;
+        Long first = QuarkusTransaction.requiringNew().call(() -> role(7101L));
+        Long second = QuarkusTransaction.requiringNew().call(() -> role(7102L));
+        Long a = QuarkusTransaction.requiringNew().call(() -> resource(201L));
+        Long b = QuarkusTransaction.requiringNew().call(() -> resource(202L));
+        Long staff = QuarkusTransaction.requiringNew().call(() -> staff(account));
+        roleService.grant(first, a);
+        roleService.grant(second, b);
+
+        //批量写入后按帐号一次调整闭包，并记录创建人
+        QuarkusTransaction.requiringNew().run(() -> staffPostService.createAll(
+                List.of(staffPost(staff, 7101L), staffPost(staff, 7102L)), 9L));
+        Assert.assertTrue(closureService.canAccess(account, 201L));
+        Assert.assertTrue(closureService.canAccess(account, 202L));
+        Assert.assertTrue(staffPostService.findByStaffId(staff).stream()
+                .allMatch(sp -> Long.valueOf(9L).equals(sp.getCreateBy())));
+
+        Set<String> incremental = snapshot();
+        closureService.rebuild();
+        Assert.assertTrue(incremental.equals(snapshot()));
+    }
+
+    private Long role(Long postId) {
+        OrgRbacRole role = new OrgRbacRole();
+        role.setName("role-" + postId);
+        role.setPostId(postId);
+        em.persist(role);
+        return role.id;
+    }
+
+    private Long resource(Long menuId) {
+        OrgRbacResource resource = new OrgRbacResource();
+        resource.setMenuId(menuId);
+        resource.setCode("menu:" + menuId);
+        em.persist(resource);
+        return resource.id;
+    }
+
+    private Long staff() {
+        return staff(ACCOUNT);
+    }
+
+    private Long staff(Long accountId) {
+        OrgStaff staff = new OrgStaff();
+        staff.setAccountId(accountId);
+        em.persist(staff);
+        return staff.id;
+    }
+
+    private Long join(Long staffId, Long postId) {
+        OrgStaffPost staffPost = staffPost(staffId, postId);
+        staffPostService.save(staffPost);
+        return staffPost.id;
+    }
+
+    private static OrgStaffPost staffPost(Long staffId, Long postId) {
+        OrgStaffPost staffPost = new OrgStaffPost();
+        staffPost.setStaffId(staffId);
+        staffPost.setPostId(postId);
+        return staffPost;
+    }
+
+    /**
+     * 闭包中路径数为正的行
+     */
+    private Set<String> snapshot() {
+        Set<String> rows = new TreeSet<>();
+        em.createQuery("select ar.accountId, ar.roleId, ar.paths from OrgRbacAccountRole ar where ar.paths > 0", Object[].class)
+                .getResultList()
+                .forEach(row -> rows.add("role:" + row[0] + ":" + row[1] + "=" + row[2]));
+        em.createQuery("select ar.accountId, ar.resourceId, ar.paths from OrgRbacAccountResource ar where ar.paths > 0", Object[].class)
+                .getResultList()
+                .forEach(row -> rows.add("resource:" + row[0] + ":" + row[1] + "=" + row[2]));
+        return rows;
+    }
+}
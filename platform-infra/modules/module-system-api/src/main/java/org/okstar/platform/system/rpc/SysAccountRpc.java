@@ -15,6 +15,7 @@ package org.okstar.platform.system.rpc;
 
 import jakarta.ws.rs.*;
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+import org.okstar.platform.common.core.annotation.OkPublic;
 import org.okstar.platform.common.core.defined.AccountDefines;
 import org.okstar.platform.common.rpc.RpcResult;
 import org.okstar.platform.system.dto.SysAccountBindDTO;
@@ -25,6 +26,7 @@ import org.okstar.platform.system.vo.SysAccount0;
 import java.util.List;
 
 
+@OkPublic
 @Path("rpc/SysAccountRpc")
 @RegisterRestClient
 public interface SysAccountRpc {
@@ -60,6 +62,13 @@ public interface SysAccountRpc {
     @Path("findById/{id}")
     RpcResult<SysAccount0> findById(@PathParam("id") Long id);
 
+    /**
+     * 批量查询，不存在的帐号不返回
+     */
+    @POST
+    @Path("findByIds")
+    RpcResult<List<SysAccount0>> findByIds(List<Long> ids);
+
     @GET
     @Path("findByAccount/{account}")
     RpcResult<SysAccount0> findByAccount(@PathParam("account") String account);
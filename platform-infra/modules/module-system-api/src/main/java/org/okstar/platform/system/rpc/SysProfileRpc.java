@@ -15,6 +15,7 @@ package org.okstar.platform.system.rpc;
 
 
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+import org.okstar.platform.common.core.annotation.OkPublic;
 import org.okstar.platform.system.dto.SysProfileDTO;
 
 import jakarta.ws.rs.GET;
@@ -22,6 +23,7 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 
 @RegisterRestClient
+@OkPublic
 @Path("rpc/SysProfileRpc")
 public interface SysProfileRpc {
 
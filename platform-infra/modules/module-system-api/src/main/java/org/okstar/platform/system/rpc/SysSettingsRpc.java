@@ -16,9 +16,11 @@ package org.okstar.platform.system.rpc;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+import org.okstar.platform.common.core.annotation.OkPublic;
 import org.okstar.platform.system.dto.SysSetGlobalDTO;
 
 
+@OkPublic
 @Path("rpc/SysSettingsRpc")
 @RegisterRestClient
 public interface SysSettingsRpc {
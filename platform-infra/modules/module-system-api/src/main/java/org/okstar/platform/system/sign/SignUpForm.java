@@ -51,6 +51,9 @@ public class SignUpForm extends Req {
     //名
     String lastName;
 
+    //人员已存在（入职时注册），注册后不再创建人员
+    boolean staffed;
+
     public String getName() {
         return OkStringUtil.combinePeopleName(language, firstName, lastName);
     }
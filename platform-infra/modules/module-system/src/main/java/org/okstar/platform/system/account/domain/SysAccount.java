@@ -16,6 +16,7 @@ package org.okstar.platform.system.account.domain;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.Data;
 import org.okstar.platform.common.core.defined.AccountDefines;
 import org.okstar.platform.system.domain.BaseEntity;
@@ -66,4 +67,10 @@ public class SysAccount extends BaseEntity {
 
 
     private String cert;
+
+    /**
+     * 乐观锁版本
+     */
+    @Version
+    private Long version;
 }
@@ -14,6 +14,8 @@
 package org.okstar.platform.system.account.domain;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Data;
 import org.okstar.platform.common.core.defined.AccountDefines;
 import org.okstar.platform.common.datasource.domain.OkEntity;
@@ -27,6 +29,7 @@ import jakarta.persistence.Enumerated;
  */
 @Data
 @Entity
+@Table(uniqueConstraints = {@UniqueConstraint(columnNames = {"bindType", "bindValue"})})
 public class SysAccountBind extends OkEntity {
 
     /**
@@ -13,8 +13,8 @@
 
 package org.okstar.platform.system.account.mapper;
 
-import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.okstar.platform.common.datasource.OkRepository;
 import org.okstar.platform.system.account.domain.SysAccount;
 
 
@@ -26,7 +26,7 @@ import org.okstar.platform.system.account.domain.SysAccount;
  * 
  */
 @ApplicationScoped
-public class SysAccountMapper implements PanacheRepository<SysAccount>
+public class SysAccountMapper implements OkRepository<SysAccount>
 {
 
 }
@@ -0,0 +1,52 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.system.account.outbox;
+
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+import org.okstar.platform.auth.form.BackUserForm;
+import org.okstar.platform.auth.rpc.PassportRpc;
+import org.okstar.platform.common.datasource.outbox.OkOutboxHandler;
+import org.okstar.platform.common.rpc.RpcAssert;
+
+/**
+ * 注册后初始化认证帐号，已存在时认证模块直接返回
+ */
+@ApplicationScoped
+public class SignUpBackUserHandler implements OkOutboxHandler<BackUserForm> {
+
+    public static final String TOPIC = "sign-up.back-user";
+
+    @Inject
+    @RestClient
+    PassportRpc passportRpc;
+
+    @Override
+    public String topic() {
+        return TOPIC;
+    }
+
+    @Override
+    public Class<BackUserForm> type() {
+        return BackUserForm.class;
+    }
+
+    @Override
+    public void handle(String key, BackUserForm form) {
+        RpcAssert.isTrue(passportRpc.initUser(form));
+        Log.infof("Added user:%s", form.getUsername());
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.system.account.outbox;
+
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+import org.okstar.platform.common.datasource.outbox.OkOutboxHandler;
+import org.okstar.platform.common.rpc.RpcAssert;
+import org.okstar.platform.org.rpc.OrgStaffRpc;
+
+/**
+ * 注册后创建人员，组织模块按帐号去重，重复投递不会创建多个人员
+ */
+@ApplicationScoped
+public class SignUpStaffHandler implements OkOutboxHandler<SignUpStaff> {
+
+    public static final String TOPIC = "sign-up.staff";
+
+    @Inject
+    @RestClient
+    OrgStaffRpc orgStaffRpc;
+
+    @Override
+    public String topic() {
+        return TOPIC;
+    }
+
+    @Override
+    public Class<SignUpStaff> type() {
+        return SignUpStaff.class;
+    }
+
+    @Override
+    public void handle(String key, SignUpStaff staff) {
+        Boolean added = RpcAssert.isTrue(orgStaffRpc.addForAccount(staff.getAccountId(), staff.getFragment()));
+        Log.infof("保存到人员帐号[%s]=>%s", key, added);
+    }
+}
@@ -14,6 +14,7 @@
 package org.okstar.platform.system.account.resource;
 
 import io.quarkus.security.Authenticated;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import org.okstar.platform.common.core.defined.AccountDefines;
 import org.okstar.platform.common.core.web.bean.Req;
@@ -35,6 +36,7 @@ import java.util.Optional;
  */
 @Authenticated
 @Path("/account")
+@RunOnVirtualThread
 public class SysAccountResource extends OkCommonResource {
 
     @Inject
@@ -14,6 +14,7 @@
 package org.okstar.platform.system.account.resource;
 
 import io.quarkus.security.Authenticated;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import org.okstar.platform.common.core.web.bean.Req;
 import org.okstar.platform.common.core.web.bean.Res;
@@ -27,6 +28,7 @@ import jakarta.ws.rs.Path;
 
 @Authenticated
 @Path("/profile")
+@RunOnVirtualThread
 public class SysProfileResource extends OkCommonResource {
 
     @Inject
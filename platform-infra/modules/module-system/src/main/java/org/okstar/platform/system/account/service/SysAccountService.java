@@ -15,20 +15,23 @@ package org.okstar.platform.system.account.service;
 
 
 import org.okstar.platform.common.core.defined.AccountDefines;
-import org.okstar.platform.common.datasource.OkService;
+import org.okstar.platform.common.datasource.OkCursorService;
 import org.okstar.platform.system.account.domain.SysAccount;
 import org.okstar.platform.system.account.domain.SysAccountBind;
 import org.okstar.platform.system.account.domain.SysAccountPassword;
+import org.okstar.platform.system.dto.SysAccountBindDTO;
 import org.okstar.platform.system.sign.SignUpForm;
 import org.okstar.platform.system.sign.SignUpResult;
+import org.okstar.platform.system.vo.SysAccount0;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * 用户业务层
  */
-public interface SysAccountService extends OkService<SysAccount> {
+public interface SysAccountService extends OkCursorService<SysAccount> {
 
 
     SysAccount findByBind( AccountDefines.BindType bindType, String iso, String bindValue);
@@ -49,4 +52,17 @@ public interface SysAccountService extends OkService<SysAccount> {
     List<SysAccountBind> listBind(Long id);
 
     void setCert(Long id, String cert);
+
+    /**
+     * 以下为只读的 DTO 投影查询，不加载实体
+     */
+    SysAccount0 get0(Long id);
+
+    Optional<SysAccount0> findByUsername0(String username);
+
+    List<SysAccount0> list0(Collection<Long> ids);
+
+    SysAccount0 findByBind0(AccountDefines.BindType bindType, String iso, String bindValue);
+
+    List<SysAccountBindDTO> listBind0(Long id);
 }
@@ -17,11 +17,12 @@ import com.google.i18n.phonenumbers.NumberParseException;
 import com.google.i18n.phonenumbers.PhoneNumberUtil;
 import com.google.i18n.phonenumbers.Phonenumber;
 import io.quarkus.logging.Log;
-import io.quarkus.panache.common.Page;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.persistence.PersistenceException;
 import jakarta.transaction.Transactional;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.okstar.platform.auth.form.BackUserForm;
 import org.okstar.platform.common.core.defined.AccountDefines;
 import org.okstar.platform.common.core.exception.OkRuntimeException;
 import org.okstar.platform.common.core.exception.user.OkUserException;
@@ -29,19 +30,33 @@ import org.okstar.platform.common.core.utils.OkAssert;
 import org.okstar.platform.common.core.utils.OkDateUtils;
 import org.okstar.platform.common.core.utils.OkMailUtil;
 import org.okstar.platform.common.core.utils.OkPhoneUtils;
+import org.okstar.platform.common.core.web.page.OkCursorPageResult;
+import org.okstar.platform.common.core.web.page.OkCursorPageable;
 import org.okstar.platform.common.core.web.page.OkPageResult;
 import org.okstar.platform.common.core.web.page.OkPageable;
 import org.okstar.platform.common.datasource.OkAbsService;
+import org.okstar.platform.common.datasource.OkKeyset;
+import org.okstar.platform.common.datasource.OkProjection;
+import org.okstar.platform.common.datasource.OkRepository;
+import org.okstar.platform.common.datasource.annotation.Slave;
 import org.okstar.platform.common.datasource.domain.OkEntity;
+import org.okstar.platform.common.datasource.outbox.OkOutbox;
+import org.okstar.platform.org.dto.OrgStaffFragment;
 import org.okstar.platform.system.account.domain.SysAccount;
 import org.okstar.platform.system.account.domain.SysAccountBind;
 import org.okstar.platform.system.account.domain.SysAccountPassword;
 import org.okstar.platform.system.account.mapper.SysAccountBindMapper;
 import org.okstar.platform.system.account.mapper.SysAccountMapper;
 import org.okstar.platform.system.account.mapper.SysAccountPasswordMapper;
+import org.okstar.platform.system.account.outbox.SignUpBackUserHandler;
+import org.okstar.platform.system.account.outbox.SignUpStaff;
+import org.okstar.platform.system.account.outbox.SignUpStaffHandler;
+import org.okstar.platform.system.dto.SysAccountBindDTO;
 import org.okstar.platform.system.sign.SignUpForm;
 import org.okstar.platform.system.sign.SignUpResult;
+import org.okstar.platform.system.vo.SysAccount0;
 
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
@@ -56,12 +71,18 @@ import static com.google.i18n.phonenumbers.PhoneNumberUtil.PhoneNumberFormat.INT
 @ApplicationScoped
 public class SysAccountServiceImpl extends OkAbsService implements SysAccountService {
 
+    private static final OkProjection<SysAccount0> ACCOUNT0 = OkProjection.of(SysAccount0.class);
+
+    private static final OkProjection<SysAccountBindDTO> BIND0 = OkProjection.of(SysAccountBindDTO.class);
+
     @Inject
     SysAccountMapper sysAccountMapper;
     @Inject
     SysAccountBindMapper sysAccountBindMapper;
     @Inject
     SysAccountPasswordMapper sysAccountPasswordMapper;
+    @Inject
+    OkOutbox outbox;
 
 
     @Override
@@ -95,6 +116,15 @@ public class SysAccountServiceImpl extends OkAbsService implements SysAccountSer
      */
     @Override
     public SysAccount findByBind(AccountDefines.BindType type,String iso, String value) {
+        return findBindAccountId(type, iso, value).map(this::get).orElse(null);
+    }
+
+    @Override
+    public SysAccount0 findByBind0(AccountDefines.BindType type, String iso, String value) {
+        return findBindAccountId(type, iso, value).map(this::get0).orElse(null);
+    }
+
+    private Optional<Long> findBindAccountId(AccountDefines.BindType type, String iso, String value) {
         Log.infof("findByBind type:%s value:%s", type, value);
 
         String bindValue = value;
@@ -103,18 +133,15 @@ public class SysAccountServiceImpl extends OkAbsService implements SysAccountSer
             Log.infof("bindValue=%S", bindValue);
         }
 
-        List<SysAccountBind> list = sysAccountBindMapper.list(
-                "bindType = ?1 and bindValue = ?2",
-                type,
-                bindValue);
-        if (list.isEmpty()) {
-            return null;
-        }
-
-        SysAccountBind accountBind = list.get(0);
-        Log.infof("bind=>%s", accountBind);
-
-        return get(accountBind.getAccountId());
+        Optional<Long> accountId = sysAccountBindMapper.getEntityManager()
+                .createQuery("select accountId from SysAccountBind where bindType = ?1 and bindValue = ?2", Long.class)
+                .setParameter(1, type)
+                .setParameter(2, bindValue)
+                .setMaxResults(1)
+                .getResultStream()
+                .findFirst();
+        Log.infof("bind=>%s", accountId);
+        return accountId;
     }
 
     @Override
@@ -172,7 +199,15 @@ public class SysAccountServiceImpl extends OkAbsService implements SysAccountSer
                 }
             }
         }
-        sysAccountBindMapper.persist(bind);
+        try {
+            //并发注册同一帐号时由唯一约束 (bindType, bindValue) 拦截
+            sysAccountBindMapper.persistAndFlush(bind);
+        } catch (PersistenceException e) {
+            if (OkRepository.isConstraintViolation(e)) {
+                throw new OkUserException("The account is existed");
+            }
+            throw e;
+        }
 
         /*
           保存密码
@@ -183,6 +218,34 @@ public class SysAccountServiceImpl extends OkAbsService implements SysAccountSer
         pwd.setPassword(signUpForm.getPassword());
         sysAccountPasswordMapper.persist(pwd);
 
+        /*
+          人员与认证帐号在提交后由发件箱异步创建；
+          认证帐号创建前登录时，由认证模块按系统帐号密码补建，见 PassportServiceImpl#signIn；
+          入职时注册的帐号由组织模块关联到已有人员，不再创建人员
+         */
+        if (!signUpForm.isStaffed()) {
+            OrgStaffFragment staff = new OrgStaffFragment();
+            staff.setName(signUpForm.getName());
+            staff.setFirstName(signUpForm.getFirstName());
+            staff.setLastName(signUpForm.getLastName());
+            staff.setIso(signUpForm.getIso());
+            switch (signUpForm.getAccountType()) {
+                case email -> staff.setEmail(signUpForm.getAccount());
+                case phone -> staff.setPhone(signUpForm.getAccount());
+            }
+            outbox.publish(SignUpStaffHandler.TOPIC, SignUpStaffHandler.TOPIC + ":" + sysAccount.id,
+                    new SignUpStaff(sysAccount.id, staff));
+        }
+
+        BackUserForm backUser = BackUserForm.builder()
+                .accountId(sysAccount.id)
+                .username(sysAccount.getUsername())
+                .firstName(signUpForm.getFirstName())
+                .lastName(signUpForm.getLastName())
+                .email(signUpForm.getAccountType() == AccountDefines.BindType.email ? signUpForm.getAccount() : null)
+                .build();
+        outbox.publish(SignUpBackUserHandler.TOPIC, SignUpBackUserHandler.TOPIC + ":" + sysAccount.id, backUser);
+
         return SignUpResult.builder()
                 .username(sysAccount.getUsername())
                 .userId(sysAccount.id)
@@ -190,7 +253,7 @@ public class SysAccountServiceImpl extends OkAbsService implements SysAccountSer
     }
 
     @Override
-    public synchronized void signDown(Long accountId) {
+    public void signDown(Long accountId) {
         SysAccount account = get(accountId);
         if (account == null) {
             //已删除
@@ -234,13 +297,15 @@ public class SysAccountServiceImpl extends OkAbsService implements SysAccountSer
 
 
     @Override
+    @Slave
     public OkPageResult<SysAccount> findPage(OkPageable pageable) {
-        var all = sysAccountMapper.findAll();
-        var query = all.page(Page.of(pageable.getPageIndex(), pageable.getPageSize()));
-        return OkPageResult.build(
-                query.list(),
-                query.count(),
-                query.pageCount());
+        return sysAccountMapper.findPage(pageable);
+    }
+
+    @Override
+    @Slave
+    public OkCursorPageResult<SysAccount> findPage(OkCursorPageable pageable) {
+        return sysAccountMapper.findPage(pageable, OkKeyset.asc(OkKeyset.ID));
     }
 
     @Override
@@ -254,6 +319,29 @@ public class SysAccountServiceImpl extends OkAbsService implements SysAccountSer
         return sysAccountBindMapper.find("accountId", id).list();
     }
 
+    @Override
+    public SysAccount0 get0(Long id) {
+        return sysAccountMapper.findProjectedFirst(ACCOUNT0, "id", id).orElse(null);
+    }
+
+    @Override
+    public Optional<SysAccount0> findByUsername0(String username) {
+        return sysAccountMapper.findProjectedFirst(ACCOUNT0, "username", username);
+    }
+
+    @Override
+    public List<SysAccount0> list0(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return sysAccountMapper.findProjected(ACCOUNT0, "id in ?1", ids);
+    }
+
+    @Override
+    public List<SysAccountBindDTO> listBind0(Long id) {
+        return sysAccountBindMapper.findProjected(BIND0, "accountId", id);
+    }
+
     @Override
     public void setCert(Long id, String cert) {
         SysAccount account = get(id);
@@ -15,14 +15,18 @@ package org.okstar.platform.system.resource;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
+import org.okstar.platform.common.core.annotation.OkPublic;
 import org.okstar.platform.common.resource.OkCommonResource;
 import org.okstar.platform.system.settings.domain.SysSetGlobal;
 import org.okstar.platform.system.settings.service.SysBasicService;
 
+@OkPublic
 @Path(".well-known")
+@RunOnVirtualThread
 public class OkWellKnownResource extends OkCommonResource {
 
     @Inject
@@ -13,15 +13,13 @@
 
 package org.okstar.platform.system.rpc.impl;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.okstar.platform.common.core.defined.AccountDefines;
 import org.okstar.platform.common.core.exception.OkRuntimeException;
-import org.okstar.platform.common.core.utils.bean.OkBeanUtils;
 import org.okstar.platform.common.rpc.RpcAssert;
 import org.okstar.platform.common.rpc.RpcResult;
-import org.okstar.platform.system.account.domain.SysAccount;
-import org.okstar.platform.system.account.domain.SysAccountBind;
 import org.okstar.platform.system.account.service.SysAccountService;
 import org.okstar.platform.system.dto.SysAccountBindDTO;
 import org.okstar.platform.system.rpc.SysAccountRpc;
@@ -36,6 +34,7 @@ import static org.okstar.platform.common.core.defined.AccountDefines.BindType.ph
 
 
 @ApplicationScoped
+@RunOnVirtualThread
 public class SysAccountRpcImpl implements SysAccountRpc {
 
     @Inject
@@ -74,12 +73,10 @@ public class SysAccountRpcImpl implements SysAccountRpc {
     @Override
     public RpcResult<SysAccount0> findByBind( AccountDefines.BindType type, String iso, String bindValue) {
         try {
-            var sysUser = userService.findByBind(type, iso, bindValue);
-            if (sysUser == null)
+            SysAccount0 dto = userService.findByBind0(type, iso, bindValue);
+            if (dto == null)
                 return RpcResult.<SysAccount0>builder().success(true).build();
 
-            SysAccount0 dto = new SysAccount0();
-            OkBeanUtils.copyPropertiesTo(sysUser, dto);
             return RpcResult.<SysAccount0>builder().data(dto).success(true).build();
         } catch (Exception e) {
             return RpcResult.<SysAccount0>builder().success(false).msg(e.getMessage()).build();
@@ -93,21 +90,22 @@ public class SysAccountRpcImpl implements SysAccountRpc {
 
     @Override
     public RpcResult<SysAccount0> findByUsername(String username) {
-        var sysUser = userService.findByUsername(username);
-        if (sysUser.isEmpty())
+        var dto = userService.findByUsername0(username);
+        if (dto.isEmpty())
             return RpcResult.<SysAccount0>builder().success(true).build();
 
-        SysAccount0 dto = new SysAccount0();
-        OkBeanUtils.copyPropertiesTo(sysUser.get(), dto);
-        return RpcResult.<SysAccount0>builder().data(dto).success(true).build();
+        return RpcResult.<SysAccount0>builder().data(dto.get()).success(true).build();
     }
 
     @Override
     public RpcResult<SysAccount0> findById(Long id) {
-        SysAccount account = userService.get(id);
-        SysAccount0 dto = new SysAccount0();
-        OkBeanUtils.copyPropertiesTo(account, dto);
-        return RpcResult.success(dto);
+        SysAccount0 dto = userService.get0(id);
+        return RpcResult.success(dto == null ? new SysAccount0() : dto);
+    }
+
+    @Override
+    public RpcResult<List<SysAccount0>> findByIds(List<Long> ids) {
+        return RpcResult.success(userService.list0(ids));
     }
 
     @Override
@@ -127,12 +125,6 @@ public class SysAccountRpcImpl implements SysAccountRpc {
 
     @Override
     public RpcResult<List<SysAccountBindDTO>> getBinds(Long id) {
-        List<SysAccountBind> binds = userService.listBind(id);
-        List<SysAccountBindDTO> list = binds.stream().map(e -> {
-            SysAccountBindDTO dto = new SysAccountBindDTO();
-            OkBeanUtils.copyPropertiesTo(e, dto);
-            return dto;
-        }).toList();
-        return RpcResult.success(list);
+        return RpcResult.success(userService.listBind0(id));
     }
 }
@@ -13,6 +13,7 @@
 
 package org.okstar.platform.system.rpc.impl;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.okstar.platform.common.core.utils.bean.OkBeanUtils;
@@ -23,6 +24,7 @@ import org.okstar.platform.system.settings.service.SysBasicService;
 
 
 @ApplicationScoped
+@RunOnVirtualThread
 public class SysSetGlobalRpcImpl implements SysSettingsRpc {
 
     @Inject
@@ -13,7 +13,11 @@
 
 package org.okstar.platform.system.settings.domain;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.Data;
 import org.okstar.platform.system.domain.BaseEntity;
 
@@ -23,11 +27,27 @@ import org.okstar.platform.system.domain.BaseEntity;
  */
 @Data
 @Entity
+@Cacheable
+@Table(uniqueConstraints = {@UniqueConstraint(columnNames = {"scope"})})
 public class SysSetGlobal extends BaseEntity {
+
+    public static final String GLOBAL = "global";
+
+    /**
+     * 唯一键，全局设置只有一行（global）
+     */
+    String scope;
+
     boolean globalEnable;
     boolean verifyAccount;
     String xmppHost;
     int xmppAdminPort;
     String xmppApiSecretKey;
     String stackUrl;
+
+    /**
+     * 乐观锁版本
+     */
+    @Version
+    Long version;
 }
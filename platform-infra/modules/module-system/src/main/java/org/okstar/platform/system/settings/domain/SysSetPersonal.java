@@ -13,7 +13,11 @@
 
 package org.okstar.platform.system.settings.domain;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.Data;
 import org.okstar.platform.system.domain.BaseEntity;
 
@@ -25,8 +29,16 @@ import org.okstar.platform.system.domain.BaseEntity;
  */
 @Data
 @Entity
+@Cacheable
+@Table(uniqueConstraints = {@UniqueConstraint(columnNames = {"accountId"})})
 public class SysSetPersonal extends BaseEntity {
     Long accountId;
     //语言，格式：zh_CN
     String language;
+
+    /**
+     * 乐观锁版本
+     */
+    @Version
+    Long version;
 }
@@ -13,6 +13,7 @@
 
 package org.okstar.platform.system.settings.resource;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import org.okstar.platform.common.core.web.bean.Res;
 import org.okstar.platform.system.account.domain.SysAccount;
@@ -30,6 +31,7 @@ import java.util.List;
 import java.util.Locale;
 
 @Path("settings/basic")
+@RunOnVirtualThread
 public class SysBasicResource extends BaseResource {
 
     @Inject
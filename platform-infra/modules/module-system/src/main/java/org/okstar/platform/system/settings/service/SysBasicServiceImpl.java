@@ -28,7 +28,6 @@ import org.okstar.platform.system.settings.mapper.SysSetGlobalMapper;
 import org.okstar.platform.system.settings.mapper.SysSetPersonalMapper;
 
 import java.util.List;
-import java.util.Optional;
 
 @Transactional
 @ApplicationScoped
@@ -41,7 +40,7 @@ public class SysBasicServiceImpl implements SysBasicService {
 
 
     @Override
-    public synchronized void save(SysSetGlobal setGlobal) {
+    public void save(SysSetGlobal setGlobal) {
         OkAssert.notNull(setGlobal, "id is null");
 
         if (OkStringUtil.isBlank(setGlobal.getXmppHost())) {
@@ -55,6 +54,7 @@ public class SysBasicServiceImpl implements SysBasicService {
         OkAssert.isTrue(setGlobal.getXmppAdminPort() >0 && setGlobal.getXmppAdminPort()<65536, "IM 服务器管理 端非法！");
 
         SysSetGlobal global = get(setGlobal.id);
+        globalMapper.checkVersion(setGlobal.getVersion(), global.getVersion(), global);
         global.setGlobalEnable(setGlobal.isGlobalEnable());
         global.setVerifyAccount(setGlobal.isVerifyAccount());
         global.setXmppHost(setGlobal.getXmppHost());
@@ -65,7 +65,7 @@ public class SysBasicServiceImpl implements SysBasicService {
 
     @Override
     public List<SysSetGlobal> findAll() {
-        return globalMapper.findAll().list();
+        return globalMapper.findAllCacheable().list();
     }
 
     @Override
@@ -89,33 +89,34 @@ public class SysBasicServiceImpl implements SysBasicService {
     }
 
     @Override
-    public synchronized SysSetGlobal findDefaultGlobal() {
-        Optional<SysSetGlobal> first = findAll().stream().findFirst();
-        if (first.isPresent()) return first.get();
-
-        SysSetGlobal global = new SysSetGlobal();
-        global.setGlobalEnable(true);
-        global.setVerifyAccount(false);
-        globalMapper.persist(global);
-        return global;
+    public SysSetGlobal findDefaultGlobal() {
+        return globalMapper.findOrCreate(
+                () -> globalMapper.findCacheable("scope", SysSetGlobal.GLOBAL).firstResultOptional(),
+                () -> {
+                    SysSetGlobal global = new SysSetGlobal();
+                    global.setScope(SysSetGlobal.GLOBAL);
+                    global.setGlobalEnable(true);
+                    global.setVerifyAccount(false);
+                    return global;
+                });
     }
 
     @Override
-    public synchronized SysSetPersonal findDefaultPersonal(SysAccount account) {
-        Optional<SysSetPersonal> first = personalMapper.find("accountId", account.id)
-                .stream().findFirst();
-        if (first.isPresent()) return first.get();
-
-        SysSetPersonal personal = new SysSetPersonal();
-        personal.setAccountId(account.id);
-        personal.setLanguage(AccountDefines.DefaultLanguage);
-        personalMapper.persist(personal);
-        return personal;
+    public SysSetPersonal findDefaultPersonal(SysAccount account) {
+        return personalMapper.findOrCreate(
+                () -> personalMapper.findCacheable("accountId", account.id).firstResultOptional(),
+                () -> {
+                    SysSetPersonal personal = new SysSetPersonal();
+                    personal.setAccountId(account.id);
+                    personal.setLanguage(AccountDefines.DefaultLanguage);
+                    return personal;
+                });
     }
 
     @Override
-    public synchronized void savePersonal(SysSetPersonal personal) {
+    public void savePersonal(SysSetPersonal personal) {
         SysSetPersonal exist = getPersonal(personal.id);
+        personalMapper.checkVersion(personal.getVersion(), exist.getVersion(), exist);
         exist.setLanguage(personal.getLanguage());
         personalMapper.persist(exist);
     }
@@ -14,6 +14,7 @@
 package org.okstar.platform.system.work.resource;
 
 import io.quarkus.security.Authenticated;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
@@ -30,6 +31,7 @@ import org.okstar.platform.common.resource.OkCommonResource;
 
 @Authenticated
 @Path("/work/app")
+@RunOnVirtualThread
 public class SysWorkAppResource extends OkCommonResource {
 
     OkCloudApiClient client;
@@ -0,0 +1,3 @@
+-- 帐号绑定：按绑定值登录、按帐号列出绑定
+CREATE INDEX IF NOT EXISTS idx_sys_account_bind_value ON sys_account_bind (bind_type, bind_value);
+CREATE INDEX IF NOT EXISTS idx_sys_account_bind_account ON sys_account_bind (account_id);
@@ -0,0 +1,8 @@
+-- 乐观锁：已有数据的版本初始化为 0（列由 Hibernate 建表时添加）
+UPDATE sys_account SET version = 0 WHERE version IS NULL;
+UPDATE sys_set_global SET version = 0 WHERE version IS NULL;
+UPDATE sys_set_personal SET version = 0 WHERE version IS NULL;
+
+-- 全局设置：已有的第一行作为唯一的全局设置
+UPDATE sys_set_global SET scope = 'global'
+WHERE scope IS NULL AND id = (SELECT m FROM (SELECT MIN(id) AS m FROM sys_set_global) t);
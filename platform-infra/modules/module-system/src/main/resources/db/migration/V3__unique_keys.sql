@@ -0,0 +1,21 @@
+-- 唯一键：find-or-create 与乐观锁重试依赖唯一约束检测并发写入。
+-- 已有数据违反约束时 Hibernate（update）只记录日志并跳过，这里先删除重复数据（保留最早的一行）再建唯一索引
+
+-- 帐号绑定 (bind_type, bind_value)
+DELETE FROM sys_account_bind
+WHERE id IN (SELECT id FROM (SELECT b.id FROM sys_account_bind b
+                             JOIN sys_account_bind k ON k.bind_type = b.bind_type
+                                 AND k.bind_value = b.bind_value AND k.id < b.id) d);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_sys_account_bind_value ON sys_account_bind (bind_type, bind_value);
+
+-- 个人设置 (account_id)
+DELETE FROM sys_set_personal
+WHERE id IN (SELECT id FROM (SELECT p.id FROM sys_set_personal p
+                             JOIN sys_set_personal k ON k.account_id = p.account_id AND k.id < p.id) d);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_sys_set_personal_account ON sys_set_personal (account_id);
+
+-- 全局设置 (scope)
+DELETE FROM sys_set_global
+WHERE id IN (SELECT id FROM (SELECT g.id FROM sys_set_global g
+                             JOIN sys_set_global k ON k.scope = g.scope AND k.id < g.id) d);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_sys_set_global_scope ON sys_set_global (scope);
@@ -0,0 +1,48 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.system;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.okstar.platform.common.core.defined.AccountDefines;
+import org.okstar.platform.common.datasource.stat.OkExplain;
+import org.okstar.platform.system.account.service.SysAccountService;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * 主要查询在 Flyway 迁移后的库上走索引（执行真实的服务方法，检查生成的 SQL）
+ */
+@QuarkusTest
+class LookupIndexTest {
+
+    @Inject
+    DataSource dataSource;
+
+    @Inject
+    SysAccountService accountService;
+
+    @Test
+    void findByBind() throws SQLException {
+        OkExplain.assertIndexed(dataSource,
+                () -> accountService.findByBind0(AccountDefines.BindType.email, null, "explain@okstar.org"));
+    }
+
+    @Test
+    void listBind() throws SQLException {
+        OkExplain.assertIndexed(dataSource, () -> accountService.listBind0(1L));
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.system.authz;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.okstar.platform.common.core.annotation.PreAuthorize;
+
+@ApplicationScoped
+public class AuthorizedProbe {
+
+    @PreAuthorize(hasPermi = "sys:user:edit")
+    public String edit() {
+        return "edit";
+    }
+}
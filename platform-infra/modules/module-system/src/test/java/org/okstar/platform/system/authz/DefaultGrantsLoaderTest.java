@@ -0,0 +1,107 @@
+/*
+ * * Copyright (c) 2022 船山信息 chuanshaninfo.com
+ * OkStack is licensed under Mulan PubL v2.
+ * You can use this software according to the terms and conditions of the Mulan
+ * PubL v2. You may obtain a copy of Mulan PubL v2 at:
+ *          http://license.coscl.org.cn/MulanPubL-2.0
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PubL v2 for more details.
+ * /
+ */
+
+package org.okstar.platform.system.authz;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.okstar.platform.common.core.exception.NotPermissionException;
+import org.okstar.platform.common.redis.cache.OkNearCaches;
+import org.okstar.platform.common.security.authz.OkAuthorizer;
+import org.okstar.platform.common.security.authz.OkGrants;
+import org.okstar.platform.common.security.authz.OkPermissionDictionary;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static io.smallrye.common.constraint.Assert.assertTrue;
+
+/**
+ * 本模块没有 RBAC 数据，使用默认的 OkDenyAllGrantsLoader：只读取 RBAC 模块写入缓存的快照，未命中时拒绝且不写缓存
+ */
+@QuarkusTest
+class DefaultGrantsLoaderTest {
+
+    @Inject
+    OkAuthorizer authorizer;
+
+    @Inject
+    OkNearCaches nearCaches;
+
+    @Inject
+    AuthorizedProbe probe;
+
+    @AfterEach
+    void tearDown() {
+        nearCaches.get(OkAuthorizer.GRANTS_CACHE, OkGrants.class).evict(OkAuthorizer.GRANTS_KEY + "carol");
+        nearCaches.get(OkAuthorizer.DICTIONARY_CACHE, OkPermissionDictionary.class).evict(OkAuthorizer.DICTIONARY_KEY);
+    }
+
+    @Test
+    void missIsDeniedAndNotCached() {
+        assertTrue(!authorizer.hasPermi("alice", "sys:user:edit"));
+        assertTrue(nearCaches.get(OkAuthorizer.GRANTS_CACHE, OkGrants.class).get(OkAuthorizer.GRANTS_KEY + "alice") == null);
+        assertTrue(nearCaches.get(OkAuthorizer.DICTIONARY_CACHE, OkPermissionDictionary.class)
+                .get(OkAuthorizer.DICTIONARY_KEY) == null);
+    }
+
+    @Test
+    void cachedSnapshotIsUsed() {
+        OkPermissionDictionary dictionary = OkPermissionDictionary.of(Map.of(42L, "sys:user:edit", 7L, "sys:user:list"));
+        nearCaches.get(OkAuthorizer.DICTIONARY_CACHE, OkPermissionDictionary.class)
+                .put(OkAuthorizer.DICTIONARY_KEY, dictionary, 1, TimeUnit.MINUTES);
+        nearCaches.get(OkAuthorizer.GRANTS_CACHE, OkGrants.class).put(OkAuthorizer.GRANTS_KEY + "carol",
+                OkGrants.of(List.of(dictionary.resourceOrdinal(42L)), Set.of(), false, dictionary.getVersion()),
+                1, TimeUnit.MINUTES);
+
+        assertTrue(authorizer.hasPermi("carol", "sys:user:edit"));
+        assertTrue(!authorizer.hasPermi("carol", "sys:user:list"));
+    }
+
+    @Test
+    void cachedSnapshotOfOldDictionaryIsDenied() {
+        OkPermissionDictionary dictionary = OkPermissionDictionary.of(Map.of(42L, "sys:user:edit"));
+        nearCaches.get(OkAuthorizer.DICTIONARY_CACHE, OkPermissionDictionary.class)
+                .put(OkAuthorizer.DICTIONARY_KEY, dictionary, 1, TimeUnit.MINUTES);
+        //快照按旧版本的字典生成，重新计算（本模块拒绝）
+        nearCaches.get(OkAuthorizer.GRANTS_CACHE, OkGrants.class).put(OkAuthorizer.GRANTS_KEY + "carol",
+                OkGrants.of(List.of(0), Set.of(), false, dictionary.getVersion() + 1), 1, TimeUnit.MINUTES);
+
+        assertTrue(!authorizer.hasPermi("carol", "sys:user:edit"));
+    }
+
+    @Test
+    void interceptorOutsideHttp() {
+        //测试方法中请求上下文已激活，但没有 HTTP 请求
+        assertTrue(denied(() -> probe.edit()));
+        //其它线程没有请求上下文（定时任务、outbox 处理器）
+        assertTrue(denied(() -> CompletableFuture.supplyAsync(probe::edit).join()));
+    }
+
+    private static boolean denied(Runnable call) {
+        try {
+            call.run();
+            return false;
+        } catch (NotPermissionException e) {
+            return true;
+        } catch (CompletionException e) {
+            return e.getCause() instanceof NotPermissionException;
+        }
+    }
+}